@@ -159,6 +159,8 @@ public final class Platform {
 		public static final String FORMAT_OUTPUT = "formatOutput";
 		/** The interval in which the heartbeat is sent (seconds) */
 		public static final String HEART_BEAT_INTERVAL = "heartNeatInterval";
+		/** The number of heartbeats a node may miss before it is considered to be stale */
+		public static final String HEART_BEAT_MAX_MISSED = "heartBeatMaxMissed";
 		/** The folder used for caching images, within the {@link #APPLICATION_CACHE_FOLDER} */
 		public static final String IMAGE_CACHE_FOLDER = "cacheImageFolder";
 		/** The path to the ImageMagick executables */
@@ -194,6 +196,45 @@ public final class Platform {
 		public static final String MESSAGING_GROUP_ADDRESS = "messagingGroupAddress";
 		/** The port used for multicast messaging */
 		public static final String MESSAGING_GROUP_PORT = "messagingGroupPort";
+		/**
+		 * Set to {@code true} to send events with a registered {@link org.appng.api.messaging.EventCodec} in the
+		 * compact binary format. Also enables the heartbeats that only carry the changes of a node's state, otherwise
+		 * the full state is sent on every heartbeat. Defaults to {@code false}, enable only after all nodes of the
+		 * cluster have been upgraded to a version that supports binary events.
+		 */
+		public static final String MESSAGING_BINARY_EVENTS = "messagingBinaryEvents";
+		/**
+		 * The fully qualified names of additional classes that may be deserialized when receiving an event that has
+		 * been written using Java serialization, one per line (multiline value). An entry ending with {@code *} allows
+		 * all classes starting with the preceding prefix. Events, their nested classes, enums, primitives and the
+		 * classes carried by the platform's events (such as {@link String}, the boxed types, {@link java.util.HashMap},
+		 * {@link java.util.ArrayList} and {@link java.util.Date}) are always allowed.
+		 */
+		public static final String MESSAGING_SERIALIZATION_WHITELIST = "messagingSerializationWhitelist";
+		/**
+		 * The number of threads dispatching received events. Events of the same type are always handled by the same
+		 * thread, thus preserving their order.
+		 */
+		public static final String MESSAGING_DISPATCHER_THREADS = "messagingDispatcherThreads";
+		/** The maximum number of received events waiting to be dispatched, per dispatcher thread */
+		public static final String MESSAGING_DISPATCHER_QUEUE_SIZE = "messagingDispatcherQueueSize";
+		/**
+		 * The time in milliseconds to wait for a free slot in the dispatcher queue before a received event is dropped
+		 */
+		public static final String MESSAGING_DISPATCHER_OFFER_TIMEOUT = "messagingDispatcherOfferTimeout";
+		/**
+		 * The time in milliseconds a received event that can be coalesced is held back, waiting for equivalent events.
+		 * Set to 0 to disable coalescing.
+		 */
+		public static final String MESSAGING_COALESCING_WINDOW = "messagingCoalescingWindow";
+		/** The maximum size in bytes of an event received via multicast, larger events are dropped */
+		public static final String MESSAGING_MAX_EVENT_SIZE = "messagingMaxEventSize";
+		/**
+		 * The minimum size in bytes of an event's payload to be compressed when using binary events, 0 (the default)
+		 * disables compression. Enable only after all nodes of the cluster have been upgraded to a version that supports
+		 * compressed events.
+		 */
+		public static final String MESSAGING_COMPRESSION_THRESHOLD = "messagingCompressionThreshold";
 		/** The maximum size for file uploads in bytes */
 		public static final String MAX_UPLOAD_SIZE = "maxUploadSize";
 		/** Set to true to enable performance monitoring for the target XML */
@@ -224,8 +265,17 @@ public final class Platform {
 		public static final String SESSION_TIMEOUT = "sessionTimeout";
 		/** The shared secret used for digest authentication */
 		public static final String SHARED_SECRET = "sharedSecret";
-		/** The maximum random delay before reloading a site */
+		/**
+		 * The maximum random delay before reloading a site
+		 * 
+		 * @deprecated sites are reloaded in a rolling manner, see {@link #SITE_RELOAD_MAX_CONCURRENT}
+		 */
+		@Deprecated
 		public static final String SITE_RELOAD_MAX_RANDOM_DELAY = "siteReloadMaxRandomDelay";
+		/** The maximum number of cluster nodes reloading a site at the same time */
+		public static final String SITE_RELOAD_MAX_CONCURRENT = "siteReloadMaxConcurrent";
+		/** The maximum time in seconds a node waits for the other nodes before reloading a site */
+		public static final String SITE_RELOAD_MAX_WAIT = "siteReloadMaxWait";
 		/** The folder used for templates, relative to the webapp-root */
 		public static final String TEMPLATE_FOLDER = "templateFolder";
 		/** The path under which the resources of the active template are beeing served. */
@@ -309,6 +359,15 @@ public final class Platform {
 		/** The path to appNG's health monitoring */
 		public static final String MONITORING_PATH = "monitoringPath";
 
+		/** The maximum age (in days) of a platform event, {@code 0} means events are kept forever */
+		public static final String PLATFORM_EVENT_MAX_AGE = "platformEventMaxAge";
+
+		/** Set to {@code true} to roll up purged job execution records and platform events into daily aggregates */
+		public static final String RETENTION_AGGREGATE = "retentionAggregate";
+
+		/** The number of rows to delete per transaction when purging job execution records and platform events */
+		public static final String RETENTION_CHUNK_SIZE = "retentionChunkSize";
+
 	}
 
 	/**
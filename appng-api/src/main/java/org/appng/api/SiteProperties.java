@@ -156,6 +156,18 @@ public class SiteProperties {
 	public static final String JDBC_LOG_PERFORMANCE = "jdbcLogPerformance";
 	/** The maximum lifetime in milliseconds for a connection in the pool. */
 	public static final String JDBC_MAX_LIFETIME = "jdbcMaxLifetime";
+	/**
+	 * The read replicas to use for an application's read-only transactions (multiline). Format:
+	 * {@code <application>=<jdbc-url> [<jdbc-url>...]}
+	 */
+	public static final String JDBC_READ_REPLICAS = "jdbcReadReplicas";
+	/** The number of milliseconds to wait before retrying a read replica that failed to provide a connection. */
+	public static final String JDBC_REPLICA_RETRY_INTERVAL = "jdbcReplicaRetryInterval";
+	/**
+	 * The number of milliseconds after which an application's SQL statement is logged as being slow, {@code 0} to
+	 * disable.
+	 */
+	public static final String JDBC_SLOW_STATEMENT_THRESHOLD = "jdbcSlowStatementThreshold";
 	/**
 	 * The maximum number of milliseconds that the connection pool will wait for a connection to be validated as alive.
 	 */
@@ -164,10 +176,29 @@ public class SiteProperties {
 	public static final String INDEX_TIMEOUT = "indexTimeout";
 	/** the queue size used per directory when indexing the file system **/
 	public static final String INDEX_FILE_SYSTEM_QUEUE_SIZE = "indexFileSystemQueueSize";
+	/** The number of threads used for parsing files when indexing the file system */
+	public static final String INDEX_FILE_SYSTEM_THREADS = "indexFileSystemThreads";
+	/**
+	 * Set to {@code true} to update the index as soon as a file in one of the document directories changes (see
+	 * {@link #DOCUMENT_DIR})
+	 */
+	public static final String INDEX_WATCH_REPOSITORY = "indexWatchRepository";
+	/** The number of milliseconds to wait for further changes of a file before it is reindexed */
+	public static final String INDEX_WATCH_DELAY = "indexWatchDelay";
 	/** A list of comma-separated file-extensions (without leading dot) which are being indexed */
 	public static final String INDEX_FILETYPES = "indexFileTypes";
 	/** The queue size used for document indexing */
 	public static final String INDEX_QUEUE_SIZE = "indexQueueSize";
+	/** The maximum age (in days) of a job execution record, {@code 0} means records are kept forever, outdated records are purged once a day */
+	public static final String JOB_RECORD_MAX_AGE = "jobRecordMaxAge";
+	/** The maximum number of job execution records to keep per job, {@code 0} means unlimited, checked once a day */
+	public static final String JOB_RECORD_MAX_ROWS = "jobRecordMaxRows";
+	/**
+	 * Per-application overrides for {@link #JOB_RECORD_MAX_AGE} and {@link #JOB_RECORD_MAX_ROWS}. Contains one entry
+	 * per line (multiline value) in the format {@code <application>=<maxAge>;<maxRows>}. Supports blank lines and
+	 * comments (#).
+	 */
+	public static final String JOB_RECORD_RETENTION = "jobRecordRetention";
 	/** The name of the site. For convenience only, do not change! */
 	public static final String NAME = "name";
 	/**
@@ -181,6 +212,32 @@ public class SiteProperties {
 	public static final String SEARCH_CHUNK_SIZE = "searchChunkSize";
 	/** The maximum number of hits for the search-tag */
 	public static final String SEARCH_MAX_HITS = "searchMaxHits";
+	/**
+	 * The maximum number of search results cached per site by the search-tag, {@code 0} to disable. Cached results
+	 * are invalidated as soon as the index changes.
+	 */
+	public static final String SEARCH_CACHE_SIZE = "searchCacheSize";
+	/**
+	 * The number of threads used for processing the parts of the search-tag concurrently, {@code 0} (the default) to
+	 * process them sequentially
+	 */
+	public static final String SEARCH_PART_THREADS = "searchPartThreads";
+	/** The maximum number of milliseconds to wait for the parts of the search-tag */
+	public static final String SEARCH_PART_TIMEOUT = "searchPartTimeout";
+	/**
+	 * The {@link org.apache.lucene.store.Directory} implementation used for searching the index, one of {@code FS},
+	 * {@code MMAP}, {@code NIOFS} or {@code MEMORY} (for small indexes only)
+	 */
+	public static final String SEARCH_DIRECTORY = "searchDirectory";
+	/** A pipe-separated list of queries to execute whenever the index has been (re-)opened for searching */
+	public static final String SEARCH_WARMUP_QUERIES = "searchWarmupQueries";
+	/**
+	 * A comma-separated list of client IP addresses that receive a {@code Server-Timing} response header. A trailing
+	 * {@code *} matches any address starting with the given prefix.
+	 */
+	public static final String SERVER_TIMING_IPS = "serverTimingIps";
+	/** A comma-separated list of role names whose subjects receive a {@code Server-Timing} response header */
+	public static final String SERVER_TIMING_ROLES = "serverTimingRoles";
 	/** The output format to be used when actions/datasources are being called through service URLs */
 	public static final String SERVICE_OUTPUT_FORMAT = "serviceOutputFormat";
 	/** The output type to be used when actions/datasources are being called through service URLs */
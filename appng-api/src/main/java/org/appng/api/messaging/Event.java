@@ -33,6 +33,8 @@ import org.appng.api.model.Site;
  */
 public abstract class Event implements Serializable {
 
+	private static final long serialVersionUID = 7576027624999926649L;
+
 	private final String siteName;
 	private String nodeId;
 	private final boolean async;
@@ -73,6 +75,18 @@ public abstract class Event implements Serializable {
 		return async;
 	}
 
+	/**
+	 * Returns a key identifying the events that are equivalent to this one, meaning that performing only the latest of
+	 * several such events has the same effect as performing all of them. Equivalent events received within the
+	 * coalescing window are collapsed into a single one. The key must implement {@link Object#equals(Object)} and
+	 * {@link Object#hashCode()}.
+	 * 
+	 * @return the key, or {@code null} (the default) if this event must not be coalesced
+	 */
+	public Object getCoalescingKey() {
+		return null;
+	}
+
 	/**
 	 * Returns the node id of this event, i.e. the node id of the origin node. The node id is automatically set by the
 	 * {@link Serializer} when serializing the event.
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.api.messaging;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A compact, binary codec for a certain type of {@link Event}. Codecs are registered at the {@link EventCodecs}
+ * registry, either programmatically or by listing them in a {@code META-INF/services/org.appng.api.messaging.EventCodec}
+ * file. For {@link Event}s without a codec, the {@link Serializer} falls back to (whitelisted) Java serialization.
+ * <p>
+ * The {@link Serializer} takes care of writing the type id, the version, the site name and the node id of the event. A
+ * codec only writes the event specific payload. Since the payload is length-prefixed, a codec may append new fields
+ * in a later version without breaking nodes that still use the previous version.
+ * </p>
+ * 
+ * @param <E>
+ *            the type of the {@link Event}
+ * 
+ * @see EventCodecs
+ * @see Serializer
+ */
+public interface EventCodec<E extends Event> {
+
+	/**
+	 * Returns the unique id of the event type. Ids up to 999 are reserved for appNG itself, {@code 0} must not be
+	 * used.
+	 * 
+	 * @return the type id
+	 */
+	int getTypeId();
+
+	/**
+	 * Returns the current version of the payload written by {@link #write(DataOutput, Event)}
+	 * 
+	 * @return the version
+	 */
+	int getVersion();
+
+	/**
+	 * Returns the type of {@link Event} this codec is responsible for
+	 * 
+	 * @return the type
+	 */
+	Class<E> getType();
+
+	/**
+	 * Writes the payload of the given event
+	 * 
+	 * @param  out
+	 *                     the {@link DataOutput} to write to
+	 * @param  event
+	 *                     the event
+	 * 
+	 * @throws IOException
+	 *                     if an error occurs while writing
+	 */
+	void write(DataOutput out, E event) throws IOException;
+
+	/**
+	 * Reads an event from the given {@link DataInput}
+	 * 
+	 * @param  in
+	 *                     the {@link DataInput} to read from
+	 * @param  version
+	 *                     the version of the payload, as returned by {@link #getVersion()} of the sending node
+	 * @param  siteName
+	 *                     the name of the site the event was created for, may be {@code null}
+	 * 
+	 * @return             the event
+	 * 
+	 * @throws IOException
+	 *                     if an error occurs while reading
+	 */
+	E read(DataInput in, int version, String siteName) throws IOException;
+
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.api.messaging;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A registry for {@link EventCodec}s, mapping each codec to the {@link Event} type and to its type id. On first access
+ * of {@link #getDefault()}, all codecs listed in {@code META-INF/services/org.appng.api.messaging.EventCodec} are
+ * registered.
+ * 
+ * @see EventCodec
+ */
+@Slf4j
+public class EventCodecs {
+
+	private static volatile EventCodecs defaultInstance;
+
+	private final Map<Integer, EventCodec<?>> byId = new ConcurrentHashMap<>();
+	private final Map<Class<?>, EventCodec<?>> byType = new ConcurrentHashMap<>();
+
+	/**
+	 * Returns the default registry, containing all codecs found by the {@link ServiceLoader}
+	 * 
+	 * @return the default registry
+	 */
+	public static EventCodecs getDefault() {
+		if (null == defaultInstance) {
+			synchronized (EventCodecs.class) {
+				if (null == defaultInstance) {
+					EventCodecs codecs = new EventCodecs();
+					codecs.load(EventCodecs.class.getClassLoader());
+					defaultInstance = codecs;
+				}
+			}
+		}
+		return defaultInstance;
+	}
+
+	/**
+	 * Registers all codecs that can be found with the given {@link ClassLoader}
+	 * 
+	 * @param classLoader
+	 *                    the {@link ClassLoader} to use
+	 */
+	@SuppressWarnings("rawtypes")
+	public void load(ClassLoader classLoader) {
+		try {
+			for (EventCodec codec : ServiceLoader.load(EventCodec.class, classLoader)) {
+				register(codec);
+			}
+		} catch (ServiceConfigurationError | IllegalStateException e) {
+			LOGGER.error("error while loading event codecs", e);
+		}
+	}
+
+	/**
+	 * Registers a codec
+	 * 
+	 * @param  codec
+	 *                               the codec to register
+	 * 
+	 * @throws IllegalStateException
+	 *                               if the type id is invalid or if another codec with the same type id or for the
+	 *                               same type has already been registered
+	 */
+	public synchronized void register(EventCodec<?> codec) {
+		if (codec.getTypeId() <= Serializer.JAVA_SERIALIZED || codec.getTypeId() > 0xFFFF) {
+			throw new IllegalStateException(String.format("Can not register %s, invalid type id %s.",
+					codec.getClass().getName(), codec.getTypeId()));
+		}
+		EventCodec<?> existing = byId.get(codec.getTypeId());
+		if (null == existing) {
+			existing = byType.get(codec.getType());
+		}
+		if (null != existing && !existing.getClass().equals(codec.getClass())) {
+			throw new IllegalStateException(
+					String.format("Can not register %s (type id %s) for %s, %s is already registered.",
+							codec.getClass().getName(), codec.getTypeId(), codec.getType().getName(),
+							existing.getClass().getName()));
+		}
+		byId.put(codec.getTypeId(), codec);
+		byType.put(codec.getType(), codec);
+		LOGGER.debug("registered {} (type id {}, version {}) for {}", codec.getClass().getName(), codec.getTypeId(),
+				codec.getVersion(), codec.getType().getName());
+	}
+
+	/**
+	 * Removes the codec for the given type
+	 * 
+	 * @param type
+	 *             the type of the {@link Event}
+	 */
+	public synchronized void unregister(Class<? extends Event> type) {
+		EventCodec<?> codec = byType.remove(type);
+		if (null != codec) {
+			byId.remove(codec.getTypeId());
+		}
+	}
+
+	/**
+	 * Returns the codec for the given type of {@link Event}
+	 * 
+	 * @param  type
+	 *              the type of the {@link Event}
+	 * 
+	 * @return      the codec, or {@code null} if there is none
+	 */
+	@SuppressWarnings("unchecked")
+	public <E extends Event> EventCodec<E> forType(Class<E> type) {
+		return (EventCodec<E>) byType.get(type);
+	}
+
+	/**
+	 * Returns the codec with the given type id
+	 * 
+	 * @param  typeId
+	 *                the type id
+	 * 
+	 * @return        the codec, or {@code null} if there is none
+	 */
+	public EventCodec<?> forId(int typeId) {
+		return byId.get(typeId);
+	}
+
+	/**
+	 * Writes a string that may be {@code null}
+	 * 
+	 * @param  out
+	 *                     the {@link DataOutput} to write to
+	 * @param  value
+	 *                     the value
+	 * 
+	 * @throws IOException
+	 *                     if an error occurs while writing
+	 */
+	public static void writeString(DataOutput out, String value) throws IOException {
+		out.writeBoolean(null != value);
+		if (null != value) {
+			out.writeUTF(value);
+		}
+	}
+
+	/**
+	 * Reads a string that has been written with {@link #writeString(DataOutput, String)}
+	 * 
+	 * @param  in
+	 *                     the {@link DataInput} to read from
+	 * 
+	 * @return             the value, may be {@code null}
+	 * 
+	 * @throws IOException
+	 *                     if an error occurs while reading
+	 */
+	public static String readString(DataInput in) throws IOException {
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+
+}
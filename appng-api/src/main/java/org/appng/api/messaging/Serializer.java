@@ -15,13 +15,28 @@
  */
 package org.appng.api.messaging;
 
+import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectOutputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
+import org.apache.commons.lang3.StringUtils;
 import org.appng.api.Environment;
 import org.appng.api.Platform;
 import org.appng.api.Scope;
@@ -36,16 +51,69 @@ import lombok.extern.slf4j.Slf4j;
  * Utility class helping to serialize/deserialize {@link Event}s to an {@link OutputStream}/ from an {@link InputStream}
  * . Uses a {@link SiteAwareObjectInputStream} internally, so the right {@link SiteClassLoader} is applied when
  * deserializing.
+ * <p>
+ * If {@link Platform.Property#MESSAGING_BINARY_EVENTS} is enabled, events with a registered {@link EventCodec} are
+ * written in a compact binary format:
+ * 
+ * <pre>
+ * magic (1 byte) | format (1 byte) | type id (2 bytes) | version (1 byte) | site name | node id | length (4 bytes) | payload
+ * </pre>
+ * 
+ * All other events are written using Java serialization. When reading such an event, only {@link Event}s, their
+ * nested classes, enums, primitives, the classes carried by the platform's events and those listed in
+ * {@link Platform.Property#MESSAGING_SERIALIZATION_WHITELIST} are accepted. The whitelist is read once per
+ * serializer.
+ * </p>
+ * <p>
+ * Payloads reaching {@link Platform.Property#MESSAGING_COMPRESSION_THRESHOLD} bytes are compressed using
+ * {@link Deflater}, which is indicated by the highest bit of the format byte. In this case, the uncompressed length (4
+ * bytes) follows the length of the compressed payload. A compressed Java serialized event is written in the binary
+ * format, using the reserved type id {@code 0}.
+ * </p>
+ * <p>
+ * Binary events and compression are disabled by default, because nodes of a version without these formats can not read
+ * them. Enable them only after all nodes of the cluster have been upgraded. Events in either format are always read.
+ * </p>
  * 
  * @author Matthias Müller
  * 
  * @see Event
+ * @see EventCodec
  */
 @Slf4j
 public class Serializer {
 
+	/** The default value for {@link Platform.Property#MESSAGING_BINARY_EVENTS} */
+	public static final Boolean DEFAULT_BINARY_EVENTS = Boolean.FALSE;
+	/**
+	 * The classes carried by the platform's events that may always be deserialized, besides those configured by
+	 * {@link Platform.Property#MESSAGING_SERIALIZATION_WHITELIST} (the locks are part of the serialized form of a
+	 * {@link java.util.concurrent.ConcurrentHashMap})
+	 */
+	static final Set<String> ALLOWED_CLASSES = new HashSet<>(Arrays.asList(
+			"java.lang.String", "java.lang.Boolean", "java.lang.Byte", "java.lang.Character", "java.lang.Short",
+			"java.lang.Integer", "java.lang.Long", "java.lang.Float", "java.lang.Double", "java.lang.Number",
+			"java.util.ArrayList", "java.util.HashMap", "java.util.LinkedHashMap", "java.util.HashSet",
+			"java.util.Date", "java.util.Hashtable", "java.util.Properties", "java.util.concurrent.ConcurrentHashMap",
+			"java.util.concurrent.ConcurrentHashMap$Segment", "java.util.concurrent.locks.ReentrantLock",
+			"java.util.concurrent.locks.ReentrantLock$Sync", "java.util.concurrent.locks.ReentrantLock$NonfairSync",
+			"java.util.concurrent.locks.AbstractQueuedSynchronizer",
+			"java.util.concurrent.locks.AbstractOwnableSynchronizer"));
+	static final int MAGIC = 0xA9;
+	static final int FORMAT_VERSION = 1;
+	static final int FLAG_COMPRESSED = 0x80;
+	static final int JAVA_SERIALIZED = 0;
+	/** The default value for {@link Platform.Property#MESSAGING_COMPRESSION_THRESHOLD} */
+	public static final int DEFAULT_COMPRESSION_THRESHOLD = 0;
+	private static final int MAX_PAYLOAD_SIZE = 16 * 1024 * 1024;
+
 	private Environment environment;
 	private String nodeId;
+	private EventCodecs codecs = EventCodecs.getDefault();
+	private final AtomicLong compressedEvents = new AtomicLong();
+	private final AtomicLong uncompressedBytes = new AtomicLong();
+	private final AtomicLong compressedBytes = new AtomicLong();
+	private volatile Predicate<String> whitelist;
 
 	/**
 	 * Creates a new serializer
@@ -60,6 +128,21 @@ public class Serializer {
 		this.nodeId = nodeId;
 	}
 
+	/**
+	 * Creates a new serializer that is not bound to a {@link Sender} or {@link Receiver}, for example to measure the
+	 * size and the performance of the serialized events
+	 * 
+	 * @param  environment
+	 *                     the {@link Environment} to use
+	 * @param  nodeId
+	 *                     the node id to use
+	 * 
+	 * @return             the serializer
+	 */
+	public static Serializer create(Environment environment, String nodeId) {
+		return new Serializer(environment, nodeId);
+	}
+
 	/**
 	 * Serializes the given {@link Event} into the given {@link OutputStream}.
 	 * 
@@ -71,15 +154,114 @@ public class Serializer {
 	 * @throws IOException
 	 *                     if an error occurs during serialization
 	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
 	public void serialize(OutputStream out, Event event) throws IOException {
+		event.setNodeId(getNodeId());
+		boolean binaryEnabled = isBinaryEnabled();
+		int threshold = binaryEnabled ? getCompressionThreshold() : 0;
+		EventCodec<Event> codec = binaryEnabled ? (EventCodec) codecs.forType(event.getClass()) : null;
+		if (null != codec) {
+			ByteArrayOutputStream payload = new ByteArrayOutputStream(64);
+			codec.write(new DataOutputStream(payload), event);
+			byte[] bytes = payload.toByteArray();
+			writeBinary(out, codec.getTypeId(), codec.getVersion(), event, bytes, compress(bytes, threshold));
+		} else if (threshold > 0) {
+			ByteArrayOutputStream payload = new ByteArrayOutputStream(256);
+			writeSerialized(payload, event);
+			byte[] bytes = payload.toByteArray();
+			byte[] compressed = compress(bytes, threshold);
+			if (null == compressed) {
+				out.write(bytes);
+			} else {
+				writeBinary(out, JAVA_SERIALIZED, 0, event, bytes, compressed);
+			}
+		} else {
+			writeSerialized(out, event);
+		}
+	}
+
+	private void writeSerialized(OutputStream out, Event event) throws IOException {
 		try (ObjectOutputStream oos = new ObjectOutputStream(out)) {
-			event.setNodeId(getNodeId());
 			oos.writeObject(event.getSiteName());
 			oos.writeObject(event);
 			oos.flush();
 		}
 	}
 
+	private void writeBinary(OutputStream out, int typeId, int version, Event event, byte[] payload,
+			byte[] compressed) throws IOException {
+		DataOutputStream dos = new DataOutputStream(out);
+		dos.writeByte(MAGIC);
+		dos.writeByte(null == compressed ? FORMAT_VERSION : FORMAT_VERSION | FLAG_COMPRESSED);
+		dos.writeShort(typeId);
+		dos.writeByte(version);
+		EventCodecs.writeString(dos, event.getSiteName());
+		EventCodecs.writeString(dos, event.getNodeId());
+		if (null == compressed) {
+			dos.writeInt(payload.length);
+			dos.write(payload);
+		} else {
+			dos.writeInt(compressed.length);
+			dos.writeInt(payload.length);
+			dos.write(compressed);
+		}
+		dos.flush();
+	}
+
+	/**
+	 * Compresses the given payload, if it reaches the threshold
+	 * 
+	 * @return the compressed payload, or {@code null} if the payload is below the threshold or does not get smaller
+	 */
+	private byte[] compress(byte[] payload, int threshold) {
+		if (threshold <= 0 || payload.length < threshold) {
+			return null;
+		}
+		Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+		try {
+			deflater.setInput(payload);
+			deflater.finish();
+			ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length / 2);
+			byte[] buffer = new byte[4096];
+			while (!deflater.finished() && out.size() < payload.length) {
+				out.write(buffer, 0, deflater.deflate(buffer));
+			}
+			if (!deflater.finished() || out.size() >= payload.length) {
+				return null;
+			}
+			compressedEvents.incrementAndGet();
+			uncompressedBytes.addAndGet(payload.length);
+			compressedBytes.addAndGet(out.size());
+			return out.toByteArray();
+		} finally {
+			deflater.end();
+		}
+	}
+
+	private byte[] decompress(byte[] compressed, int length) throws IOException {
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(compressed);
+			byte[] payload = new byte[length];
+			int read = 0;
+			while (read < length && !inflater.finished()) {
+				int inflated = inflater.inflate(payload, read, length - read);
+				if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					break;
+				}
+				read += inflated;
+			}
+			if (read != length || !inflater.finished()) {
+				throw new IOException(String.format("invalid compressed payload, expected %d bytes", length));
+			}
+			return payload;
+		} catch (DataFormatException e) {
+			throw new IOException("invalid compressed payload", e);
+		} finally {
+			inflater.end();
+		}
+	}
+
 	/**
 	 * Deserializes an {@link Event} from the given data.
 	 * 
@@ -101,9 +283,88 @@ public class Serializer {
 	 * @return the {@link Event}, or {@code null} if no event could be deserialized from the given data
 	 */
 	public Event deserialize(InputStream data) {
+		InputStream in = data.markSupported() ? data : new BufferedInputStream(data);
+		try {
+			in.mark(1);
+			int first = in.read();
+			in.reset();
+			if (MAGIC == first) {
+				return readBinary(new DataInputStream(in));
+			}
+		} catch (IOException | RuntimeException e) {
+			LOGGER.error("error while deserializing event", e);
+			return null;
+		}
+		return readSerialized(in);
+	}
+
+	/**
+	 * Returns the type id of a serialized {@link Event} without deserializing it
+	 * 
+	 * @param  data
+	 *                the serialized {@link Event}
+	 * @param  length
+	 *                the number of valid bytes in {@code data}
+	 * 
+	 * @return        the type id of the {@link EventCodec}, {@code 0} for a compressed Java serialized event or
+	 *                {@code -1} if the event has been written using plain Java serialization
+	 */
+	public static int getTypeId(byte[] data, int length) {
+		if (length < 4 || MAGIC != (data[0] & 0xFF)) {
+			return -1;
+		}
+		return ((data[2] & 0xFF) << 8) | (data[3] & 0xFF);
+	}
+
+	private Event readBinary(DataInputStream in) throws IOException {
+		in.readUnsignedByte();
+		int format = in.readUnsignedByte();
+		boolean compressed = (format & FLAG_COMPRESSED) != 0;
+		format &= ~FLAG_COMPRESSED;
+		if (format > FORMAT_VERSION) {
+			LOGGER.warn("unsupported event format {}, supported is {}", format, FORMAT_VERSION);
+			return null;
+		}
+		int typeId = in.readUnsignedShort();
+		int version = in.readUnsignedByte();
+		String siteName = EventCodecs.readString(in);
+		String originNode = EventCodecs.readString(in);
+		int length = in.readInt();
+		if (length < 0 || length > MAX_PAYLOAD_SIZE) {
+			LOGGER.warn("invalid payload length {} for event type {}", length, typeId);
+			return null;
+		}
+		byte[] payload = new byte[length];
+		if (compressed) {
+			int uncompressedLength = in.readInt();
+			if (uncompressedLength < 0 || uncompressedLength > MAX_PAYLOAD_SIZE) {
+				LOGGER.warn("invalid uncompressed length {} for event type {}", uncompressedLength, typeId);
+				return null;
+			}
+			in.readFully(payload);
+			payload = decompress(payload, uncompressedLength);
+		} else {
+			in.readFully(payload);
+		}
+		if (JAVA_SERIALIZED == typeId) {
+			return readSerialized(new ByteArrayInputStream(payload));
+		}
+		EventCodec<?> codec = codecs.forId(typeId);
+		if (null == codec) {
+			LOGGER.warn("no codec registered for event type {} (site: {}, node: {})", typeId, siteName, originNode);
+			return null;
+		}
+		LOGGER.debug("deserializing {} (version {}) for site {}", codec.getType().getName(), version, siteName);
+		Event event = codec.read(new DataInputStream(new ByteArrayInputStream(payload)), version, siteName);
+		event.setNodeId(originNode);
+		return event;
+	}
+
+	private Event readSerialized(InputStream data) {
 		ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
 		Event event = null;
 		try (SiteAwareObjectInputStream oos = new SiteAwareObjectInputStream(data, environment)) {
+			oos.setClassFilter(this::isWhitelisted);
 			String siteName = (String) oos.readObject();
 			if (null != siteName) {
 				LOGGER.debug("deserializing event for site {}", siteName);
@@ -126,6 +387,109 @@ public class Serializer {
 		return event;
 	}
 
+	/**
+	 * Checks whether the given class is allowed to be deserialized when reading a Java serialized {@link Event}
+	 * 
+	 * @param  clazz
+	 *               the class to check
+	 * 
+	 * @return       {@code true} if the class is allowed
+	 * 
+	 * @see          Platform.Property#MESSAGING_SERIALIZATION_WHITELIST
+	 */
+	public boolean isWhitelisted(Class<?> clazz) {
+		Class<?> type = clazz;
+		while (type.isArray()) {
+			type = type.getComponentType();
+		}
+		if (type.isPrimitive() || Enum.class.isAssignableFrom(type)) {
+			return true;
+		}
+		for (Class<?> outer = type; null != outer; outer = outer.getEnclosingClass()) {
+			if (Event.class.isAssignableFrom(outer)) {
+				return true;
+			}
+		}
+		String name = type.getName();
+		boolean allowed = getWhitelist().test(name);
+		if (!allowed) {
+			LOGGER.warn("rejected deserialization of {}", name);
+		}
+		return allowed;
+	}
+
+	private Predicate<String> getWhitelist() {
+		Predicate<String> current = whitelist;
+		if (null == current) {
+			Properties platformConfig = getPlatformConfig();
+			String value = null == platformConfig ? null
+					: platformConfig.getClob(Platform.Property.MESSAGING_SERIALIZATION_WHITELIST);
+			Set<String> classNames = new HashSet<>(ALLOWED_CLASSES);
+			List<String> prefixes = new ArrayList<>();
+			for (String entry : StringUtils.split(StringUtils.defaultString(value), ",\r\n")) {
+				String name = entry.trim();
+				if (name.endsWith("*")) {
+					prefixes.add(name.substring(0, name.length() - 1));
+				} else if (!name.isEmpty()) {
+					classNames.add(name);
+				}
+			}
+			current = name -> classNames.contains(name) || prefixes.stream().anyMatch(name::startsWith);
+			whitelist = current;
+		}
+		return current;
+	}
+
+	private int getCompressionThreshold() {
+		Properties platformConfig = getPlatformConfig();
+		Integer threshold = null == platformConfig ? null
+				: platformConfig.getInteger(Platform.Property.MESSAGING_COMPRESSION_THRESHOLD,
+						DEFAULT_COMPRESSION_THRESHOLD);
+		return null == threshold ? DEFAULT_COMPRESSION_THRESHOLD : threshold;
+	}
+
+	/**
+	 * Returns the number of events that have been compressed by this serializer
+	 * 
+	 * @return the number of compressed events
+	 */
+	public long getCompressedEvents() {
+		return compressedEvents.get();
+	}
+
+	/**
+	 * Returns the total size of the compressed payloads before compression
+	 * 
+	 * @return the size in bytes
+	 */
+	public long getUncompressedBytes() {
+		return uncompressedBytes.get();
+	}
+
+	/**
+	 * Returns the total size of the compressed payloads after compression
+	 * 
+	 * @return the size in bytes
+	 */
+	public long getCompressedBytes() {
+		return compressedBytes.get();
+	}
+
+	private boolean isBinaryEnabled() {
+		Properties platformConfig = getPlatformConfig();
+		return null != platformConfig && Boolean.TRUE
+				.equals(platformConfig.getBoolean(Platform.Property.MESSAGING_BINARY_EVENTS, DEFAULT_BINARY_EVENTS));
+	}
+
+	/**
+	 * Returns the {@link EventCodecs} used by this serializer
+	 * 
+	 * @return the {@link EventCodecs}
+	 */
+	public EventCodecs getCodecs() {
+		return codecs;
+	}
+
 	/**
 	 * Returns the {@link Site} with the given name
 	 * 
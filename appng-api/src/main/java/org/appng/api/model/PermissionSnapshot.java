@@ -0,0 +1,95 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.api.model;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable snapshot of the permissions owned by a {@link Subject}, grouped by the name of the {@link Application}
+ * they belong to. Once created, checking for a permission is done in constant time, without traversing the
+ * {@link Group}s, {@link Role}s and {@link Permission}s of the {@link Subject}.
+ * 
+ * @see Subject#getPermissionSnapshot()
+ */
+public final class PermissionSnapshot implements Serializable {
+
+	private final Map<String, Set<String>> permissions;
+
+	private PermissionSnapshot(Map<String, Set<String>> permissions) {
+		this.permissions = permissions;
+	}
+
+	/**
+	 * Creates a new {@link PermissionSnapshot} for the given {@link Subject}. Therefore, the {@link Group}s of the
+	 * {@link Subject} with their {@link Role}s and {@link Permission}s need to be fully initialized.
+	 * 
+	 * @param  subject
+	 *                 the {@link Subject}
+	 * 
+	 * @return         the {@link PermissionSnapshot}
+	 */
+	public static PermissionSnapshot of(Subject subject) {
+		Map<String, Set<String>> permissions = new HashMap<>();
+		List<Group> groups = subject.getGroups();
+		if (null != groups) {
+			for (Group group : groups) {
+				for (Role role : group.getRoles()) {
+					Application application = role.getApplication();
+					if (null != application) {
+						Set<String> applicationPermissions = permissions.computeIfAbsent(application.getName(),
+								k -> new HashSet<>());
+						role.getPermissions().forEach(p -> applicationPermissions.add(p.getName()));
+					}
+				}
+			}
+		}
+		return new PermissionSnapshot(permissions);
+	}
+
+	/**
+	 * Checks whether the permission with the given name is present for the given {@link Application}.
+	 * 
+	 * @param  application
+	 *                     the name of the {@link Application}
+	 * @param  permission
+	 *                     the name of the {@link Permission}
+	 * 
+	 * @return             {@code true} if the permission is present, {@code false} otherwise
+	 */
+	public boolean hasPermission(String application, String permission) {
+		Set<String> applicationPermissions = permissions.get(application);
+		return null != applicationPermissions && applicationPermissions.contains(permission);
+	}
+
+	/**
+	 * Returns the names of all permissions present for the given {@link Application}.
+	 * 
+	 * @param  application
+	 *                     the name of the {@link Application}
+	 * 
+	 * @return             an unmodifiable {@link Set} containing the names of the permissions
+	 */
+	public Set<String> getPermissions(String application) {
+		return Collections.unmodifiableSet(permissions.getOrDefault(application, Collections.emptySet()));
+	}
+
+}
@@ -123,4 +123,13 @@ public interface Subject extends Named<Integer>, AuthSubject {
 		return 0;
 	}
 
+	/**
+	 * Returns a {@link PermissionSnapshot} for this subject, if available.
+	 * 
+	 * @return the {@link PermissionSnapshot}, or {@code null} if this subject does not provide one
+	 */
+	default PermissionSnapshot getPermissionSnapshot() {
+		return null;
+	}
+
 }
@@ -28,6 +28,7 @@ public class DocumentProducer extends Producer<DocumentEvent> {
 
 	private final Class<? extends Analyzer> analyzerClass;
 	private String name;
+	private Runnable afterCommit;
 
 	/**
 	 * Creates a new {@link DocumentProducer}
@@ -70,4 +71,24 @@ public class DocumentProducer extends Producer<DocumentEvent> {
 		return name;
 	}
 
+	/**
+	 * Returns the callback to run after the {@link DocumentEvent}s of this producer have been committed to the index.
+	 * 
+	 * @return the callback, may be {@code null}
+	 */
+	public Runnable getAfterCommit() {
+		return afterCommit;
+	}
+
+	/**
+	 * Sets a callback to run by the consumer after the {@link DocumentEvent}s of this producer have been committed to
+	 * the index. The callback is not run if the index could not be committed.
+	 * 
+	 * @param afterCommit
+	 *                    the callback
+	 */
+	public void setAfterCommit(Runnable afterCommit) {
+		this.afterCommit = afterCommit;
+	}
+
 }
@@ -23,6 +23,7 @@ import org.appng.api.PermissionOwner;
 import org.appng.api.PermissionProcessor;
 import org.appng.api.model.Application;
 import org.appng.api.model.Group;
+import org.appng.api.model.PermissionSnapshot;
 import org.appng.api.model.Role;
 import org.appng.api.model.Site;
 import org.appng.api.model.Subject;
@@ -127,6 +128,14 @@ public class DefaultPermissionProcessor implements PermissionProcessor {
 			LOGGER.debug("no subject given, so permission '{}' is not present", permission.getRef());
 			return false;
 		}
+		PermissionSnapshot snapshot = subject.getPermissionSnapshot();
+		if (null != snapshot) {
+			boolean hasPermission = null != application
+					&& snapshot.hasPermission(application.getName(), permission.getRef());
+			LOGGER.debug("permission '{}' for subject '{}' is {}present", permission.getRef(), subject.getName(),
+					hasPermission ? "" : "not ");
+			return hasPermission;
+		}
 		List<Group> groups = subject.getGroups();
 		LOGGER.debug("checking permission '{}' for subject '{}'", permission.getRef(), subject.getName());
 		if (groups == null || groups.size() == 0) {
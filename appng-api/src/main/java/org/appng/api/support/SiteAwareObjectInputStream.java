@@ -17,9 +17,11 @@ package org.appng.api.support;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InvalidClassException;
 import java.io.ObjectInputStream;
 import java.io.ObjectStreamClass;
 import java.util.Map;
+import java.util.function.Predicate;
 
 import javax.servlet.ServletContext;
 
@@ -41,6 +43,7 @@ public class SiteAwareObjectInputStream extends ObjectInputStream {
 
 	private final Environment environment;
 	private String site;
+	private Predicate<Class<?>> classFilter;
 
 	/**
 	 * Creates an {@link SiteAwareObjectInputStream}, retrieving informations about the active
@@ -65,7 +68,19 @@ public class SiteAwareObjectInputStream extends ObjectInputStream {
 
 	@Override
 	protected Class<?> resolveClass(ObjectStreamClass objectStreamClass) throws IOException, ClassNotFoundException {
-		return Class.forName(objectStreamClass.getName(), false, getSiteClassloader(site));
+		Class<?> clazz = Class.forName(objectStreamClass.getName(), false, getSiteClassloader(site));
+		if (null != classFilter && !classFilter.test(clazz)) {
+			throw new InvalidClassException(clazz.getName(), "class is not allowed to be deserialized");
+		}
+		return clazz;
+	}
+
+	@Override
+	protected Class<?> resolveProxyClass(String[] interfaces) throws IOException, ClassNotFoundException {
+		if (null != classFilter) {
+			throw new InvalidClassException(String.join(",", interfaces), "proxies are not allowed to be deserialized");
+		}
+		return super.resolveProxyClass(interfaces);
 	}
 
 	/**
@@ -94,4 +109,15 @@ public class SiteAwareObjectInputStream extends ObjectInputStream {
 		this.site = site;
 	}
 
+	/**
+	 * Sets a filter that decides whether a class is allowed to be deserialized. If a filter is set, dynamic proxies
+	 * are rejected.
+	 * 
+	 * @param classFilter
+	 *                    the filter, {@code null} to allow all classes
+	 */
+	public void setClassFilter(Predicate<Class<?>> classFilter) {
+		this.classFilter = classFilter;
+	}
+
 }
\ No newline at end of file
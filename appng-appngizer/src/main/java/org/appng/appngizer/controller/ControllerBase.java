@@ -15,6 +15,8 @@
  */
 package org.appng.appngizer.controller;
 
+import java.io.File;
+import java.io.IOException;
 import java.net.URI;
 import java.util.Iterator;
 
@@ -24,9 +26,15 @@ import javax.servlet.http.HttpSession;
 import javax.validation.ConstraintViolation;
 import javax.validation.ConstraintViolationException;
 
+import org.apache.commons.io.FileUtils;
 import org.appng.api.BusinessException;
+import org.appng.api.Environment;
 import org.appng.api.Platform;
+import org.appng.api.SiteProperties;
+import org.appng.api.messaging.Messaging;
+import org.appng.api.messaging.Sender;
 import org.appng.api.model.Properties;
+import org.appng.api.support.environment.DefaultEnvironment;
 import org.appng.appngizer.model.xml.Error;
 import org.appng.appngizer.model.xml.Errors;
 import org.appng.appngizer.model.xml.Nameable;
@@ -193,6 +201,47 @@ public abstract class ControllerBase {
 		return new ResponseEntity<T>(entity, status);
 	}
 
+	/**
+	 * Requests a reload of the given site, either by sending a {@link SiteController.ReloadSiteFromAppNGizer} event (if
+	 * messaging is active) or by creating a {@code .reload} marker file (if supported by the site).
+	 * 
+	 * @param  site
+	 *                           the site to reload
+	 * 
+	 * @return                   {@code true} if the reload has been requested, {@code false} if the site can not be
+	 *                           reloaded from here
+	 * 
+	 * @throws BusinessException
+	 *                           if the reload marker could not be created
+	 */
+	boolean requestReload(org.appng.api.model.Site site) throws BusinessException {
+		Sender sender = getSender(DefaultEnvironment.getGlobal());
+		if (null != sender) {
+			logger().debug("messaging is active, sending ReloadSiteEvent");
+			sender.send(new SiteController.ReloadSiteFromAppNGizer(site.getName()));
+		} else if (supportsReloadFile(site)) {
+			String rootDir = site.getProperties().getString(SiteProperties.SITE_ROOT_DIR);
+			File reloadFile = new File(rootDir, ".reload");
+			try {
+				logger().debug("Created reload marker {}", reloadFile.getAbsolutePath());
+				FileUtils.touch(reloadFile);
+			} catch (IOException e) {
+				throw new BusinessException(e);
+			}
+		} else {
+			return false;
+		}
+		return true;
+	}
+
+	Sender getSender(Environment env) {
+		return Messaging.getMessageSender(env);
+	}
+
+	boolean supportsReloadFile(org.appng.api.model.Site site) {
+		return Boolean.TRUE.equals(site.getProperties().getBoolean(SiteProperties.SUPPORT_RELOAD_FILE));
+	}
+
 	protected MigrationInfo getDatabaseStatus() {
 		DatabaseConnection platformConnection = databaseService.getPlatformConnection(configurer.getProps());
 		return platformConnection.getMigrationInfoService().current();
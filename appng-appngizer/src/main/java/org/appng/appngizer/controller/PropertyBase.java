@@ -16,12 +16,18 @@
 package org.appng.appngizer.controller;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 
+import org.appng.api.BusinessException;
 import org.appng.appngizer.model.Properties;
 import org.appng.appngizer.model.Property;
 import org.appng.core.domain.PropertyImpl;
+import org.appng.core.service.CoreService.PropertyChange;
 import org.appng.core.service.PropertySupport;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
 abstract class PropertyBase extends ControllerBase {
@@ -78,6 +84,54 @@ abstract class PropertyBase extends ControllerBase {
 		return ok(fromDomain);
 	}
 
+	ResponseEntity<Properties> saveProperties(org.appng.appngizer.model.xml.Properties properties,
+			org.appng.api.model.Site site, org.appng.api.model.Application app, boolean reload)
+			throws BusinessException {
+		List<PropertyImpl> propertiesToSave = new ArrayList<>();
+		List<String> propertiesToDelete = new ArrayList<>();
+		for (org.appng.appngizer.model.xml.Property property : properties.getProperty()) {
+			if (Boolean.TRUE.equals(property.isDelete())) {
+				propertiesToDelete.add(property.getName());
+			} else {
+				propertiesToSave.add(Property.toDomain(property));
+			}
+		}
+		Map<String, PropertyChange> changes = getCoreService().saveProperties(site, app, propertiesToSave,
+				propertiesToDelete);
+
+		Map<String, PropertyImpl> saved = new HashMap<>();
+		getCoreService().getPropertiesList(site, app).forEach(p -> saved.put(p.getName(), p));
+		String prefix = PropertySupport.getPropertyPrefix(site, app);
+		List<Property> propsList = new ArrayList<>();
+		for (Entry<String, PropertyChange> change : changes.entrySet()) {
+			Property prop;
+			HttpStatus status;
+			switch (change.getValue()) {
+			case CREATED:
+			case UPDATED:
+				status = PropertyChange.CREATED.equals(change.getValue()) ? HttpStatus.CREATED : HttpStatus.OK;
+				prop = Property.fromDomain(saved.get(prefix + change.getKey()), site, app);
+				prop.applyUriComponents(getUriBuilder());
+				break;
+			default:
+				status = PropertyChange.DELETED.equals(change.getValue()) ? HttpStatus.OK : HttpStatus.NOT_FOUND;
+				prop = new Property();
+				prop.setName(change.getKey());
+				prop.setDelete(true);
+			}
+			prop.setStatusCode(status.value());
+			prop.setStatusMessage(status.getReasonPhrase());
+			propsList.add(prop);
+		}
+
+		if (reload && null != site && !requestReload(site)) {
+			logger().info("site {} can not be reloaded from appNGizer", site.getName());
+		}
+		String siteName = null == site ? null : site.getName();
+		String applicationName = null == app ? null : app.getName();
+		return ok(new Properties(propsList, siteName, applicationName));
+	}
+
 	PropertyImpl getProperty(String property, org.appng.api.model.Site site,
 			org.appng.api.model.Application application) {
 		String prefix = PropertySupport.getPropertyPrefix(site, application);
@@ -15,6 +15,7 @@
  */
 package org.appng.appngizer.controller;
 
+import org.appng.api.BusinessException;
 import org.appng.api.model.Application;
 import org.appng.appngizer.model.Properties;
 import org.appng.appngizer.model.Property;
@@ -23,10 +24,12 @@ import org.slf4j.Logger;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import lombok.extern.slf4j.Slf4j;
@@ -49,6 +52,21 @@ public class SiteApplicationPropertyController extends PropertyBase {
 		return getProperties(siteByName, appByName);
 	}
 
+	@PatchMapping(value = "/site/{site}/application/{app}/properties")
+	public ResponseEntity<Properties> saveProperties(@PathVariable("site") String site,
+			@PathVariable("app") String app, @RequestParam(name = "reload", required = false) boolean reload,
+			@RequestBody org.appng.appngizer.model.xml.Properties properties) throws BusinessException {
+		SiteImpl siteByName = getSiteByName(site);
+		if (null == siteByName) {
+			return notFound();
+		}
+		Application appByName = siteByName.getApplication(app);
+		if (null == appByName) {
+			return notFound();
+		}
+		return saveProperties(properties, siteByName, appByName, reload);
+	}
+
 	@GetMapping(value = "/site/{site}/application/{app}/property/{prop}")
 	public ResponseEntity<Property> getProperty(@PathVariable("site") String site, @PathVariable("app") String app,
 			@PathVariable("prop") String prop) {
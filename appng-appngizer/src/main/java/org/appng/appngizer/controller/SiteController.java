@@ -15,21 +15,15 @@
  */
 package org.appng.appngizer.controller;
 
-import java.io.File;
-import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 
 import javax.servlet.http.HttpServletRequest;
-import org.apache.commons.io.FileUtils;
 import org.appng.api.BusinessException;
 import org.appng.api.Environment;
 import org.appng.api.RequestUtil;
-import org.appng.api.SiteProperties;
-import org.appng.api.messaging.Messaging;
-import org.appng.api.messaging.Sender;
 import org.appng.api.model.Site.SiteState;
 import org.appng.api.support.FieldProcessorImpl;
 import org.appng.api.support.environment.DefaultEnvironment;
@@ -104,33 +98,12 @@ public class SiteController extends ControllerBase {
 		if (null == site) {
 			return notFound();
 		}
-		Sender sender = getSender(DefaultEnvironment.getGlobal());
-		if (null != sender) {
-			LOGGER.debug("messaging is active, sending ReloadSiteEvent");
-			sender.send(new ReloadSiteFromAppNGizer(name));
-		} else if (supportsReloadFile(site)) {
-			String rootDir = site.getProperties().getString(SiteProperties.SITE_ROOT_DIR);
-			File reloadFile = new File(rootDir, ".reload");
-			try {
-				LOGGER.debug("Created reload marker {}", reloadFile.getAbsolutePath());
-				FileUtils.touch(reloadFile);
-			} catch (IOException e) {
-				throw new BusinessException(e);
-			}
-		} else {
+		if (!requestReload(site)) {
 			return reply(HttpStatus.METHOD_NOT_ALLOWED);
 		}
 		return ok(null);
 	}
 
-	private Sender getSender(Environment env) {
-		return Messaging.getMessageSender(env);
-	}
-
-	private boolean supportsReloadFile(org.appng.api.model.Site site) {
-		return Boolean.TRUE.equals(site.getProperties().getBoolean(SiteProperties.SUPPORT_RELOAD_FILE));
-	}
-
 	@PostMapping(value = "/site")
 	public ResponseEntity<Site> createSite(@RequestBody org.appng.appngizer.model.xml.Site site,
 			HttpServletRequest request) throws ConflictException {
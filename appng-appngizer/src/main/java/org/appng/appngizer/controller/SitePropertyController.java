@@ -18,6 +18,7 @@ package org.appng.appngizer.controller;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.appng.api.BusinessException;
 import org.appng.appngizer.model.Properties;
 import org.appng.appngizer.model.Property;
 import org.appng.core.domain.SiteImpl;
@@ -26,10 +27,12 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import lombok.extern.slf4j.Slf4j;
@@ -107,6 +110,17 @@ public class SitePropertyController extends PropertyBase {
 		return new ResponseEntity<Properties>(new Properties(propsList, site, null), HttpStatus.OK);
 	}
 
+	@PatchMapping(value = "/site/{site}/properties")
+	public ResponseEntity<Properties> saveProperties(@PathVariable("site") String site,
+			@RequestParam(name = "reload", required = false) boolean reload,
+			@RequestBody org.appng.appngizer.model.xml.Properties properties) throws BusinessException {
+		SiteImpl siteByName = getSiteByName(site);
+		if (null == siteByName) {
+			return notFound();
+		}
+		return saveProperties(properties, siteByName, null, reload);
+	}
+
 	@GetMapping(value = "/site/{site}/property/{prop}")
 	public ResponseEntity<Property> getProperty(@PathVariable("site") String site, @PathVariable("prop") String prop) {
 		SiteImpl siteByName = getSiteByName(site);
@@ -167,6 +167,12 @@ public abstract class ControllerTest {
 		return sendAndVerify(post, content, status, controlSource);
 	}
 
+	protected MockHttpServletResponse patchAndVerify(String uri, String controlSource, Object content,
+			HttpStatus status) throws Exception {
+		MockHttpServletRequestBuilder patch = MockMvcRequestBuilders.patch(new URI(uri));
+		return sendAndVerify(patch, content, status, controlSource);
+	}
+
 	protected MockHttpServletResponse getAndVerify(String uri, String controlSource, HttpStatus status)
 			throws Exception {
 		MockHttpServletRequestBuilder get = MockMvcRequestBuilders.get(new URI(uri));
@@ -86,6 +86,24 @@ public class SitePropertyControllerTest extends ControllerTest {
 		putAndVerify("/site/localhost/properties", "xml/site-properties-update.xml", properties, HttpStatus.OK);
 
 		deleteAndVerify("/site/localhost/properties", "xml/site-properties-delete.xml", properties, HttpStatus.OK);
+
+		Properties bulk = new Properties();
+		Property assetsDir = new Property();
+		assetsDir.setName(SiteProperties.ASSETS_DIR);
+		assetsDir.setValue("43");
+		bulk.getProperty().add(assetsDir);
+		Property bulkProp = new Property();
+		bulkProp.setName("bulkProp");
+		bulkProp.setDefaultValue("1");
+		bulk.getProperty().add(bulkProp);
+		Property deleted = new Property();
+		deleted.setName(xss.getName());
+		deleted.setDelete(true);
+		bulk.getProperty().add(deleted);
+		notExisting.setDelete(true);
+		bulk.getProperty().add(notExisting);
+		patchAndVerify("/site/localhost/properties?reload=true", "xml/site-properties-patch.xml", bulk,
+				HttpStatus.OK);
 	}
 
 }
\ No newline at end of file
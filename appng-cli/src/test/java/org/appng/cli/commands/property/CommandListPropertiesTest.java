@@ -36,9 +36,9 @@ import org.junit.Test;
  */
 public class CommandListPropertiesTest extends AbstractCommandTest {
 
-	private static final int NUM_SITE_PROPERTIES = 72;
-	private static final int NUM_PLATFORM_PROPERTIES = 55;
-	private static final int PROP_ROOT_PATH_IDX = 37;
+	private static final int NUM_SITE_PROPERTIES = 88;
+	private static final int NUM_PLATFORM_PROPERTIES = 67;
+	private static final int PROP_ROOT_PATH_IDX = 47;
 
 	private ListProperties commandListProperties = new ListProperties();
 
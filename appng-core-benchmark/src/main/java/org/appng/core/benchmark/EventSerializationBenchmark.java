@@ -0,0 +1,134 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.core.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.appng.api.Environment;
+import org.appng.api.Platform;
+import org.appng.api.messaging.Event;
+import org.appng.api.messaging.Serializer;
+import org.appng.api.model.Properties;
+import org.appng.api.model.Site;
+import org.appng.core.controller.messaging.NodeEvent;
+import org.appng.core.controller.messaging.ReloadSiteEvent;
+import org.appng.core.controller.messaging.SiteStateEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Measures the throughput of serializing and deserializing cluster events, comparing the binary format of the
+ * registered codecs with Java serialization. The size of the serialized events is logged during setup.
+ */
+@Slf4j
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventSerializationBenchmark {
+
+	private static final String SITE = "benchmark";
+	private static final String NODE = "node1";
+
+	/** The format, either {@code BINARY} or {@code JAVA} */
+	@Param({ "BINARY", "JAVA" })
+	public String format;
+
+	/** The event to serialize */
+	@Param({ "ReloadSiteEvent", "SiteStateEvent", "NodeEvent" })
+	public String event;
+
+	private Serializer serializer;
+	private Event instance;
+	private byte[] data;
+
+	@Setup
+	public void setup() throws IOException {
+		Map<String, Object> platform = new HashMap<>();
+		platform.put(Platform.Environment.SITES, new HashMap<String, Site>());
+		platform.put(Platform.Environment.PLATFORM_CONFIG, platformConfig("BINARY".equals(format)));
+		Environment env = environment(platform);
+		serializer = Serializer.create(env, NODE);
+		switch (event) {
+		case "SiteStateEvent":
+			instance = new SiteStateEvent(SITE, Site.SiteState.STARTED, NODE);
+			break;
+		case "NodeEvent":
+			instance = new NodeEvent(env, SITE, NODE);
+			break;
+		default:
+			instance = new ReloadSiteEvent(SITE);
+		}
+		data = serialize();
+		LOGGER.info("{} ({}): {} bytes", event, format, data.length);
+	}
+
+	@Benchmark
+	public byte[] serialize() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+		serializer.serialize(out, instance);
+		return out.toByteArray();
+	}
+
+	@Benchmark
+	public Event deserialize() {
+		return serializer.deserialize(data);
+	}
+
+	private static Properties platformConfig(boolean binary) {
+		return (Properties) Proxy.newProxyInstance(Properties.class.getClassLoader(),
+				new Class<?>[] { Properties.class }, (proxy, method, args) -> {
+					if ("getBoolean".equals(method.getName())
+							&& Platform.Property.MESSAGING_BINARY_EVENTS.equals(args[0])) {
+						return binary;
+					}
+					return null;
+				});
+	}
+
+	private static Environment environment(Map<String, Object> platform) {
+		return (Environment) Proxy.newProxyInstance(Environment.class.getClassLoader(),
+				new Class<?>[] { Environment.class }, (proxy, method, args) -> {
+					switch (method.getName()) {
+					case "getAttribute":
+						return platform.get(args[1]);
+					case "setAttribute":
+						return platform.put((String) args[1], args[2]);
+					default:
+						return null;
+					}
+				});
+	}
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.core.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.appng.core.controller.filter.RequestMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.prometheus.client.CollectorRegistry;
+
+/**
+ * Measures the time and the memory needed to record the duration of a request with {@link RequestMetrics}. Recording a
+ * request must not allocate any memory, which can be verified with the GC profiler
+ * ({@code -Dbenchmark.profilers=gc}): {@code gc.alloc.rate.norm} must be (close to) zero.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestMetricsBenchmark {
+
+	private static final String APPLICATION = "application";
+	private static final String PATH = "/services/{site}/{application}/datasource/{format}/{id}";
+	private static final String[] METHODS = { "GET", "POST" };
+	private static final int[] STATUS = { 200, 304, 404, 500 };
+
+	/** The number of distinct datasources being requested */
+	@Param({ "1", "100" })
+	public int datasources;
+
+	private RequestMetrics metrics;
+	private String[] names;
+	private int request;
+
+	@Setup
+	public void setup() {
+		metrics = RequestMetrics.get(new CollectorRegistry(true));
+		names = new String[datasources];
+		for (int i = 0; i < datasources; i++) {
+			names[i] = "datasource" + i;
+		}
+	}
+
+	@Benchmark
+	public void observe() {
+		int i = request++;
+		metrics.observe(APPLICATION, PATH, null, names[i % names.length], METHODS[i & 1], STATUS[i & 3], i);
+	}
+
+}
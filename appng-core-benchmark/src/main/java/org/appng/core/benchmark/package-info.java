@@ -0,0 +1,21 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ * JMH benchmarks for appNG core. Run them with {@code mvn -P default,benchmark verify -pl appng-core-benchmark -am}.
+ * The results are compared with {@code benchmark-baseline.properties}, see
+ * {@link org.appng.search.benchmark.BenchmarkRunner} for the available options.
+ */
+package org.appng.core.benchmark;
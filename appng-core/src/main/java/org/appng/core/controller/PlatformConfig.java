@@ -38,6 +38,7 @@ import org.appng.core.service.DatabaseService;
 import org.appng.core.service.HazelcastConfigurer;
 import org.appng.core.service.InitializerService;
 import org.appng.core.service.LdapService;
+import org.appng.core.service.RetentionService;
 import org.appng.core.service.TemplateService;
 import org.appng.persistence.repository.SearchRepositoryImpl;
 import org.appng.xml.BuilderFactory;
@@ -224,6 +225,12 @@ public class PlatformConfig {
 		return new LdapService();
 	}
 
+	@Bean
+	@Lazy
+	public RetentionService retentionService() {
+		return new RetentionService();
+	}
+
 	@Bean
 	@RequestScope(proxyMode = ScopedProxyMode.NO)
 	public ThymeleafProcessor thymeleafProcessor(DocumentBuilderFactory dbf, MarshallService marshallService) {
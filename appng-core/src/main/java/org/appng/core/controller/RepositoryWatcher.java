@@ -36,6 +36,7 @@ import org.appng.api.XPathProcessor;
 import org.appng.api.model.Site;
 import org.appng.core.controller.filter.RedirectFilter;
 import org.appng.core.service.CacheService;
+import org.appng.search.indexer.LiveIndexer;
 import org.w3c.dom.Document;
 import org.w3c.dom.NodeList;
 
@@ -48,7 +49,10 @@ import lombok.extern.slf4j.Slf4j;
  * </p>
  * If caching for the site is active (see {@link SiteProperties#CACHE_ENABLED}), cache entries for the modified/deleted
  * files are removed from the cache. Since there could be some forwarding rules defined in the site's
- * {@code urlrewrite.xml}, it is also necessary to parse these rules and remove the 'aliases' from the cache.
+ * {@code urlrewrite.xml}, it is also necessary to parse these rules and remove the 'aliases' from the cache.<br/>
+ * If a {@link LiveIndexer} is given, the document directories are watched recursively and each event is passed to the
+ * {@link LiveIndexer}, which updates the site's search index. If events have been lost ({@code OVERFLOW}), the
+ * {@link LiveIndexer} is requested to perform an incremental scan.
  * 
  * @author Matthias Müller
  */
@@ -70,8 +74,31 @@ public class RepositoryWatcher implements Runnable {
 	private Site site;
 	private File configFile;
 	private String ruleSourceSuffix;
+	private boolean expireCache = true;
+	private LiveIndexer liveIndexer;
 
 	public RepositoryWatcher(Site site, String jspExtension, String ruleSourceSuffix) {
+		this(site, jspExtension, ruleSourceSuffix, true, null);
+	}
+
+	/**
+	 * Creates a new {@link RepositoryWatcher}.
+	 * 
+	 * @param site
+	 *                         the {@link Site} to watch
+	 * @param jspExtension
+	 *                         the file extension of JSP files
+	 * @param ruleSourceSuffix
+	 *                         the suffix to remove from the source of forward rules
+	 * @param expireCache
+	 *                         whether cache entries for modified/deleted files should be removed
+	 * @param liveIndexer
+	 *                         the {@link LiveIndexer} to notify about modified/deleted files, may be {@code null}
+	 */
+	public RepositoryWatcher(Site site, String jspExtension, String ruleSourceSuffix, boolean expireCache,
+			LiveIndexer liveIndexer) {
+		this.expireCache = expireCache;
+		this.liveIndexer = liveIndexer;
 		try {
 			this.jspExtension = "." + jspExtension;
 			String rootDir = site.getProperties().getString(SiteProperties.SITE_ROOT_DIR);
@@ -95,17 +122,25 @@ public class RepositoryWatcher implements Runnable {
 		this.configFile = configFile;
 		this.ruleSourceSuffix = ruleSourceSuffix;
 		readUrlRewrites();
-		watch(configFile.getParentFile());
+		watch(configFile.getParentFile(), false);
 		for (String docDir : documentDirs) {
-			watch(new File(wwwDir, docDir));
+			watch(new File(wwwDir, docDir), null != liveIndexer);
 		}
 	}
 
-	private void watch(File file) throws IOException {
+	private void watch(File file, boolean recursive) throws IOException {
 		if (file.exists() && file.isDirectory()) {
 			LOGGER.info("watching {}", file.toString());
 			file.toPath().register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE,
 					StandardWatchEventKinds.ENTRY_MODIFY);
+			if (recursive) {
+				File[] subDirs = file.listFiles(File::isDirectory);
+				if (null != subDirs) {
+					for (File subDir : subDirs) {
+						watch(subDir, true);
+					}
+				}
+			}
 		}
 	}
 
@@ -126,21 +161,27 @@ public class RepositoryWatcher implements Runnable {
 				if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
 					numOverflows.incrementAndGet();
 					LOGGER.warn("events for {} overflowed after {} events", eventPath, processed);
+					if (null != liveIndexer) {
+						liveIndexer.requestScan();
+					}
 				} else {
 					File absoluteFile = new File(eventPath.toFile(), String.valueOf(event.context()));
 					LOGGER.info("({}) received {} for {}", key.watchable(), event.kind(), event.context());
 					if (absoluteFile.equals(configFile)) {
 						readUrlRewrites();
 					} else {
+						notifyLiveIndexer(event, absoluteFile);
 						String absolutePath = FilenameUtils.normalize(absoluteFile.getPath(), true);
 						String relativePathName = absolutePath.substring(wwwDir.length());
 						if (relativePathName.endsWith(jspExtension)) {
 							relativePathName = relativePathName.substring(0,
 									relativePathName.length() - jspExtension.length());
 						}
-						removeFromCache(relativePathName);
-						if (forwardMap.containsKey(relativePathName)) {
-							forwardMap.get(relativePathName).forEach(path -> removeFromCache(path));
+						if (expireCache) {
+							removeFromCache(relativePathName);
+							if (forwardMap.containsKey(relativePathName)) {
+								forwardMap.get(relativePathName).forEach(path -> removeFromCache(path));
+							}
 						}
 						LOGGER.debug("processed event {} for {} ins {}ms", event.kind(), relativePathName,
 								System.currentTimeMillis() - start);
@@ -153,6 +194,22 @@ public class RepositoryWatcher implements Runnable {
 		}
 	}
 
+	private void notifyLiveIndexer(WatchEvent<?> event, File absoluteFile) {
+		if (null != liveIndexer) {
+			if (StandardWatchEventKinds.ENTRY_CREATE.equals(event.kind()) && absoluteFile.isDirectory()) {
+				try {
+					watch(absoluteFile, true);
+				} catch (IOException e) {
+					LOGGER.error(String.format("error watching %s", absoluteFile), e);
+				}
+				// files might have been created before the directory was registered
+				liveIndexer.requestScan();
+			} else {
+				liveIndexer.fileChanged(absoluteFile);
+			}
+		}
+	}
+
 	private void removeFromCache(String relativePathName) {
 		CacheService.expireCacheElementsByPrefix(site, relativePathName);
 	}
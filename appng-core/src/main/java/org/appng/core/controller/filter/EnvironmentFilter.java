@@ -39,17 +39,21 @@ import org.appng.api.support.environment.DefaultEnvironment;
 import org.appng.core.controller.HttpHeaders;
 import org.appng.core.controller.Session;
 import org.appng.core.controller.SessionListener;
+import org.appng.core.controller.filter.ServerTiming.Phase;
 import org.slf4j.MDC;
 import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import io.prometheus.client.CollectorRegistry;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * A {@link Filter} that creates a {@link DefaultEnvironment} for the current {@link HttpServletRequest}/
  * {@link HttpServletResponse} and adds it as an attribute to the current request. <br/>
- * Additionally, it sets the attributes for the message diagnostic context ({@link MDC}).
+ * Additionally, it sets the attributes for the message diagnostic context ({@link MDC}) and starts the
+ * {@link ServerTiming} for the request, or records its phases directly in the site's {@link RequestMetrics} if the
+ * {@value ServerTiming#HEADER} header is not permitted.
  */
 @Slf4j
 public class EnvironmentFilter extends OncePerRequestFilter {
@@ -61,7 +65,10 @@ public class EnvironmentFilter extends OncePerRequestFilter {
 	@Override
 	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
 			throws ServletException, IOException {
+		long start = System.nanoTime();
 		DefaultEnvironment env = new DefaultEnvironment(request, response);
+		startServerTiming(request, env, start);
+		ServerTiming.record(request, Phase.SITE, null, null, start);
 		request.setAttribute(getAttributeName(), env);
 		requestInitialized(request, env);
 		try {
@@ -71,6 +78,18 @@ public class EnvironmentFilter extends OncePerRequestFilter {
 		}
 	}
 
+	private void startServerTiming(HttpServletRequest request, Environment env, long start) {
+		Site site = env.getSite();
+		if (ServerTiming.isPermitted(site, env.getSubject(), request.getRemoteAddr())) {
+			ServerTiming.start(request, start);
+		} else if (null != site) {
+			CollectorRegistry registry = MetricsFilter.getRegistry(site.getName());
+			if (null != registry) {
+				ServerTiming.start(request, RequestMetrics.get(registry));
+			}
+		}
+	}
+
 	public void requestInitialized(HttpServletRequest httpServletRequest, Environment env) {
 		Site site = env.getSite();
 		setSecureFlag(httpServletRequest, site);
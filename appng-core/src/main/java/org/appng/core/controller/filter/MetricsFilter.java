@@ -15,10 +15,15 @@
  */
 package org.appng.core.controller.filter;
 
+import static org.appng.api.Platform.SERVICE_TYPE_ACTION;
+import static org.appng.api.Platform.SERVICE_TYPE_DATASOURCE;
+import static org.appng.api.Platform.SERVICE_TYPE_REST;
+import static org.appng.api.Platform.SERVICE_TYPE_SOAP;
+import static org.appng.api.Platform.SERVICE_TYPE_WEBSERVICE;
+
 import java.io.IOException;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
@@ -33,89 +38,194 @@ import org.appng.api.support.environment.DefaultEnvironment;
 import org.appng.api.support.environment.EnvironmentKeys;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import io.prometheus.client.Collector;
 import io.prometheus.client.CollectorRegistry;
-import io.prometheus.client.Histogram;
 import lombok.extern.slf4j.Slf4j;
 
 /**
- * A filter providing some prometheus metrics.
+ * A filter providing some prometheus metrics. The duration of each request is recorded by the site's
+ * {@link RequestMetrics}, using a normalized template of the requested path. If the {@value ServerTiming#HEADER}
+ * header is {@link ServerTiming#isPermitted(org.appng.api.model.Site, org.appng.api.model.Subject, String)
+ * permitted}, the phases collected by the {@link ServerTiming} are recorded here as well and sent as a header,
+ * otherwise they have already been recorded while processing the request.
  */
 @Slf4j
 public class MetricsFilter extends OncePerRequestFilter {
 
-	private static final double[] BUCKET_THRESHOLS = new double[] { 0.1, 0.25, 0.5, 1, 2, 3, 5, 8, 30 };
-	private static final String SEPARATOR = "::";
 	private static String PREFIX = "org.appng.metrics";
 	public static String EVENT_ID = PREFIX + "event_id";
 	public static String DATASOURCE_ID = PREFIX + "datasource_id";
 	public static String ACTION_ID = PREFIX + "action_id";
 	public static String SERVICE_TYPE = PREFIX + "serviceType";
 	public static String SERVICE_NAME = PREFIX + "serviceName";
-	private static final ConcurrentMap<String, Histogram> METRICS = new ConcurrentHashMap<>();
 	private static final String METRICS_REGISTRY = "metricsRegistry";
+	private static final String PLATFORM_METRICS_REGISTRY = "platformMetricsRegistry";
+	private static final String SERVICE = "/services/{site}/{application}/";
+	static final String ACTION_TEMPLATE = SERVICE + SERVICE_TYPE_ACTION + "/{format}/{event}/{action}";
+	static final String DATASOURCE_TEMPLATE = SERVICE + SERVICE_TYPE_DATASOURCE + "/{format}/{id}";
+	static final String WEBSERVICE_TEMPLATE = SERVICE + SERVICE_TYPE_WEBSERVICE + "/{name}";
+	static final String SOAP_TEMPLATE = SERVICE + SERVICE_TYPE_SOAP + "/{name}";
+	static final String REST_TEMPLATE = SERVICE + SERVICE_TYPE_REST + "/{path}";
+	static final String SERVICE_TEMPLATE = SERVICE + "{type}";
+	static final String GUI_TEMPLATE = "/manager/{site}/{application}/{page}";
+	static final String STATIC_TEMPLATE = "/{resource}";
+	static final String DOCUMENT_TEMPLATE = "/{document}";
+	static final String MONITORING_TEMPLATE = "/health/{path}";
 
 	@Override
 	protected void initFilterBean() throws ServletException {
-		DefaultEnvironment.getGlobal().setAttribute(Scope.PLATFORM, METRICS_REGISTRY,
-				new ConcurrentHashMap<String, CollectorRegistry>());
+		getRegistries();
+		getPlatformRegistry();
 	}
 
 	@Override
 	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
 			throws ServletException, IOException {
-		long start = System.currentTimeMillis();
-		chain.doFilter(request, response);
-		observe(request, (System.currentTimeMillis() - start) / 1000.0);
+		long start = System.nanoTime();
+		Environment env = EnvironmentFilter.environment();
+		ServerTiming timing = ServerTiming.get(request);
+		HttpServletResponse timedResponse = response;
+		if (null != timing) {
+			timedResponse = timing.wrap(response);
+		}
+		chain.doFilter(request, timedResponse);
+		observe(env, timing, request, response, System.nanoTime() - start);
 	}
 
-	private void observe(HttpServletRequest servletRequest, double duration) {
-		Environment env = EnvironmentFilter.environment();
+	private void observe(Environment env, ServerTiming timing, HttpServletRequest servletRequest,
+			HttpServletResponse servletResponse, long nanos) {
 		Path path = env.getAttribute(Scope.REQUEST, EnvironmentKeys.PATH_INFO);
-		if (null != path) {
-			String site = path.getSiteName();
-			String application = path.getApplicationName();
-			String actionId = (String) servletRequest.getAttribute(ACTION_ID);
-			String eventId = (String) servletRequest.getAttribute(EVENT_ID);
-			String datasourceId = (String) servletRequest.getAttribute(DATASOURCE_ID);
+		CollectorRegistry registry = null == path ? null : getRegistry(path.getSiteName());
+		if (null != registry) {
 			String serviceType = (String) servletRequest.getAttribute(SERVICE_TYPE);
-			String serviceName = (String) servletRequest.getAttribute(SERVICE_NAME);
-
-			StringBuilder key = new StringBuilder().append(site).append(SEPARATOR);
-			if (StringUtils.isNotBlank(application)) {
-				key.append(application).append(SEPARATOR);
-			}
-			key.append(serviceType);
-
-			if (StringUtils.isNotBlank(actionId)) {
-				key.append(SEPARATOR).append("act").append(SEPARATOR).append(eventId).append(SEPARATOR)
-						.append(actionId);
-			} else if (StringUtils.isNotBlank(datasourceId)) {
-				key.append(SEPARATOR).append("dat").append(SEPARATOR).append(datasourceId);
-			} else if (StringUtils.isNotBlank(serviceName)) {
-				key.append(SEPARATOR).append(serviceName);
+			String application = null;
+			String group = null;
+			String name = null;
+			String template;
+			if (null != serviceType) {
+				application = path.getApplicationName();
+				template = getServiceTemplate(serviceType);
+				String actionId = (String) servletRequest.getAttribute(ACTION_ID);
+				String datasourceId = (String) servletRequest.getAttribute(DATASOURCE_ID);
+				if (StringUtils.isNotBlank(actionId)) {
+					group = (String) servletRequest.getAttribute(EVENT_ID);
+					name = actionId;
+				} else if (StringUtils.isNotBlank(datasourceId)) {
+					name = datasourceId;
+				} else {
+					name = (String) servletRequest.getAttribute(SERVICE_NAME);
+				}
+			} else if (path.isStaticContent()) {
+				template = STATIC_TEMPLATE;
+			} else if (path.isDocument()) {
+				template = DOCUMENT_TEMPLATE;
+			} else if (path.isMonitoring()) {
+				template = MONITORING_TEMPLATE;
+			} else if (isGui(path)) {
+				application = path.getApplicationName();
+				template = GUI_TEMPLATE;
+				name = path.getPage();
+			} else {
+				template = RequestMetrics.OTHER;
 			}
-
-			String metricsKey = Collector.sanitizeMetricName(key.toString());
-			if (!METRICS.containsKey(metricsKey)) {
-				CollectorRegistry registry = getRegistry(env, site);
-				METRICS.put(metricsKey, Histogram.build().name(metricsKey).buckets(BUCKET_THRESHOLS)
-						.help(metricsKey.replaceAll(SEPARATOR, StringUtils.SPACE)).register(registry));
+			RequestMetrics.get(registry).observe(application, template, group, name, servletRequest.getMethod(),
+					servletResponse.getStatus(), nanos);
+			if (null != timing) {
+				timing.observe(registry);
 			}
-			METRICS.get(metricsKey).observeWithExemplar(duration);
 			if (LOGGER.isDebugEnabled()) {
-				LOGGER.debug("Observed {} with {}s", metricsKey, duration);
+				LOGGER.debug("Observed {} ({}) with {}ns", template, application, nanos);
 			}
 		}
 	}
 
+	static String getServiceTemplate(String serviceType) {
+		switch (serviceType) {
+		case SERVICE_TYPE_ACTION:
+			return ACTION_TEMPLATE;
+		case SERVICE_TYPE_DATASOURCE:
+			return DATASOURCE_TEMPLATE;
+		case SERVICE_TYPE_WEBSERVICE:
+			return WEBSERVICE_TEMPLATE;
+		case SERVICE_TYPE_SOAP:
+			return SOAP_TEMPLATE;
+		case SERVICE_TYPE_REST:
+			return REST_TEMPLATE;
+		default:
+			return SERVICE_TEMPLATE;
+		}
+	}
+
+	/**
+	 * Same as {@link Path#isGui()}, but without creating a substring
+	 */
+	private static boolean isGui(Path path) {
+		String element = path.getElementAt(1);
+		String guiPath = path.getGuiPath();
+		return null != element && null != guiPath && guiPath.length() == element.length() + 1
+				&& guiPath.startsWith(element, 1);
+	}
+
 	public static CollectorRegistry getRegistry(Environment env, String site) {
-		Map<String, CollectorRegistry> registries = DefaultEnvironment.getGlobal().getAttribute(Scope.PLATFORM,
-				METRICS_REGISTRY);
-		if (!registries.containsKey(site)) {
-			registries.put(site, new CollectorRegistry(true));
+		return getRegistry(site);
+	}
+
+	/**
+	 * Returns the {@link CollectorRegistry} for the given site. The registries are created on demand, so they are also
+	 * available for sites being started before this filter has been initialized.
+	 * 
+	 * @param site
+	 *             the name of the site
+	 * @return the {@link CollectorRegistry}, or {@code null} if there is no global {@link Environment}
+	 */
+	public static CollectorRegistry getRegistry(String site) {
+		Map<String, CollectorRegistry> registries = getRegistries();
+		if (null == registries) {
+			return null;
+		}
+		return registries.computeIfAbsent(site, s -> new CollectorRegistry(true));
+	}
+
+	private static Map<String, CollectorRegistry> getRegistries() {
+		DefaultEnvironment global = DefaultEnvironment.getGlobal();
+		if (null == global) {
+			return null;
+		}
+		Map<String, CollectorRegistry> registries = global.getAttribute(Scope.PLATFORM, METRICS_REGISTRY);
+		if (null == registries) {
+			synchronized (MetricsFilter.class) {
+				registries = global.getAttribute(Scope.PLATFORM, METRICS_REGISTRY);
+				if (null == registries) {
+					registries = new ConcurrentHashMap<>();
+					global.setAttribute(Scope.PLATFORM, METRICS_REGISTRY, registries);
+				}
+			}
+		}
+		return registries;
+	}
+
+	/**
+	 * Returns the {@link CollectorRegistry} for platform-wide metrics that do not belong to a certain site, such as
+	 * messaging. Like the site registries, it is created on demand, so it is also available for components started
+	 * before this filter has been initialized.
+	 * 
+	 * @return the {@link CollectorRegistry}, or {@code null} if there is no global {@link Environment}
+	 */
+	public static CollectorRegistry getPlatformRegistry() {
+		DefaultEnvironment global = DefaultEnvironment.getGlobal();
+		if (null == global) {
+			return null;
+		}
+		CollectorRegistry registry = global.getAttribute(Scope.PLATFORM, PLATFORM_METRICS_REGISTRY);
+		if (null == registry) {
+			synchronized (MetricsFilter.class) {
+				registry = global.getAttribute(Scope.PLATFORM, PLATFORM_METRICS_REGISTRY);
+				if (null == registry) {
+					registry = new CollectorRegistry(true);
+					global.setAttribute(Scope.PLATFORM, PLATFORM_METRICS_REGISTRY, registry);
+				}
+			}
 		}
-		return registries.get(site);
+		return registry;
 	}
 
 }
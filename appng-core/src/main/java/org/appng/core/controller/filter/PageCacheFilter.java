@@ -57,6 +57,7 @@ import org.appng.api.model.Site;
 import org.appng.api.support.HttpHeaderUtils;
 import org.appng.api.support.environment.DefaultEnvironment;
 import org.appng.core.controller.CachedResponse;
+import org.appng.core.controller.filter.ServerTiming.Phase;
 import org.appng.core.service.CacheService;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
@@ -158,11 +159,13 @@ public class PageCacheFilter implements javax.servlet.Filter {
 				} else {
 					long lastModified = cachedResponse.getHeaders().getLastModified();
 					boolean hasModifiedSince = StringUtils.isNotBlank(request.getHeader(HttpHeaders.IF_MODIFIED_SINCE));
+					long start = System.nanoTime();
 					if (hasModifiedSince && lastModified > 0) {
 						handleLastModified(request, response, cachedResponse, lastModified);
 					} else {
 						writeResponse(request, response, cachedResponse);
 					}
+					ServerTiming.record(request, Phase.WRITE, null, null, start);
 				}
 				return cachedResponse;
 			}
@@ -250,7 +253,9 @@ public class PageCacheFilter implements javax.servlet.Filter {
 			throws ServletException, IOException {
 		final String key = calculateKey(request);
 		boolean cacheHit = false;
+		long start = System.nanoTime();
 		CachedResponse cachedResponse = cache.get(key);
+		ServerTiming.record(request, Phase.CACHE, null, null, start);
 		if (cachedResponse == null) {
 			cachedResponse = performRequest(request, response, chain, site, expiry);
 			int size = cachedResponse.getContentLength();
@@ -327,7 +332,8 @@ public class PageCacheFilter implements javax.servlet.Filter {
 			response.setHeader(HttpHeaders.CACHE_CONTROL, String.format("max-age=%s", ttl));
 		}
 		HttpHeaders headers = new HttpHeaders();
-		response.getHeaderNames().stream().filter(h -> !h.startsWith(HttpHeaders.SET_COOKIE))
+		response.getHeaderNames().stream()
+				.filter(h -> !(h.startsWith(HttpHeaders.SET_COOKIE) || ServerTiming.HEADER.equalsIgnoreCase(h)))
 				.forEach(n -> response.getHeaders(n).forEach(v -> headers.add(n, v)));
 		return headers;
 	}
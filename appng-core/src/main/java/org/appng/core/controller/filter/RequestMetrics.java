@@ -0,0 +1,226 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.core.controller.filter;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.StringUtils;
+
+import io.prometheus.client.CollectorRegistry;
+import io.prometheus.client.Histogram;
+
+/**
+ * Records the duration of the requests of a {@link org.appng.api.model.Site} in the histogram
+ * {@code appng_request_duration_seconds}, labelled with
+ * <ul>
+ * <li>{@code application}: the name of the application, if any</li>
+ * <li>{@code path}: a normalized template of the requested path, such as
+ * {@code /services/{site}/{application}/datasource/{format}/{id}}</li>
+ * <li>{@code name}: the name of the requested element (e.g. {@code event:action}, the id of a datasource or the name of
+ * a webservice), if any</li>
+ * <li>{@code method}: the HTTP method, unknown methods are reported as {@code other}</li>
+ * <li>{@code status}: the class of the response's status code, e.g. {@code 2xx}</li>
+ * </ul>
+ * As the application and the name are taken from the request, the number of distinct label combinations is limited to
+ * {@link #MAX_SERIES}. Further combinations are reported with {@code other} as application, path and name.
+ * <p>
+ * The {@link Histogram.Child} of each label combination is resolved once and then looked up with one map access per
+ * label, so observing a request allocates no memory once a combination is known.
+ * </p>
+ * <p>
+ * Additionally, the duration of the phases of a request (see {@link ServerTiming}) is recorded in the histogram
+ * {@code appng_request_phase_seconds}, labelled with {@code phase} and {@code application}. Other than above, the
+ * application is the one that actually has been processed, so these labels are bounded by the site's applications.
+ * </p>
+ * There is exactly one instance per {@link CollectorRegistry}, see {@link #get(CollectorRegistry)}.
+ */
+public class RequestMetrics {
+
+	/** The maximum number of distinct label combinations per site */
+	public static final int MAX_SERIES = 1000;
+	static final String METRIC = "appng_request_duration_seconds";
+	static final String PHASE_METRIC = "appng_request_phase_seconds";
+	static final String OTHER = "other";
+	private static final double[] BUCKETS = { 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2, 3, 5, 8, 30 };
+	private static final double[] PHASE_BUCKETS = { 0.001, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2, 5 };
+	private static final String[] STATUS_CLASSES = { OTHER, "1xx", "2xx", "3xx", "4xx", "5xx" };
+	private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+	private static final ConcurrentMap<CollectorRegistry, RequestMetrics> INSTANCES = new ConcurrentHashMap<>();
+
+	private final Histogram duration;
+	private final Histogram phaseDuration;
+	private final Node root = new Node();
+	private final Node phases = new Node();
+	private int series;
+
+	private RequestMetrics(CollectorRegistry registry) {
+		this.duration = Histogram.build(METRIC, "duration of requests")
+				.labelNames("application", "path", "name", "method", "status").buckets(BUCKETS).register(registry);
+		this.phaseDuration = Histogram.build(PHASE_METRIC, "duration of the phases of requests")
+				.labelNames("phase", "application").buckets(PHASE_BUCKETS).register(registry);
+	}
+
+	/**
+	 * Returns the {@link RequestMetrics} for the given {@link CollectorRegistry}, creating and registering them if
+	 * necessary.
+	 * 
+	 * @param registry
+	 *                 the {@link CollectorRegistry}
+	 * @return the {@link RequestMetrics}
+	 */
+	public static RequestMetrics get(CollectorRegistry registry) {
+		return INSTANCES.computeIfAbsent(registry, RequestMetrics::new);
+	}
+
+	/**
+	 * Records the duration of a request
+	 * 
+	 * @param application
+	 *                    the name of the application (may be {@code null})
+	 * @param path
+	 *                    the normalized path template, must be taken from a bounded set of values
+	 * @param group
+	 *                    the group of the requested element, i.e. the event of an action (may be {@code null})
+	 * @param name
+	 *                    the name of the requested element (may be {@code null})
+	 * @param method
+	 *                    the HTTP method
+	 * @param status
+	 *                    the status code of the response
+	 * @param nanos
+	 *                    the duration in nanoseconds
+	 */
+	public void observe(String application, String path, String group, String name, String method, int status,
+			long nanos) {
+		String methodLabel = method(method);
+		String statusLabel = statusClass(status);
+		Node node = root.get(application);
+		node = null == node ? null : node.get(path);
+		node = null == node ? null : node.get(group);
+		node = null == node ? null : node.get(name);
+		node = null == node ? null : node.get(methodLabel);
+		node = null == node ? null : node.get(statusLabel);
+		Histogram.Child child = null == node ? null : node.child;
+		if (null == child) {
+			child = create(application, path, group, name, methodLabel, statusLabel);
+		}
+		child.observe(nanos / NANOS_PER_SECOND);
+	}
+
+	private synchronized Histogram.Child create(String application, String path, String group, String name,
+			String method, String status) {
+		String[] keys = { application, path, group, name, method, status };
+		Node node = root;
+		for (String key : keys) {
+			node = node.get(key);
+			if (null == node) {
+				break;
+			}
+		}
+		if (null != node && null != node.child) {
+			return node.child;
+		}
+		if (series >= MAX_SERIES) {
+			keys = new String[] { OTHER, OTHER, null, OTHER, method, status };
+		}
+		node = root;
+		for (String key : keys) {
+			node = node.children.computeIfAbsent(Node.key(key), k -> new Node());
+		}
+		if (null == node.child) {
+			String nameLabel = null == keys[2] ? StringUtils.defaultString(keys[3]) : keys[2] + ":" + keys[3];
+			node.child = duration.labels(StringUtils.defaultString(keys[0]), keys[1], nameLabel, method, status);
+			series++;
+		}
+		return node.child;
+	}
+
+	/**
+	 * Records the duration of a phase of a request
+	 * 
+	 * @param phase
+	 *                    the {@link ServerTiming.Phase}
+	 * @param application
+	 *                    the name of the application that has been processed (may be {@code null})
+	 * @param nanos
+	 *                    the duration in nanoseconds
+	 */
+	public void observe(ServerTiming.Phase phase, String application, long nanos) {
+		Node node = phases.get(phase.getLabel());
+		node = null == node ? null : node.get(application);
+		Histogram.Child child = null == node ? null : node.child;
+		if (null == child) {
+			child = createPhase(phase.getLabel(), application);
+		}
+		child.observe(nanos / NANOS_PER_SECOND);
+	}
+
+	private synchronized Histogram.Child createPhase(String phase, String application) {
+		Node node = phases.children.computeIfAbsent(phase, k -> new Node());
+		node = node.children.computeIfAbsent(Node.key(application), k -> new Node());
+		if (null == node.child) {
+			node.child = phaseDuration.labels(phase, StringUtils.defaultString(application));
+		}
+		return node.child;
+	}
+
+	static String method(String method) {
+		switch (null == method ? OTHER : method) {
+		case "GET":
+			return "GET";
+		case "POST":
+			return "POST";
+		case "PUT":
+			return "PUT";
+		case "DELETE":
+			return "DELETE";
+		case "PATCH":
+			return "PATCH";
+		case "HEAD":
+			return "HEAD";
+		case "OPTIONS":
+			return "OPTIONS";
+		default:
+			return OTHER;
+		}
+	}
+
+	static String statusClass(int status) {
+		int statusClass = status / 100;
+		return statusClass > 0 && statusClass < STATUS_CLASSES.length ? STATUS_CLASSES[statusClass] : OTHER;
+	}
+
+	synchronized int getSeries() {
+		return series;
+	}
+
+	private static final class Node {
+		private static final String NULL = "\0";
+		private final ConcurrentMap<String, Node> children = new ConcurrentHashMap<>();
+		private volatile Histogram.Child child;
+
+		Node get(String key) {
+			return children.get(key(key));
+		}
+
+		static String key(String key) {
+			return null == key ? NULL : key;
+		}
+	}
+
+}
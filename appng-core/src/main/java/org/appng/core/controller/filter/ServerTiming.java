@@ -0,0 +1,365 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.core.controller.filter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import org.apache.commons.lang3.StringUtils;
+import org.appng.api.SiteProperties;
+import org.appng.api.model.Group;
+import org.appng.api.model.Role;
+import org.appng.api.model.Site;
+import org.appng.api.model.Subject;
+
+import io.prometheus.client.CollectorRegistry;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Records the duration of the phases of a request, such as the lookup of the site, the cache lookup, processing the
+ * application, its datasources and actions, marshalling the XML, rendering the template and writing the output.
+ * <p>
+ * If the requesting subject has one of the roles defined in {@value SiteProperties#SERVER_TIMING_ROLES} or the request
+ * comes from one of the addresses defined in {@value SiteProperties#SERVER_TIMING_IPS}, the {@link EnvironmentFilter}
+ * creates an instance for the request, which can be retrieved with {@link #get(ServletRequest)}. It collects the
+ * phases, which are sent as a <a href="https://www.w3.org/TR/server-timing/">{@value #HEADER}</a> header and recorded
+ * in the site's {@link RequestMetrics} by the {@link MetricsFilter}. The header is set right before the response body
+ * is being written, so it contains all phases that have been finished up to that point. Writing the output itself is
+ * therefore only contained in the metrics. For all other requests, the phases are directly recorded in the site's
+ * {@link RequestMetrics}, without creating any objects.
+ * </p>
+ */
+public class ServerTiming {
+
+	/** The name of the response header */
+	public static final String HEADER = "Server-Timing";
+	private static final String ATTRIBUTE = ServerTiming.class.getName();
+	private static final String TOTAL = "total";
+	private static final String WILDCARD = "*";
+	private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+	/** The phases of a request */
+	public enum Phase {
+		/** Looking up the site and creating the environment */
+		SITE("site"),
+		/** Looking up the response in the page cache */
+		CACHE("cache"),
+		/** Processing an application */
+		APPLICATION("app"),
+		/** Performing a datasource */
+		DATASOURCE("datasource"),
+		/** Performing an action */
+		ACTION("action"),
+		/** Marshalling the XML */
+		MARSHALLING("marshal"),
+		/** Rendering with XSLT or Thymeleaf */
+		RENDERING("render"),
+		/** Writing the output */
+		WRITE("write");
+
+		private final String label;
+
+		private Phase(String label) {
+			this.label = label;
+		}
+
+		/**
+		 * Returns the label of this phase, used as metric name in the {@value ServerTiming#HEADER} header and as
+		 * {@code phase} label in {@link RequestMetrics}
+		 * 
+		 * @return the label
+		 */
+		public String getLabel() {
+			return label;
+		}
+	}
+
+	private final long start;
+	private final List<Entry> entries = new ArrayList<>();
+
+	private ServerTiming(long start) {
+		this.start = start;
+	}
+
+	/**
+	 * Creates a new {@link ServerTiming} and adds it as an attribute to the given request.
+	 * 
+	 * @param request
+	 *                the current {@link ServletRequest}
+	 * @return the {@link ServerTiming}
+	 */
+	public static ServerTiming start(ServletRequest request) {
+		return start(request, System.nanoTime());
+	}
+
+	/**
+	 * Creates a new {@link ServerTiming} that started at the given time and adds it as an attribute to the given
+	 * request.
+	 * 
+	 * @param request
+	 *                the current {@link ServletRequest}
+	 * @param start
+	 *                the start of the request, as returned by {@link System#nanoTime()}
+	 * @return the {@link ServerTiming}
+	 */
+	static ServerTiming start(ServletRequest request, long start) {
+		ServerTiming timing = new ServerTiming(start);
+		request.setAttribute(ATTRIBUTE, timing);
+		return timing;
+	}
+
+	/**
+	 * Records the phases of the given request directly in the given {@link RequestMetrics}, without collecting them.
+	 * Used if the {@value #HEADER} header is not permitted for the request, so recording a phase does not allocate any
+	 * memory.
+	 * 
+	 * @param request
+	 *                the current {@link ServletRequest}
+	 * @param metrics
+	 *                the {@link RequestMetrics} of the site
+	 */
+	static void start(ServletRequest request, RequestMetrics metrics) {
+		request.setAttribute(ATTRIBUTE, metrics);
+	}
+
+	/**
+	 * Returns the {@link ServerTiming} for the given request.
+	 * 
+	 * @param request
+	 *                the current {@link ServletRequest} (may be {@code null})
+	 * @return the {@link ServerTiming}, or {@code null} if no timing has been started for the request or the phases
+	 *         are recorded directly
+	 */
+	public static ServerTiming get(ServletRequest request) {
+		Object timing = null == request ? null : request.getAttribute(ATTRIBUTE);
+		return timing instanceof ServerTiming ? (ServerTiming) timing : null;
+	}
+
+	/**
+	 * Records a phase that started at the given time and ends now, if a {@link ServerTiming} has been started for the
+	 * request or its phases are recorded directly.
+	 * 
+	 * @param request
+	 *                    the current {@link ServletRequest} (may be {@code null})
+	 * @param phase
+	 *                    the {@link Phase}
+	 * @param application
+	 *                    the name of the application (may be {@code null})
+	 * @param description
+	 *                    a description, such as the id of a datasource (may be {@code null})
+	 * @param start
+	 *                    the start of the phase, as returned by {@link System#nanoTime()}
+	 */
+	public static void record(ServletRequest request, Phase phase, String application, String description,
+			long start) {
+		Object timing = null == request ? null : request.getAttribute(ATTRIBUTE);
+		if (timing instanceof ServerTiming) {
+			((ServerTiming) timing).add(phase, application, description, System.nanoTime() - start);
+		} else if (timing instanceof RequestMetrics) {
+			((RequestMetrics) timing).observe(phase, application, System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Adds a phase
+	 * 
+	 * @param phase
+	 *                    the {@link Phase}
+	 * @param application
+	 *                    the name of the application (may be {@code null})
+	 * @param description
+	 *                    a description, such as the id of a datasource (may be {@code null})
+	 * @param nanos
+	 *                    the duration in nanoseconds
+	 */
+	public synchronized void add(Phase phase, String application, String description, long nanos) {
+		entries.add(new Entry(phase, application, description, nanos));
+	}
+
+	synchronized List<Entry> getEntries() {
+		return new ArrayList<>(entries);
+	}
+
+	/**
+	 * Records all phases in the {@link RequestMetrics} of the given registry.
+	 * 
+	 * @param registry
+	 *                 the {@link CollectorRegistry}
+	 */
+	void observe(CollectorRegistry registry) {
+		RequestMetrics metrics = RequestMetrics.get(registry);
+		for (Entry entry : getEntries()) {
+			metrics.observe(entry.phase, entry.application, entry.nanos);
+		}
+	}
+
+	/**
+	 * Returns the value for the {@value #HEADER} header, containing all phases recorded so far and the total duration
+	 * since the timing has been started.
+	 * 
+	 * @return the value of the header
+	 */
+	String getHeaderValue() {
+		StringBuilder header = new StringBuilder();
+		for (Entry entry : getEntries()) {
+			header.append(entry.phase.label);
+			appendDuration(header, entry.nanos);
+			String description = null == entry.description ? entry.application : entry.description;
+			if (null != description) {
+				header.append(";desc=\"");
+				for (char c : description.toCharArray()) {
+					if (c == '"' || c == '\\') {
+						header.append('\\');
+					}
+					header.append(c >= ' ' && c < 127 ? c : '?');
+				}
+				header.append('"');
+			}
+			header.append(", ");
+		}
+		header.append(TOTAL);
+		appendDuration(header, System.nanoTime() - start);
+		return header.toString();
+	}
+
+	private void appendDuration(StringBuilder header, long nanos) {
+		header.append(";dur=").append(String.format(Locale.ENGLISH, "%.1f", nanos / NANOS_PER_MILLI));
+	}
+
+	/**
+	 * Checks whether the {@value #HEADER} header may be sent, according to the site properties
+	 * {@value SiteProperties#SERVER_TIMING_ROLES} and {@value SiteProperties#SERVER_TIMING_IPS}.
+	 * 
+	 * @param site
+	 *                      the current {@link Site} (may be {@code null})
+	 * @param subject
+	 *                      the current {@link Subject} (may be {@code null})
+	 * @param remoteAddress
+	 *                      the address of the client
+	 * @return {@code true} if the header may be sent
+	 */
+	static boolean isPermitted(Site site, Subject subject, String remoteAddress) {
+		if (null == site) {
+			return false;
+		}
+		String addresses = site.getProperties().getString(SiteProperties.SERVER_TIMING_IPS, null);
+		if (StringUtils.isNotBlank(addresses) && null != remoteAddress) {
+			for (String address : addresses.split(",")) {
+				address = address.trim();
+				if (address.endsWith(WILDCARD) ? remoteAddress.startsWith(StringUtils.chop(address))
+						: remoteAddress.equals(address)) {
+					return true;
+				}
+			}
+		}
+		String roles = site.getProperties().getString(SiteProperties.SERVER_TIMING_ROLES, null);
+		if (StringUtils.isNotBlank(roles) && null != subject && subject.isAuthenticated()
+				&& null != subject.getGroups()) {
+			List<String> permittedRoles = new ArrayList<>();
+			for (String role : roles.split(",")) {
+				permittedRoles.add(role.trim());
+			}
+			for (Group group : subject.getGroups()) {
+				for (Role role : group.getRoles()) {
+					if (permittedRoles.contains(role.getName())) {
+						return true;
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Wraps the given response, so the {@value #HEADER} header is set right before the body is being written.
+	 * 
+	 * @param response
+	 *                 the {@link HttpServletResponse} to wrap
+	 * @return the wrapped response
+	 */
+	HttpServletResponse wrap(HttpServletResponse response) {
+		return new ServerTimingResponse(response);
+	}
+
+	class ServerTimingResponse extends HttpServletResponseWrapper {
+
+		ServerTimingResponse(HttpServletResponse response) {
+			super(response);
+		}
+
+		private void setServerTiming() {
+			if (!isCommitted()) {
+				setHeader(HEADER, getHeaderValue());
+			}
+		}
+
+		@Override
+		public ServletOutputStream getOutputStream() throws IOException {
+			setServerTiming();
+			return super.getOutputStream();
+		}
+
+		@Override
+		public PrintWriter getWriter() throws IOException {
+			setServerTiming();
+			return super.getWriter();
+		}
+
+		@Override
+		public void flushBuffer() throws IOException {
+			setServerTiming();
+			super.flushBuffer();
+		}
+
+		@Override
+		public void sendError(int sc) throws IOException {
+			setServerTiming();
+			super.sendError(sc);
+		}
+
+		@Override
+		public void sendError(int sc, String msg) throws IOException {
+			setServerTiming();
+			super.sendError(sc, msg);
+		}
+
+		@Override
+		public void sendRedirect(String location) throws IOException {
+			setServerTiming();
+			super.sendRedirect(location);
+		}
+	}
+
+	@Getter
+	@AllArgsConstructor
+	static class Entry {
+		private final Phase phase;
+		private final String application;
+		private final String description;
+		private final long nanos;
+	}
+
+}
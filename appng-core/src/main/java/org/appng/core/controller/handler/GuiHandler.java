@@ -43,6 +43,8 @@ import org.appng.api.support.ElementHelper;
 import org.appng.core.Redirect;
 import org.appng.core.controller.HttpHeaders;
 import org.appng.core.controller.filter.MetricsFilter;
+import org.appng.core.controller.filter.ServerTiming;
+import org.appng.core.controller.filter.ServerTiming.Phase;
 import org.appng.core.domain.GroupImpl;
 import org.appng.core.model.RequestProcessor;
 import org.appng.core.service.TemplateService;
@@ -189,12 +191,14 @@ public class GuiHandler implements RequestHandler {
 
 			final String result = processor.processWithTemplate(applicationSite, debugFolder);
 
+			long start = System.nanoTime();
 			servletResponse.setContentType(processor.getContentType());
 			servletResponse.setContentLength(processor.getContentLength());
 			PrintWriter out = servletResponse.getWriter();
 			out.println(result);
 			out.flush();
 			out.close();
+			ServerTiming.record(servletRequest, Phase.WRITE, null, null, start);
 			sw.stop();
 			if (LOGGER.isDebugEnabled()) {
 				LOGGER.debug(sw.prettyPrint());
@@ -49,10 +49,14 @@ import org.appng.api.model.Site.SiteState;
 import org.appng.api.support.SiteClassLoader;
 import org.appng.api.support.environment.EnvironmentKeys;
 import org.appng.core.controller.filter.MetricsFilter;
+import org.appng.core.controller.messaging.NodeEvent;
+import org.appng.core.controller.messaging.NodeEvent.NodeState;
+import org.appng.core.repository.config.ReplicaRoutingDataSource;
 import org.appng.core.service.HazelcastConfigurer;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
 
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -83,6 +87,11 @@ import lombok.NoArgsConstructor;
  * Shows a list of all JAR files used by the platform.</li>
  * <li>{@code /health/jars}<br/>
  * Shows a list of all JAR files used by {@link Site}s {@link SiteClassLoader}.</li></li>
+ * <li>{@code /health/messaging}<br/>
+ * Shows the number of events sent and received by each node of the cluster, and the current rates (events per
+ * second).</li>
+ * <li>{@code /health/metrics} and {@code /health/platformMetrics}<br/>
+ * Exposes the {@link Site}'s and the platform's metrics in the OpenMetrics format.</li>
  * </ul>
  * </p>
  * 
@@ -121,14 +130,14 @@ public class MonitoringHandler implements RequestHandler {
 				result = env.getAttribute(Scope.PLATFORM, site.getName() + "." + EnvironmentKeys.JAR_INFO_MAP);
 			} else if ("platform".equals(pathsegment)) {
 				result = env.getAttribute(Scope.PLATFORM, Platform.Environment.PLATFORM_CONFIG + "." + JAR_INFO_MAP);
+			} else if ("messaging".equals(pathsegment)) {
+				result = getMessagingInfo(env);
 			} else if ("metrics".equals(pathsegment)) {
 				servletResponse.setContentType(TextFormat.CONTENT_TYPE_OPENMETRICS_100);
-				CollectorRegistry registry = MetricsFilter.getRegistry(env, site.getName());
-				if (null == registry) {
-					servletResponse.getWriter().write("# EOF\n");
-				} else {
-					TextFormat.writeOpenMetrics100(servletResponse.getWriter(), registry.metricFamilySamples());
-				}
+				writeMetrics(servletResponse, MetricsFilter.getRegistry(env, site.getName()));
+			} else if ("platformMetrics".equals(pathsegment)) {
+				servletResponse.setContentType(TextFormat.CONTENT_TYPE_OPENMETRICS_100);
+				writeMetrics(servletResponse, MetricsFilter.getPlatformRegistry());
 			}
 			if (null != result) {
 				servletResponse.setContentType(MediaType.APPLICATION_JSON_VALUE);
@@ -139,6 +148,29 @@ public class MonitoringHandler implements RequestHandler {
 		}
 	}
 
+	private void writeMetrics(HttpServletResponse servletResponse, CollectorRegistry registry) throws IOException {
+		if (null == registry) {
+			servletResponse.getWriter().write("# EOF\n");
+		} else {
+			TextFormat.writeOpenMetrics100(servletResponse.getWriter(), registry.metricFamilySamples());
+		}
+	}
+
+	private Map<String, MessagingInfo> getMessagingInfo(Environment env) {
+		Map<String, MessagingInfo> messagingInfos = new TreeMap<>();
+		Map<String, NodeState> clusterState = env.getAttribute(Scope.PLATFORM, NodeEvent.NODE_STATE);
+		if (null == clusterState) {
+			return messagingInfos;
+		}
+		for (NodeState state : clusterState.values()) {
+			OffsetDateTime lastHeartBeat = null == state.getLastHeartBeat() ? null
+					: OffsetDateTime.ofInstant(state.getLastHeartBeat().toInstant(), ZoneId.systemDefault());
+			messagingInfos.put(state.getNodeId(), new MessagingInfo(state.getEventsSent(), state.getEventsReceived(),
+					state.getSendRate(), state.getReceiveRate(), lastHeartBeat, state.isStale()));
+		}
+		return messagingInfos;
+	}
+
 	private SiteInfo getSiteInfo(Site site, boolean details, HttpServletResponse servletResponse) {
 		Long uptime = null;
 		OffsetDateTime startup = null;
@@ -189,7 +221,7 @@ public class MonitoringHandler implements RequestHandler {
 				jars = a.getResources().getResources(ResourceType.JAR).stream().map(j -> jarFromResoure(j))
 						.collect(Collectors.toList());
 			}
-			DataSource ds = a.getBean(DataSource.class);
+			DataSource ds = unwrap(a.getBean(DataSource.class));
 			Connection connection = null;
 			if (null != ds && ds instanceof HikariDataSource) {
 				HikariDataSource hkds = HikariDataSource.class.cast(ds);
@@ -203,6 +235,23 @@ public class MonitoringHandler implements RequestHandler {
 		return applicationInfos;
 	}
 
+	/**
+	 * Unwraps {@link DelegatingDataSource}s and {@link ReplicaRoutingDataSource}s (using the primary) until a
+	 * {@link DataSource} is reached that does neither delegate nor route
+	 */
+	static DataSource unwrap(DataSource dataSource) {
+		DataSource ds = dataSource;
+		while (true) {
+			if (ds instanceof DelegatingDataSource) {
+				ds = ((DelegatingDataSource) ds).getTargetDataSource();
+			} else if (ds instanceof ReplicaRoutingDataSource) {
+				ds = ((ReplicaRoutingDataSource) ds).getPrimary();
+			} else {
+				return ds;
+			}
+		}
+	}
+
 	private boolean isAuthenticated(Environment env, HttpServletRequest servletRequest) {
 		Properties platformCfg = env.getAttribute(Scope.PLATFORM, Platform.Environment.PLATFORM_CONFIG);
 		if (platformCfg.getBoolean(MONITORING_BASE_AUTH, true)) {
@@ -231,6 +280,18 @@ public class MonitoringHandler implements RequestHandler {
 		Map<Object, Object> props;
 	}
 
+	@Data
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class MessagingInfo {
+		long eventsSent;
+		long eventsReceived;
+		double sendRate;
+		double receiveRate;
+		OffsetDateTime lastHeartBeat;
+		boolean stale;
+	}
+
 	@Data
 	@NoArgsConstructor
 	@AllArgsConstructor
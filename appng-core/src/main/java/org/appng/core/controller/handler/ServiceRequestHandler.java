@@ -42,6 +42,8 @@ import org.appng.api.support.ApplicationRequest;
 import org.appng.api.support.ElementHelper;
 import org.appng.api.support.HttpHeaderUtils;
 import org.appng.core.controller.filter.MetricsFilter;
+import org.appng.core.controller.filter.ServerTiming;
+import org.appng.core.controller.filter.ServerTiming.Phase;
 import org.appng.core.domain.SiteImpl;
 import org.appng.core.model.AccessibleApplication;
 import org.appng.core.model.ApplicationProvider;
@@ -180,6 +182,7 @@ public class ServiceRequestHandler implements RequestHandler {
 					if (null != action) {
 						LOGGER.debug("calling event '{}', action '{}' of application '{}', format: {}", eventId,
 								actionId, applicationName, format);
+						long start = System.nanoTime();
 						if (FORMAT_XML.equals(format)) {
 							result = marshallService.marshallNonRoot(action);
 							contenttype = MediaType.TEXT_XML_VALUE;
@@ -189,6 +192,7 @@ public class ServiceRequestHandler implements RequestHandler {
 						} else {
 							servletResponse.setStatus(HttpStatus.UNSUPPORTED_MEDIA_TYPE.value());
 						}
+						ServerTiming.record(servletRequest, Phase.MARSHALLING, applicationName, null, start);
 					} else {
 						LOGGER.debug("event not present or no permission ('{}', action '{}' of application '{}')",
 								eventId, actionId, applicationName);
@@ -209,6 +213,7 @@ public class ServiceRequestHandler implements RequestHandler {
 						}
 						LOGGER.debug("calling datasource '{}' of application '{}', format: {}", dataSourceId,
 								applicationName, format);
+						long start = System.nanoTime();
 						if (FORMAT_XML.equals(format)) {
 							result = marshallService.marshallNonRoot(datasource);
 							contenttype = MediaType.TEXT_XML_VALUE;
@@ -218,6 +223,7 @@ public class ServiceRequestHandler implements RequestHandler {
 						} else {
 							servletResponse.setStatus(HttpStatus.UNSUPPORTED_MEDIA_TYPE.value());
 						}
+						ServerTiming.record(servletRequest, Phase.MARSHALLING, applicationName, null, start);
 					} else {
 						LOGGER.debug("datasource not present or no permission ('{}' in application '{}')", dataSourceId,
 								applicationName);
@@ -241,9 +247,11 @@ public class ServiceRequestHandler implements RequestHandler {
 					LOGGER.warn("unknown service type: {}", serviceType);
 				}
 				if (null != result) {
+					long start = System.nanoTime();
 					servletResponse.setContentType(contenttype);
 					servletResponse.getOutputStream().write(result.getBytes());
 					servletResponse.getOutputStream().close();
+					ServerTiming.record(servletRequest, Phase.WRITE, null, null, start);
 				}
 			}
 		} catch (Exception e) {
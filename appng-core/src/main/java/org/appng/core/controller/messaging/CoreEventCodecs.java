@@ -0,0 +1,357 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.core.controller.messaging;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang3.EnumUtils;
+import org.appng.api.messaging.Event;
+import org.appng.api.messaging.EventCodec;
+import org.appng.api.messaging.EventCodecs;
+import org.appng.api.model.Site.SiteState;
+import org.appng.core.controller.messaging.NodeEvent.MemoryUsage;
+import org.appng.core.controller.messaging.NodeEvent.NodeState;
+
+/**
+ * The {@link EventCodec}s for the {@link Event}s of appNG core. The codecs are registered by
+ * {@code META-INF/services/org.appng.api.messaging.EventCodec}. Type ids must never be reused, so when removing an
+ * event, keep its id reserved.
+ * 
+ * @see EventCodecs
+ */
+public final class CoreEventCodecs {
+
+	private CoreEventCodecs() {
+	}
+
+	static abstract class BaseCodec<E extends Event> implements EventCodec<E> {
+
+		private final int typeId;
+		private final Class<E> type;
+
+		BaseCodec(int typeId, Class<E> type) {
+			this.typeId = typeId;
+			this.type = type;
+		}
+
+		public int getTypeId() {
+			return typeId;
+		}
+
+		public int getVersion() {
+			return 1;
+		}
+
+		public Class<E> getType() {
+			return type;
+		}
+	}
+
+	public static class ReloadSiteCodec extends BaseCodec<ReloadSiteEvent> {
+		public ReloadSiteCodec() {
+			super(1, ReloadSiteEvent.class);
+		}
+
+		public void write(DataOutput out, ReloadSiteEvent event) throws IOException {
+			EventCodecs.writeString(out, event.targetNode);
+		}
+
+		public ReloadSiteEvent read(DataInput in, int version, String siteName) throws IOException {
+			return new ReloadSiteEvent(siteName, EventCodecs.readString(in));
+		}
+	}
+
+	public static class StopSiteCodec extends BaseCodec<StopSiteEvent> {
+		public StopSiteCodec() {
+			super(2, StopSiteEvent.class);
+		}
+
+		public void write(DataOutput out, StopSiteEvent event) throws IOException {
+			EventCodecs.writeString(out, event.targetNode);
+		}
+
+		public StopSiteEvent read(DataInput in, int version, String siteName) throws IOException {
+			return new StopSiteEvent(siteName, EventCodecs.readString(in));
+		}
+	}
+
+	public static class ReloadTemplateCodec extends BaseCodec<ReloadTemplateEvent> {
+		public ReloadTemplateCodec() {
+			super(3, ReloadTemplateEvent.class);
+		}
+
+		public void write(DataOutput out, ReloadTemplateEvent event) throws IOException {
+		}
+
+		public ReloadTemplateEvent read(DataInput in, int version, String siteName) throws IOException {
+			return new ReloadTemplateEvent(siteName);
+		}
+	}
+
+	public static class SiteDeletedCodec extends BaseCodec<SiteDeletedEvent> {
+		public SiteDeletedCodec() {
+			super(4, SiteDeletedEvent.class);
+		}
+
+		public void write(DataOutput out, SiteDeletedEvent event) throws IOException {
+		}
+
+		public SiteDeletedEvent read(DataInput in, int version, String siteName) throws IOException {
+			return new SiteDeletedEvent(siteName);
+		}
+	}
+
+	public static class SiteStateCodec extends BaseCodec<SiteStateEvent> {
+		public SiteStateCodec() {
+			super(5, SiteStateEvent.class);
+		}
+
+		public void write(DataOutput out, SiteStateEvent event) throws IOException {
+			EventCodecs.writeString(out, null == event.getState() ? null : event.getState().name());
+		}
+
+		public SiteStateEvent read(DataInput in, int version, String siteName) throws IOException {
+			return new SiteStateEvent(siteName, readState(in), null);
+		}
+	}
+
+	public static class RequestNodeStateCodec extends BaseCodec<RequestNodeState> {
+		public RequestNodeStateCodec() {
+			super(6, RequestNodeState.class);
+		}
+
+		@Override
+		public int getVersion() {
+			return 2;
+		}
+
+		public void write(DataOutput out, RequestNodeState event) throws IOException {
+			EventCodecs.writeString(out, event.getTargetNode());
+		}
+
+		public RequestNodeState read(DataInput in, int version, String siteName) throws IOException {
+			String targetNode = version > 1 ? EventCodecs.readString(in) : null;
+			return new RequestNodeState(siteName, null, targetNode);
+		}
+	}
+
+	public static class ShutdownCodec extends BaseCodec<ShutdownEvent> {
+		public ShutdownCodec() {
+			super(7, ShutdownEvent.class);
+		}
+
+		public void write(DataOutput out, ShutdownEvent event) throws IOException {
+		}
+
+		public ShutdownEvent read(DataInput in, int version, String siteName) throws IOException {
+			return new ShutdownEvent();
+		}
+	}
+
+	public static class NodeCodec extends BaseCodec<NodeEvent> {
+		public NodeCodec() {
+			super(8, NodeEvent.class);
+		}
+
+		@Override
+		public int getVersion() {
+			return 2;
+		}
+
+		public void write(DataOutput out, NodeEvent event) throws IOException {
+			NodeState nodeState = event.getNodeState();
+			out.writeLong(null == nodeState.getDate() ? 0L : nodeState.getDate().getTime());
+			writeMemoryUsage(out, nodeState.getHeap());
+			writeMemoryUsage(out, nodeState.getNonHeap());
+			Properties props = nodeState.getProps();
+			out.writeInt(null == props ? 0 : props.size());
+			if (null != props) {
+				for (Map.Entry<Object, Object> entry : props.entrySet()) {
+					out.writeUTF(String.valueOf(entry.getKey()));
+					out.writeUTF(String.valueOf(entry.getValue()));
+				}
+			}
+			Map<String, String> env = nodeState.getEnv();
+			out.writeInt(null == env ? 0 : env.size());
+			if (null != env) {
+				for (Map.Entry<String, String> entry : env.entrySet()) {
+					out.writeUTF(entry.getKey());
+					EventCodecs.writeString(out, entry.getValue());
+				}
+			}
+			Map<String, SiteState> siteStates = nodeState.getSiteStates();
+			out.writeInt(null == siteStates ? 0 : siteStates.size());
+			if (null != siteStates) {
+				for (Map.Entry<String, SiteState> entry : siteStates.entrySet()) {
+					out.writeUTF(entry.getKey());
+					EventCodecs.writeString(out, entry.getValue().name());
+				}
+			}
+			// version 2
+			out.writeLong(event.getRevision());
+			out.writeLong(event.getBaseRevision());
+			writeKeys(out, event.getRemovedProps());
+			writeKeys(out, event.getRemovedEnv());
+			writeKeys(out, event.getRemovedSites());
+		}
+
+		public NodeEvent read(DataInput in, int version, String siteName) throws IOException {
+			NodeEvent event = new NodeEvent(siteName);
+			NodeState nodeState = event.getNodeState();
+			long time = in.readLong();
+			nodeState.setDate(0L == time ? null : new Date(time));
+			nodeState.setHeap(readMemoryUsage(in, event));
+			nodeState.setNonHeap(readMemoryUsage(in, event));
+			Properties props = new Properties();
+			for (int i = in.readInt(); i > 0; i--) {
+				props.put(in.readUTF(), in.readUTF());
+			}
+			nodeState.setProps(props);
+			Map<String, String> env = new HashMap<>();
+			for (int i = in.readInt(); i > 0; i--) {
+				env.put(in.readUTF(), EventCodecs.readString(in));
+			}
+			nodeState.setEnv(env);
+			Map<String, SiteState> siteStates = new ConcurrentHashMap<>();
+			for (int i = in.readInt(); i > 0; i--) {
+				String site = in.readUTF();
+				SiteState state = EnumUtils.getEnum(SiteState.class, EventCodecs.readString(in));
+				if (null != state) {
+					siteStates.put(site, state);
+				}
+			}
+			nodeState.setSiteStates(siteStates);
+			if (version > 1) {
+				event.setRevision(in.readLong());
+				event.setBaseRevision(in.readLong());
+				readKeys(in, event.getRemovedProps());
+				readKeys(in, event.getRemovedEnv());
+				readKeys(in, event.getRemovedSites());
+			}
+			return event;
+		}
+
+		private void writeKeys(DataOutput out, Set<String> keys) throws IOException {
+			out.writeInt(keys.size());
+			for (String key : keys) {
+				out.writeUTF(key);
+			}
+		}
+
+		private void readKeys(DataInput in, Set<String> keys) throws IOException {
+			for (int i = in.readInt(); i > 0; i--) {
+				keys.add(in.readUTF());
+			}
+		}
+
+		private void writeMemoryUsage(DataOutput out, MemoryUsage usage) throws IOException {
+			out.writeBoolean(null != usage);
+			if (null != usage) {
+				out.writeLong(usage.getSize());
+				out.writeLong(usage.getMax());
+				out.writeLong(usage.getUsed());
+				out.writeDouble(usage.getUsedPercent());
+			}
+		}
+
+		private MemoryUsage readMemoryUsage(DataInput in, NodeEvent event) throws IOException {
+			if (!in.readBoolean()) {
+				return null;
+			}
+			MemoryUsage usage = event.new MemoryUsage();
+			usage.setSize(in.readLong());
+			usage.setMax(in.readLong());
+			usage.setUsed(in.readLong());
+			usage.setUsedPercent(in.readDouble());
+			return usage;
+		}
+	}
+
+	public static class HeartBeatCodec extends BaseCodec<HeartBeatEvent> {
+		public HeartBeatCodec() {
+			super(9, HeartBeatEvent.class);
+		}
+
+		@Override
+		public int getVersion() {
+			return 2;
+		}
+
+		public void write(DataOutput out, HeartBeatEvent event) throws IOException {
+			out.writeLong(event.getSequence());
+			out.writeLong(event.getTimestamp());
+			out.writeLong(event.getRevision());
+			out.writeLong(event.getHeapUsed());
+			out.writeLong(event.getHeapCommitted());
+			out.writeLong(event.getHeapMax());
+			out.writeLong(event.getNonHeapUsed());
+			out.writeLong(event.getNonHeapCommitted());
+			out.writeLong(event.getNonHeapMax());
+			writeVarLong(out, event.getEventsSent());
+			writeVarLong(out, event.getEventsReceived());
+		}
+
+		public HeartBeatEvent read(DataInput in, int version, String siteName) throws IOException {
+			return new HeartBeatEvent(in.readLong(), in.readLong(), in.readLong(), in.readLong(), in.readLong(),
+					in.readLong(), in.readLong(), in.readLong(), in.readLong(), version > 1 ? readVarLong(in) : 0,
+					version > 1 ? readVarLong(in) : 0);
+		}
+	}
+
+	/**
+	 * Writes a non-negative value using 7 bits per byte, so small values only take a few bytes
+	 */
+	static void writeVarLong(DataOutput out, long value) throws IOException {
+		while ((value & ~0x7FL) != 0) {
+			out.writeByte((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.writeByte((int) value);
+	}
+
+	static long readVarLong(DataInput in) throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			int b = in.readUnsignedByte();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("malformed variable length value");
+	}
+
+	private static SiteState readState(DataInput in) throws IOException {
+		String state = EventCodecs.readString(in);
+		if (null == state) {
+			return null;
+		}
+		try {
+			return SiteState.valueOf(state);
+		} catch (IllegalArgumentException e) {
+			throw new IOException("unknown site state: " + state, e);
+		}
+	}
+
+}
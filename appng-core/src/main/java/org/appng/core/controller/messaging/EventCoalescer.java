@@ -0,0 +1,159 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.core.controller.messaging;
+
+import java.io.Closeable;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+import org.apache.commons.lang3.StringUtils;
+import org.appng.api.messaging.Event;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Collapses equivalent {@link Event}s received within a configurable window. An event offered to the coalescer is
+ * held back until the window has elapsed. Equivalent events (see {@link Event#getCoalescingKey()}) arriving in the
+ * meantime replace the pending one and are counted as suppressed, so only the latest event is performed.
+ * <p>
+ * Events without a coalescing key are not held back. Before such an event is performed, all pending events for the
+ * same site are performed, so the order between idempotent and non-idempotent events of a site is preserved.
+ * 
+ * @see org.appng.api.Platform.Property#MESSAGING_COALESCING_WINDOW
+ */
+class EventCoalescer implements Closeable {
+
+	private final String name;
+	private final long window;
+	private final BiConsumer<Event, Runnable> executor;
+	private final MessagingMetrics metrics;
+	private final Map<Object, Pending> pending = new ConcurrentHashMap<>();
+	private final AtomicLong suppressed = new AtomicLong();
+	private final ScheduledThreadPoolExecutor scheduler;
+
+	/**
+	 * Creates a new {@link EventCoalescer}
+	 * 
+	 * @param name
+	 *                 the name of the receiver, used for naming the thread and the metrics
+	 * @param window
+	 *                 the coalescing window in milliseconds
+	 * @param executor
+	 *                 performs the pending action for an event once the window has elapsed
+	 * @param metrics
+	 *                 the (optional) {@link MessagingMetrics}
+	 */
+	EventCoalescer(String name, long window, BiConsumer<Event, Runnable> executor, MessagingMetrics metrics) {
+		this.name = name;
+		this.window = window;
+		this.executor = executor;
+		this.metrics = metrics;
+		this.scheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactoryBuilder().setDaemon(true)
+				.setNameFormat("appng-messaging-" + name + "-coalescer").build());
+		this.scheduler.setRemoveOnCancelPolicy(true);
+	}
+
+	/**
+	 * Offers an event to the coalescer.
+	 * 
+	 * @param  event
+	 *                the {@link Event}
+	 * @param  action
+	 *                the action performing the event
+	 * 
+	 * @return        {@code true} if the event is held back and the action is performed later on, {@code false} if
+	 *                the caller must perform the action itself
+	 */
+	boolean offer(Event event, Runnable action) {
+		Object key = event.getCoalescingKey();
+		if (null == key || scheduler.isShutdown()) {
+			flush(event.getSiteName());
+			return false;
+		}
+		pending.compute(key, (k, existing) -> {
+			if (null == existing) {
+				Pending created = new Pending(event, action);
+				created.expiry = scheduler.schedule(() -> expire(k, created), window, TimeUnit.MILLISECONDS);
+				return created;
+			}
+			suppressed.incrementAndGet();
+			if (null != metrics) {
+				metrics.suppressed(name, event.getClass().getSimpleName());
+			}
+			existing.event = event;
+			existing.action = action;
+			return existing;
+		});
+		return true;
+	}
+
+	private void expire(Object key, Pending expired) {
+		if (pending.remove(key, expired)) {
+			executor.accept(expired.event, expired.action);
+		}
+	}
+
+	/**
+	 * Synchronously performs all pending events for the given site.
+	 * 
+	 * @param siteName
+	 *                 the name of the site
+	 */
+	void flush(String siteName) {
+		if (StringUtils.isNotBlank(siteName)) {
+			for (Entry<Object, Pending> entry : pending.entrySet()) {
+				Pending flushed = entry.getValue();
+				if (Objects.equals(siteName, flushed.event.getSiteName())
+						&& pending.remove(entry.getKey(), flushed)) {
+					flushed.expiry.cancel(false);
+					flushed.action.run();
+				}
+			}
+		}
+	}
+
+	long getSuppressed() {
+		return suppressed.get();
+	}
+
+	int getPending() {
+		return pending.size();
+	}
+
+	public void close() {
+		scheduler.shutdownNow();
+		pending.clear();
+	}
+
+	private static class Pending {
+		private volatile Event event;
+		private volatile Runnable action;
+		private volatile ScheduledFuture<?> expiry;
+
+		Pending(Event event, Runnable action) {
+			this.event = event;
+			this.action = action;
+		}
+	}
+
+}
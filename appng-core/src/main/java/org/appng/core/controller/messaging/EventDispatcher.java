@@ -0,0 +1,311 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.core.controller.messaging;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.appng.api.Platform;
+import org.appng.api.messaging.Event;
+import org.appng.api.messaging.EventCodec;
+import org.appng.api.messaging.EventRegistry;
+import org.appng.api.messaging.Serializer;
+import org.appng.api.model.Properties;
+import org.appng.core.controller.filter.MetricsFilter;
+import org.slf4j.Logger;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import io.prometheus.client.CollectorRegistry;
+
+/**
+ * Dispatches the raw data received by a {@link org.appng.api.messaging.Receiver} to a fixed number of lanes, each
+ * backed by a single thread with a bounded queue. Events of the same type (see {@link Serializer#getTypeId(byte[],
+ * int)}) are always handled by the same lane, so their order is preserved, while a slow handler for one type does not
+ * block the others. If a lane's queue stays full for longer than the configured timeout, or if the event exceeds the
+ * (optional) maximum size, the event is dropped and counted. Events that can be coalesced are passed to an
+ * {@link EventCoalescer} before being handled.
+ * <p>
+ * Until {@link #start(ExecutorService)} is called, events are handled synchronously by the calling thread.
+ * 
+ * @see Platform.Property#MESSAGING_DISPATCHER_THREADS
+ * @see Platform.Property#MESSAGING_DISPATCHER_QUEUE_SIZE
+ * @see Platform.Property#MESSAGING_DISPATCHER_OFFER_TIMEOUT
+ * @see Platform.Property#MESSAGING_COALESCING_WINDOW
+ * @see MessagingMetrics
+ */
+public class EventDispatcher implements Closeable {
+
+	static final String QUEUE_FULL = "queue_full";
+	static final String OVERSIZED = "oversized";
+	static final String SHUTDOWN = "shutdown";
+	/** The default value for {@link Platform.Property#MESSAGING_DISPATCHER_THREADS} */
+	public static final int DEFAULT_THREADS = 4;
+	/** The default value for {@link Platform.Property#MESSAGING_DISPATCHER_QUEUE_SIZE} */
+	public static final int DEFAULT_QUEUE_SIZE = 1000;
+	/** The default value for {@link Platform.Property#MESSAGING_DISPATCHER_OFFER_TIMEOUT} */
+	public static final int DEFAULT_OFFER_TIMEOUT = 1000;
+	/** The default value for {@link Platform.Property#MESSAGING_COALESCING_WINDOW} */
+	public static final int DEFAULT_COALESCING_WINDOW = 500;
+
+	private final String name;
+	private final Logger logger;
+	private final EventRegistry registry;
+	private final Serializer serializer;
+	private final int threads;
+	private final int queueSize;
+	private final long offerTimeout;
+	private final int maxEventSize;
+	private final MessagingMetrics metrics;
+	private final EventCoalescer coalescer;
+	private final AtomicLong handled = new AtomicLong();
+	private final AtomicLong dropped = new AtomicLong();
+	private volatile ThreadPoolExecutor[] lanes;
+	private volatile boolean closed;
+	private ExecutorService asyncExecutor;
+
+	EventDispatcher(String name, Logger logger, EventRegistry registry, Serializer serializer) {
+		this(name, logger, registry, serializer, 0);
+	}
+
+	/**
+	 * Creates a new {@link EventDispatcher}
+	 * 
+	 * @param name
+	 *                     the name of the dispatcher, i.e. the messaging provider
+	 * @param logger
+	 *                     the {@link Logger} to use
+	 * @param registry
+	 *                     the {@link EventRegistry} holding the handlers
+	 * @param serializer
+	 *                     the {@link Serializer} for the received data
+	 * @param maxEventSize
+	 *                     the maximum size of an event in bytes, larger events are dropped. {@code 0} means unlimited.
+	 */
+	EventDispatcher(String name, Logger logger, EventRegistry registry, Serializer serializer, int maxEventSize) {
+		this.name = name;
+		this.logger = logger;
+		this.registry = registry;
+		this.serializer = serializer;
+		Properties platformConfig = serializer.getPlatformConfig();
+		this.threads = getInteger(platformConfig, Platform.Property.MESSAGING_DISPATCHER_THREADS, DEFAULT_THREADS);
+		this.queueSize = getInteger(platformConfig, Platform.Property.MESSAGING_DISPATCHER_QUEUE_SIZE,
+				DEFAULT_QUEUE_SIZE);
+		this.offerTimeout = getInteger(platformConfig, Platform.Property.MESSAGING_DISPATCHER_OFFER_TIMEOUT,
+				DEFAULT_OFFER_TIMEOUT);
+		this.maxEventSize = maxEventSize;
+		CollectorRegistry collectorRegistry = MetricsFilter.getPlatformRegistry();
+		this.metrics = null == collectorRegistry ? null : MessagingMetrics.get(collectorRegistry);
+		if (null != metrics) {
+			metrics.addDispatcher(this);
+		}
+		Integer coalescingWindow = null == platformConfig ? null
+				: platformConfig.getInteger(Platform.Property.MESSAGING_COALESCING_WINDOW, DEFAULT_COALESCING_WINDOW);
+		long window = null == coalescingWindow ? DEFAULT_COALESCING_WINDOW : coalescingWindow;
+		this.coalescer = window > 0 ? new EventCoalescer(name, window, this::execute, metrics) : null;
+	}
+
+	static int getInteger(Properties platformConfig, String name, int defaultValue) {
+		Integer value = null == platformConfig ? null : platformConfig.getInteger(name, defaultValue);
+		return null == value || value < 1 ? defaultValue : value;
+	}
+
+	/**
+	 * Starts the lanes of this dispatcher.
+	 * 
+	 * @param asyncExecutor
+	 *                      the (optional) {@link ExecutorService} used to perform {@link Event#isAsync()} events
+	 */
+	synchronized void start(ExecutorService asyncExecutor) {
+		if (null == lanes && !closed) {
+			this.asyncExecutor = asyncExecutor;
+			ThreadPoolExecutor[] newLanes = new ThreadPoolExecutor[threads];
+			for (int i = 0; i < threads; i++) {
+				newLanes[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+						new ArrayBlockingQueue<>(queueSize), new ThreadFactoryBuilder().setDaemon(true)
+								.setNameFormat("appng-messaging-" + name + "-" + i).build());
+				newLanes[i].prestartCoreThread();
+			}
+			this.lanes = newLanes;
+			logger.info("started dispatcher {} with {} lanes (queue size: {})", name, threads, queueSize);
+		}
+	}
+
+	/**
+	 * Dispatches the given data.
+	 * 
+	 * @param  data
+	 *                              the received data
+	 * @param  length
+	 *                              the number of valid bytes in {@code data}
+	 * @param  alternativeCondition
+	 *                              see {@link Messaging#handleEvent(Logger, EventRegistry, Serializer, Event, boolean,
+	 *                              ExecutorService)}
+	 * @param  release
+	 *                              an (optional) callback to be notified when {@code data} is no longer needed
+	 * 
+	 * @return                      {@code true} if the data has been accepted, {@code false} if it has been dropped
+	 */
+	boolean dispatch(byte[] data, int length, boolean alternativeCondition, Consumer<byte[]> release) {
+		if (closed) {
+			drop(data, release, SHUTDOWN);
+			return false;
+		}
+		if (maxEventSize > 0 && length > maxEventSize) {
+			logger.warn("dropping event of {} bytes, maximum is {}", length, maxEventSize);
+			drop(data, release, OVERSIZED);
+			return false;
+		}
+		Runnable task = () -> handle(data, length, alternativeCondition, release);
+		ThreadPoolExecutor[] currentLanes = lanes;
+		if (null == currentLanes) {
+			task.run();
+			return true;
+		}
+		int typeId = Serializer.getTypeId(data, length);
+		ThreadPoolExecutor lane = currentLanes[typeId < 0 ? 0 : typeId % currentLanes.length];
+		try {
+			if (!lane.isShutdown() && lane.getQueue().offer(task, offerTimeout, TimeUnit.MILLISECONDS)) {
+				return true;
+			}
+			drop(data, release, lane.isShutdown() ? SHUTDOWN : QUEUE_FULL);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			drop(data, release, SHUTDOWN);
+		}
+		return false;
+	}
+
+	private void handle(byte[] data, int length, boolean alternativeCondition, Consumer<byte[]> release) {
+		long start = System.nanoTime();
+		Event event = null;
+		try {
+			try {
+				event = length == data.length ? serializer.deserialize(data)
+						: serializer.deserialize(new ByteArrayInputStream(data, 0, length));
+			} finally {
+				if (null != release) {
+					release.accept(data);
+				}
+				MessagingMetrics.received(name, event, System.nanoTime() - start);
+			}
+			Messaging.handleEvent(logger, registry, serializer, event, alternativeCondition, asyncExecutor, this);
+		} catch (RuntimeException e) {
+			logger.error("error while handling event", e);
+			MessagingMetrics.handlingFailed(name, event);
+		} finally {
+			handled.incrementAndGet();
+			if (null != metrics) {
+				metrics.observeHandling(name, MessagingMetrics.typeOf(event), System.nanoTime() - start);
+			}
+		}
+	}
+
+	/**
+	 * Performs the action for an event whose coalescing window has elapsed, using the lane responsible for the event's
+	 * type
+	 */
+	private void execute(Event event, Runnable action) {
+		ThreadPoolExecutor[] currentLanes = lanes;
+		if (null == currentLanes) {
+			action.run();
+			return;
+		}
+		EventCodec<? extends Event> codec = serializer.getCodecs().forType(event.getClass());
+		int typeId = null == codec ? -1 : codec.getTypeId();
+		ThreadPoolExecutor lane = currentLanes[typeId < 0 ? 0 : typeId % currentLanes.length];
+		try {
+			lane.execute(action);
+		} catch (RejectedExecutionException e) {
+			logger.warn("dropping pending event {}", event);
+			drop(null, null, lane.isShutdown() ? SHUTDOWN : QUEUE_FULL);
+		}
+	}
+
+	private void drop(byte[] data, Consumer<byte[]> release, String reason) {
+		dropped.incrementAndGet();
+		if (null != metrics) {
+			metrics.dropped(name, reason);
+		}
+		if (null != release) {
+			release.accept(data);
+		}
+	}
+
+	String getName() {
+		return name;
+	}
+
+	EventCoalescer getCoalescer() {
+		return coalescer;
+	}
+
+	Serializer getSerializer() {
+		return serializer;
+	}
+
+	long getHandled() {
+		return handled.get();
+	}
+
+	long getSuppressed() {
+		return null == coalescer ? 0 : coalescer.getSuppressed();
+	}
+
+	long getDropped() {
+		return dropped.get();
+	}
+
+	int getQueueDepth() {
+		ThreadPoolExecutor[] currentLanes = lanes;
+		int depth = 0;
+		if (null != currentLanes) {
+			for (ThreadPoolExecutor lane : currentLanes) {
+				depth += lane.getQueue().size();
+			}
+		}
+		return depth;
+	}
+
+	public synchronized void close() {
+		closed = true;
+		if (null != coalescer) {
+			coalescer.close();
+		}
+		if (null != lanes) {
+			for (ThreadPoolExecutor lane : lanes) {
+				for (int i = lane.shutdownNow().size(); i > 0; i--) {
+					dropped.incrementAndGet();
+					if (null != metrics) {
+						metrics.dropped(name, SHUTDOWN);
+					}
+				}
+			}
+			lanes = null;
+		}
+		if (null != metrics) {
+			metrics.removeDispatcher(this);
+		}
+	}
+
+}
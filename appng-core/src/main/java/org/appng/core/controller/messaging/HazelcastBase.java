@@ -27,6 +27,7 @@ import com.hazelcast.topic.ITopic;
  */
 abstract class HazelcastBase {
 
+	static final String PROVIDER = "hazelcast";
 	public static final String DEFAULT_TOPIC_NAME = "appng-messaging";
 	public static final String HAZELCAST_TOPIC_NAME = "hazelcastTopicName";
 	protected HazelcastInstance instance;
@@ -55,13 +55,14 @@ public class HazelcastReceiver extends HazelcastBase implements Receiver, Messag
 
 	private EventRegistry eventRegistry = new EventRegistry();
 	private UUID listenerId;
-	private ExecutorService executor;
+	private EventDispatcher dispatcher;
 
 	public Receiver configure(Serializer serializer) {
 		this.serializer = serializer;
 		Environment env = serializer.getEnvironment();
 		instance = HazelcastConfigurer.getInstance(
 				env.getAttribute(Scope.PLATFORM, Platform.Environment.PLATFORM_CONFIG), serializer.getNodeId(), env);
+		this.dispatcher = new EventDispatcher(PROVIDER, LOGGER, eventRegistry, serializer);
 		return this;
 	}
 
@@ -70,7 +71,7 @@ public class HazelcastReceiver extends HazelcastBase implements Receiver, Messag
 	}
 
 	public void runWith(ExecutorService executor) {
-		this.executor = executor;
+		dispatcher.start(executor);
 		ITopic<byte[]> topic = getTopic();
 		this.listenerId = topic.addMessageListener(this);
 		LOGGER.info("Listening to topic {} on {} with id {}", topic.getName(), instance, listenerId);
@@ -78,6 +79,7 @@ public class HazelcastReceiver extends HazelcastBase implements Receiver, Messag
 
 	@Override
 	public void close() throws IOException {
+		dispatcher.close();
 		getTopic().removeMessageListener(listenerId);
 		String appngVersion = serializer.getEnvironment().getAttribute(Scope.PLATFORM,
 				Platform.Environment.APPNG_VERSION);
@@ -87,7 +89,8 @@ public class HazelcastReceiver extends HazelcastBase implements Receiver, Messag
 	}
 
 	public void onMessage(Message<byte[]> message) {
-		Messaging.handleEvent(LOGGER, eventRegistry, serializer, message.getMessageObject(), false, executor);
+		byte[] data = message.getMessageObject();
+		dispatcher.dispatch(data, data.length, false, null);
 	}
 
 	protected Logger logger() {
@@ -48,16 +48,22 @@ public class HazelcastSender extends HazelcastBase implements Sender {
 	}
 
 	public boolean send(Event event) {
+		long serializationTime = -1;
+		boolean sent = false;
 		try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+			long start = System.nanoTime();
 			serializer.serialize(out, event);
+			serializationTime = System.nanoTime() - start;
 			ITopic<byte[]> topic = getTopic();
 			topic.publish(out.toByteArray());
 			LOGGER.debug("Successfully published event {} to {}", event, topic);
-			return true;
+			sent = true;
 		} catch (IOException e) {
 			logger().error(String.format("error while sending event %s", event), e);
+		} finally {
+			MessagingMetrics.sent(PROVIDER, event, serializationTime, sent);
 		}
-		return false;
+		return sent;
 	}
 
 	protected Logger logger() {
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.core.controller.messaging;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Date;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+import org.appng.api.Environment;
+import org.appng.api.InvalidConfigurationException;
+import org.appng.api.messaging.Event;
+import org.appng.api.model.Site;
+import org.appng.core.controller.messaging.NodeEvent.MemoryUsage;
+import org.appng.core.controller.messaging.NodeEvent.NodeState;
+
+import lombok.Getter;
+
+/**
+ * A small, fixed-size {@link Event} that is periodically sent by each node, signaling that the node is alive. Besides
+ * the memory usage and the total number of events sent and received by the node (used to calculate the node's message
+ * rates), it contains the revision of the node's descriptor. If the receiver's view of the node is at
+ * another revision, it requests the full descriptor with {@link RequestNodeState}.
+ * 
+ * @see NodeEvent
+ * @see NodeDescriptor
+ */
+@Getter
+public class HeartBeatEvent extends Event {
+
+	private final long sequence;
+	private final long timestamp;
+	private final long revision;
+	private final long heapUsed;
+	private final long heapCommitted;
+	private final long heapMax;
+	private final long nonHeapUsed;
+	private final long nonHeapCommitted;
+	private final long nonHeapMax;
+	private final long eventsSent;
+	private final long eventsReceived;
+
+	/**
+	 * Creates a heartbeat for the current node, using the current memory usage
+	 * 
+	 * @param sequence
+	 *                 the sequence number of the heartbeat
+	 * @param revision
+	 *                 the current revision of the node descriptor
+	 */
+	public HeartBeatEvent(long sequence, long revision) {
+		this(sequence, System.currentTimeMillis(), revision, ManagementFactory.getMemoryMXBean());
+	}
+
+	private HeartBeatEvent(long sequence, long timestamp, long revision, MemoryMXBean memory) {
+		this(sequence, timestamp, revision, memory.getHeapMemoryUsage(), memory.getNonHeapMemoryUsage());
+	}
+
+	private HeartBeatEvent(long sequence, long timestamp, long revision, java.lang.management.MemoryUsage heap,
+			java.lang.management.MemoryUsage nonHeap) {
+		this(sequence, timestamp, revision, heap.getUsed(), heap.getCommitted(), heap.getMax(), nonHeap.getUsed(),
+				nonHeap.getCommitted(), nonHeap.getMax(), MessagingMetrics.getEventsSent(),
+				MessagingMetrics.getEventsReceived());
+	}
+
+	HeartBeatEvent(long sequence, long timestamp, long revision, long heapUsed, long heapCommitted, long heapMax,
+			long nonHeapUsed, long nonHeapCommitted, long nonHeapMax, long eventsSent, long eventsReceived) {
+		super(StringUtils.EMPTY);
+		this.sequence = sequence;
+		this.timestamp = timestamp;
+		this.revision = revision;
+		this.heapUsed = heapUsed;
+		this.heapCommitted = heapCommitted;
+		this.heapMax = heapMax;
+		this.nonHeapUsed = nonHeapUsed;
+		this.nonHeapCommitted = nonHeapCommitted;
+		this.nonHeapMax = nonHeapMax;
+		this.eventsSent = eventsSent;
+		this.eventsReceived = eventsReceived;
+	}
+
+	public void perform(Environment environment, Site site) throws InvalidConfigurationException {
+		Map<String, NodeState> clusterState = NodeEvent.clusterState(environment, getNodeId());
+		NodeState nodeState = clusterState.get(getNodeId());
+		NodeEvent nodeEvent = new NodeEvent(getSiteName());
+		nodeState.setNonHeap(memoryUsage(nodeEvent, nonHeapUsed, nonHeapCommitted, nonHeapMax));
+		nodeState.setHeap(memoryUsage(nodeEvent, heapUsed, heapCommitted, heapMax));
+		nodeState.setLastHeartBeat(new Date());
+		nodeState.setHeartBeats(nodeState.getHeartBeats() + 1);
+		nodeState.setStale(false);
+		nodeState.updateMessageRates(timestamp, eventsSent, eventsReceived);
+		if (nodeState.getRevision() != revision) {
+			RequestNodeState.request(environment, getNodeId());
+		}
+	}
+
+	private MemoryUsage memoryUsage(NodeEvent nodeEvent, long used, long committed, long max) {
+		return nodeEvent.new MemoryUsage(new java.lang.management.MemoryUsage(-1, used, committed, max));
+	}
+
+	@Override
+	public String toString() {
+		return super.toString() + " - Sequence: " + sequence + " - Revision: " + revision;
+	}
+
+}
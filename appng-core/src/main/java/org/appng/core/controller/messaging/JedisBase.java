@@ -28,6 +28,7 @@ import redis.clients.jedis.Jedis;
  */
 public class JedisBase {
 
+	static final String PROVIDER = "jedis";
 	protected static final String REDIS_MESSAGING_PASSWORD = "redisMessagingPassword";
 	protected static final String REDIS_MESSAGING_CHANNEL = "redisMessagingChannel";
 	protected static final String REDIS_MESSAGING_TIMEOUT = "redisMessagingTimeout";
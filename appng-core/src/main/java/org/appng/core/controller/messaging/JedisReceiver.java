@@ -52,10 +52,12 @@ public class JedisReceiver extends JedisBase implements Receiver, Runnable {
 
 	private EventRegistry eventRegistry = new EventRegistry();
 	private Jedis jedis;
+	private EventDispatcher dispatcher;
 
 	public Receiver configure(Serializer eventDeserializer) {
 		this.eventSerializer = eventDeserializer;
 		initialize();
+		this.dispatcher = new EventDispatcher(PROVIDER, LOGGER, eventRegistry, eventSerializer);
 		return this;
 	}
 
@@ -64,6 +66,7 @@ public class JedisReceiver extends JedisBase implements Receiver, Runnable {
 	}
 
 	public void runWith(ExecutorService executorService) {
+		dispatcher.start(null);
 		executorService.submit(this);
 	}
 
@@ -73,7 +76,7 @@ public class JedisReceiver extends JedisBase implements Receiver, Runnable {
 		BinaryJedisPubSub pubSub = new BinaryJedisPubSub() {
 
 			public void onMessage(byte[] channel, byte[] message) {
-				Messaging.handleEvent(LOGGER, eventRegistry, eventSerializer, message, false, null);
+				dispatcher.dispatch(message, message.length, false, null);
 			}
 		};
 		jedis.subscribe(pubSub, this.channel.getBytes());
@@ -148,6 +151,7 @@ public class JedisReceiver extends JedisBase implements Receiver, Runnable {
 	}
 
 	public void close() throws IOException {
+		dispatcher.close();
 		jedis.close();
 	}
 
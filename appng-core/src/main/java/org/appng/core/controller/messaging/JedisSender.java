@@ -45,16 +45,21 @@ public class JedisSender extends JedisBase implements Sender {
 	public boolean send(Event event) {
 		Jedis jedis = getJedis();
 		ByteArrayOutputStream outMessage = new ByteArrayOutputStream();
+		long serializationTime = -1;
+		boolean sent = false;
 		try {
+			long start = System.nanoTime();
 			eventSerializer.serialize(outMessage, event);
+			serializationTime = System.nanoTime() - start;
 			jedis.publish(channel.getBytes(), outMessage.toByteArray());
 			LOGGER.debug("Successfully published event {}", event);
-			return true;
+			sent = true;
 		} catch (IOException e) {
 			LOGGER.error(String.format("error while sending event %s", event), e);
 		} finally {
 			jedis.close();
+			MessagingMetrics.sent(PROVIDER, event, serializationTime, sent);
 		}
-		return false;
+		return sent;
 	}
 }
@@ -23,6 +23,8 @@ import java.util.Enumeration;
 
 abstract class MessageHandler {
 
+	static final String PROVIDER = "multicast";
+
 	private Integer port;
 	private String address;
 
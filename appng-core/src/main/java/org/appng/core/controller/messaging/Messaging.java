@@ -38,45 +38,78 @@ class Messaging {
 
 	static void handleEvent(final Logger logger, EventRegistry registry, Serializer serializer, byte[] eventData,
 			boolean alternativeCondition, ExecutorService executor) {
-		Event event = serializer.deserialize(eventData);
+		handleEvent(logger, registry, serializer, serializer.deserialize(eventData), alternativeCondition, executor);
+	}
+
+	static void handleEvent(final Logger logger, EventRegistry registry, Serializer serializer, Event event,
+			boolean alternativeCondition, ExecutorService executor) {
+		handleEvent(logger, registry, serializer, event, alternativeCondition, executor, null);
+	}
+
+	/**
+	 * Handles the given event, if it originates from another node or if the alternative condition is met. If an
+	 * {@link EventDispatcher} is given, the event is offered to its {@link EventCoalescer} before being performed and
+	 * failing handlers are recorded in the {@link MessagingMetrics}.
+	 */
+	static void handleEvent(final Logger logger, EventRegistry registry, Serializer serializer, Event event,
+			boolean alternativeCondition, ExecutorService executor, EventDispatcher dispatcher) {
 		if (null != event) {
-			try {
-				String siteName = event.getSiteName();
-				Site site = StringUtils.isNotBlank(siteName) ? serializer.getSite(siteName) : null;
-				String currentNode = serializer.getNodeId();
-				String originNode = event.getNodeId();
-				logger.trace("current node: {}, originNode node: {}", currentNode, originNode);
-				boolean sameNode = StringUtils.equals(currentNode, originNode);
-				if (!sameNode || alternativeCondition) {
-					logger.info("about to execute {} ", event);
-					boolean isAsync = event.isAsync() && null != executor;
-					for (EventHandler<Event> eventHandler : registry.getHandlers(event)) {
-						if (isAsync) {
-							executor.submit(() -> processEvent(logger, serializer, event, site, eventHandler));
-						} else {
-							processEvent(logger, serializer, event, site, eventHandler);
-						}
-					}
+			String currentNode = serializer.getNodeId();
+			String originNode = event.getNodeId();
+			logger.trace("current node: {}, originNode node: {}", currentNode, originNode);
+			boolean sameNode = StringUtils.equals(currentNode, originNode);
+			if (!sameNode || alternativeCondition) {
+				String receiver = null == dispatcher ? null : dispatcher.getName();
+				Runnable execution = () -> executeEvent(logger, registry, serializer, event, executor, receiver);
+				EventCoalescer coalescer = null == dispatcher ? null : dispatcher.getCoalescer();
+				if (null == coalescer || !coalescer.offer(event, execution)) {
+					execution.run();
 				} else {
-					logger.debug("event {} is from myself ({}) and can be ignored", event, currentNode);
+					logger.debug("event {} is pending", event);
 				}
-
-			} catch (Exception e) {
-				logger.error(String.format("Error while executing event %s", event), e);
+			} else {
+				logger.debug("event {} is from myself ({}) and can be ignored", event, currentNode);
 			}
 		} else {
 			logger.debug("could not read event");
 		}
 	}
 
+	private static void executeEvent(final Logger logger, EventRegistry registry, Serializer serializer, Event event,
+			ExecutorService executor, String receiver) {
+		try {
+			String siteName = event.getSiteName();
+			Site site = StringUtils.isNotBlank(siteName) ? serializer.getSite(siteName) : null;
+			logger.info("about to execute {} ", event);
+			boolean isAsync = event.isAsync() && null != executor;
+			for (EventHandler<Event> eventHandler : registry.getHandlers(event)) {
+				if (isAsync) {
+					executor.submit(() -> processEvent(logger, serializer, event, site, eventHandler, receiver));
+				} else {
+					processEvent(logger, serializer, event, site, eventHandler, receiver);
+				}
+			}
+		} catch (Exception e) {
+			logger.error(String.format("Error while executing event %s", event), e);
+			handlingFailed(receiver, event);
+		}
+	}
+
 	private static void processEvent(final Logger logger, Serializer serializer, Event event, Site site,
-			EventHandler<Event> eventHandler) {
+			EventHandler<Event> eventHandler, String receiver) {
 		try {
 			eventHandler.onEvent(event, serializer.getEnvironment(), site);
 		} catch (Exception e) {
 			String message = String.format("Error while executing event %s with %s", event,
 					eventHandler.getClass().getName());
 			logger.error(message, e);
+			handlingFailed(receiver, event);
+		}
+	}
+
+	private static void handlingFailed(String receiver, Event event) {
+		if (null != receiver) {
+			MessagingMetrics.handlingFailed(receiver, event);
 		}
 	}
 
@@ -0,0 +1,269 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.core.controller.messaging;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.appng.api.messaging.Event;
+import org.appng.api.messaging.Serializer;
+import org.appng.core.controller.filter.MetricsFilter;
+
+import io.prometheus.client.Collector;
+import io.prometheus.client.CollectorRegistry;
+import io.prometheus.client.Counter;
+import io.prometheus.client.CounterMetricFamily;
+import io.prometheus.client.GaugeMetricFamily;
+import io.prometheus.client.Histogram;
+
+/**
+ * A {@link Collector} exporting metrics of the messaging senders and of the {@link EventDispatcher}s used by the
+ * messaging receivers. The label {@code receiver} denotes the messaging provider ({@code hazelcast},
+ * {@code multicast}, {@code jedis} or {@code rabbitmq}).
+ * <ul>
+ * <li>{@code appng_messaging_events_sent_total}: number of sent events, labelled with {@code receiver} and
+ * {@code type}</li>
+ * <li>{@code appng_messaging_send_failures_total}: number of events that could not be sent, labelled with
+ * {@code receiver} and {@code type}</li>
+ * <li>{@code appng_messaging_events_received_total}: number of received events, labelled with {@code receiver} and
+ * {@code type}</li>
+ * <li>{@code appng_messaging_handling_failures_total}: number of received events that could not be read or whose
+ * handler failed, labelled with {@code receiver} and {@code type}</li>
+ * <li>{@code appng_messaging_serialization_seconds}: histogram of the time needed to serialize or deserialize an event,
+ * labelled with {@code receiver} and {@code operation} ({@code serialize} or {@code deserialize})</li>
+ * <li>{@code appng_messaging_events_dropped_total}: number of dropped events, labelled with {@code receiver} and
+ * {@code reason} ({@code queue_full}, {@code oversized} or {@code shutdown})</li>
+ * <li>{@code appng_messaging_events_suppressed_total}: number of events that have been collapsed into an equivalent
+ * event, labelled with {@code receiver} and {@code type}</li>
+ * <li>{@code appng_messaging_handling_seconds}: histogram of the time needed to handle an event, labelled with
+ * {@code receiver} and {@code type}</li>
+ * <li>{@code appng_messaging_dispatch_queue_depth}: gauge reflecting the number of events waiting to be handled,
+ * labelled with {@code receiver}</li>
+ * <li>{@code appng_messaging_compressed_events_total}: number of events sent with a compressed payload, labelled with
+ * {@code receiver}</li>
+ * <li>{@code appng_messaging_compression_input_bytes_total} and
+ * {@code appng_messaging_compression_output_bytes_total}: size of the compressed payloads before and after
+ * compression, labelled with {@code receiver}</li>
+ * </ul>
+ * There is exactly one instance per {@link CollectorRegistry}, see {@link #get(CollectorRegistry)}. Independent of
+ * these metrics, the total number of sent and received events of this node is tracked, which is propagated to the
+ * other nodes with the {@link HeartBeatEvent}.
+ */
+public class MessagingMetrics extends Collector {
+
+	static final String PREFIX = "appng_messaging_";
+	static final String SERIALIZE = "serialize";
+	static final String DESERIALIZE = "deserialize";
+	static final String UNKNOWN = "unknown";
+	private static final double[] BUCKETS = { 0.0005, 0.001, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 5, 30 };
+	private static final double[] SERIALIZATION_BUCKETS = { 0.00001, 0.00005, 0.0001, 0.0005, 0.001, 0.005, 0.01,
+			0.05 };
+	private static final AtomicLong EVENTS_SENT = new AtomicLong();
+	private static final AtomicLong EVENTS_RECEIVED = new AtomicLong();
+	private static final ConcurrentMap<CollectorRegistry, MessagingMetrics> INSTANCES = new ConcurrentHashMap<>();
+
+	private final Map<String, EventDispatcher> dispatchers = new ConcurrentHashMap<>();
+	private final Counter dropped;
+	private final Counter suppressed;
+	private final Histogram handlingTime;
+	private final Counter sent;
+	private final Counter sendFailures;
+	private final Counter received;
+	private final Counter handlingFailures;
+	private final Histogram serializationTime;
+
+	private MessagingMetrics(CollectorRegistry registry) {
+		this.dropped = Counter.build(PREFIX + "events_dropped", "number of dropped events")
+				.labelNames("receiver", "reason").register(registry);
+		this.suppressed = Counter.build(PREFIX + "events_suppressed", "number of coalesced events")
+				.labelNames("receiver", "type").register(registry);
+		this.handlingTime = Histogram.build(PREFIX + "handling_seconds", "time needed to handle an event")
+				.labelNames("receiver", "type").buckets(BUCKETS).register(registry);
+		this.sent = Counter.build(PREFIX + "events_sent", "number of sent events").labelNames("receiver", "type")
+				.register(registry);
+		this.sendFailures = Counter.build(PREFIX + "send_failures", "number of events that could not be sent")
+				.labelNames("receiver", "type").register(registry);
+		this.received = Counter.build(PREFIX + "events_received", "number of received events")
+				.labelNames("receiver", "type").register(registry);
+		this.handlingFailures = Counter
+				.build(PREFIX + "handling_failures", "number of received events that could not be handled")
+				.labelNames("receiver", "type").register(registry);
+		this.serializationTime = Histogram
+				.build(PREFIX + "serialization_seconds", "time needed to serialize or deserialize an event")
+				.labelNames("receiver", "operation").buckets(SERIALIZATION_BUCKETS).register(registry);
+		register(registry);
+	}
+
+	/**
+	 * Returns the {@link MessagingMetrics} for the given {@link CollectorRegistry}, creating and registering them if
+	 * necessary.
+	 * 
+	 * @param registry
+	 *                 the {@link CollectorRegistry}
+	 * @return the {@link MessagingMetrics}
+	 */
+	public static MessagingMetrics get(CollectorRegistry registry) {
+		return INSTANCES.computeIfAbsent(registry, MessagingMetrics::new);
+	}
+
+	/**
+	 * Returns the {@link MessagingMetrics} for the platform's {@link CollectorRegistry}
+	 * 
+	 * @return the {@link MessagingMetrics}, or {@code null} if there is no global {@link org.appng.api.Environment}
+	 * 
+	 * @see MetricsFilter#getPlatformRegistry()
+	 */
+	static MessagingMetrics platform() {
+		CollectorRegistry registry = MetricsFilter.getPlatformRegistry();
+		return null == registry ? null : get(registry);
+	}
+
+	/**
+	 * Records an event that has been sent, or could not be sent
+	 * 
+	 * @param receiver
+	 *                           the name of the messaging provider
+	 * @param event
+	 *                           the event
+	 * @param serializationNanos
+	 *                           the time needed to serialize the event, a negative value if serialization failed
+	 * @param success
+	 *                           whether the event has been sent
+	 */
+	static void sent(String receiver, Event event, long serializationNanos, boolean success) {
+		if (success) {
+			EVENTS_SENT.incrementAndGet();
+		}
+		MessagingMetrics metrics = platform();
+		if (null != metrics) {
+			if (serializationNanos >= 0) {
+				metrics.observeSerialization(receiver, SERIALIZE, serializationNanos);
+			}
+			(success ? metrics.sent : metrics.sendFailures).labels(receiver, typeOf(event)).inc();
+		}
+	}
+
+	/**
+	 * Records a received event
+	 * 
+	 * @param receiver
+	 *                             the name of the messaging provider
+	 * @param event
+	 *                             the event, {@code null} if it could not be read
+	 * @param deserializationNanos
+	 *                             the time needed to read the event
+	 */
+	static void received(String receiver, Event event, long deserializationNanos) {
+		MessagingMetrics metrics = platform();
+		if (null != metrics) {
+			metrics.observeSerialization(receiver, DESERIALIZE, deserializationNanos);
+		}
+		if (null == event) {
+			handlingFailed(receiver, null);
+		} else {
+			EVENTS_RECEIVED.incrementAndGet();
+			if (null != metrics) {
+				metrics.received.labels(receiver, typeOf(event)).inc();
+			}
+		}
+	}
+
+	/**
+	 * Records a received event that could not be handled
+	 * 
+	 * @param receiver
+	 *                 the name of the messaging provider
+	 * @param event
+	 *                 the event, {@code null} if it could not be read
+	 */
+	static void handlingFailed(String receiver, Event event) {
+		MessagingMetrics metrics = platform();
+		if (null != metrics) {
+			metrics.handlingFailures.labels(receiver, typeOf(event)).inc();
+		}
+	}
+
+	static long getEventsSent() {
+		return EVENTS_SENT.get();
+	}
+
+	static long getEventsReceived() {
+		return EVENTS_RECEIVED.get();
+	}
+
+	static String typeOf(Event event) {
+		return null == event ? UNKNOWN : event.getClass().getSimpleName();
+	}
+
+	void addDispatcher(EventDispatcher dispatcher) {
+		dispatchers.put(dispatcher.getName(), dispatcher);
+	}
+
+	void removeDispatcher(EventDispatcher dispatcher) {
+		dispatchers.remove(dispatcher.getName(), dispatcher);
+	}
+
+	void dropped(String receiver, String reason) {
+		dropped.labels(receiver, reason).inc();
+	}
+
+	void suppressed(String receiver, String type) {
+		suppressed.labels(receiver, type).inc();
+	}
+
+	void observeHandling(String receiver, String type, long nanos) {
+		handlingTime.labels(receiver, type).observe(nanos / (double) TimeUnit.SECONDS.toNanos(1));
+	}
+
+	private void observeSerialization(String receiver, String operation, long nanos) {
+		serializationTime.labels(receiver, operation).observe(nanos / (double) TimeUnit.SECONDS.toNanos(1));
+	}
+
+	@Override
+	public List<MetricFamilySamples> collect() {
+		List<String> labelNames = Collections.singletonList("receiver");
+		GaugeMetricFamily queueDepth = new GaugeMetricFamily(PREFIX + "dispatch_queue_depth",
+				"number of events waiting to be handled", labelNames);
+		CounterMetricFamily compressedEvents = new CounterMetricFamily(PREFIX + "compressed_events",
+				"number of events sent with a compressed payload", labelNames);
+		CounterMetricFamily inputBytes = new CounterMetricFamily(PREFIX + "compression_input_bytes",
+				"size of the compressed payloads before compression", labelNames);
+		CounterMetricFamily outputBytes = new CounterMetricFamily(PREFIX + "compression_output_bytes",
+				"size of the compressed payloads after compression", labelNames);
+		for (Entry<String, EventDispatcher> dispatcher : dispatchers.entrySet()) {
+			List<String> labels = Collections.singletonList(dispatcher.getKey());
+			queueDepth.addMetric(labels, dispatcher.getValue().getQueueDepth());
+			Serializer serializer = dispatcher.getValue().getSerializer();
+			compressedEvents.addMetric(labels, serializer.getCompressedEvents());
+			inputBytes.addMetric(labels, serializer.getUncompressedBytes());
+			outputBytes.addMetric(labels, serializer.getCompressedBytes());
+		}
+		List<MetricFamilySamples> samples = new ArrayList<>();
+		samples.add(queueDepth);
+		samples.add(compressedEvents);
+		samples.add(inputBytes);
+		samples.add(outputBytes);
+		return samples;
+	}
+
+}
@@ -24,7 +24,6 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 
-import org.apache.commons.io.FileUtils;
 import org.appng.api.Platform;
 import org.appng.api.messaging.EventHandler;
 import org.appng.api.messaging.EventRegistry;
@@ -39,6 +38,12 @@ import lombok.extern.slf4j.Slf4j;
 public class MulticastReceiver extends MessageHandler implements Receiver, Runnable {
 
 	static final String APPNG_MESSAGING_NODE_IPS = "appng.messaging.node_ips";
+	private static final int RECEIVE_BUFFERS = 16;
+	/**
+	 * The default value for {@link Platform.Property#MESSAGING_MAX_EVENT_SIZE}, which is the maximum payload of a UDP
+	 * datagram
+	 */
+	public static final int DEFAULT_MAX_EVENT_SIZE = 65507;
 
 	private Serializer eventSerializer;
 
@@ -46,6 +51,10 @@ public class MulticastReceiver extends MessageHandler implements Receiver, Runna
 
 	private MulticastSocket socket;
 
+	private EventDispatcher dispatcher;
+
+	private ReceiveBufferPool bufferPool;
+
 	public MulticastReceiver() {
 
 	}
@@ -61,10 +70,16 @@ public class MulticastReceiver extends MessageHandler implements Receiver, Runna
 		String address = platformConfig.getString(Platform.Property.MESSAGING_GROUP_ADDRESS);
 		setGroupAddress(address);
 		setGroupPort(port);
+		int maxEventSize = EventDispatcher.getInteger(platformConfig, Platform.Property.MESSAGING_MAX_EVENT_SIZE,
+				DEFAULT_MAX_EVENT_SIZE);
+		this.dispatcher = new EventDispatcher(PROVIDER, LOGGER, eventRegistry, eventSerializer, maxEventSize);
+		// one additional byte to detect truncated datagrams
+		this.bufferPool = new ReceiveBufferPool(RECEIVE_BUFFERS, maxEventSize + 1);
 		return this;
 	}
 
 	public void runWith(ExecutorService executorService) {
+		dispatcher.start(null);
 		executorService.submit(this);
 	}
 
@@ -87,11 +102,11 @@ public class MulticastReceiver extends MessageHandler implements Receiver, Runna
 				LOGGER.debug("node IPs: {}", nodeIpsProp);
 			}
 			while (true) {
-				byte[] inBuf = new byte[(int) FileUtils.ONE_MB];
+				byte[] inBuf = bufferPool.acquire();
 				DatagramPacket inPacket = new DatagramPacket(inBuf, inBuf.length);
 				socket.receive(inPacket);
 				InetAddress senderAddress = inPacket.getAddress();
-				onEvent(inBuf, nodeIps, senderAddress.getHostAddress());
+				onEvent(inBuf, inPacket.getLength(), nodeIps, senderAddress.getHostAddress());
 			}
 		} catch (Exception e) {
 			LOGGER.error("error in run()", e);
@@ -102,11 +117,16 @@ public class MulticastReceiver extends MessageHandler implements Receiver, Runna
 	}
 
 	void onEvent(byte[] data, List<String> nodeIps, String senderHost) throws IOException, InterruptedException {
+		onEvent(data, data.length, nodeIps, senderHost);
+	}
+
+	private void onEvent(byte[] data, int length, List<String> nodeIps, String senderHost) throws IOException {
 		if (nodeIps.isEmpty() || nodeIps.contains(senderHost)) {
 			boolean sameAddress = isSameAddress(senderHost);
-			Messaging.handleEvent(LOGGER, eventRegistry, eventSerializer, data, !sameAddress, null);
+			dispatcher.dispatch(data, length, !sameAddress, bufferPool::release);
 		} else {
 			LOGGER.debug("ignoring message from {}", senderHost);
+			bufferPool.release(data);
 		}
 	}
 
@@ -119,6 +139,9 @@ public class MulticastReceiver extends MessageHandler implements Receiver, Runna
 	}
 
 	public void close() throws IOException {
+		if (null != dispatcher) {
+			dispatcher.close();
+		}
 		if (null != socket) {
 			socket.close();
 		}
@@ -48,6 +48,8 @@ public class MulticastSender extends MessageHandler implements Sender {
 		String groupAddress = getGroupAddress();
 		Integer groupPort = getGroupPort();
 		if (!Boolean.getBoolean(APPNG_MESSAGING_DISABLED)) {
+			long serializationTime = -1;
+			boolean sent = false;
 			try {
 				String nodeAddress = System.getProperty(APPNG_MESSAGING_BIND_ADR);
 				InetAddress inetAddress;
@@ -59,16 +61,21 @@ public class MulticastSender extends MessageHandler implements Sender {
 				}
 				try (DatagramSocket socket = new DatagramSocket(new InetSocketAddress(inetAddress, 0))) {
 					ByteArrayOutputStream out = new ByteArrayOutputStream();
+					long start = System.nanoTime();
 					eventSerializer.serialize(out, event);
+					serializationTime = System.nanoTime() - start;
 					InetAddress address = InetAddress.getByName(groupAddress);
 					DatagramPacket outPacket = new DatagramPacket(out.toByteArray(), out.size(), address, groupPort);
 					socket.send(outPacket);
 					LOGGER.info("sending {} to {}:{} via {}", event, groupAddress, groupPort, inetAddress);
-					return true;
+					sent = true;
 				}
 			} catch (IOException e) {
 				LOGGER.error(String.format("error while sending event %s", event), e);
+			} finally {
+				MessagingMetrics.sent(PROVIDER, event, serializationTime, sent);
 			}
+			return sent;
 		} else {
 			LOGGER.info("sending is disabled via '{}'", APPNG_MESSAGING_DISABLED);
 		}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.core.controller.messaging;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+import org.appng.api.Environment;
+import org.appng.api.messaging.Messaging;
+import org.appng.api.model.Site.SiteState;
+import org.appng.core.controller.messaging.NodeEvent.NodeState;
+
+/**
+ * Keeps track of the descriptor (system properties, environment and site states) of the current node that has been
+ * sent to the cluster, so only the changes need to be sent.
+ * 
+ * @see NodeEvent
+ */
+public class NodeDescriptor {
+
+	private static long revision;
+	private static Map<String, String> props;
+	private static Map<String, String> env;
+	private static Map<String, SiteState> siteStates;
+
+	private NodeDescriptor() {
+	}
+
+	/**
+	 * Creates a {@link NodeEvent} containing the full descriptor of the current node
+	 * 
+	 * @param  environment
+	 *                     the current {@link Environment}
+	 * 
+	 * @return             the event
+	 */
+	public static synchronized NodeEvent full(Environment environment) {
+		NodeEvent event = current(environment);
+		NodeState state = event.getNodeState();
+		Map<String, String> currentProps = toMap(state.getProps());
+		if (0 == revision || !(currentProps.equals(props) && state.getEnv().equals(env)
+				&& state.getSiteStates().equals(siteStates))) {
+			remember(state, currentProps);
+		}
+		event.setRevision(revision);
+		return event;
+	}
+
+	/**
+	 * Creates a {@link NodeEvent} containing the changes of the descriptor since the last time it has been sent. If
+	 * nothing has been sent yet, the full descriptor is returned.
+	 * 
+	 * @param  environment
+	 *                     the current {@link Environment}
+	 * 
+	 * @return             the event, or {@code null} if nothing has changed
+	 */
+	public static synchronized NodeEvent changes(Environment environment) {
+		if (0 == revision) {
+			return full(environment);
+		}
+		NodeEvent event = current(environment);
+		NodeState state = event.getNodeState();
+		Map<String, String> currentProps = toMap(state.getProps());
+
+		Properties changedProps = new Properties();
+		changedProps.putAll(changed(props, currentProps, event.getRemovedProps()));
+		Map<String, String> changedEnv = changed(env, state.getEnv(), event.getRemovedEnv());
+		Map<String, SiteState> changedSites = changed(siteStates, state.getSiteStates(), event.getRemovedSites());
+		if (changedProps.isEmpty() && changedEnv.isEmpty() && changedSites.isEmpty()
+				&& event.getRemovedProps().isEmpty() && event.getRemovedEnv().isEmpty()
+				&& event.getRemovedSites().isEmpty()) {
+			return null;
+		}
+
+		event.setBaseRevision(revision);
+		remember(state, currentProps);
+		event.setRevision(revision);
+		state.setProps(changedProps);
+		state.setEnv(changedEnv);
+		state.setSiteStates(changedSites);
+		return event;
+	}
+
+	/**
+	 * Returns the revision of the descriptor that has been sent last
+	 * 
+	 * @return the revision, {@code 0} if nothing has been sent yet
+	 */
+	public static synchronized long getRevision() {
+		return revision;
+	}
+
+	static synchronized void reset() {
+		revision = 0;
+		props = null;
+		env = null;
+		siteStates = null;
+	}
+
+	private static NodeEvent current(Environment environment) {
+		return new NodeEvent(environment, StringUtils.EMPTY, Messaging.getNodeId());
+	}
+
+	private static void remember(NodeState state, Map<String, String> currentProps) {
+		// start with the current time, so a restarted node never reuses a revision
+		revision = 0 == revision ? System.currentTimeMillis() : revision + 1;
+		props = currentProps;
+		env = new HashMap<>(state.getEnv());
+		siteStates = new HashMap<>(state.getSiteStates());
+	}
+
+	private static <V> Map<String, V> changed(Map<String, V> previous, Map<String, V> current, Set<String> removed) {
+		Map<String, V> changed = new HashMap<>();
+		for (Map.Entry<String, V> entry : current.entrySet()) {
+			if (!entry.getValue().equals(previous.get(entry.getKey()))) {
+				changed.put(entry.getKey(), entry.getValue());
+			}
+		}
+		for (String key : previous.keySet()) {
+			if (!current.containsKey(key)) {
+				removed.add(key);
+			}
+		}
+		return changed;
+	}
+
+	private static Map<String, String> toMap(Properties properties) {
+		Map<String, String> map = new HashMap<>();
+		properties.forEach((k, v) -> map.put(String.valueOf(k), String.valueOf(v)));
+		return map;
+	}
+
+}
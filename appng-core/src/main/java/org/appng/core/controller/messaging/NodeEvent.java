@@ -20,8 +20,10 @@ import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryMXBean;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.appng.api.Environment;
@@ -36,17 +38,32 @@ import org.appng.api.model.Site.SiteState;
 
 import lombok.Getter;
 import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
 
 /**
  * An {@link Event} that holds information about the current status of an node (system properties and environment,
- * memory usage, state of sites).
+ * memory usage, state of sites). Each descriptor has a revision. A full descriptor replaces the state of the node,
+ * whereas a delta (see {@link #isDelta()}) only contains the changed entries and is applied to the state with the
+ * base revision. If the receiver is not at the base revision, it requests a full descriptor with
+ * {@link RequestNodeState}.
  * 
  * @author Matthias Müller
+ * 
+ * @see NodeDescriptor
+ * @see HeartBeatEvent
  */
+@Slf4j
 public class NodeEvent extends Event {
 
+	private static final long serialVersionUID = 2317743849996705337L;
+
 	public static final String NODE_STATE = "nodeState";
 	private NodeState nodeState;
+	private long revision;
+	private long baseRevision;
+	private Set<String> removedProps = new HashSet<>();
+	private Set<String> removedEnv = new HashSet<>();
+	private Set<String> removedSites = new HashSet<>();
 
 	public NodeEvent(Environment environment, String siteName) {
 		this(environment, siteName, Messaging.getNodeId());
@@ -70,6 +87,11 @@ public class NodeEvent extends Event {
 
 	}
 
+	NodeEvent(String siteName) {
+		super(siteName);
+		this.nodeState = new NodeState();
+	}
+
 	@Override
 	protected void setNodeId(String nodeId) {
 		super.setNodeId(nodeId);
@@ -78,7 +100,42 @@ public class NodeEvent extends Event {
 
 	public void perform(Environment environment, Site site) throws InvalidConfigurationException {
 		Map<String, NodeState> stateMap = clusterState(environment, getNodeId());
-		stateMap.put(getNodeId(), this.nodeState);
+		NodeState current = stateMap.get(getNodeId());
+		if (isDelta()) {
+			if (current.getRevision() != baseRevision) {
+				LOGGER.debug("state of node {} is at revision {}, can not apply delta from {} to {}", getNodeId(),
+						current.getRevision(), baseRevision, revision);
+				RequestNodeState.request(environment, getNodeId());
+				return;
+			}
+			current.getProps().keySet().removeAll(removedProps);
+			current.getProps().putAll(nodeState.getProps());
+			current.getEnv().keySet().removeAll(removedEnv);
+			current.getEnv().putAll(nodeState.getEnv());
+			current.getSiteStates().keySet().removeAll(removedSites);
+			current.getSiteStates().putAll(nodeState.getSiteStates());
+			current.setDate(nodeState.getDate());
+			current.setHeap(nodeState.getHeap());
+			current.setNonHeap(nodeState.getNonHeap());
+			current.setRevision(revision);
+			current.setLastHeartBeat(new Date());
+			current.setStale(false);
+		} else {
+			nodeState.setRevision(revision);
+			nodeState.setLastHeartBeat(new Date());
+			nodeState.setHeartBeats(current.getHeartBeats());
+			nodeState.takeMessageRates(current);
+			stateMap.put(getNodeId(), this.nodeState);
+		}
+	}
+
+	/**
+	 * Whether this event only contains the changes since {@link #getBaseRevision()}
+	 * 
+	 * @return {@code true} if this is a delta
+	 */
+	public boolean isDelta() {
+		return baseRevision > 0;
 	}
 
 	public static Map<String, NodeState> clusterState(Environment environment, String nodeId) {
@@ -101,11 +158,17 @@ public class NodeEvent extends Event {
 	@Getter
 	@Setter
 	public class MemoryUsage implements Serializable {
+
+		private static final long serialVersionUID = 7651032192003173118L;
+
 		private long size;
 		private long max;
 		private long used;
 		private double usedPercent;
 
+		MemoryUsage() {
+		}
+
 		public MemoryUsage(java.lang.management.MemoryUsage usage) {
 			this.size = usage.getCommitted() / Unit.MB.getFactor();
 			this.max = usage.getMax() / Unit.MB.getFactor();
@@ -118,13 +181,28 @@ public class NodeEvent extends Event {
 	@Getter
 	@Setter
 	public class NodeState implements Serializable {
+
+		private static final long serialVersionUID = -8790128107470172913L;
+
 		private String nodeId;
+		private long revision;
+		private Date lastHeartBeat;
+		private long heartBeats;
+		private boolean stale;
 		private Date date;
 		private MemoryUsage heap;
 		private MemoryUsage nonHeap;
 		private Properties props;
 		private Map<String, String> env;
 		private Map<String, SiteState> siteStates;
+		private long eventsSent;
+		private long eventsReceived;
+		private double sendRate;
+		private double receiveRate;
+		private long messagingTimestamp;
+
+		NodeState() {
+		}
 
 		NodeState(String nodeId, Map<String, SiteState> siteStates) {
 			this.nodeId = nodeId;
@@ -138,10 +216,76 @@ public class NodeEvent extends Event {
 			this.date = new Date();
 		}
 
+		/**
+		 * Updates the number of events sent and received by the node and calculates the rates (events per second)
+		 * since the last update
+		 * 
+		 * @param timestamp
+		 *                  the time of the update, in milliseconds
+		 * @param sent
+		 *                  the total number of events sent by the node
+		 * @param received
+		 *                  the total number of events received by the node
+		 */
+		public void updateMessageRates(long timestamp, long sent, long received) {
+			long interval = timestamp - messagingTimestamp;
+			if (messagingTimestamp > 0 && interval > 0 && sent >= eventsSent && received >= eventsReceived) {
+				sendRate = (sent - eventsSent) * 1000d / interval;
+				receiveRate = (received - eventsReceived) * 1000d / interval;
+			} else {
+				sendRate = 0;
+				receiveRate = 0;
+			}
+			eventsSent = sent;
+			eventsReceived = received;
+			messagingTimestamp = timestamp;
+		}
+
+		void takeMessageRates(NodeState other) {
+			eventsSent = other.eventsSent;
+			eventsReceived = other.eventsReceived;
+			sendRate = other.sendRate;
+			receiveRate = other.receiveRate;
+			messagingTimestamp = other.messagingTimestamp;
+		}
+
+	}
+
+	NodeState getNodeState() {
+		return nodeState;
+	}
+
+	public long getRevision() {
+		return revision;
+	}
+
+	void setRevision(long revision) {
+		this.revision = revision;
+	}
+
+	public long getBaseRevision() {
+		return baseRevision;
+	}
+
+	void setBaseRevision(long baseRevision) {
+		this.baseRevision = baseRevision;
+	}
+
+	Set<String> getRemovedProps() {
+		return removedProps;
+	}
+
+	Set<String> getRemovedEnv() {
+		return removedEnv;
+	}
+
+	Set<String> getRemovedSites() {
+		return removedSites;
 	}
 
 	@Override
 	public String toString() {
-		return String.format("%s (%s: %s)", getClass().getSimpleName(), getNodeId(), nodeState.getSiteStates());
+		return String.format("%s (%s: %s, revision %s%s)", getClass().getSimpleName(), getNodeId(),
+				nodeState.getSiteStates(), revision, isDelta() ? ", delta from " + baseRevision : "");
 	}
 }
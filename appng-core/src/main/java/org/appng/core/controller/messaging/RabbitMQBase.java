@@ -40,6 +40,7 @@ import com.rabbitmq.client.ConnectionFactory;
  */
 public abstract class RabbitMQBase implements Closeable {
 
+	static final String PROVIDER = "rabbitmq";
 	protected static final String RABBIT_MQ_EXCHANGE = "rabbitMQExchange";
 	protected static final String RABBIT_MQ_PASSWORD = "rabbitMQPassword";
 	protected static final String RABBIT_MQ_USER = "rabbitMQUser";
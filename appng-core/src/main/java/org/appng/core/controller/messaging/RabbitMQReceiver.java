@@ -60,10 +60,12 @@ public class RabbitMQReceiver extends RabbitMQBase implements Receiver {
 	private static final String RABBIT_MQ_EXCLUSIVE_QUEUE = "rabbitMQExclusiveQueue";
 	private EventRegistry eventRegistry = new EventRegistry();
 	private DeclareOk queueDeclare;
+	private EventDispatcher dispatcher;
 
 	public Receiver configure(Serializer eventSerializer) {
 		this.eventSerializer = eventSerializer;
 		initialize("appng-rabbitmq-receiver-%d");
+		this.dispatcher = new EventDispatcher(PROVIDER, LOGGER, eventRegistry, eventSerializer);
 		return this;
 	}
 
@@ -73,6 +75,7 @@ public class RabbitMQReceiver extends RabbitMQBase implements Receiver {
 	}
 
 	public void runWith(ExecutorService executorService) {
+		dispatcher.start(null);
 		try {
 			channel.exchangeDeclarePassive(exchange);
 			log().info("Exchange {} already exists.", exchange);
@@ -126,7 +129,7 @@ public class RabbitMQReceiver extends RabbitMQBase implements Receiver {
 		@Override
 		public void handleDelivery(String consumerTag, Envelope envelope, AMQP.BasicProperties properties, byte[] body)
 				throws IOException {
-			Messaging.handleEvent(LOGGER, eventRegistry, eventSerializer, body, false, null);
+			dispatcher.dispatch(body, body.length, false, null);
 		}
 
 		@Override
@@ -143,6 +146,14 @@ public class RabbitMQReceiver extends RabbitMQBase implements Receiver {
 		eventRegistry.setDefaultHandler(defaultHandler);
 	}
 
+	@Override
+	public void close() throws IOException {
+		if (null != dispatcher) {
+			dispatcher.close();
+		}
+		super.close();
+	}
+
 	Logger log() {
 		return LOGGER;
 	}
@@ -47,15 +47,22 @@ public class RabbitMQSender extends RabbitMQBase implements Sender {
 
 	public boolean send(Event event) {
 		if (!Boolean.getBoolean(APPNG_MESSAGING_DISABLED)) {
+			long serializationTime = -1;
+			boolean sent = false;
 			try {
 				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				long start = System.nanoTime();
 				eventSerializer.serialize(out, event);
+				serializationTime = System.nanoTime() - start;
 				LOGGER.info("sending {} to rabbitMQ host(s) {} exchange {}", event, this.addresses, this.exchange);
 				channel.basicPublish(this.exchange, "", null, out.toByteArray());
-				return true;
+				sent = true;
 			} catch (IOException e) {
 				LOGGER.error(String.format("error while sending event %s", event), e);
+			} finally {
+				MessagingMetrics.sent(PROVIDER, event, serializationTime, sent);
 			}
+			return sent;
 		}
 		return false;
 	}
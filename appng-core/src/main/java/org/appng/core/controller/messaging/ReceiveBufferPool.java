@@ -0,0 +1,64 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.core.controller.messaging;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A pool of equally sized receive buffers. If the pool is exhausted, a new buffer is allocated. Released buffers are
+ * kept as long as the pool is not full.
+ */
+class ReceiveBufferPool {
+
+	private final BlockingQueue<byte[]> buffers;
+	private final int bufferSize;
+	private final AtomicLong allocated = new AtomicLong();
+
+	ReceiveBufferPool(int capacity, int bufferSize) {
+		this.buffers = new ArrayBlockingQueue<>(capacity);
+		this.bufferSize = bufferSize;
+	}
+
+	byte[] acquire() {
+		byte[] buffer = buffers.poll();
+		if (null == buffer) {
+			allocated.incrementAndGet();
+			buffer = new byte[bufferSize];
+		}
+		return buffer;
+	}
+
+	void release(byte[] buffer) {
+		if (buffer.length == bufferSize) {
+			buffers.offer(buffer);
+		}
+	}
+
+	int getBufferSize() {
+		return bufferSize;
+	}
+
+	int getAvailable() {
+		return buffers.size();
+	}
+
+	long getAllocated() {
+		return allocated.get();
+	}
+
+}
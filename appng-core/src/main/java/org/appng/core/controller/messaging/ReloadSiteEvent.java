@@ -16,9 +16,9 @@
 package org.appng.core.controller.messaging;
 
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.concurrent.TimeUnit;
 
+import org.apache.commons.lang3.StringUtils;
 import org.appng.api.Environment;
 import org.appng.api.FieldProcessor;
 import org.appng.api.InvalidConfigurationException;
@@ -27,7 +27,6 @@ import org.appng.api.Scope;
 import org.appng.api.messaging.Messaging;
 import org.appng.api.model.Properties;
 import org.appng.api.model.Site;
-import org.appng.api.model.Site.SiteState;
 import org.appng.api.support.FieldProcessorImpl;
 import org.appng.core.controller.messaging.NodeEvent.NodeState;
 import org.appng.core.domain.SiteImpl;
@@ -38,7 +37,7 @@ import org.slf4j.LoggerFactory;
 public class ReloadSiteEvent extends SiteEvent {
 
 	private static final long serialVersionUID = 8053808333634879840L;
-	private static final int DEFAULT_MAX_RELOAD_DELAY = (int) TimeUnit.SECONDS.toMillis(6);
+	private static final int DEFAULT_MAX_WAIT = 120;
 
 	public ReloadSiteEvent(String siteName) {
 		super(siteName, true);
@@ -48,88 +47,83 @@ public class ReloadSiteEvent extends SiteEvent {
 		super(siteName, targetNode, true);
 	}
 
+	@Override
+	public Object getCoalescingKey() {
+		return getSiteKey();
+	}
+
 	public void perform(Environment env, Site site) throws InvalidConfigurationException {
 		Logger logger = LoggerFactory.getLogger(ReloadSiteEvent.class);
 		if (isTargetNode(env)) {
 			logger.info("about to start site: {}", getSiteName());
-			FieldProcessor fp = new FieldProcessorImpl("start");
 			// check if site is present
 			// if not, it's a new site that has not been loaded on the current node
-			if (null != site) {
-				waitForClusterState(env, site, logger);
-			}
-			SiteImpl siteByName = getPlatformContext(env).getBean(CoreService.class).getSiteByName(getSiteName());
-			if (null == siteByName) {
-				throw new InvalidConfigurationException(null, null,
-						String.format("Site to load not found: %s", getSiteName()));
+			if (null != site && isRollingReload(env)) {
+				// waiting for the turn must not block the thread handling the SiteStateEvents that end the wait
+				RollingReload.get(env).execute(() -> {
+					try {
+						reload(env, site, logger);
+					} catch (Exception e) {
+						logger.error(String.format("error while reloading site %s", getSiteName()), e);
+					}
+				});
+			} else {
+				reload(env, site, logger);
 			}
-			getInitializerService(env).loadSite(env, siteByName, false, fp, false);
 		} else {
 			logIgnoreMessage(logger);
 		}
 	}
 
+	private void reload(Environment env, Site site, Logger logger) throws InvalidConfigurationException {
+		FieldProcessor fp = new FieldProcessorImpl("start");
+		if (null != site) {
+			waitForClusterState(env, site, logger);
+		}
+		SiteImpl siteByName = getPlatformContext(env).getBean(CoreService.class).getSiteByName(getSiteName());
+		if (null == siteByName) {
+			throw new InvalidConfigurationException(null, null,
+					String.format("Site to load not found: %s", getSiteName()));
+		}
+		getInitializerService(env).loadSite(env, siteByName, false, fp, false);
+	}
+
+	/**
+	 * Waits until it's the current node's turn to reload the site, so that no more than the number of nodes
+	 * configured by {@link Platform.Property#SITE_RELOAD_MAX_CONCURRENT} reload the site at the same time.
+	 * 
+	 * @see RollingReload
+	 */
 	public void waitForClusterState(Environment env, Site site, Logger logger) {
 		String nodeId = Messaging.getNodeId();
-		Map<String, NodeState> nodeStates = NodeEvent.clusterState(env, nodeId);
-		int numNodes = nodeStates.size();
-
-		if (numNodes > 1) {
+		if (isRollingReload(env)) {
 			Properties cfg = env.getAttribute(Scope.PLATFORM, Platform.Environment.PLATFORM_CONFIG);
-			Integer maxReloadDelay = cfg.getInteger(Platform.Property.SITE_RELOAD_MAX_RANDOM_DELAY,
-					DEFAULT_MAX_RELOAD_DELAY);
-			long delayMillis = maxReloadDelay + (long) (Math.random() * maxReloadDelay);
+			int maxConcurrent = cfg.getInteger(Platform.Property.SITE_RELOAD_MAX_CONCURRENT, 1);
+			int maxWait = cfg.getInteger(Platform.Property.SITE_RELOAD_MAX_WAIT, DEFAULT_MAX_WAIT);
+			logger.info("Site {} is reloaded on at most {} of {} nodes at the same time.", site.getName(),
+					maxConcurrent, getNumNodes(env));
 			try {
-				logger.info("Waiting {}ms before reloading site {} on node {}", delayMillis, site.getName(), nodeId);
-				Thread.sleep(delayMillis);
-			} catch (InterruptedException e) {
-				//
-			}
-
-			if (cfg.getBoolean("waitForSitesStarted", true)) {
-				int minActiveNodes = numNodes > 3 ? ((numNodes + 1) / 2) + 1 : numNodes;
-				int waited = 0;
-				int waitTime = cfg.getInteger("waitForSitesStartedWaitTime", 5);
-				int maxWaittime = cfg.getInteger("waitForSitesStartedMaxWaitTime", 30);
-				int activeNodes;
-
-				logger.info("Site {} must be {} on {} of {} nodes before reloading.", site.getName(), SiteState.STARTED,
-						minActiveNodes, numNodes);
-
-				do {
-					activeNodes = 0;
-					for (Entry<String, NodeState> state : nodeStates.entrySet()) {
-						String otherNode = state.getKey();
-						SiteState siteState = state.getValue().getSiteStates().get(site.getName());
-						if (SiteState.STARTED.equals(siteState)) {
-							activeNodes++;
-						}
-						logger.debug("Site {} is {} on node {}", site.getName(), siteState, otherNode);
-					}
-					if (activeNodes < minActiveNodes) {
-						try {
-							logger.info(
-									"Site {} is active on {} of {} nodes, waiting {}s for site to start on {} nodes.",
-									site.getName(), activeNodes, numNodes, waitTime, minActiveNodes - activeNodes);
-							waited += waitTime;
-							TimeUnit.SECONDS.sleep(waitTime);
-						} catch (InterruptedException e) {
-							//
-						}
-					}
-				} while (activeNodes < minActiveNodes && waited < maxWaittime);
-				if (waited >= maxWaittime) {
-					logger.info("Reached maximum waiting time of {}s, now reloading site {}.", maxWaittime,
-							site.getName());
-				} else {
-					logger.info("Site {} is active on {} of {} nodes, reloading now.", site.getName(), activeNodes,
-							numNodes);
+				if (RollingReload.get(env).awaitTurn(site.getName(), maxConcurrent,
+						TimeUnit.SECONDS.toMillis(maxWait))) {
+					logger.info("Reloading site {} on node {} now.", site.getName(), nodeId);
 				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
 			}
 		} else {
-			logger.info("Node {} is single-instance, no need to wait for other cluster members. Now reloading site {}",
-					nodeId, site.getName());
+			logger.info("No need to wait for other cluster members. Now reloading site {} on node {}.",
+					site.getName(), nodeId);
 		}
 	}
 
+	private boolean isRollingReload(Environment env) {
+		Properties cfg = env.getAttribute(Scope.PLATFORM, Platform.Environment.PLATFORM_CONFIG);
+		return getNumNodes(env) > 1 && StringUtils.isBlank(targetNode) && cfg.getBoolean("waitForSitesStarted", true);
+	}
+
+	private int getNumNodes(Environment env) {
+		Map<String, NodeState> nodeStates = NodeEvent.clusterState(env, Messaging.getNodeId());
+		return (int) nodeStates.values().stream().filter(s -> !s.isStale()).count();
+	}
+
 }
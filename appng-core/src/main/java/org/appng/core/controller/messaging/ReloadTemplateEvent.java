@@ -33,10 +33,17 @@ import org.springframework.context.ApplicationContext;
  */
 public class ReloadTemplateEvent extends SiteEvent {
 
+	private static final long serialVersionUID = 3235615481529610827L;
+
 	public ReloadTemplateEvent(String siteName) {
 		super(siteName);
 	}
 
+	@Override
+	public Object getCoalescingKey() {
+		return getSiteKey();
+	}
+
 	public void perform(Environment environment, Site site) throws InvalidConfigurationException {
 		ApplicationContext platformContext = environment.getAttribute(Scope.PLATFORM,
 				Platform.Environment.CORE_PLATFORM_CONTEXT);
@@ -15,6 +15,9 @@
  */
 package org.appng.core.controller.messaging;
 
+import java.util.Arrays;
+
+import org.apache.commons.lang3.StringUtils;
 import org.appng.api.Environment;
 import org.appng.api.InvalidConfigurationException;
 import org.appng.api.Platform;
@@ -27,24 +30,64 @@ import org.appng.api.model.Site;
 
 /**
  * An {@link Event} that triggers the {@link Receiver} to notify about the current status of the node by sending a
- * {@link NodeEvent}.
+ * {@link NodeEvent} containing the full descriptor. If a target node is given, only this node responds.
  * 
  * @author Matthias Müller
  */
 public class RequestNodeState extends Event {
 
+	private static final long serialVersionUID = -5754939359564828958L;
+
+	private final String targetNode;
+
 	public RequestNodeState(String siteName) {
 		this(siteName, Messaging.getNodeId());
 	}
 
 	public RequestNodeState(String siteName, String nodeId) {
+		this(siteName, nodeId, null);
+	}
+
+	public RequestNodeState(String siteName, String nodeId, String targetNode) {
 		super(siteName);
 		setNodeId(nodeId);
+		this.targetNode = targetNode;
 	}
 
 	public void perform(Environment environment, Site site) throws InvalidConfigurationException {
+		if (StringUtils.isBlank(targetNode) || targetNode.equals(Messaging.getNodeId())) {
+			Sender sender = environment.getAttribute(Scope.PLATFORM, Platform.Environment.MESSAGE_SENDER);
+			sender.send(NodeDescriptor.full(environment));
+		}
+	}
+
+	/**
+	 * Requests the full descriptor of the given node
+	 * 
+	 * @param environment
+	 *                    the current {@link Environment}
+	 * @param targetNode
+	 *                    the id of the node
+	 */
+	static void request(Environment environment, String targetNode) {
 		Sender sender = environment.getAttribute(Scope.PLATFORM, Platform.Environment.MESSAGE_SENDER);
-		sender.send(new NodeEvent(environment, getSiteName(), getNodeId()));
+		if (null != sender) {
+			sender.send(new RequestNodeState(StringUtils.EMPTY, Messaging.getNodeId(), targetNode));
+		}
+	}
+
+	@Override
+	public Object getCoalescingKey() {
+		return Arrays.asList(getClass().getName(), targetNode);
+	}
+
+	public String getTargetNode() {
+		return targetNode;
+	}
+
+	@Override
+	public String toString() {
+		return super.toString() + " - Target: " + targetNode;
 	}
 
 }
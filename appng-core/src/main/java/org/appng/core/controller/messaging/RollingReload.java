@@ -0,0 +1,266 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.core.controller.messaging;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.appng.api.Environment;
+import org.appng.api.Scope;
+import org.appng.api.messaging.Messaging;
+import org.appng.api.model.Site.SiteState;
+import org.appng.core.controller.messaging.NodeEvent.NodeState;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Coordinates the reloading of a site across the cluster, so that at most a given number of nodes reload the site at
+ * the same time.
+ * <p>
+ * The live nodes of the cluster are sorted by their node id and split into waves of {@code maxConcurrent} nodes. The
+ * nodes of the first wave reload immediately. A node of a later wave waits until each node of the earlier waves has
+ * completed its reload, which is the case if
+ * <ul>
+ * <li>the node reported leaving {@link SiteState#STARTED} within the current round and has reported
+ * {@link SiteState#STARTED} afterwards, or</li>
+ * <li>the node did not report any transition within the current round and the site is not started there (i.e. it
+ * does not take part in the reload), or</li>
+ * <li>the node is no longer a live member of the cluster.</li>
+ * </ul>
+ * The state transitions are reported by {@link SiteStateEvent}s, so a waiting node is woken up by actual state
+ * messages instead of polling. A round starts when the reload has been requested on the current node, minus a
+ * tolerance that compensates for differences in message delivery.
+ * <p>
+ * Since these {@link SiteStateEvent}s are handled by the same messaging thread as the {@link ReloadSiteEvent}, the
+ * waiting and reloading takes place on a thread of its own, see {@link #execute(Runnable)}.
+ */
+@Slf4j
+public class RollingReload {
+
+	static final String ROLLING_RELOAD = "rollingReload";
+	static final long DEFAULT_TOLERANCE = TimeUnit.SECONDS.toMillis(5);
+
+	private final String nodeId;
+	private final Supplier<Map<String, Map<String, SiteState>>> members;
+	private final long tolerance;
+	private final Map<String, Map<String, Transitions>> sites = new HashMap<>();
+	private long sequence;
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition changed = lock.newCondition();
+	private final ThreadPoolExecutor executor;
+
+	/**
+	 * Creates a new {@link RollingReload}
+	 * 
+	 * @param nodeId
+	 *                  the id of the current node
+	 * @param members
+	 *                  supplies the site states of the live nodes of the cluster, by node id
+	 * @param tolerance
+	 *                  the tolerance in milliseconds by which a round starts before the reload has been requested on
+	 *                  the current node
+	 */
+	RollingReload(String nodeId, Supplier<Map<String, Map<String, SiteState>>> members, long tolerance) {
+		this.nodeId = nodeId;
+		this.members = members;
+		this.tolerance = tolerance;
+		this.executor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+				new ThreadFactoryBuilder().setDaemon(true).setNameFormat("appng-rolling-reload-%d").build());
+		this.executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Returns the {@link RollingReload} for the given {@link Environment}, using the non-stale nodes of the cluster
+	 * state as members.
+	 * 
+	 * @param  env
+	 *             the {@link Environment}
+	 * 
+	 * @return     the {@link RollingReload}
+	 */
+	public static RollingReload get(Environment env) {
+		RollingReload rollingReload = env.getAttribute(Scope.PLATFORM, ROLLING_RELOAD);
+		if (null == rollingReload) {
+			synchronized (RollingReload.class) {
+				rollingReload = env.getAttribute(Scope.PLATFORM, ROLLING_RELOAD);
+				if (null == rollingReload) {
+					String currentNode = Messaging.getNodeId();
+					rollingReload = new RollingReload(currentNode,
+							() -> NodeEvent.clusterState(env, currentNode).entrySet().stream()
+									.filter(e -> !e.getValue().isStale())
+									.collect(Collectors.toMap(Map.Entry::getKey, e -> siteStates(e.getValue()))),
+							DEFAULT_TOLERANCE);
+					env.setAttribute(Scope.PLATFORM, ROLLING_RELOAD, rollingReload);
+				}
+			}
+		}
+		return rollingReload;
+	}
+
+	private static Map<String, SiteState> siteStates(NodeState nodeState) {
+		Map<String, SiteState> siteStates = nodeState.getSiteStates();
+		return null == siteStates ? Collections.emptyMap() : siteStates;
+	}
+
+	/**
+	 * Wakes up the waiting nodes, if the membership of the cluster has changed.
+	 * 
+	 * @param env
+	 *            the {@link Environment}
+	 */
+	public static void membershipChanged(Environment env) {
+		RollingReload rollingReload = env.getAttribute(Scope.PLATFORM, ROLLING_RELOAD);
+		if (null != rollingReload) {
+			rollingReload.signal();
+		}
+	}
+
+	/**
+	 * Records a state transition reported by a node.
+	 * 
+	 * @param site
+	 *              the name of the site
+	 * @param node
+	 *              the id of the node
+	 * @param state
+	 *              the new {@link SiteState}
+	 */
+	void onState(String site, String node, SiteState state) {
+		lock.lock();
+		try {
+			Transitions transitions = sites.computeIfAbsent(site, s -> new HashMap<>()).computeIfAbsent(node,
+					n -> new Transitions());
+			long sequence = ++this.sequence;
+			if (SiteState.STARTED.equals(state)) {
+				transitions.started = sequence;
+			} else if (SiteState.STARTED.equals(transitions.state) || null == transitions.state
+					|| transitions.left < transitions.started) {
+				transitions.left = sequence;
+				transitions.leftAt = now();
+			}
+			transitions.state = state;
+			changed.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Performs the given reload on the thread dedicated to rolling reloads, one reload after another.
+	 * 
+	 * @param reload
+	 *               the reload, usually waiting for its turn using {@link #awaitTurn(String, int, long)} first
+	 */
+	void execute(Runnable reload) {
+		executor.execute(reload);
+	}
+
+	void signal() {
+		lock.lock();
+		try {
+			changed.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Waits until it's the current node's turn to reload the given site.
+	 * 
+	 * @param  site
+	 *                              the name of the site
+	 * @param  maxConcurrent
+	 *                              the maximum number of nodes reloading the site at the same time
+	 * @param  timeout
+	 *                              the maximum time to wait, in milliseconds
+	 * 
+	 * @return                      {@code true} if it's the current node's turn, {@code false} if the timeout
+	 *                              elapsed
+	 * 
+	 * @throws InterruptedException
+	 *                              if the current thread is interrupted while waiting
+	 */
+	boolean awaitTurn(String site, int maxConcurrent, long timeout) throws InterruptedException {
+		long roundStart = now() - tolerance;
+		long remaining = TimeUnit.MILLISECONDS.toNanos(timeout);
+		lock.lock();
+		try {
+			List<String> pending;
+			while (!(pending = getPending(site, Math.max(1, maxConcurrent), roundStart)).isEmpty()) {
+				if (remaining <= 0) {
+					LOGGER.info("Waited {}ms for nodes {} to reload site {}, now reloading.", timeout, pending, site);
+					return false;
+				}
+				LOGGER.info("Waiting for nodes {} to reload site {} before reloading on node {}.", pending, site,
+						nodeId);
+				remaining = changed.awaitNanos(remaining);
+			}
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private List<String> getPending(String site, int maxConcurrent, long roundStart) {
+		if (null == nodeId) {
+			return Collections.emptyList();
+		}
+		Map<String, Map<String, SiteState>> siteStates = members.get();
+		List<String> nodes = new ArrayList<>(siteStates.keySet());
+		if (!nodes.contains(nodeId)) {
+			nodes.add(nodeId);
+		}
+		Collections.sort(nodes);
+		int predecessors = (nodes.indexOf(nodeId) / maxConcurrent) * maxConcurrent;
+		Map<String, Transitions> siteTransitions = sites.getOrDefault(site, Collections.emptyMap());
+		List<String> pending = new ArrayList<>();
+		for (String node : nodes.subList(0, predecessors)) {
+			Transitions transitions = siteTransitions.get(node);
+			boolean inRound = null != transitions && transitions.leftAt >= roundStart;
+			boolean completed = inRound && transitions.started > transitions.left;
+			SiteState state = null == transitions ? siteStates.get(node).get(site) : transitions.state;
+			boolean participating = inRound || SiteState.STARTED.equals(state);
+			if (participating && !completed) {
+				pending.add(node);
+			}
+		}
+		return pending;
+	}
+
+	long now() {
+		return System.currentTimeMillis();
+	}
+
+	private static class Transitions {
+		private SiteState state;
+		private long left;
+		private long leftAt = Long.MIN_VALUE;
+		private long started;
+	}
+
+}
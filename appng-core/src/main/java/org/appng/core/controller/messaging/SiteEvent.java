@@ -15,6 +15,8 @@
  */
 package org.appng.core.controller.messaging;
 
+import java.util.Arrays;
+
 import org.apache.commons.lang3.StringUtils;
 import org.appng.api.Environment;
 import org.appng.api.Platform;
@@ -26,6 +28,8 @@ import org.springframework.context.ApplicationContext;
 
 abstract class SiteEvent extends Event {
 
+	private static final long serialVersionUID = 1063584809594719529L;
+
 	final String targetNode;
 	String currentNode;
 
@@ -42,6 +46,18 @@ abstract class SiteEvent extends Event {
 		this.targetNode = targetNode;
 	}
 
+	/**
+	 * Returns a coalescing key built from the type, the site and the target node of this event, to be used by
+	 * idempotent events.
+	 * 
+	 * @return the key
+	 * 
+	 * @see #getCoalescingKey()
+	 */
+	protected Object getSiteKey() {
+		return Arrays.asList(getClass().getName(), getSiteName(), targetNode);
+	}
+
 	protected boolean isTargetNode(Environment environment) {
 		this.currentNode = org.appng.api.messaging.Messaging.getNodeId();
 		return StringUtils.isBlank(targetNode) || currentNode.equals(targetNode);
@@ -54,6 +54,7 @@ public class SiteStateEvent extends Event {
 		} else {
 			siteState.put(getSiteName(), this.state);
 		}
+		RollingReload.get(environment).onState(getSiteName(), getNodeId(), this.state);
 	}
 
 	@Override
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.core.domain;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+import lombok.Data;
+
+/**
+ * A daily roll-up of purged {@link JobExecutionRecord}s, grouped by site, application, job and result.
+ * 
+ * 
+ * @see org.appng.core.service.RetentionService
+ */
+@Data
+@Entity
+@Table(name = "job_execution_aggregate")
+public class JobExecutionAggregate {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Integer id;
+	private String site;
+	private String application;
+	@Column(name = "job_name")
+	private String jobName;
+	private String result;
+	@Temporal(TemporalType.DATE)
+	@Column(name = "aggregate_day")
+	private Date day;
+	private int executions;
+	@Column(name = "total_duration")
+	private long totalDuration;
+	@Column(name = "max_duration")
+	private int maxDuration;
+
+}
@@ -45,6 +45,7 @@ import org.appng.api.ValidationMessages;
 import org.appng.api.model.Application;
 import org.appng.api.model.Authorizable;
 import org.appng.api.model.Group;
+import org.appng.api.model.PermissionSnapshot;
 import org.appng.api.model.Role;
 import org.appng.api.model.Subject;
 import org.appng.api.model.UserType;
@@ -82,6 +83,7 @@ public class SubjectImpl implements Subject, Auditable<Integer> {
 	private PasswordChangePolicy passwordChangePolicy = PasswordChangePolicy.MAY;
 	private Integer failedLoginAttempts = 0;
 	private Date expiryDate;
+	private PermissionSnapshot permissionSnapshot;
 
 	@NotNull(message = ValidationMessages.VALIDATION_NOT_NULL)
 	@Pattern(regexp = ValidationPatterns.USERNAME_OR_LDAPGROUP_PATTERN, message = ValidationPatterns.USERNAME_GROUP_MSSG)
@@ -147,6 +149,16 @@ public class SubjectImpl implements Subject, Auditable<Integer> {
 		return groups;
 	}
 
+	public void setGroups(List<Group> groups) {
+		this.groups = groups;
+		this.permissionSnapshot = null;
+	}
+
+	@Transient
+	public PermissionSnapshot getPermissionSnapshot() {
+		return permissionSnapshot;
+	}
+
 	@Column(name = "type")
 	@Enumerated(EnumType.STRING)
 	public UserType getUserType() {
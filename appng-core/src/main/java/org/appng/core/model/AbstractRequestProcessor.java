@@ -28,6 +28,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -54,6 +55,8 @@ import org.appng.api.support.DollarParameterSupport;
 import org.appng.api.support.environment.DefaultEnvironment;
 import org.appng.api.support.environment.EnvironmentKeys;
 import org.appng.core.controller.HttpHeaders;
+import org.appng.core.controller.filter.ServerTiming;
+import org.appng.core.controller.filter.ServerTiming.Phase;
 import org.appng.core.domain.SiteImpl;
 import org.appng.core.service.TemplateService;
 import org.appng.xml.MarshallService;
@@ -327,10 +330,11 @@ public abstract class AbstractRequestProcessor implements RequestProcessor {
 		}
 
 		if (hasOutputFormat && hasOutputType) {
-			long start = System.currentTimeMillis();
+			long start = System.nanoTime();
 			ApplicationReference applicationReference = applicationProvider.process(applicationRequest, marshallService,
 					pathInfo, platformConfig);
-			long end = System.currentTimeMillis() - start;
+			ServerTiming.record(servletRequest, Phase.APPLICATION, applicationProvider.getName(), null, start);
+			long end = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
 
 			logger().debug("succesfully called application '{}' in site '{}' in {} ms", pathInfo.getApplicationName(),
 					applicationSite.getName(), end);
@@ -30,6 +30,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -69,10 +70,13 @@ import org.appng.api.support.RequestFactoryBean;
 import org.appng.api.support.environment.DefaultEnvironment;
 import org.appng.core.controller.filter.CsrfSetupFilter;
 import org.appng.core.controller.filter.MetricsFilter;
+import org.appng.core.controller.filter.ServerTiming;
+import org.appng.core.controller.filter.ServerTiming.Phase;
 import org.appng.core.domain.DatabaseConnection;
 import org.appng.core.domain.SiteApplication;
 import org.appng.core.model.JarInfo.JarInfoBuilder;
 import org.appng.el.ExpressionEvaluator;
+import org.appng.forms.Request;
 import org.appng.xml.MarshallService;
 import org.appng.xml.platform.Action;
 import org.appng.xml.platform.ActionRef;
@@ -569,7 +573,8 @@ public class ApplicationProvider extends SiteApplication implements AccessibleAp
 						}
 					};
 
-					long time = doMonitored(dataSourceCallback);
+					long time = doMonitored(applicationRequest, Phase.DATASOURCE,
+							dataSourceWrapper.getDatasource().getId(), dataSourceCallback);
 					if (monitorPerformance) {
 						dataSourceWrapper.setExecutionTime(time);
 					}
@@ -643,7 +648,8 @@ public class ApplicationProvider extends SiteApplication implements AccessibleAp
 						return result;
 					}
 				};
-				long time = doMonitored(actionCallback);
+				long time = doMonitored(applicationRequest, Phase.ACTION, sectionelement.getAction().getId(),
+						actionCallback);
 				ActionElement actionElement = actionCallback.getResult();
 
 				if (null != actionElement) {
@@ -677,16 +683,21 @@ public class ApplicationProvider extends SiteApplication implements AccessibleAp
 		T getResult();
 	}
 
-	private <T> long doMonitored(Callback<T> callback) throws ProcessingException {
-		if (monitorPerformance) {
-			StopWatch sw = new StopWatch();
-			sw.start();
-			callback.perform();
-			sw.stop();
-			return sw.getTotalTimeMillis();
-		} else {
+	private <T> long doMonitored(ApplicationRequest applicationRequest, Phase phase, String name,
+			Callback<T> callback) throws ProcessingException {
+		long start = System.nanoTime();
+		try {
 			callback.perform();
-			return 0l;
+		} finally {
+			recordTiming(applicationRequest, phase, name, start);
+		}
+		return monitorPerformance ? TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) : 0l;
+	}
+
+	private void recordTiming(ApplicationRequest applicationRequest, Phase phase, String name, long start) {
+		Request wrappedRequest = applicationRequest.getWrappedRequest();
+		if (null != wrappedRequest) {
+			ServerTiming.record(wrappedRequest.getHttpServletRequest(), phase, application.getName(), name, start);
 		}
 	}
 
@@ -1089,7 +1100,12 @@ public class ApplicationProvider extends SiteApplication implements AccessibleAp
 				if (callableAction.doInclude() || callableAction.doExecute()) {
 					LOGGER.debug("Performing action {}:{} of application {} on site {}", eventId, actionId,
 							application.getName(), site.getName());
-					callableAction.perform(false);
+					long start = System.nanoTime();
+					try {
+						callableAction.perform(false);
+					} finally {
+						recordTiming(applicationRequest, Phase.ACTION, actionId, start);
+					}
 					Messages messages = elementHelper.removeMessages(environment);
 					if (null != messages) {
 						messages.setRef(actionId);
@@ -1153,7 +1169,12 @@ public class ApplicationProvider extends SiteApplication implements AccessibleAp
 				if (callableDataSource.doInclude()) {
 					LOGGER.debug("Performing dataSource {} of application {} on site {}", dataSourceId,
 							application.getName(), site.getName());
-					callableDataSource.perform("service", false);
+					long start = System.nanoTime();
+					try {
+						callableDataSource.perform("service", false);
+					} finally {
+						recordTiming(applicationRequest, Phase.DATASOURCE, dataSourceId, start);
+					}
 					return callableDataSource.getDatasource();
 				}
 			}
@@ -39,6 +39,8 @@ import org.appng.api.model.Properties;
 import org.appng.api.model.Site;
 import org.appng.api.support.environment.EnvironmentKeys;
 import org.appng.core.controller.HttpHeaders;
+import org.appng.core.controller.filter.ServerTiming;
+import org.appng.core.controller.filter.ServerTiming.Phase;
 import org.appng.core.model.PlatformTransformer.PlatformTransformerException;
 import org.appng.core.model.PlatformTransformer.SourceAwareTemplate;
 import org.appng.xml.MarshallService;
@@ -95,7 +97,9 @@ public class PlatformProcessor extends AbstractRequestProcessor {
 				return "redirect";
 			}
 			platform.setVersion(env.getAttributeAsString(Scope.PLATFORM, Platform.Environment.APPNG_VERSION));
+			long start = System.nanoTime();
 			platformXML = marshallService.marshal(platform);
+			ServerTiming.record(servletRequest, Phase.MARSHALLING, null, null, start);
 
 			if (platformXML != null) {
 				result = platformXML;
@@ -103,8 +107,10 @@ public class PlatformProcessor extends AbstractRequestProcessor {
 				if (render || !applicationSite.getProperties().getBoolean(SiteProperties.ALLOW_SKIP_RENDER)) {
 					platformTransformer.setEnvironment(env);
 					ApplicationProvider transformerProvider = getApplicationProvider(applicationSite);
+					start = System.nanoTime();
 					result = platformTransformer.transform(transformerProvider, platformProperties, platformXML,
 							charsetName, debugFolder);
+					ServerTiming.record(servletRequest, Phase.RENDERING, null, null, start);
 					this.contentType = platformTransformer.getContentType();
 				}
 			}
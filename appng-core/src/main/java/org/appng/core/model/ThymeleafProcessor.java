@@ -50,6 +50,8 @@ import org.appng.api.model.ResourceType;
 import org.appng.api.model.Site;
 import org.appng.api.support.environment.EnvironmentKeys;
 import org.appng.core.controller.HttpHeaders;
+import org.appng.core.controller.filter.ServerTiming;
+import org.appng.core.controller.filter.ServerTiming.Phase;
 import org.appng.core.templating.ThymeleafReplaceInterceptor;
 import org.appng.core.templating.ThymeleafTemplateEngine;
 import org.appng.xml.MarshallService.AppNGSchema;
@@ -202,7 +204,9 @@ public class ThymeleafProcessor extends AbstractRequestProcessor {
 
 		try {
 			sw.start("build platform.xml");
+			long start = System.nanoTime();
 			platformXML = marshallService.marshal(platform);
+			ServerTiming.record(servletRequest, Phase.MARSHALLING, null, null, start);
 
 			if (writeDebugFiles) {
 				sw.stop();
@@ -214,6 +218,7 @@ public class ThymeleafProcessor extends AbstractRequestProcessor {
 			if (render || !applicationSite.getProperties().getBoolean(SiteProperties.ALLOW_SKIP_RENDER)) {
 				sw.stop();
 				sw.start("build context");
+				start = System.nanoTime();
 				IContext ctx = getContext(platform, applicationProvider);
 				sw.stop();
 				sw.start("process template");
@@ -223,6 +228,7 @@ public class ThymeleafProcessor extends AbstractRequestProcessor {
 				}
 				result = templateEngine.process(templateFile, ctx);
 				result = BLANK_LINES.matcher(result).replaceAll(System.lineSeparator());
+				ServerTiming.record(servletRequest, Phase.RENDERING, null, null, start);
 				this.contentType = HttpHeaders.getContentType(HttpHeaders.CONTENT_TYPE_TEXT_HTML, charsetName);
 				if (writeDebugFiles) {
 					sw.stop();
@@ -15,6 +15,7 @@
  */
 package org.appng.core.repository;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.appng.api.model.Group;
@@ -35,6 +36,9 @@ public interface GroupRepository extends SearchRepository<GroupImpl, Integer> {
 	@Query("select g from GroupImpl g left join fetch g.roles r left join fetch r.permissions p where g.id = ?1")
 	GroupImpl getGroup(Integer groupId);
 
+	@Query("select distinct g from GroupImpl g left join fetch g.roles r left join fetch r.application left join fetch r.permissions p where g.id in (?1)")
+	List<GroupImpl> getGroupsWithPermissions(Collection<Integer> groupIds);
+
 	List<GroupImpl> findByDefaultAdmin(boolean defaultAdmin);
 
 	List<Group> findByNameIn(List<String> names);
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.core.repository;
+
+import java.util.Date;
+import java.util.List;
+
+import org.appng.core.domain.JobExecutionAggregate;
+import org.appng.persistence.repository.SearchRepository;
+
+public interface JobExecutionAggregateRepository extends SearchRepository<JobExecutionAggregate, Integer> {
+
+	JobExecutionAggregate findBySiteAndApplicationAndJobNameAndResultAndDay(String site, String application,
+			String jobName, String result, Date day);
+
+	List<JobExecutionAggregate> findBySiteAndJobNameOrderByDay(String site, String jobName);
+
+}
@@ -26,6 +26,12 @@ public interface SubjectRepository extends SearchRepository<SubjectImpl, Integer
 
 	SubjectImpl findByName(String name);
 
+	@Query("select distinct s from SubjectImpl s left join fetch s.groups where s.name = ?1")
+	SubjectImpl findByNameFetchGroups(String name);
+
+	@Query("select distinct s from SubjectImpl s left join fetch s.groups where s.id = ?1")
+	SubjectImpl findByIdFetchGroups(Integer id);
+
 	SubjectImpl findByEmail(String email);
 
 	List<SubjectImpl> findByUserType(UserType type);
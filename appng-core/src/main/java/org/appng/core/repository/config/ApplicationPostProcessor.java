@@ -15,12 +15,19 @@
  */
 package org.appng.core.repository.config;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
+import org.apache.commons.lang3.StringUtils;
+import org.appng.api.SiteProperties;
 import org.appng.api.model.Application;
+import org.appng.api.model.Properties;
 import org.appng.api.model.Site;
 import org.appng.api.support.MessageSourceChain;
+import org.appng.core.controller.filter.MetricsFilter;
 import org.appng.core.domain.DatabaseConnection;
 import org.appng.core.model.ApplicationCacheManager;
 import org.springframework.beans.BeansException;
@@ -33,11 +40,16 @@ import org.springframework.context.MessageSource;
 import org.springframework.context.support.ResourceBundleMessageSource;
 import org.springframework.core.Ordered;
 
+import io.prometheus.client.CollectorRegistry;
+
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * A {@link BeanFactoryPostProcessor} that configures the {@code datasource} bean which is of type
- * {@link javax.sql.DataSource}, but only if the {@link Application} requires a database. <br/>
+ * {@link javax.sql.DataSource}, but only if the {@link Application} requires a database. If read replicas are defined
+ * for the {@link Application} (see {@link SiteProperties#JDBC_READ_REPLICAS}), these are passed to the
+ * {@link DataSourceFactory}. If metrics are enabled for the {@link Site}, the {@link DataSourceFactory} records to the
+ * site's {@link DataSourceMetrics}.<br/>
  * Additionally, the {@link Site} and the {@link Application} are also registered as beans.
  * 
  * @author Matthias Müller
@@ -93,6 +105,18 @@ public class ApplicationPostProcessor implements BeanFactoryPostProcessor, Order
 			DatasourceConfigurer datasourceConfigurer = beanFactory.getBean(DatasourceConfigurer.class);
 			if (null != connection) {
 				try {
+					if (datasourceConfigurer instanceof DataSourceFactory) {
+						List<String> readReplicas = getReadReplicas();
+						if (!readReplicas.isEmpty()) {
+							LOGGER.debug("using read replicas {}", readReplicas);
+							((DataSourceFactory) datasourceConfigurer).setReadReplicas(readReplicas);
+						}
+						CollectorRegistry registry = MetricsFilter.getRegistry(site.getName());
+						if (null != registry) {
+							((DataSourceFactory) datasourceConfigurer).setMetrics(DataSourceMetrics.get(registry),
+									site.getName(), application.getName());
+						}
+					}
 					LOGGER.debug("configuring {}", connection);
 					datasourceConfigurer.configure(connection);
 				} catch (Exception e) {
@@ -120,6 +144,21 @@ public class ApplicationPostProcessor implements BeanFactoryPostProcessor, Order
 		}
 	}
 
+	private List<String> getReadReplicas() {
+		List<String> readReplicas = new ArrayList<>();
+		Properties siteProperties = site.getProperties();
+		if (null != siteProperties) {
+			java.util.Properties replicas = siteProperties.getProperties(SiteProperties.JDBC_READ_REPLICAS);
+			if (null != replicas) {
+				String jdbcUrls = replicas.getProperty(application.getName());
+				if (StringUtils.isNotBlank(jdbcUrls)) {
+					readReplicas.addAll(Arrays.asList(StringUtils.split(jdbcUrls.trim())));
+				}
+			}
+		}
+		return readReplicas;
+	}
+
 	public int getOrder() {
 		return Integer.MAX_VALUE;
 	}
@@ -15,6 +15,10 @@
  */
 package org.appng.core.repository.config;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 import javax.sql.DataSource;
 
 import org.appng.core.domain.DatabaseConnection;
@@ -32,7 +36,11 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class DataSourceFactory implements FactoryBean<DataSource>, DisposableBean, DatasourceConfigurer {
 
+	public static final long DEFAULT_RETRY_INTERVAL = TimeUnit.SECONDS.toMillis(30);
+
 	private DatasourceConfigurer configurer;
+	private List<DatasourceConfigurer> replicaConfigurers = new ArrayList<>();
+	private DataSource dataSource;
 
 	private @Setter String configurerClass;
 	private @Setter boolean autoCommit = false;
@@ -41,6 +49,12 @@ public class DataSourceFactory implements FactoryBean<DataSource>, DisposableBea
 	private @Setter long validationTimeout = DEFAULT_TIMEOUT;
 	private @Setter long maxLifetime = DEFAULT_LIFE_TIME;
 	private @Setter String connectionInitSql;
+	private @Setter List<String> readReplicas = new ArrayList<>();
+	private @Setter long replicaRetryInterval = DEFAULT_RETRY_INTERVAL;
+	private @Setter long slowStatementThreshold = 0;
+	private DataSourceMetrics metrics;
+	private String site;
+	private String application;
 
 	public DataSourceFactory() {
 
@@ -59,40 +73,102 @@ public class DataSourceFactory implements FactoryBean<DataSource>, DisposableBea
 	}
 
 	private DatasourceConfigurer initConfigurer() {
+		DatasourceConfigurer configurer = null;
 		try {
 			Class<?> loadClass = Thread.currentThread().getContextClassLoader().loadClass(configurerClass);
-			this.configurer = (DatasourceConfigurer) loadClass.newInstance();
-			this.configurer.setLogPerformance(logPerformance);
-			this.configurer.setConnectionTimeout(connectionTimeout);
-			this.configurer.setValidationTimeout(validationTimeout);
-			this.configurer.setMaxLifetime(maxLifetime);
-			this.configurer.setConnectionInitSql(connectionInitSql);
-			this.configurer.setAutoCommit(autoCommit);
+			configurer = (DatasourceConfigurer) loadClass.newInstance();
+			configurer.setLogPerformance(logPerformance);
+			configurer.setConnectionTimeout(connectionTimeout);
+			configurer.setValidationTimeout(validationTimeout);
+			configurer.setMaxLifetime(maxLifetime);
+			configurer.setConnectionInitSql(connectionInitSql);
+			configurer.setAutoCommit(autoCommit);
 		} catch (Exception e) {
 			LOGGER.error(String.format("error creating instance of '%s'", configurerClass), e);
 		}
 		return configurer;
 	}
 
+	/**
+	 * Enables metrics for the {@link DataSource}s created by this factory. Must be called before
+	 * {@link #configure(DatabaseConnection)}.
+	 * 
+	 * @param metrics
+	 *                    the {@link DataSourceMetrics} to record to
+	 * @param site
+	 *                    the name of the site, used as label
+	 * @param application
+	 *                    the name of the application, used as label
+	 * @see #setSlowStatementThreshold(long)
+	 */
+	public void setMetrics(DataSourceMetrics metrics, String site, String application) {
+		this.metrics = metrics;
+		this.site = site;
+		this.application = application;
+	}
+
 	public DataSource getObject() throws Exception {
 		return getDataSource();
 	}
 
+	/**
+	 * Configures the {@link DataSource} using the given {@link DatabaseConnection}. If read replicas have been set
+	 * (see {@link #setReadReplicas(List)}), a {@link ReplicaRoutingDataSource} is created, using the same credentials
+	 * and pool settings as the given {@link DatabaseConnection} for each replica. If metrics have been enabled (see
+	 * {@link #setMetrics(DataSourceMetrics, String, String)}), each pool is wrapped by a {@link MeteredDataSource}.
+	 */
 	public void configure(DatabaseConnection connection) {
 		if (null != connection) {
-			initConfigurer();
+			configurer = initConfigurer();
 			configurer.configure(connection);
+			dataSource = metered(configurer, connection.getName());
+			if (null != readReplicas && !readReplicas.isEmpty()) {
+				List<DataSource> replicas = new ArrayList<>();
+				for (String jdbcUrl : readReplicas) {
+					DatabaseConnection replica = new DatabaseConnection(connection.getType(), jdbcUrl,
+							connection.getDriverClass(), connection.getUserName(), connection.getPassword(),
+							connection.getValidationQuery());
+					replica.setName(connection.getName() + "-replica-" + replicas.size());
+					replica.setMinConnections(connection.getMinConnections());
+					replica.setMaxConnections(connection.getMaxConnections());
+					DatasourceConfigurer replicaConfigurer = initConfigurer();
+					replicaConfigurer.configure(replica);
+					replicaConfigurers.add(replicaConfigurer);
+					replicas.add(metered(replicaConfigurer, replica.getName()));
+				}
+				ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(getDataSource(), replicas,
+						replicaRetryInterval);
+				int timeout = (int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(validationTimeout));
+				int available = routingDataSource.checkReplicas(timeout);
+				LOGGER.info("{} of {} read replica(s) available for {}", available, replicas.size(),
+						connection.getName());
+				dataSource = routingDataSource.lazy();
+			}
 		}
 	}
 
+	private DataSource metered(DatasourceConfigurer configurer, String pool) {
+		if (null == metrics) {
+			return configurer.getDataSource();
+		}
+		metrics.addPool(configurer, site, application, pool);
+		return new MeteredDataSource(configurer.getDataSource(), metrics, slowStatementThreshold, site, application,
+				pool);
+	}
+
 	public void destroy() {
+		if (null != metrics) {
+			metrics.removePools(site, application);
+		}
+		replicaConfigurers.forEach(DatasourceConfigurer::destroy);
+		replicaConfigurers.clear();
 		if (null != configurer) {
 			configurer.destroy();
 		}
 	}
 
 	public DataSource getDataSource() {
-		return configurer.getDataSource();
+		return null == dataSource ? configurer.getDataSource() : dataSource;
 	}
 
 }
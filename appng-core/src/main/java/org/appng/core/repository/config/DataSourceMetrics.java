@@ -0,0 +1,150 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.core.repository.config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import io.prometheus.client.Collector;
+import io.prometheus.client.CollectorRegistry;
+import io.prometheus.client.Counter;
+import io.prometheus.client.GaugeMetricFamily;
+import io.prometheus.client.Histogram;
+
+/**
+ * A {@link Collector} exporting connection pool and statement metrics of the {@link javax.sql.DataSource}s of a
+ * {@link org.appng.api.model.Site}'s applications. All metrics are labelled with {@code site}, {@code application} and
+ * {@code pool}:
+ * <ul>
+ * <li>{@code appng_datasource_connections_active}, {@code _idle}, {@code _pending}, {@code _total}, {@code _max}:
+ * gauges reflecting the current {@link PoolStatistics}</li>
+ * <li>{@code appng_datasource_acquire_seconds}: histogram of the time needed to obtain a connection</li>
+ * <li>{@code appng_datasource_acquire_timeouts_total}: number of timed out connection requests</li>
+ * <li>{@code appng_datasource_slow_statements_total}: number of statements exceeding the configured threshold (see
+ * {@link MeteredDataSource})</li>
+ * </ul>
+ * There is exactly one instance per {@link CollectorRegistry}, see {@link #get(CollectorRegistry)}.
+ */
+public class DataSourceMetrics extends Collector {
+
+	static final String PREFIX = "appng_datasource_";
+	static final List<String> LABELS = Arrays.asList("site", "application", "pool");
+	private static final double[] BUCKETS = { 0.001, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10 };
+	private static final ConcurrentMap<CollectorRegistry, DataSourceMetrics> INSTANCES = new ConcurrentHashMap<>();
+
+	private final Map<List<String>, DatasourceConfigurer> pools = new ConcurrentHashMap<>();
+	private final Histogram acquireTime;
+	private final Counter acquireTimeouts;
+	private final Counter slowStatements;
+
+	private DataSourceMetrics(CollectorRegistry registry) {
+		String[] labels = LABELS.toArray(new String[0]);
+		this.acquireTime = Histogram.build(PREFIX + "acquire_seconds", "time needed to obtain a connection")
+				.labelNames(labels).buckets(BUCKETS).register(registry);
+		this.acquireTimeouts = Counter.build(PREFIX + "acquire_timeouts", "number of timed out connection requests")
+				.labelNames(labels).register(registry);
+		this.slowStatements = Counter
+				.build(PREFIX + "slow_statements", "number of statements exceeding the configured threshold")
+				.labelNames(labels).register(registry);
+		register(registry);
+	}
+
+	/**
+	 * Returns the {@link DataSourceMetrics} for the given {@link CollectorRegistry}, creating and registering them if
+	 * necessary.
+	 * 
+	 * @param registry
+	 *                 the {@link CollectorRegistry}
+	 * @return the {@link DataSourceMetrics}
+	 */
+	public static DataSourceMetrics get(CollectorRegistry registry) {
+		return INSTANCES.computeIfAbsent(registry, DataSourceMetrics::new);
+	}
+
+	/**
+	 * Adds a pool whose {@link PoolStatistics} should be exported
+	 * 
+	 * @param configurer
+	 *                   the {@link DatasourceConfigurer} providing the {@link PoolStatistics}
+	 * @param labels
+	 *                   the label values ({@code site}, {@code application} and {@code pool})
+	 */
+	public void addPool(DatasourceConfigurer configurer, String... labels) {
+		pools.put(Arrays.asList(labels), configurer);
+	}
+
+	/**
+	 * Removes all pools of the given application.
+	 * 
+	 * @param site
+	 *                    the name of the site
+	 * @param application
+	 *                    the name of the application
+	 */
+	public void removePools(String site, String application) {
+		pools.keySet().removeIf(l -> l.get(0).equals(site) && l.get(1).equals(application));
+	}
+
+	void observeAcquire(long nanos, String... labels) {
+		acquireTime.labels(labels).observe(nanos / (double) TimeUnit.SECONDS.toNanos(1));
+	}
+
+	void acquireTimeout(String... labels) {
+		acquireTimeouts.labels(labels).inc();
+	}
+
+	void slowStatement(String... labels) {
+		slowStatements.labels(labels).inc();
+	}
+
+	@Override
+	public List<MetricFamilySamples> collect() {
+		GaugeMetricFamily active = gauge("connections_active", "number of connections in use");
+		GaugeMetricFamily idle = gauge("connections_idle", "number of idle connections");
+		GaugeMetricFamily pending = gauge("connections_pending", "number of threads waiting for a connection");
+		GaugeMetricFamily total = gauge("connections_total", "total number of connections");
+		GaugeMetricFamily max = gauge("connections_max", "maximum number of connections");
+		for (Entry<List<String>, DatasourceConfigurer> pool : pools.entrySet()) {
+			PoolStatistics statistics = pool.getValue().getPoolStatistics();
+			if (null != statistics) {
+				List<String> labels = pool.getKey();
+				active.addMetric(labels, statistics.getActive());
+				idle.addMetric(labels, statistics.getIdle());
+				pending.addMetric(labels, statistics.getPending());
+				total.addMetric(labels, statistics.getTotal());
+				max.addMetric(labels, statistics.getMax());
+			}
+		}
+		List<MetricFamilySamples> samples = new ArrayList<>();
+		samples.add(active);
+		samples.add(idle);
+		samples.add(pending);
+		samples.add(total);
+		samples.add(max);
+		return samples;
+	}
+
+	private GaugeMetricFamily gauge(String name, String help) {
+		return new GaugeMetricFamily(PREFIX + name, help, LABELS);
+	}
+
+}
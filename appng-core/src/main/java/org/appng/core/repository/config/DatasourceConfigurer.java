@@ -98,4 +98,13 @@ public interface DatasourceConfigurer {
 
 	void setConnectionInitSql(String sql);
 
+	/**
+	 * Returns the current {@link PoolStatistics} of the underlying connection pool, if supported.
+	 * 
+	 * @return the {@link PoolStatistics}, or {@code null} if not supported or the pool has not been configured yet
+	 */
+	default PoolStatistics getPoolStatistics() {
+		return null;
+	}
+
 }
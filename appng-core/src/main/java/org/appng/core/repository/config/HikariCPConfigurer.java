@@ -21,6 +21,7 @@ import org.appng.core.domain.DatabaseConnection.DatabaseType;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 
 import ch.sla.jdbcperflogger.driver.WrappingDriver;
 import lombok.Getter;
@@ -92,6 +93,15 @@ public class HikariCPConfigurer implements DatasourceConfigurer {
 		this.dataSource = new HikariDataSource(configuration);
 	}
 
+	public PoolStatistics getPoolStatistics() {
+		HikariPoolMXBean pool = null == dataSource ? null : dataSource.getHikariPoolMXBean();
+		if (null == pool) {
+			return null;
+		}
+		return new PoolStatistics(pool.getActiveConnections(), pool.getIdleConnections(),
+				pool.getThreadsAwaitingConnection(), pool.getTotalConnections(), dataSource.getMaximumPoolSize());
+	}
+
 	public void destroy() {
 		dataSource.close();
 		dataSource = null;
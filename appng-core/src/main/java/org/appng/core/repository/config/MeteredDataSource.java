@@ -0,0 +1,188 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.core.repository.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.apache.tomcat.jdbc.pool.PoolExhaustedException;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A {@link DelegatingDataSource} that records the time needed to obtain a {@link Connection} as well as connection
+ * timeouts to {@link DataSourceMetrics}.<br/>
+ * If a slow statement threshold is set, the {@link Statement}s created by the returned {@link Connection}s are timed.
+ * Each execution exceeding the threshold is logged with level {@code WARN} and counted as a slow statement.
+ */
+@Slf4j
+public class MeteredDataSource extends DelegatingDataSource {
+
+	private final DataSourceMetrics metrics;
+	private final String[] labels;
+	private final long slowThreshold;
+
+	/**
+	 * Creates a new {@link MeteredDataSource}
+	 * 
+	 * @param target
+	 *                      the target {@link DataSource}
+	 * @param metrics
+	 *                      the {@link DataSourceMetrics} to record to
+	 * @param slowThreshold
+	 *                      the threshold in milliseconds for a statement being considered as slow, {@code 0} to
+	 *                      disable slow statement logging
+	 * @param labels
+	 *                      the label values ({@code site}, {@code application} and {@code pool})
+	 */
+	public MeteredDataSource(DataSource target, DataSourceMetrics metrics, long slowThreshold, String... labels) {
+		super(target);
+		this.metrics = metrics;
+		this.slowThreshold = TimeUnit.MILLISECONDS.toNanos(slowThreshold);
+		this.labels = labels;
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		long start = System.nanoTime();
+		try {
+			return metered(super.getConnection(), start);
+		} catch (SQLException e) {
+			onError(e);
+			throw e;
+		}
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		long start = System.nanoTime();
+		try {
+			return metered(super.getConnection(username, password), start);
+		} catch (SQLException e) {
+			onError(e);
+			throw e;
+		}
+	}
+
+	private Connection metered(Connection connection, long start) {
+		metrics.observeAcquire(System.nanoTime() - start, labels);
+		if (slowThreshold <= 0) {
+			return connection;
+		}
+		return proxy(Connection.class, connection, (proxy, method, args) -> {
+			if (isIdentityMethod(method)) {
+				return invokeOnProxy(proxy, method, args);
+			}
+			Object result = invoke(connection, method, args);
+			if (result instanceof Statement) {
+				String sql = method.getName().startsWith("prepare") ? (String) args[0] : null;
+				return proxy(statementType((Statement) result), result, new StatementHandler(result, sql));
+			}
+			return result;
+		});
+	}
+
+	private void onError(SQLException e) {
+		if (e instanceof SQLTransientConnectionException || e instanceof SQLTimeoutException
+				|| e instanceof PoolExhaustedException) {
+			metrics.acquireTimeout(labels);
+		}
+	}
+
+	private Class<?> statementType(Statement statement) {
+		if (statement instanceof CallableStatement) {
+			return CallableStatement.class;
+		}
+		return statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T proxy(Class<T> type, Object target, InvocationHandler handler) {
+		return (T) Proxy.newProxyInstance(MeteredDataSource.class.getClassLoader(), new Class<?>[] { type }, handler);
+	}
+
+	private static boolean isIdentityMethod(Method method) {
+		String name = method.getName();
+		return ("equals".equals(name) && method.getParameterCount() == 1)
+				|| ("hashCode".equals(name) && method.getParameterCount() == 0);
+	}
+
+	/**
+	 * {@code equals} and {@code hashCode} are handled by the proxy itself, so a proxy is only equal to itself and
+	 * consistent with its hash code
+	 */
+	private static Object invokeOnProxy(Object proxy, Method method, Object[] args) {
+		if ("equals".equals(method.getName())) {
+			return proxy == args[0];
+		}
+		return System.identityHashCode(proxy);
+	}
+
+	private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getTargetException();
+		}
+	}
+
+	private class StatementHandler implements InvocationHandler {
+		private final Object statement;
+		private final String sql;
+
+		StatementHandler(Object statement, String sql) {
+			this.statement = statement;
+			this.sql = sql;
+		}
+
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			if (isIdentityMethod(method)) {
+				return invokeOnProxy(proxy, method, args);
+			}
+			if (!method.getName().startsWith("execute")) {
+				return MeteredDataSource.invoke(statement, method, args);
+			}
+			long start = System.nanoTime();
+			try {
+				return MeteredDataSource.invoke(statement, method, args);
+			} finally {
+				long duration = System.nanoTime() - start;
+				if (duration >= slowThreshold) {
+					metrics.slowStatement(labels);
+					String statementSql = null != args && args.length > 0 && args[0] instanceof String
+							? (String) args[0]
+							: sql;
+					LOGGER.warn("slow statement on {}/{} took {}ms: {}", labels[1], labels[2],
+							TimeUnit.NANOSECONDS.toMillis(duration), statementSql);
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.core.repository.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * A snapshot of the state of a connection pool, as returned by {@link DatasourceConfigurer#getPoolStatistics()}.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class PoolStatistics {
+
+	/** the number of connections currently in use */
+	private final int active;
+	/** the number of idle connections */
+	private final int idle;
+	/** the number of threads waiting for a connection */
+	private final int pending;
+	/** the total number of connections in the pool */
+	private final int total;
+	/** the maximum size of the pool */
+	private final int max;
+
+}
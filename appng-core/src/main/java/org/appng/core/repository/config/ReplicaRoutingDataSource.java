@@ -0,0 +1,190 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.core.repository.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A {@link DataSource} that routes read-only transactions to a set of read replicas, while all other connections are
+ * obtained from the primary {@link DataSource}.<br/>
+ * A transaction is considered as read-only if {@link TransactionSynchronizationManager#isCurrentTransactionReadOnly()}
+ * returns {@code true}, as it is the case for {@link Transactional#readOnly()}. The replicas are used in a round-robin
+ * manner. If a replica fails to provide a connection, it is excluded for the configured retry interval and the next
+ * replica is tried, falling back to the primary if no replica is available.<br/>
+ * Since a transaction manager obtains the connection before the read-only flag is bound to the current thread, this
+ * {@link DataSource} needs to be wrapped by a {@link LazyConnectionDataSourceProxy} (see {@link #lazy()}).
+ * 
+ * @see DataSourceFactory
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+	private final @Getter DataSource primary;
+	private final List<Replica> replicas;
+	private final long retryInterval;
+	private final AtomicInteger counter = new AtomicInteger();
+
+	/**
+	 * Creates a new {@link ReplicaRoutingDataSource}
+	 * 
+	 * @param primary
+	 *                      the primary {@link DataSource}
+	 * @param replicas
+	 *                      the {@link DataSource}s of the read replicas
+	 * @param retryInterval
+	 *                      the number of milliseconds to wait before retrying a replica that failed to provide a
+	 *                      connection
+	 */
+	public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, long retryInterval) {
+		this.primary = primary;
+		this.retryInterval = retryInterval;
+		List<Replica> replicaList = new ArrayList<>();
+		for (int i = 0; i < replicas.size(); i++) {
+			replicaList.add(new Replica(i, replicas.get(i)));
+		}
+		this.replicas = Collections.unmodifiableList(replicaList);
+	}
+
+	/**
+	 * Returns a {@link LazyConnectionDataSourceProxy} for this {@link ReplicaRoutingDataSource}.
+	 * 
+	 * @return the proxy
+	 */
+	public DataSource lazy() {
+		return new LazyConnectionDataSourceProxy(this);
+	}
+
+	public Connection getConnection() throws SQLException {
+		if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			Connection connection = getReplicaConnection(null, null);
+			if (null != connection) {
+				return connection;
+			}
+		}
+		return primary.getConnection();
+	}
+
+	public Connection getConnection(String username, String password) throws SQLException {
+		if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			Connection connection = getReplicaConnection(username, password);
+			if (null != connection) {
+				return connection;
+			}
+		}
+		return primary.getConnection(username, password);
+	}
+
+	private Connection getReplicaConnection(String username, String password) {
+		int size = replicas.size();
+		if (size > 0) {
+			int start = Math.floorMod(counter.getAndIncrement(), size);
+			long now = System.currentTimeMillis();
+			for (int i = 0; i < size; i++) {
+				Replica replica = replicas.get((start + i) % size);
+				if (replica.isAvailable(now)) {
+					try {
+						Connection connection = null == username ? replica.dataSource.getConnection()
+								: replica.dataSource.getConnection(username, password);
+						replica.markUp();
+						return connection;
+					} catch (SQLException e) {
+						replica.markDown(now);
+						LOGGER.warn("read replica #{} failed to provide a connection, retrying in {}ms ({})",
+								replica.index, retryInterval, e.getMessage());
+					}
+				}
+			}
+			LOGGER.debug("no read replica available, using primary");
+		}
+		return null;
+	}
+
+	/**
+	 * Checks the health of all replicas by validating a connection of each replica.
+	 * 
+	 * @param  timeout
+	 *                 the timeout in seconds for validating a connection (see {@link Connection#isValid(int)})
+	 * 
+	 * @return         the number of healthy replicas
+	 */
+	public int checkReplicas(int timeout) {
+		int healthy = 0;
+		long now = System.currentTimeMillis();
+		for (Replica replica : replicas) {
+			try (Connection connection = replica.dataSource.getConnection()) {
+				if (connection.isValid(timeout)) {
+					replica.markUp();
+					healthy++;
+				} else {
+					replica.markDown(now);
+				}
+			} catch (SQLException e) {
+				replica.markDown(now);
+				LOGGER.warn("read replica #{} is not available ({})", replica.index, e.getMessage());
+			}
+		}
+		return healthy;
+	}
+
+	/**
+	 * Returns the number of read replicas that are currently considered as available.
+	 * 
+	 * @return the number of available replicas
+	 */
+	public int getAvailableReplicas() {
+		long now = System.currentTimeMillis();
+		return (int) replicas.stream().filter(r -> r.isAvailable(now)).count();
+	}
+
+	private class Replica {
+		private final int index;
+		private final DataSource dataSource;
+		private volatile long downUntil = 0;
+
+		Replica(int index, DataSource dataSource) {
+			this.index = index;
+			this.dataSource = dataSource;
+		}
+
+		boolean isAvailable(long now) {
+			return downUntil <= now;
+		}
+
+		void markDown(long now) {
+			downUntil = now + retryInterval;
+		}
+
+		void markUp() {
+			downUntil = 0;
+		}
+	}
+
+}
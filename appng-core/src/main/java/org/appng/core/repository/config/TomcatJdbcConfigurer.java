@@ -91,6 +91,15 @@ public class TomcatJdbcConfigurer implements DatasourceConfigurer {
 		return tomcatDatasource;
 	}
 
+	public PoolStatistics getPoolStatistics() {
+		ConnectionPool pool = null == tomcatDatasource ? null : tomcatDatasource.getPool();
+		if (null == pool) {
+			return null;
+		}
+		return new PoolStatistics(pool.getActive(), pool.getIdle(), pool.getWaitCount(), pool.getSize(),
+				pool.getPoolProperties().getMaxActive());
+	}
+
 	public void setLogPerformance(boolean logPerformance) {
 		// not supported
 	}
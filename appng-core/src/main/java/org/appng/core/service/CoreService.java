@@ -25,14 +25,20 @@ import java.security.Principal;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
+import javax.persistence.Persistence;
+import javax.persistence.PersistenceUtil;
 import javax.servlet.http.HttpServletRequest;
 import javax.xml.bind.JAXBException;
 
@@ -60,6 +66,7 @@ import org.appng.api.model.AuthSubject;
 import org.appng.api.model.AuthSubject.PasswordChangePolicy;
 import org.appng.api.model.Group;
 import org.appng.api.model.Permission;
+import org.appng.api.model.PermissionSnapshot;
 import org.appng.api.model.Properties;
 import org.appng.api.model.Property;
 import org.appng.api.model.Resource;
@@ -123,6 +130,7 @@ import org.appng.xml.application.PermissionRef;
 import org.appng.xml.application.Permissions;
 import org.appng.xml.application.PropertyType;
 import org.appng.xml.application.Roles;
+import org.hibernate.Session;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.MessageSource;
 import org.springframework.data.domain.Page;
@@ -146,6 +154,12 @@ import lombok.extern.slf4j.Slf4j;
 @Transactional(rollbackFor = BusinessException.class)
 public class CoreService {
 
+	/** The JDBC batch size used when saving properties in bulk */
+	public static final int PROPERTY_BATCH_SIZE = 50;
+
+	@Autowired
+	private EntityManager entityManager;
+
 	@Autowired
 	protected DatabaseConnectionRepository databaseConnectionRepository;
 
@@ -350,6 +364,97 @@ public class CoreService {
 		return property;
 	}
 
+	/**
+	 * Creates, updates and deletes several properties of a {@link Site} and/or {@link Application} at once. All changes
+	 * are written within the current transaction, so either all of them are applied or none. The existing properties
+	 * are loaded only once, so the costs of a bulk operation do not grow with the number of round trips per
+	 * property. The changes are flushed using JDBC batches of {@value #PROPERTY_BATCH_SIZE} statements.
+	 * 
+	 * @param site
+	 *                    the {@link Site} the properties belong to, may be {@code null}
+	 * @param application
+	 *                    the {@link Application} the properties belong to, may be {@code null}
+	 * @param properties
+	 *                    the properties to create or update, using their unprefixed name. For an existing property,
+	 *                    actual value, clob and description are updated, for a new one also the default value is
+	 *                    used.
+	 * @param deletions
+	 *                    the unprefixed names of the properties to delete
+	 * 
+	 * @return a {@link Map} containing the {@link PropertyChange} for each given property name, in the order of the
+	 *         given arguments
+	 */
+	public Map<String, PropertyChange> saveProperties(Site site, Application application,
+			Collection<PropertyImpl> properties, Collection<String> deletions) {
+		String prefix = PropertySupport.getPropertyPrefix(site, application);
+		Map<String, PropertyImpl> existing = new HashMap<>();
+		getPropertiesList(prefix).forEach(p -> existing.put(p.getName(), p));
+
+		Map<String, PropertyChange> changes = new LinkedHashMap<>();
+		List<PropertyImpl> toSave = new ArrayList<>();
+		for (PropertyImpl property : properties) {
+			String name = property.getName();
+			PropertyImpl current = existing.get(prefix + name);
+			if (null == current) {
+				property.setName(prefix + name);
+				property.determineType();
+				existing.put(property.getName(), property);
+				changes.put(name, PropertyChange.CREATED);
+				toSave.add(property);
+			} else {
+				current.setString(property.getActualString());
+				current.setDescription(property.getDescription());
+				current.setClob(property.getClob());
+				changes.putIfAbsent(name, PropertyChange.UPDATED);
+				if (!toSave.contains(current)) {
+					toSave.add(current);
+				}
+			}
+		}
+
+		List<PropertyImpl> toDelete = new ArrayList<>();
+		for (String name : deletions) {
+			PropertyImpl current = existing.remove(prefix + name);
+			if (null == current) {
+				changes.put(name, PropertyChange.NOT_FOUND);
+			} else {
+				boolean created = PropertyChange.CREATED.equals(changes.put(name, PropertyChange.DELETED));
+				toSave.remove(current);
+				if (!created) {
+					toDelete.add(current);
+				}
+			}
+		}
+
+		Session session = entityManager.unwrap(Session.class);
+		Integer jdbcBatchSize = session.getJdbcBatchSize();
+		session.setJdbcBatchSize(PROPERTY_BATCH_SIZE);
+		try {
+			propertyRepository.save(toSave);
+			propertyRepository.delete(toDelete);
+			entityManager.flush();
+		} finally {
+			session.setJdbcBatchSize(jdbcBatchSize);
+		}
+		LOGGER.debug("saved {} and deleted {} properties with prefix '{}'", toSave.size(), toDelete.size(), prefix);
+		return changes;
+	}
+
+	/**
+	 * The type of change applied to a property by {@link CoreService#saveProperties(Site, Application, Collection,
+	 * Collection)}
+	 */
+	public enum PropertyChange {
+		/** the property has been created */
+		CREATED,
+		/** the property has been updated */
+		UPDATED,
+		/** the property has been deleted */
+		DELETED,
+		/** the property to delete does not exist */
+		NOT_FOUND;
+	}
+
 	public PropertyImpl createNodeProperty(String nodeId, PropertyImpl property) {
 		PropertyImpl created = createProperty(PropertySupport.getNodePrefix(nodeId), property);
 		LOGGER.debug("createed node property '%s' for node '%s'", property.getName(), nodeId);
@@ -806,6 +911,7 @@ public class CoreService {
 		((SubjectImpl) subject).setAuthenticated(true);
 		((SubjectImpl) subject).setSalt(null);
 		((SubjectImpl) subject).setDigest(null);
+		((SubjectImpl) subject).setPermissionSnapshot(PermissionSnapshot.of(subject));
 	}
 
 	protected void initSiteProperties(SiteImpl site) {
@@ -2012,17 +2118,23 @@ public class CoreService {
 	}
 
 	public SubjectImpl getSubjectByName(String name, boolean initialize) {
-		SubjectImpl subject = subjectRepository.findByName(name);
+		SubjectImpl subject;
 		if (initialize) {
+			subject = subjectRepository.findByNameFetchGroups(name);
 			initializeSubject(subject);
+		} else {
+			subject = subjectRepository.findByName(name);
 		}
 		return subject;
 	}
 
 	public Subject getSubjectById(Integer id, boolean initialize) {
-		SubjectImpl subject = subjectRepository.findOne(id);
+		SubjectImpl subject;
 		if (initialize) {
+			subject = subjectRepository.findByIdFetchGroups(id);
 			initializeSubject(subject);
+		} else {
+			subject = subjectRepository.findOne(id);
 		}
 		return subject;
 	}
@@ -2030,6 +2142,14 @@ public class CoreService {
 	private void initializeSubject(SubjectImpl subject) {
 		if (null != subject) {
 			List<Group> groups = subject.getGroups();
+			// fetch roles and permissions of all groups at once, the loop below then only touches initialized
+			// collections
+			PersistenceUtil persistenceUtil = Persistence.getPersistenceUtil();
+			Set<Integer> groupIds = groups.stream().filter(g -> !persistenceUtil.isLoaded(g, "roles"))
+					.map(Group::getId).filter(Objects::nonNull).collect(Collectors.toSet());
+			if (!groupIds.isEmpty()) {
+				groupRepository.getGroupsWithPermissions(groupIds);
+			}
 			for (Group group : groups) {
 				((GroupImpl) group).setSubjects(new HashSet<>());
 				initGroup(group);
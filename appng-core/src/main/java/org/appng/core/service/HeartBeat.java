@@ -15,36 +15,60 @@
  */
 package org.appng.core.service;
 
+import java.util.Map;
+
 import org.apache.commons.lang3.StringUtils;
+import org.appng.api.Environment;
+import org.appng.api.Platform;
+import org.appng.api.Scope;
 import org.appng.api.messaging.Messaging;
 import org.appng.api.messaging.Sender;
+import org.appng.api.messaging.Serializer;
+import org.appng.api.model.Properties;
 import org.appng.api.support.environment.DefaultEnvironment;
+import org.appng.core.controller.messaging.HeartBeatEvent;
+import org.appng.core.controller.messaging.NodeDescriptor;
 import org.appng.core.controller.messaging.NodeEvent;
+import org.appng.core.controller.messaging.NodeEvent.NodeState;
+import org.appng.core.controller.messaging.RequestNodeState;
+import org.appng.core.controller.messaging.RollingReload;
 
 import lombok.extern.slf4j.Slf4j;
 
 /**
- * Continuously sends {@link NodeEvent}s to the other cluster members, if messaging is enabled.
+ * Continuously sends {@link HeartBeatEvent}s to the other cluster members, if messaging is enabled. The full
+ * descriptor of the node is sent as a {@link NodeEvent} on startup, afterwards only the changes are sent. Nodes that
+ * missed more than the given number of heartbeats are marked as stale.
+ * <p>
+ * Nodes of a previous version can not read {@link HeartBeatEvent}s, so unless
+ * {@link Platform.Property#MESSAGING_BINARY_EVENTS} is enabled, the full descriptor is sent on every heartbeat
+ * instead.
+ * </p>
+ * 
+ * @see NodeDescriptor
  */
 @Slf4j
 public class HeartBeat extends Thread {
 
+	/** The default value for {@link org.appng.api.Platform.Property#HEART_BEAT_MAX_MISSED} */
+	public static final int DEFAULT_MAX_MISSED = 3;
 	private final long heartBeatInterval;
+	private final int maxMissed;
 
-	public HeartBeat(long heartBeatInterval) {
+	public HeartBeat(long heartBeatInterval, int maxMissed) {
 		super("appng-heartbeat");
 		this.heartBeatInterval = heartBeatInterval;
+		this.maxMissed = maxMissed;
 	}
 
 	@Override
 	public void run() {
 		DefaultEnvironment env = DefaultEnvironment.getGlobal();
 		Sender sender = Messaging.getMessageSender(env);
+		long sequence = 0;
 		while (!isInterrupted()) {
-			boolean sent = sender.send(new NodeEvent(env, StringUtils.EMPTY, Messaging.getNodeId()));
-			if (!sent) {
-				LOGGER.warn("NodeEvent could not be sent, please check messaging configuration.");
-			}
+			beat(env, sender, sequence++);
+			detectStaleNodes(env, System.currentTimeMillis());
 			try {
 				sleep(heartBeatInterval);
 			} catch (InterruptedException e) {
@@ -54,4 +78,53 @@ public class HeartBeat extends Thread {
 		}
 	}
 
+	void beat(Environment env, Sender sender, long sequence) {
+		boolean binaryEnabled = isBinaryEnabled(env);
+		if (binaryEnabled) {
+			NodeEvent changes = NodeDescriptor.changes(env);
+			if (null != changes && !sender.send(changes)) {
+				LOGGER.warn("NodeEvent could not be sent, please check messaging configuration.");
+			}
+			if (0 == sequence) {
+				sender.send(new RequestNodeState(StringUtils.EMPTY));
+			}
+		} else if (!sender.send(NodeDescriptor.full(env))) {
+			// nodes of a previous version can not read a HeartBeatEvent, they expect the full NodeEvent
+			LOGGER.warn("NodeEvent could not be sent, please check messaging configuration.");
+		}
+		HeartBeatEvent heartBeat = new HeartBeatEvent(sequence + 1, NodeDescriptor.getRevision());
+		if (binaryEnabled && !sender.send(heartBeat)) {
+			LOGGER.warn("HeartBeatEvent could not be sent, please check messaging configuration.");
+		}
+		String nodeId = Messaging.getNodeId();
+		NodeEvent.clusterState(env, nodeId).get(nodeId).updateMessageRates(heartBeat.getTimestamp(),
+				heartBeat.getEventsSent(), heartBeat.getEventsReceived());
+	}
+
+	private boolean isBinaryEnabled(Environment env) {
+		Properties platformConfig = env.getAttribute(Scope.PLATFORM, Platform.Environment.PLATFORM_CONFIG);
+		return null != platformConfig && Boolean.TRUE.equals(
+				platformConfig.getBoolean(Platform.Property.MESSAGING_BINARY_EVENTS, Serializer.DEFAULT_BINARY_EVENTS));
+	}
+
+	void detectStaleNodes(Environment env, long now) {
+		String currentNode = Messaging.getNodeId();
+		long maxAge = heartBeatInterval * maxMissed;
+		for (Map.Entry<String, NodeState> entry : NodeEvent.clusterState(env, currentNode).entrySet()) {
+			NodeState nodeState = entry.getValue();
+			if (!entry.getKey().equals(currentNode) && null != nodeState.getLastHeartBeat()) {
+				boolean stale = now - nodeState.getLastHeartBeat().getTime() > maxAge;
+				if (stale && !nodeState.isStale()) {
+					LOGGER.warn("Node {} missed more than {} heartbeats, last one was received at {}.", entry.getKey(),
+							maxMissed, nodeState.getLastHeartBeat());
+				}
+				boolean changed = stale != nodeState.isStale();
+				nodeState.setStale(stale);
+				if (changed) {
+					RollingReload.membershipChanged(env);
+				}
+			}
+		}
+	}
+
 }
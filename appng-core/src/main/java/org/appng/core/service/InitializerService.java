@@ -44,6 +44,7 @@ import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -102,6 +103,12 @@ import org.appng.core.model.RepositoryCacheFactory;
 import org.appng.core.repository.config.ApplicationPostProcessor;
 import org.appng.core.service.MigrationService.MigrationStatus;
 import org.appng.search.indexer.DocumentIndexer;
+import org.appng.search.indexer.GlobalIndexer;
+import org.appng.search.indexer.LiveIndexer;
+import org.appng.search.searcher.ManagedIndex;
+import org.appng.search.searcher.SearchExecutors;
+import org.appng.search.searcher.SearchResultCache;
+import org.appng.search.searcher.Suggester;
 import org.appng.tools.ui.StringNormalizer;
 import org.appng.xml.MarshallService;
 import org.appng.xml.platform.Messages;
@@ -155,6 +162,7 @@ public class InitializerService implements InitializingBean {
 	@Autowired
 	protected PlatformEventListener auditableListener;
 	private ExecutorService startupExecutor;
+	private ScheduledExecutorService retentionExecutor;
 
 	@Override
 	public void afterPropertiesSet() throws Exception {
@@ -220,16 +228,49 @@ public class InitializerService implements InitializingBean {
 		startSiteThread(site, "appng-indexthread-" + site.getName(), THREAD_PRIORITY_LOW, documentIndexer);
 	}
 
-	private void startRepositoryWatcher(Site site, boolean cacheEnabled, String jspType) {
-		if (cacheEnabled && site.getProperties().getBoolean(SiteProperties.CACHE_WATCH_REPOSITORY, false)) {
+	private void startRepositoryWatcher(Site site, boolean cacheEnabled, String jspType,
+			DocumentIndexer documentIndexer) {
+		boolean expireCache = cacheEnabled
+				&& site.getProperties().getBoolean(SiteProperties.CACHE_WATCH_REPOSITORY, false);
+		boolean liveIndexing = site.getProperties().getBoolean(SiteProperties.INDEX_WATCH_REPOSITORY, false);
+		if (expireCache || liveIndexing) {
+			LiveIndexer liveIndexer = null;
+			if (liveIndexing) {
+				liveIndexer = new GlobalIndexer(documentIndexer).createLiveIndexer(site, jspType);
+				String threadName = String.format("appng-liveIndexer-%s", site.getName());
+				startSiteThread(site, threadName, THREAD_PRIORITY_LOW, liveIndexer);
+			}
 			String watcherRuleSourceSuffix = site.getProperties()
 					.getString(SiteProperties.CACHE_WATCHER_RULE_SOURCE_SUFFIX, RepositoryWatcher.DEFAULT_RULE_SUFFIX);
 			String threadName = String.format("appng-repositoryWatcher-%s", site.getName());
-			RepositoryWatcher repositoryWatcher = new RepositoryWatcher(site, jspType, watcherRuleSourceSuffix);
+			RepositoryWatcher repositoryWatcher = new RepositoryWatcher(site, jspType, watcherRuleSourceSuffix,
+					expireCache, liveIndexer);
 			startSiteThread(site, threadName, THREAD_PRIORITY_LOW, repositoryWatcher);
 		}
 	}
 
+	private void startRetention() {
+		if (null != retentionExecutor) {
+			retentionExecutor.shutdownNow();
+		}
+		retentionExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setDaemon(true)
+				.setPriority(THREAD_PRIORITY_LOW).setNameFormat("appng-retention").build());
+		retentionExecutor.scheduleWithFixedDelay(() -> {
+			try {
+				DefaultEnvironment env = DefaultEnvironment.getGlobal();
+				Map<String, Site> siteMap = env.getAttribute(Scope.PLATFORM, Platform.Environment.SITES);
+				Properties platformConfig = env.getAttribute(Scope.PLATFORM, Platform.Environment.PLATFORM_CONFIG);
+				org.springframework.context.ApplicationContext platformContext = env.getAttribute(Scope.PLATFORM,
+						Platform.Environment.CORE_PLATFORM_CONTEXT);
+				if (null != siteMap && null != platformContext) {
+					platformContext.getBean(RetentionService.class).purge(siteMap.values(), platformConfig);
+				}
+			} catch (Exception e) {
+				LOGGER.error("error while purging job execution records and platform events", e);
+			}
+		}, RetentionService.INITIAL_DELAY, RetentionService.INTERVAL, TimeUnit.MINUTES);
+	}
+
 	private Future<?> startSiteThread(Site site, String threadName, int priority, Runnable runnable) {
 		if (!siteThreads.containsKey(site.getName())) {
 			siteThreads.put(site.getName(), new ArrayList<>());
@@ -306,8 +347,11 @@ public class InitializerService implements InitializingBean {
 
 		final int heartBeatSleepTime = platformConfig.getInteger(Platform.Property.HEART_BEAT_INTERVAL, 60) * 1000;
 		if (null != sender) {
-			new HeartBeat(heartBeatSleepTime).start();
+			int maxMissed = platformConfig.getInteger(Platform.Property.HEART_BEAT_MAX_MISSED,
+					HeartBeat.DEFAULT_MAX_MISSED);
+			new HeartBeat(heartBeatSleepTime, maxMissed).start();
 		}
+		startRetention();
 
 		int activeSites = 0;
 		FieldProcessor platformMessages = new FieldProcessorImpl("load-platform");
@@ -783,7 +827,8 @@ public class InitializerService implements InitializingBean {
 				}
 
 				startIndexThread(site, documentIndexer);
-				startRepositoryWatcher(site, cacheEnabled, platformConfig.getString(Platform.Property.JSP_FILE_TYPE));
+				startRepositoryWatcher(site, cacheEnabled, platformConfig.getString(Platform.Property.JSP_FILE_TYPE),
+						documentIndexer);
 
 				String datasourceConfigurerName = siteProps.getString(SiteProperties.DATASOURCE_CONFIGURER);
 				siteClassLoader.loadClass(datasourceConfigurerName);
@@ -1057,6 +1102,9 @@ public class InitializerService implements InitializingBean {
 				shutDownSite(env, site, true);
 			}
 		}
+		if (null != retentionExecutor) {
+			retentionExecutor.shutdownNow();
+		}
 		CacheService.shutdown();
 		env.removeAttribute(Scope.PLATFORM, Platform.Environment.SITES);
 		coreService.createEvent(Type.INFO, "Stopped platform");
@@ -1078,6 +1126,14 @@ public class InitializerService implements InitializingBean {
 				executorService.shutdownNow();
 			}
 		}
+		ManagedIndex.close(site.getName());
+		SearchExecutors.shutdown(site.getName());
+		SearchResultCache.remove(site.getName());
+		Properties siteProps = site.getProperties();
+		if (null != siteProps) {
+			String siteRoot = siteProps.getString(SiteProperties.SITE_ROOT_DIR);
+			Suggester.remove(new File(siteRoot, siteProps.getString(SiteProperties.INDEX_DIR)));
+		}
 		coreService.shutdownSite(env, site.getName(), removeFromSiteMap);
 	}
 
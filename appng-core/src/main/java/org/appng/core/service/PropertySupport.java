@@ -30,6 +30,7 @@ import org.appng.api.SiteProperties;
 import org.appng.api.VHostMode;
 import org.appng.api.auth.AuthTools;
 import org.appng.api.auth.PasswordPolicy;
+import org.appng.api.messaging.Serializer;
 import org.appng.api.model.Application;
 import org.appng.api.model.Properties;
 import org.appng.api.model.Property;
@@ -37,7 +38,9 @@ import org.appng.api.model.Property.Type;
 import org.appng.api.model.Site;
 import org.appng.api.support.PropertyHolder;
 import org.appng.core.controller.HttpHeaders;
+import org.appng.core.controller.messaging.EventDispatcher;
 import org.appng.core.controller.messaging.HazelcastReceiver;
+import org.appng.core.controller.messaging.MulticastReceiver;
 import org.appng.core.domain.SiteImpl;
 import org.appng.core.repository.config.DataSourceFactory;
 import org.appng.core.repository.config.HikariCPConfigurer;
@@ -259,15 +262,29 @@ public class PropertySupport {
 		addSiteProperty(SiteProperties.JDBC_CONNECTION_TIMEOUT, DataSourceFactory.DEFAULT_TIMEOUT);
 		addSiteProperty(SiteProperties.JDBC_LOG_PERFORMANCE, false);
 		addSiteProperty(SiteProperties.JDBC_MAX_LIFETIME, DataSourceFactory.DEFAULT_LIFE_TIME);
+		addSiteProperty(SiteProperties.JDBC_READ_REPLICAS, StringUtils.EMPTY, Type.MULTILINE);
+		addSiteProperty(SiteProperties.JDBC_REPLICA_RETRY_INTERVAL, DataSourceFactory.DEFAULT_RETRY_INTERVAL);
+		addSiteProperty(SiteProperties.JDBC_SLOW_STATEMENT_THRESHOLD, 0);
 		addSiteProperty(SiteProperties.JDBC_VALIDATION_TIMEOUT, DataSourceFactory.DEFAULT_TIMEOUT);
+		addSiteProperty(SiteProperties.JOB_RECORD_MAX_AGE, 0);
+		addSiteProperty(SiteProperties.JOB_RECORD_MAX_ROWS, 0);
+		addSiteProperty(SiteProperties.JOB_RECORD_RETENTION, StringUtils.EMPTY, Type.MULTILINE);
 		addSiteProperty(SiteProperties.SEARCH_CHUNK_SIZE, 20);
 		addSiteProperty(SiteProperties.SEARCH_MAX_HITS, 100);
+		addSiteProperty(SiteProperties.SEARCH_CACHE_SIZE, 100);
+		addSiteProperty(SiteProperties.SEARCH_PART_THREADS, 0);
+		addSiteProperty(SiteProperties.SEARCH_PART_TIMEOUT, 5000);
+		addSiteProperty(SiteProperties.SEARCH_DIRECTORY, "MMAP");
+		addSiteProperty(SiteProperties.SEARCH_WARMUP_QUERIES, StringUtils.EMPTY);
 		addSiteProperty(Platform.Property.MAIL_HOST, "localhost");
 		addSiteProperty(Platform.Property.MAIL_PORT, 25);
 		addSiteProperty(Platform.Property.MAIL_DISABLED, true);
 		addSiteProperty(SiteProperties.INDEX_CONFIG, "/de;de;GermanAnalyzer|/assets;de;GermanAnalyzer");
 		addSiteProperty(SiteProperties.INDEX_FILETYPES, "jsp,pdf,doc");
 		addSiteProperty(SiteProperties.INDEX_FILE_SYSTEM_QUEUE_SIZE, 2500);
+		addSiteProperty(SiteProperties.INDEX_FILE_SYSTEM_THREADS, 2);
+		addSiteProperty(SiteProperties.INDEX_WATCH_REPOSITORY, false);
+		addSiteProperty(SiteProperties.INDEX_WATCH_DELAY, 2000);
 		addSiteProperty(SiteProperties.DEFAULT_PAGE, "index");
 		addSiteProperty(SiteProperties.DEFAULT_PAGE_SIZE, 25);
 		addSiteProperty(SiteProperties.APPEND_TAB_ID, false);
@@ -284,6 +301,8 @@ public class PropertySupport {
 		addSiteProperty(SiteProperties.TAG_PREFIX, "appNG");
 		addSiteProperty(SiteProperties.REWRITE_CONFIG, "/meta/conf/urlrewrite.xml");
 		addSiteProperty(SiteProperties.SET_DEBUG_HEADERS, false);
+		addSiteProperty(SiteProperties.SERVER_TIMING_IPS, StringUtils.EMPTY);
+		addSiteProperty(SiteProperties.SERVER_TIMING_ROLES, StringUtils.EMPTY);
 		addSiteProperty(SiteProperties.SUPPORT_RELOAD_FILE,
 				!platformConfig.getBoolean(Platform.Property.MESSAGING_ENABLED));
 
@@ -368,6 +387,7 @@ public class PropertySupport {
 		addPlatformProperty(defaultOverrides, Platform.Property.ENCODING, HttpHeaders.CHARSET_UTF8);
 		addPlatformProperty(defaultOverrides, Platform.Property.FILEBASED_DEPLOYMENT, Boolean.TRUE);
 		addPlatformProperty(defaultOverrides, Platform.Property.FORMAT_OUTPUT, false);
+		addPlatformProperty(defaultOverrides, Platform.Property.HEART_BEAT_MAX_MISSED, HeartBeat.DEFAULT_MAX_MISSED);
 		addPlatformProperty(defaultOverrides, Platform.Property.IMAGE_CACHE_FOLDER, "image");
 		addPlatformProperty(defaultOverrides, Platform.Property.IMAGEMAGICK_PATH, "/usr/bin");
 		addPlatformProperty(defaultOverrides, Platform.Property.INACTIVE_LOCK_PERIOD, 0);
@@ -381,15 +401,32 @@ public class PropertySupport {
 		addPlatformProperty(defaultOverrides, Platform.Property.MAX_UPLOAD_SIZE, 30 * 1024 * 1024);
 		addPlatformProperty(defaultOverrides, Platform.Property.MAX_LOGIN_ATTEMPTS, 20);
 		addPlatformProperty(defaultOverrides, Platform.Property.MDC_ENABLED, Boolean.TRUE);
+		addPlatformProperty(defaultOverrides, Platform.Property.MESSAGING_BINARY_EVENTS,
+				Serializer.DEFAULT_BINARY_EVENTS);
+		addPlatformProperty(defaultOverrides, Platform.Property.MESSAGING_COALESCING_WINDOW,
+				EventDispatcher.DEFAULT_COALESCING_WINDOW);
+		addPlatformProperty(defaultOverrides, Platform.Property.MESSAGING_COMPRESSION_THRESHOLD,
+				Serializer.DEFAULT_COMPRESSION_THRESHOLD);
+		addPlatformProperty(defaultOverrides, Platform.Property.MESSAGING_DISPATCHER_OFFER_TIMEOUT,
+				EventDispatcher.DEFAULT_OFFER_TIMEOUT);
+		addPlatformProperty(defaultOverrides, Platform.Property.MESSAGING_DISPATCHER_QUEUE_SIZE,
+				EventDispatcher.DEFAULT_QUEUE_SIZE);
+		addPlatformProperty(defaultOverrides, Platform.Property.MESSAGING_DISPATCHER_THREADS,
+				EventDispatcher.DEFAULT_THREADS);
 		addPlatformProperty(defaultOverrides, Platform.Property.MESSAGING_ENABLED, Boolean.TRUE);
 		addPlatformProperty(defaultOverrides, Platform.Property.MESSAGING_GROUP_ADDRESS, "224.2.2.4");
 		addPlatformProperty(defaultOverrides, Platform.Property.MESSAGING_GROUP_PORT, 4000);
+		addPlatformProperty(defaultOverrides, Platform.Property.MESSAGING_MAX_EVENT_SIZE,
+				MulticastReceiver.DEFAULT_MAX_EVENT_SIZE);
 		addPlatformProperty(defaultOverrides, Platform.Property.MESSAGING_RECEIVER, HazelcastReceiver.class.getName());
+		addPlatformProperty(defaultOverrides, Platform.Property.MESSAGING_SERIALIZATION_WHITELIST, StringUtils.EMPTY,
+				Type.MULTILINE);
 		addPlatformProperty(defaultOverrides, Platform.Property.MONITOR_PERFORMANCE, false);
 		addPlatformProperty(defaultOverrides, Platform.Property.MONITORING_PATH, "/health");
 		addPlatformProperty(defaultOverrides, Platform.Property.PASSWORD_POLICY_ERROR_MSSG_KEY,
 				DefaultPasswordPolicy.ERROR_MSSG_KEY);
 		addPlatformProperty(defaultOverrides, Platform.Property.PASSWORD_POLICY_REGEX, DefaultPasswordPolicy.REGEX);
+		addPlatformProperty(defaultOverrides, Platform.Property.PLATFORM_EVENT_MAX_AGE, 0);
 		addPlatformProperty(defaultOverrides, Platform.Property.PLATFORM_CACHE_FOLDER, "platform");
 		addPlatformProperty(defaultOverrides, Platform.Property.APPLICATION_DIR, "/applications");
 		addPlatformProperty(defaultOverrides, Platform.Property.REPOSITORY_PATH, "repository");
@@ -401,6 +438,8 @@ public class PropertySupport {
 		addPlatformProperty(defaultOverrides, Platform.Property.REPOSITORY_TRUST_STORE_PASSWORD, StringUtils.EMPTY,
 				Type.PASSWORD);
 		addPlatformProperty(defaultOverrides, Platform.Property.REPOSITORY_VERIFY_SIGNATURE, true);
+		addPlatformProperty(defaultOverrides, Platform.Property.RETENTION_AGGREGATE, false);
+		addPlatformProperty(defaultOverrides, Platform.Property.RETENTION_CHUNK_SIZE, 1000);
 		addPlatformProperty(defaultOverrides, Platform.Property.SESSION_TIMEOUT, 1800);
 		addPlatformProperty(defaultOverrides, Platform.Property.SESSION_FILTER, StringUtils.EMPTY, Type.MULTILINE);
 
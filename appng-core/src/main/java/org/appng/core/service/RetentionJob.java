@@ -0,0 +1,75 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.core.service;
+
+import java.util.Map;
+
+import org.appng.api.Platform;
+import org.appng.api.ScheduledJob;
+import org.appng.api.Scope;
+import org.appng.api.model.Application;
+import org.appng.api.model.Properties;
+import org.appng.api.model.Site;
+import org.appng.api.support.environment.DefaultEnvironment;
+import org.springframework.context.ApplicationContext;
+
+import lombok.Data;
+
+/**
+ * A {@link ScheduledJob} delegating to the {@link RetentionService}. Purges the job execution records of the
+ * {@link Site} the job runs for. If the {@code jobDataMap} contains an entry {@value #PURGE_PLATFORM_EVENTS} with the
+ * value {@code true}, the platform events are also being purged. Example for {@code beans.xml}:
+ * 
+ * <pre>
+ * &lt;bean id="retentionJob" class="org.appng.core.service.RetentionJob"&gt;
+ *   &lt;property name="jobDataMap"&gt;
+ *     &lt;map&gt;
+ *       &lt;entry key="enabled" value="true" /&gt;
+ *       &lt;entry key="runOnce" value="true" /&gt;
+ *       &lt;entry key="cronExpression" value="0 30 3 ? * *" /&gt;
+ *       &lt;entry key="purgePlatformEvents" value="true" /&gt;
+ *     &lt;/map&gt;
+ *   &lt;/property&gt;
+ * &lt;/bean&gt;
+ * </pre>
+ * 
+ * The job requires access to the platform context, so it must be defined by a privileged {@link Application}. It is
+ * only needed for a schedule other than the default one, since the platform already purges the records of every
+ * started site once a day (see {@link RetentionService}).
+ *
+ * @see RetentionService
+ */
+@Data
+public class RetentionJob implements ScheduledJob {
+
+	public static final String PURGE_PLATFORM_EVENTS = "purgePlatformEvents";
+
+	private String description;
+	private Map<String, Object> jobDataMap;
+
+	public void execute(Site site, Application application) throws Exception {
+		DefaultEnvironment env = DefaultEnvironment.getGlobal();
+		ApplicationContext platformContext = env.getAttribute(Scope.PLATFORM,
+				Platform.Environment.CORE_PLATFORM_CONTEXT);
+		RetentionService retentionService = platformContext.getBean(RetentionService.class);
+		Properties platformConfig = env.getAttribute(Scope.PLATFORM, Platform.Environment.PLATFORM_CONFIG);
+		retentionService.purgeJobExecutionRecords(site, platformConfig);
+		if (null != jobDataMap && Boolean.parseBoolean(String.valueOf(jobDataMap.get(PURGE_PLATFORM_EVENTS)))) {
+			retentionService.purgePlatformEvents(platformConfig);
+		}
+	}
+
+}
@@ -0,0 +1,379 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.core.service;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.time.DateUtils;
+import org.appng.api.Platform;
+import org.appng.api.SiteProperties;
+import org.appng.api.model.Properties;
+import org.appng.api.model.Site;
+import org.appng.api.model.Site.SiteState;
+import org.appng.core.domain.JobExecutionAggregate;
+import org.appng.core.domain.JobExecutionRecord;
+import org.appng.core.domain.PlatformEvent;
+import org.appng.core.domain.PlatformEvent.Type;
+import org.appng.core.domain.PlatformEventAggregate;
+import org.appng.core.repository.JobExecutionAggregateRepository;
+import org.appng.core.repository.PlatformEventAggregateRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A service that purges outdated {@link JobExecutionRecord}s and {@link PlatformEvent}s. Rows are deleted in chunks
+ * of {@link Platform.Property#RETENTION_CHUNK_SIZE}, each chunk using its own transaction, so no long-running locks are
+ * being held. If {@link Platform.Property#RETENTION_AGGREGATE} is {@code true}, the purged rows are rolled up into
+ * {@link JobExecutionAggregate}s and {@link PlatformEventAggregate}s before they get deleted.
+ * <p>
+ * The platform purges once a day (see {@link #purge(Collection, Properties)}), a {@link RetentionJob} can be used to
+ * purge on a different schedule.
+ * </p>
+ * 
+ * @see SiteProperties#JOB_RECORD_MAX_AGE
+ * @see SiteProperties#JOB_RECORD_MAX_ROWS
+ * @see SiteProperties#JOB_RECORD_RETENTION
+ * @see Platform.Property#PLATFORM_EVENT_MAX_AGE
+ * @see RetentionJob
+ */
+@Slf4j
+public class RetentionService {
+
+	public static final int DEFAULT_CHUNK_SIZE = 1000;
+	/** The delay before the platform purges for the first time after startup, in minutes */
+	public static final long INITIAL_DELAY = 60;
+	/** The interval in which the platform purges, in minutes */
+	public static final long INTERVAL = TimeUnit.DAYS.toMinutes(1);
+	private static final String POLICY_SEPARATOR = ";";
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private JobExecutionAggregateRepository jobExecutionAggregateRepository;
+
+	@Autowired
+	private PlatformEventAggregateRepository platformEventAggregateRepository;
+
+	/**
+	 * Purges the {@link JobExecutionRecord}s of all started {@link Site}s that have a retention configured, and the
+	 * {@link PlatformEvent}s if {@link Platform.Property#PLATFORM_EVENT_MAX_AGE} is set. This is done by the platform
+	 * every {@link #INTERVAL} minutes.
+	 * 
+	 * @param sites
+	 *                       the {@link Site}s
+	 * @param platformConfig
+	 *                       the platform configuration
+	 * 
+	 * @return the number of purged records and events
+	 */
+	public int purge(Collection<Site> sites, Properties platformConfig) {
+		int purged = 0;
+		for (Site site : sites) {
+			if (SiteState.STARTED.equals(site.getState()) && isRetentionEnabled(site.getProperties())) {
+				try {
+					purged += purgeJobExecutionRecords(site, platformConfig);
+				} catch (RuntimeException e) {
+					LOGGER.error(String.format("error purging job execution records for site %s", site.getName()), e);
+				}
+			}
+		}
+		return purged + purgePlatformEvents(platformConfig);
+	}
+
+	static boolean isRetentionEnabled(Properties siteProps) {
+		RetentionPolicy defaultPolicy = new RetentionPolicy(siteProps.getInteger(SiteProperties.JOB_RECORD_MAX_AGE, 0),
+				siteProps.getInteger(SiteProperties.JOB_RECORD_MAX_ROWS, 0));
+		Map<String, RetentionPolicy> policies = getPolicies(siteProps.getProperties(SiteProperties.JOB_RECORD_RETENTION),
+				defaultPolicy);
+		return defaultPolicy.isEnabled() || policies.values().stream().anyMatch(RetentionPolicy::isEnabled);
+	}
+
+	/**
+	 * Purges the {@link JobExecutionRecord}s of the given {@link Site}, according to the site's retention settings.
+	 * 
+	 * @param site
+	 *                       the {@link Site} to purge the records for
+	 * @param platformConfig
+	 *                       the platform configuration
+	 * 
+	 * @return the number of purged records
+	 */
+	public int purgeJobExecutionRecords(Site site, Properties platformConfig) {
+		Properties siteProps = site.getProperties();
+		RetentionPolicy defaultPolicy = new RetentionPolicy(siteProps.getInteger(SiteProperties.JOB_RECORD_MAX_AGE, 0),
+				siteProps.getInteger(SiteProperties.JOB_RECORD_MAX_ROWS, 0));
+		Map<String, RetentionPolicy> policies = getPolicies(siteProps.getProperties(SiteProperties.JOB_RECORD_RETENTION),
+				defaultPolicy);
+		return purgeJobExecutionRecords(site.getName(), defaultPolicy, policies, getChunkSize(platformConfig),
+				platformConfig.getBoolean(Platform.Property.RETENTION_AGGREGATE, false));
+	}
+
+	/**
+	 * Purges the {@link JobExecutionRecord}s of the given site.
+	 * 
+	 * @param site
+	 *                      the name of the site
+	 * @param defaultPolicy
+	 *                      the {@link RetentionPolicy} to use if there's no policy for an application
+	 * @param policies
+	 *                      the {@link RetentionPolicy} per application name
+	 * @param chunkSize
+	 *                      the maximum number of records to delete per transaction
+	 * @param aggregate
+	 *                      whether to roll up the purged records into {@link JobExecutionAggregate}s
+	 * 
+	 * @return the number of purged records
+	 */
+	public int purgeJobExecutionRecords(String site, RetentionPolicy defaultPolicy,
+			Map<String, RetentionPolicy> policies, int chunkSize, boolean aggregate) {
+		List<Object[]> jobs = entityManager.createQuery(
+				"select distinct j.application, j.jobName from JobExecutionRecord j where j.site = :site and j.application is not null and j.jobName is not null",
+				Object[].class).setParameter("site", site).getResultList();
+		Consumer<List<Integer>> aggregator = aggregate ? this::aggregateJobExecutionRecords : ids -> {
+		};
+
+		int purged = 0;
+		for (Object[] job : jobs) {
+			String application = (String) job[0];
+			String jobName = (String) job[1];
+			RetentionPolicy policy = policies.getOrDefault(application, defaultPolicy);
+			Map<String, Object> params = new HashMap<>();
+			params.put("site", site);
+			params.put("application", application);
+			params.put("jobName", jobName);
+			String jobRestriction = "j.site = :site and j.application = :application and j.jobName = :jobName";
+
+			if (policy.getMaxAge() > 0) {
+				params.put("limit", DateUtils.addDays(new Date(), -policy.getMaxAge()));
+				purged += purgeChunked(
+						"select j.id from JobExecutionRecord j where " + jobRestriction + " and j.startTime < :limit",
+						params, chunkSize, aggregator, JobExecutionRecord.class);
+			}
+			if (policy.getMaxRows() > 0) {
+				TypedQuery<Integer> oldestKept = entityManager.createQuery(
+						"select j.id from JobExecutionRecord j where " + jobRestriction + " order by j.id desc",
+						Integer.class);
+				params.remove("limit");
+				params.forEach(oldestKept::setParameter);
+				List<Integer> limit = oldestKept.setFirstResult(policy.getMaxRows() - 1).setMaxResults(1)
+						.getResultList();
+				if (!limit.isEmpty()) {
+					params.put("limit", limit.get(0));
+					purged += purgeChunked(
+							"select j.id from JobExecutionRecord j where " + jobRestriction + " and j.id < :limit",
+							params, chunkSize, aggregator, JobExecutionRecord.class);
+				}
+			}
+		}
+		LOGGER.info("purged {} job execution records for site {}", purged, site);
+		return purged;
+	}
+
+	/**
+	 * Purges the {@link PlatformEvent}s that are older than {@link Platform.Property#PLATFORM_EVENT_MAX_AGE} days.
+	 * 
+	 * @param platformConfig
+	 *                       the platform configuration
+	 * 
+	 * @return the number of purged events
+	 */
+	public int purgePlatformEvents(Properties platformConfig) {
+		return purgePlatformEvents(platformConfig.getInteger(Platform.Property.PLATFORM_EVENT_MAX_AGE, 0),
+				getChunkSize(platformConfig), platformConfig.getBoolean(Platform.Property.RETENTION_AGGREGATE, false));
+	}
+
+	/**
+	 * Purges the {@link PlatformEvent}s that are older than {@code maxAge} days.
+	 * 
+	 * @param maxAge
+	 *                  the maximum age in days, {@code 0} means events are kept forever
+	 * @param chunkSize
+	 *                  the maximum number of events to delete per transaction
+	 * @param aggregate
+	 *                  whether to roll up the purged events into {@link PlatformEventAggregate}s
+	 * 
+	 * @return the number of purged events
+	 */
+	public int purgePlatformEvents(int maxAge, int chunkSize, boolean aggregate) {
+		if (maxAge <= 0) {
+			return 0;
+		}
+		Map<String, Object> params = Collections.singletonMap("limit", DateUtils.addDays(new Date(), -maxAge));
+		Consumer<List<Integer>> aggregator = aggregate ? this::aggregatePlatformEvents : ids -> {
+		};
+		int purged = purgeChunked("select e.id from PlatformEvent e where e.created < :limit", params, chunkSize,
+				aggregator, PlatformEvent.class);
+		LOGGER.info("purged {} platform events", purged);
+		return purged;
+	}
+
+	private int purgeChunked(String idQuery, Map<String, Object> params, int chunkSize,
+			Consumer<List<Integer>> aggregator, Class<?> entityType) {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		String deleteQuery = "delete from " + entityType.getSimpleName() + " e where e.id in :ids";
+		int purged = 0;
+		int deleted;
+		do {
+			deleted = transactionTemplate.execute(status -> {
+				TypedQuery<Integer> query = entityManager.createQuery(idQuery, Integer.class);
+				params.forEach(query::setParameter);
+				List<Integer> ids = query.setMaxResults(chunkSize).getResultList();
+				if (ids.isEmpty()) {
+					return 0;
+				}
+				aggregator.accept(ids);
+				int count = entityManager.createQuery(deleteQuery).setParameter("ids", ids).executeUpdate();
+				if (count < ids.size()) {
+					// another node purges concurrently, roll back so the rows are not aggregated twice
+					status.setRollbackOnly();
+					return 0;
+				}
+				return count;
+			});
+			purged += deleted;
+			LOGGER.debug("deleted {} rows of {}", deleted, entityType.getSimpleName());
+		} while (deleted == chunkSize);
+		return purged;
+	}
+
+	private void aggregateJobExecutionRecords(List<Integer> ids) {
+		List<Object[]> rows = entityManager.createQuery(
+				"select j.site, j.application, j.jobName, j.result, j.startTime, j.duration from JobExecutionRecord j where j.id in :ids",
+				Object[].class).setParameter("ids", ids).getResultList();
+		Map<List<Object>, JobExecutionAggregate> aggregates = new HashMap<>();
+		for (Object[] row : rows) {
+			Date day = truncate((Date) row[4]);
+			List<Object> key = Arrays.asList(row[0], row[1], row[2], row[3], day);
+			JobExecutionAggregate aggregate = aggregates.computeIfAbsent(key, k -> {
+				JobExecutionAggregate existing = jobExecutionAggregateRepository
+						.findBySiteAndApplicationAndJobNameAndResultAndDay((String) row[0], (String) row[1],
+								(String) row[2], (String) row[3], day);
+				if (null == existing) {
+					existing = new JobExecutionAggregate();
+					existing.setSite((String) row[0]);
+					existing.setApplication((String) row[1]);
+					existing.setJobName((String) row[2]);
+					existing.setResult((String) row[3]);
+					existing.setDay(day);
+				}
+				return existing;
+			});
+			int duration = null == row[5] ? 0 : (Integer) row[5];
+			aggregate.setExecutions(aggregate.getExecutions() + 1);
+			aggregate.setTotalDuration(aggregate.getTotalDuration() + duration);
+			aggregate.setMaxDuration(Math.max(aggregate.getMaxDuration(), duration));
+		}
+		jobExecutionAggregateRepository.save(aggregates.values());
+	}
+
+	private void aggregatePlatformEvents(List<Integer> ids) {
+		List<Object[]> rows = entityManager
+				.createQuery("select e.application, e.type, e.created from PlatformEvent e where e.id in :ids",
+						Object[].class)
+				.setParameter("ids", ids).getResultList();
+		Map<List<Object>, PlatformEventAggregate> aggregates = new HashMap<>();
+		for (Object[] row : rows) {
+			Date day = truncate((Date) row[2]);
+			List<Object> key = Arrays.asList(row[0], row[1], day);
+			PlatformEventAggregate aggregate = aggregates.computeIfAbsent(key, k -> {
+				PlatformEventAggregate existing = platformEventAggregateRepository
+						.findByApplicationAndTypeAndDay((String) row[0], (Type) row[1], day);
+				if (null == existing) {
+					existing = new PlatformEventAggregate();
+					existing.setApplication((String) row[0]);
+					existing.setType((Type) row[1]);
+					existing.setDay(day);
+				}
+				return existing;
+			});
+			aggregate.setEvents(aggregate.getEvents() + 1);
+		}
+		platformEventAggregateRepository.save(aggregates.values());
+	}
+
+	private Date truncate(Date date) {
+		return null == date ? null : DateUtils.truncate(date, Calendar.DATE);
+	}
+
+	private int getChunkSize(Properties platformConfig) {
+		int chunkSize = platformConfig.getInteger(Platform.Property.RETENTION_CHUNK_SIZE, DEFAULT_CHUNK_SIZE);
+		return chunkSize > 0 ? chunkSize : DEFAULT_CHUNK_SIZE;
+	}
+
+	static Map<String, RetentionPolicy> getPolicies(java.util.Properties entries, RetentionPolicy defaultPolicy) {
+		Map<String, RetentionPolicy> policies = new HashMap<>();
+		if (null != entries) {
+			for (String application : entries.stringPropertyNames()) {
+				String[] values = StringUtils.split(entries.getProperty(application), POLICY_SEPARATOR);
+				try {
+					int maxAge = values.length > 0 ? Integer.parseInt(values[0].trim()) : defaultPolicy.getMaxAge();
+					int maxRows = values.length > 1 ? Integer.parseInt(values[1].trim()) : defaultPolicy.getMaxRows();
+					policies.put(application.trim(), new RetentionPolicy(maxAge, maxRows));
+				} catch (NumberFormatException e) {
+					LOGGER.warn("invalid retention policy for application {}: {}", application,
+							entries.getProperty(application));
+				}
+			}
+		}
+		return policies;
+	}
+
+	/**
+	 * Defines how long {@link JobExecutionRecord}s are being kept.
+	 */
+	@Getter
+	@AllArgsConstructor
+	public static class RetentionPolicy {
+		/** the maximum age in days, {@code 0} means unlimited */
+		private final int maxAge;
+		/** the maximum number of records per job, {@code 0} means unlimited */
+		private final int maxRows;
+
+		/**
+		 * Whether records are being purged at all
+		 * 
+		 * @return {@code true} if a maximum age or a maximum number of records is set
+		 */
+		public boolean isEnabled() {
+			return maxAge > 0 || maxRows > 0;
+		}
+	}
+
+}
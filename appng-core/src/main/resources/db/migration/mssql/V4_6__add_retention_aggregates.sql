@@ -0,0 +1,24 @@
+create table job_execution_aggregate (
+	id int identity not null,
+	site varchar(255),
+	application varchar(255),
+	job_name varchar(255),
+	result varchar(255),
+	aggregate_day date,
+	executions int not null,
+	total_duration bigint not null,
+	max_duration int not null,
+	primary key (id)
+);
+
+create table platform_event_aggregate (
+	id int identity not null,
+	application varchar(255),
+	ev_type varchar(255),
+	aggregate_day date,
+	events int not null,
+	primary key (id)
+);
+
+create index IDX_JOB_EXECUTION_RECORD_JOB on job_execution_record (site, application, job_name, start_time);
+create index IDX_PLATFORM_EVENT_CREATED on platform_event (created);
@@ -0,0 +1,24 @@
+create table job_execution_aggregate (
+	id integer not null auto_increment,
+	site varchar(255),
+	application varchar(255),
+	job_name varchar(255),
+	result varchar(255),
+	aggregate_day date,
+	executions integer not null,
+	total_duration bigint not null,
+	max_duration integer not null,
+	primary key (id)
+);
+
+create table platform_event_aggregate (
+	id integer not null auto_increment,
+	application varchar(255),
+	ev_type varchar(255),
+	aggregate_day date,
+	events integer not null,
+	primary key (id)
+);
+
+create index IDX_JOB_EXECUTION_RECORD_JOB on job_execution_record (site(100), application(100), job_name(100), start_time);
+create index IDX_PLATFORM_EVENT_CREATED on platform_event (created);
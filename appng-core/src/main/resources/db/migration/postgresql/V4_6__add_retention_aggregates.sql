@@ -0,0 +1,24 @@
+create table job_execution_aggregate (
+	id int4 generated by default as identity,
+	site varchar(255),
+	application varchar(255),
+	job_name varchar(255),
+	result varchar(255),
+	aggregate_day date,
+	executions int4 not null,
+	total_duration int8 not null,
+	max_duration int4 not null,
+	primary key (id)
+);
+
+create table platform_event_aggregate (
+	id int4 generated by default as identity,
+	application varchar(255),
+	ev_type varchar(255),
+	aggregate_day date,
+	events int4 not null,
+	primary key (id)
+);
+
+create index IDX_JOB_EXECUTION_RECORD_JOB on job_execution_record (site, application, job_name, start_time);
+create index IDX_PLATFORM_EVENT_CREATED on platform_event (created);
@@ -23,6 +23,7 @@ import org.appng.api.Environment;
 import org.appng.api.PermissionOwner;
 import org.appng.api.PermissionProcessor;
 import org.appng.api.model.Group;
+import org.appng.api.model.PermissionSnapshot;
 import org.appng.api.model.Subject;
 import org.appng.api.support.DefaultPermissionProcessor;
 import org.appng.api.support.RequestSupportImpl;
@@ -176,6 +177,24 @@ public class PermissionProcessorTest {
 		Assert.assertTrue(processor.hasPermissions(new PermissionOwner(config)));
 	}
 
+	@Test
+	public void testPermissionSnapshot() {
+		PermissionSnapshot snapshot = PermissionSnapshot.of(subject);
+		Assert.assertTrue(snapshot.hasPermission("application", "permission.A"));
+		Assert.assertTrue(snapshot.hasPermission("application", "some.permission"));
+		Assert.assertFalse(snapshot.hasPermission("application", "another.permission"));
+		Assert.assertFalse(snapshot.hasPermission("another-application", "permission.A"));
+		Assert.assertEquals(3, snapshot.getPermissions("application").size());
+		Assert.assertTrue(snapshot.getPermissions("another-application").isEmpty());
+
+		Mockito.when(subject.getPermissionSnapshot()).thenReturn(snapshot);
+		subject.getGroups().clear();
+		Assert.assertTrue(processor.hasPermission("permission.B"));
+		Assert.assertFalse(processor.hasPermission("another.permission"));
+		testRead();
+		testWrite();
+	}
+
 	private Permissions getPermissions() {
 		Permissions permissions = new Permissions();
 
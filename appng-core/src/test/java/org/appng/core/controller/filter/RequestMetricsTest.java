@@ -0,0 +1,150 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.core.controller.filter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.servlet.ServletException;
+
+import org.appng.api.Platform;
+import org.appng.api.Scope;
+import org.appng.api.VHostMode;
+import org.appng.api.model.Properties;
+import org.appng.api.model.Site;
+import org.appng.api.support.environment.DefaultEnvironment;
+import org.appng.core.controller.filter.ServerTiming.Phase;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import io.prometheus.client.CollectorRegistry;
+
+public class RequestMetricsTest {
+
+	private static final String[] LABELS = { "application", "path", "name", "method", "status" };
+	private static final String COUNT = RequestMetrics.METRIC + "_count";
+
+	@Test
+	public void testLabels() {
+		CollectorRegistry registry = new CollectorRegistry(true);
+		RequestMetrics metrics = RequestMetrics.get(registry);
+		Assert.assertSame(metrics, RequestMetrics.get(registry));
+		metrics.observe("app", MetricsFilter.ACTION_TEMPLATE, "event", "action", "POST", 200, 1000000);
+		metrics.observe("app", MetricsFilter.ACTION_TEMPLATE, "event", "action", "POST", 204, 1000000);
+		metrics.observe(null, MetricsFilter.STATIC_TEMPLATE, null, null, "FOO", 404, 2000000000L);
+
+		Assert.assertEquals(2.0d, registry.getSampleValue(COUNT, LABELS,
+				new String[] { "app", MetricsFilter.ACTION_TEMPLATE, "event:action", "POST", "2xx" }), 0.0d);
+		Assert.assertEquals(2.0d, registry.getSampleValue(RequestMetrics.METRIC + "_sum", LABELS,
+				new String[] { "", MetricsFilter.STATIC_TEMPLATE, "", RequestMetrics.OTHER, "4xx" }), 0.0d);
+		Assert.assertEquals(2, metrics.getSeries());
+	}
+
+	@Test
+	public void testMaxSeries() {
+		CollectorRegistry registry = new CollectorRegistry(true);
+		RequestMetrics metrics = RequestMetrics.get(registry);
+		for (int i = 0; i < RequestMetrics.MAX_SERIES + 10; i++) {
+			metrics.observe("app", MetricsFilter.DATASOURCE_TEMPLATE, null, "ds" + i, "GET", 200, 1000);
+		}
+		Assert.assertEquals(RequestMetrics.MAX_SERIES + 1, metrics.getSeries());
+		String other = RequestMetrics.OTHER;
+		Assert.assertEquals(10.0d, registry.getSampleValue(COUNT, LABELS,
+				new String[] { other, other, other, "GET", "2xx" }), 0.0d);
+	}
+
+	@Test
+	public void testNormalization() {
+		Assert.assertEquals("GET", RequestMetrics.method("GET"));
+		Assert.assertEquals(RequestMetrics.OTHER, RequestMetrics.method("get"));
+		Assert.assertEquals(RequestMetrics.OTHER, RequestMetrics.method(null));
+		Assert.assertEquals("5xx", RequestMetrics.statusClass(503));
+		Assert.assertEquals(RequestMetrics.OTHER, RequestMetrics.statusClass(0));
+		Assert.assertEquals(RequestMetrics.OTHER, RequestMetrics.statusClass(999));
+		Assert.assertEquals(MetricsFilter.SERVICE_TEMPLATE, MetricsFilter.getServiceTemplate("unknown"));
+		Assert.assertEquals(MetricsFilter.REST_TEMPLATE, MetricsFilter.getServiceTemplate("rest"));
+	}
+
+	@Test
+	public void testNoAllocation() throws IOException, ServletException {
+		Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+		com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+		RequestMetrics metrics = RequestMetrics.get(new CollectorRegistry(true));
+		String method = new String("GET");
+		int iterations = 100000;
+		for (int i = 0; i < iterations; i++) {
+			metrics.observe("app", MetricsFilter.ACTION_TEMPLATE, "event", "action", method, 200, i);
+		}
+		long threadId = Thread.currentThread().getId();
+		long before = threadBean.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < iterations; i++) {
+			metrics.observe("app", MetricsFilter.ACTION_TEMPLATE, "event", "action", method, 200, i);
+		}
+		long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+		Assert.assertTrue(allocated + " bytes allocated", allocated < iterations);
+
+		// a request without Server-Timing header records its phases directly
+		MockServletContext servletContext = new MockServletContext();
+		Map<String, Object> platform = new ConcurrentHashMap<>();
+		Properties platformConfig = Mockito.mock(Properties.class);
+		Mockito.when(platformConfig.getString(Platform.Property.VHOST_MODE)).thenReturn(VHostMode.NAME_BASED.name());
+		Mockito.when(platformConfig.getClob(Platform.Property.SESSION_FILTER)).thenReturn("");
+		platform.put(Platform.Environment.PLATFORM_CONFIG, platformConfig);
+		Site site = Mockito.mock(Site.class);
+		Mockito.when(site.getName()).thenReturn("site");
+		Mockito.when(site.getHost()).thenReturn("localhost");
+		Mockito.when(site.getDomain()).thenReturn("http://localhost:8080");
+		Mockito.when(site.getProperties()).thenReturn(Mockito.mock(Properties.class));
+		platform.put(Platform.Environment.SITES, Collections.singletonMap("localhost", site));
+		servletContext.setAttribute(Scope.PLATFORM.name(), platform);
+		DefaultEnvironment.initGlobal(servletContext);
+		MockHttpServletRequest request = new MockHttpServletRequest(servletContext);
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+		long[] phaseAllocated = new long[1];
+		new EnvironmentFilter().doFilterInternal(request, new MockHttpServletResponse(), (req, resp) -> {
+			Assert.assertNull(ServerTiming.get(req));
+			for (int i = 0; i < iterations; i++) {
+				ServerTiming.record(req, Phase.APPLICATION, "app", null, System.nanoTime());
+			}
+			long start = threadBean.getThreadAllocatedBytes(threadId);
+			for (int i = 0; i < iterations; i++) {
+				ServerTiming.record(req, Phase.APPLICATION, "app", null, System.nanoTime());
+			}
+			phaseAllocated[0] = threadBean.getThreadAllocatedBytes(threadId) - start;
+		});
+		Assert.assertTrue(phaseAllocated[0] + " bytes allocated", phaseAllocated[0] < iterations);
+
+		CollectorRegistry registry = MetricsFilter.getRegistry("site");
+		String[] labels = { "phase", "application" };
+		Assert.assertEquals(2.0d * iterations, registry.getSampleValue(RequestMetrics.PHASE_METRIC + "_count", labels,
+				new String[] { "app", "app" }), 0.0d);
+		Assert.assertEquals(1.0d, registry.getSampleValue(RequestMetrics.PHASE_METRIC + "_count", labels,
+				new String[] { "site", "" }), 0.0d);
+	}
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.core.controller.filter;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.appng.api.SiteProperties;
+import org.appng.api.model.Group;
+import org.appng.api.model.Properties;
+import org.appng.api.model.Role;
+import org.appng.api.model.Site;
+import org.appng.api.model.Subject;
+import org.appng.core.controller.filter.ServerTiming.Phase;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import io.prometheus.client.CollectorRegistry;
+
+public class ServerTimingTest {
+
+	@Test
+	public void testHeader() {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		Assert.assertNull(ServerTiming.get(request));
+		ServerTiming.record(request, Phase.CACHE, null, null, System.nanoTime());
+
+		ServerTiming timing = ServerTiming.start(request);
+		Assert.assertSame(timing, ServerTiming.get(request));
+		timing.add(Phase.SITE, null, null, 1500000);
+		timing.add(Phase.APPLICATION, "app", null, 12340000);
+		timing.add(Phase.DATASOURCE, "app", "my \"ds\"", 2000000);
+		ServerTiming.record(request, Phase.RENDERING, null, null, System.nanoTime());
+
+		String header = timing.getHeaderValue();
+		Assert.assertTrue(header, header.startsWith("site;dur=1.5, app;dur=12.3;desc=\"app\", "
+				+ "datasource;dur=2.0;desc=\"my \\\"ds\\\"\", render;dur="));
+		Assert.assertTrue(header, header.matches(".*, total;dur=\\d+\\.\\d$"));
+	}
+
+	@Test
+	public void testWrap() throws IOException {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		ServerTiming timing = ServerTiming.start(request);
+		timing.add(Phase.APPLICATION, "app", null, 1000000);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		HttpServletResponse wrapped = timing.wrap(response);
+		Assert.assertNull(response.getHeader(ServerTiming.HEADER));
+		wrapped.getWriter().write("foo");
+		Assert.assertTrue(response.getHeader(ServerTiming.HEADER).startsWith("app;dur=1.0;desc=\"app\", total;dur="));
+	}
+
+	@Test
+	public void testObserve() {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		ServerTiming timing = ServerTiming.start(request);
+		timing.add(Phase.DATASOURCE, "app", "ds1", 1000000);
+		timing.add(Phase.DATASOURCE, "app", "ds2", 3000000);
+		timing.add(Phase.WRITE, null, null, 500000);
+		CollectorRegistry registry = new CollectorRegistry(true);
+		timing.observe(registry);
+
+		String[] labels = { "phase", "application" };
+		Assert.assertEquals(2.0d, registry.getSampleValue(RequestMetrics.PHASE_METRIC + "_count", labels,
+				new String[] { "datasource", "app" }), 0.0d);
+		Assert.assertEquals(0.004d, registry.getSampleValue(RequestMetrics.PHASE_METRIC + "_sum", labels,
+				new String[] { "datasource", "app" }), 0.000001d);
+		Assert.assertEquals(1.0d, registry.getSampleValue(RequestMetrics.PHASE_METRIC + "_count", labels,
+				new String[] { "write", "" }), 0.0d);
+	}
+
+	@Test
+	public void testPermitted() {
+		Site site = Mockito.mock(Site.class);
+		Properties properties = Mockito.mock(Properties.class);
+		Mockito.when(site.getProperties()).thenReturn(properties);
+		Assert.assertFalse(ServerTiming.isPermitted(null, null, "127.0.0.1"));
+		Assert.assertFalse(ServerTiming.isPermitted(site, null, "127.0.0.1"));
+
+		Mockito.when(properties.getString(SiteProperties.SERVER_TIMING_IPS, null)).thenReturn("127.0.0.1, 10.0.*");
+		Assert.assertTrue(ServerTiming.isPermitted(site, null, "127.0.0.1"));
+		Assert.assertTrue(ServerTiming.isPermitted(site, null, "10.0.8.15"));
+		Assert.assertFalse(ServerTiming.isPermitted(site, null, "10.1.8.15"));
+
+		Role role = Mockito.mock(Role.class);
+		Mockito.when(role.getName()).thenReturn("Debugger");
+		Group group = Mockito.mock(Group.class);
+		Mockito.when(group.getRoles()).thenReturn(Collections.singleton(role));
+		Subject subject = Mockito.mock(Subject.class);
+		Mockito.when(subject.getGroups()).thenReturn(Arrays.asList(group));
+		Mockito.when(subject.isAuthenticated()).thenReturn(true);
+		Mockito.when(properties.getString(SiteProperties.SERVER_TIMING_ROLES, null)).thenReturn("Admin, Debugger");
+		Assert.assertTrue(ServerTiming.isPermitted(site, subject, "10.1.8.15"));
+		Mockito.when(subject.isAuthenticated()).thenReturn(false);
+		Assert.assertFalse(ServerTiming.isPermitted(site, subject, "10.1.8.15"));
+	}
+
+}
@@ -23,6 +23,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import javax.sql.DataSource;
+
 import org.apache.commons.lang3.time.FastDateFormat;
 import org.appng.api.PathInfo;
 import org.appng.api.Platform;
@@ -35,18 +37,26 @@ import org.appng.api.model.Site.SiteState;
 import org.appng.api.support.PropertyHolder;
 import org.appng.api.support.environment.DefaultEnvironment;
 import org.appng.core.controller.HttpHeaders;
+import org.appng.core.controller.messaging.NodeEvent;
+import org.appng.core.controller.messaging.NodeEvent.NodeState;
 import org.appng.core.domain.ApplicationImpl;
 import org.appng.core.domain.SiteApplication;
 import org.appng.core.domain.SiteImpl;
+import org.appng.core.repository.config.DataSourceMetrics;
+import org.appng.core.repository.config.MeteredDataSource;
+import org.appng.core.repository.config.ReplicaRoutingDataSource;
 import org.appng.testsupport.validation.WritingJsonValidator;
 import org.junit.Assert;
 import org.junit.Test;
 import org.mockito.Mockito;
 import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.mock.web.MockServletContext;
 
+import io.prometheus.client.CollectorRegistry;
+
 public class MonitoringHandlerTest {
 
 	private MockServletContext ctx = new MockServletContext();
@@ -80,6 +90,25 @@ public class MonitoringHandlerTest {
 		Assert.assertTrue(content.contains("JAVA_HOME"));
 	}
 
+	@Test
+	public void testMessaging() throws Exception {
+		SiteImpl site = getSite();
+		PathInfo path = getPath(site, "/health/messaging");
+		DefaultEnvironment env = getEnv();
+		NodeState nodeState = NodeEvent.clusterState(env, "node1").get("node1");
+		nodeState.updateMessageRates(1000, 10, 20);
+		nodeState.updateMessageRates(2000, 15, 40);
+
+		MockHttpServletResponse resp = new MockHttpServletResponse();
+		monitoringHandler.handle(getRequest(ctx), resp, env, site, path);
+		String content = resp.getContentAsString();
+
+		Assert.assertTrue(content, content.contains("\"node1\""));
+		Assert.assertTrue(content, content.contains("\"eventsReceived\" : 40"));
+		Assert.assertTrue(content, content.contains("\"sendRate\" : 5.0"));
+		Assert.assertTrue(content, content.contains("\"receiveRate\" : 20.0"));
+	}
+
 	@Test
 	public void test() throws Exception {
 		SiteImpl site = getSite();
@@ -100,6 +129,17 @@ public class MonitoringHandlerTest {
 		WritingJsonValidator.validate(responseBody, "rest/health-detailed.json");
 	}
 
+	@Test
+	public void testUnwrapDataSource() {
+		DataSource primary = Mockito.mock(DataSource.class);
+		DataSource replica = Mockito.mock(DataSource.class);
+		ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, Arrays.asList(replica), 1000);
+		DataSource metered = new MeteredDataSource(routing, DataSourceMetrics.get(new CollectorRegistry()), 0, "site",
+				"app", "pool");
+		Assert.assertSame(primary, MonitoringHandler.unwrap(new DelegatingDataSource(metered)));
+		Assert.assertSame(primary, MonitoringHandler.unwrap(primary));
+	}
+
 	protected String cleanResponse(MockHttpServletResponse resp) throws UnsupportedEncodingException {
 		return resp.getContentAsString().replaceAll("\\d{10}", "1204768206").replaceAll("node=\\[.*\\]:\\d+",
 				"node=[127.0.0.1]:5702");
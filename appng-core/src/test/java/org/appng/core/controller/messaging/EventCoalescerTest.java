@@ -0,0 +1,85 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.core.controller.messaging;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.appng.api.messaging.Event;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class EventCoalescerTest {
+
+	private List<String> performed;
+	private CountDownLatch expired;
+	private EventCoalescer coalescer;
+
+	@Before
+	public void setup() {
+		performed = Collections.synchronizedList(new ArrayList<>());
+		expired = new CountDownLatch(1);
+		coalescer = new EventCoalescer("test", 100, (e, a) -> {
+			a.run();
+			expired.countDown();
+		}, null);
+	}
+
+	@After
+	public void tearDown() {
+		coalescer.close();
+	}
+
+	@Test
+	public void testCoalesce() throws InterruptedException {
+		Assert.assertTrue(offer(new ReloadSiteEvent("site1"), "reload1"));
+		Assert.assertTrue(offer(new ReloadSiteEvent("site1"), "reload2"));
+		Assert.assertTrue(offer(new ReloadSiteEvent("site1"), "reload3"));
+		Assert.assertTrue(offer(new ReloadSiteEvent("site1", "node2"), "reload-node2"));
+		Assert.assertEquals(2, coalescer.getPending());
+		Assert.assertEquals(2, coalescer.getSuppressed());
+		Assert.assertTrue(performed.isEmpty());
+
+		Assert.assertTrue(expired.await(5, TimeUnit.SECONDS));
+		Thread.sleep(50);
+		Assert.assertEquals(0, coalescer.getPending());
+		Assert.assertEquals(2, performed.size());
+		Assert.assertTrue(performed.contains("reload3"));
+		Assert.assertTrue(performed.contains("reload-node2"));
+	}
+
+	@Test
+	public void testOrderWithNonIdempotentEvent() {
+		Assert.assertTrue(offer(new ReloadTemplateEvent("site1"), "template"));
+		Assert.assertTrue(offer(new ReloadSiteEvent("site2"), "reload-site2"));
+		Event stop = new StopSiteEvent("site1");
+		Assert.assertNull(stop.getCoalescingKey());
+		Assert.assertFalse(offer(stop, "stop"));
+		performed.add("stop");
+		Assert.assertEquals("[template, stop]", performed.toString());
+		Assert.assertEquals(1, coalescer.getPending());
+	}
+
+	private boolean offer(Event event, String action) {
+		return coalescer.offer(event, () -> performed.add(action));
+	}
+
+}
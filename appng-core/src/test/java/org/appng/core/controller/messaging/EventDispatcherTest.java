@@ -0,0 +1,342 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.core.controller.messaging;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.apache.commons.lang3.StringUtils;
+import org.appng.api.Environment;
+import org.appng.api.FieldProcessor;
+import org.appng.api.Platform;
+import org.appng.api.Scope;
+import org.appng.api.messaging.Event;
+import org.appng.api.messaging.EventHandler;
+import org.appng.api.messaging.EventRegistry;
+import org.appng.api.messaging.Messaging;
+import org.appng.api.messaging.Serializer;
+import org.appng.api.messaging.TestReceiver.TestSerializer;
+import org.appng.api.model.Properties;
+import org.appng.api.model.Site;
+import org.appng.api.model.Site.SiteState;
+import org.appng.api.support.environment.DefaultEnvironment;
+import org.appng.core.controller.filter.MetricsFilter;
+import org.appng.core.domain.SiteImpl;
+import org.appng.core.service.CoreService;
+import org.appng.core.service.InitializerService;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationContext;
+import org.springframework.mock.web.MockServletContext;
+
+import io.prometheus.client.CollectorRegistry;
+
+public class EventDispatcherTest {
+
+	private DefaultEnvironment env;
+	private Serializer sender;
+	private Serializer receiver;
+	private EventRegistry registry;
+	private Properties platformConfig;
+	private EventDispatcher dispatcher;
+
+	@Before
+	public void setup() {
+		env = DefaultEnvironment.get(new MockServletContext());
+		env.setAttribute(Scope.PLATFORM, Platform.Environment.SITES, new HashMap<String, Site>());
+		platformConfig = Mockito.mock(Properties.class);
+		env.setAttribute(Scope.PLATFORM, Platform.Environment.PLATFORM_CONFIG, platformConfig);
+		sender = new TestSerializer(env, "node2");
+		receiver = new TestSerializer(env, "node1");
+		registry = new EventRegistry();
+	}
+
+	@After
+	public void tearDown() {
+		if (null != dispatcher) {
+			dispatcher.close();
+		}
+	}
+
+	@Test
+	public void testOrderPerType() throws Exception {
+		int count = 100;
+		CountDownLatch latch = new CountDownLatch(2 * count);
+		List<String> reloaded = Collections.synchronizedList(new ArrayList<>());
+		List<String> deleted = Collections.synchronizedList(new ArrayList<>());
+		registry.setDefaultHandler(new Handler(e -> {
+			(e instanceof ReloadTemplateEvent ? reloaded : deleted).add(e.getSiteName());
+			latch.countDown();
+		}));
+		dispatcher = new EventDispatcher("test", LoggerFactory.getLogger(getClass()), registry, receiver);
+		dispatcher.start(null);
+
+		List<String> expected = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			String site = "site" + i;
+			expected.add(site);
+			Assert.assertTrue(dispatch(new ReloadTemplateEvent(site)));
+			Assert.assertTrue(dispatch(new SiteDeletedEvent(site)));
+		}
+		Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+		Assert.assertEquals(expected, reloaded);
+		Assert.assertEquals(expected, deleted);
+		Assert.assertEquals(2 * count, dispatcher.getHandled());
+		Assert.assertEquals(0, dispatcher.getDropped());
+	}
+
+	@Test
+	public void testDropWhenQueueFull() throws Exception {
+		Mockito.when(platformConfig.getInteger(Platform.Property.MESSAGING_DISPATCHER_THREADS,
+				EventDispatcher.DEFAULT_THREADS)).thenReturn(1);
+		Mockito.when(platformConfig.getInteger(Platform.Property.MESSAGING_DISPATCHER_QUEUE_SIZE,
+				EventDispatcher.DEFAULT_QUEUE_SIZE)).thenReturn(1);
+		Mockito.when(platformConfig.getInteger(Platform.Property.MESSAGING_DISPATCHER_OFFER_TIMEOUT,
+				EventDispatcher.DEFAULT_OFFER_TIMEOUT)).thenReturn(10);
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch proceed = new CountDownLatch(1);
+		registry.setDefaultHandler(new Handler(e -> {
+			started.countDown();
+			try {
+				proceed.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException ie) {
+				Thread.currentThread().interrupt();
+			}
+		}));
+		dispatcher = new EventDispatcher("test", LoggerFactory.getLogger(getClass()), registry, receiver);
+		dispatcher.start(null);
+
+		Assert.assertTrue(dispatch(new ReloadTemplateEvent("site1")));
+		Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+		Assert.assertTrue(dispatch(new ReloadTemplateEvent("site2")));
+		Assert.assertEquals(1, dispatcher.getQueueDepth());
+		Assert.assertFalse(dispatch(new ReloadTemplateEvent("site3")));
+		Assert.assertEquals(1, dispatcher.getDropped());
+		proceed.countDown();
+	}
+
+	@Test
+	public void testDropOversized() throws Exception {
+		List<byte[]> released = new ArrayList<>();
+		dispatcher = new EventDispatcher("test", LoggerFactory.getLogger(getClass()), registry, receiver, 10);
+		byte[] data = serialize(new ReloadTemplateEvent("site1"));
+		Assert.assertFalse(dispatcher.dispatch(data, data.length, false, released::add));
+		Assert.assertEquals(1, dispatcher.getDropped());
+		Assert.assertEquals(0, dispatcher.getHandled());
+		Assert.assertSame(data, released.get(0));
+	}
+
+	@Test
+	public void testUnlimitedSize() throws Exception {
+		CountDownLatch latch = new CountDownLatch(1);
+		List<String> handled = Collections.synchronizedList(new ArrayList<>());
+		registry.setDefaultHandler(new Handler(e -> {
+			handled.add(e.getSiteName());
+			latch.countDown();
+		}));
+		dispatcher = new EventDispatcher("test", LoggerFactory.getLogger(getClass()), registry, receiver);
+		dispatcher.start(null);
+		String siteName = StringUtils.repeat("x", 2 * MulticastReceiver.DEFAULT_MAX_EVENT_SIZE);
+		Assert.assertTrue(dispatch(new ReloadTemplateEvent(siteName)));
+		Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+		Assert.assertEquals(0, dispatcher.getDropped());
+		Assert.assertEquals(siteName, handled.get(0));
+	}
+
+	@Test
+	public void testBufferPool() throws Exception {
+		List<Event> events = new ArrayList<>();
+		registry.setDefaultHandler(new Handler(events::add));
+		dispatcher = new EventDispatcher("test", LoggerFactory.getLogger(getClass()), registry, receiver);
+		ReceiveBufferPool pool = new ReceiveBufferPool(1, MulticastReceiver.DEFAULT_MAX_EVENT_SIZE + 1);
+
+		byte[] data = serialize(new ReloadTemplateEvent("site1"));
+		byte[] buffer = pool.acquire();
+		System.arraycopy(data, 0, buffer, 0, data.length);
+		Assert.assertTrue(dispatcher.dispatch(buffer, data.length, false, pool::release));
+		Assert.assertEquals("site1", events.get(0).getSiteName());
+		Assert.assertEquals(1, pool.getAvailable());
+		Assert.assertSame(buffer, pool.acquire());
+		Assert.assertNotSame(buffer, pool.acquire());
+		Assert.assertEquals(2, pool.getAllocated());
+	}
+
+	@Test
+	public void testMetrics() throws Exception {
+		DefaultEnvironment global = null == DefaultEnvironment.getGlobal()
+				? DefaultEnvironment.initGlobal(new MockServletContext())
+				: DefaultEnvironment.getGlobal();
+		CollectorRegistry collectorRegistry = new CollectorRegistry(true);
+		global.setAttribute(Scope.PLATFORM, "platformMetricsRegistry", collectorRegistry);
+		try {
+			registry.setDefaultHandler(new Handler(e -> {
+				throw new IllegalStateException("handler failed");
+			}));
+			dispatcher = new EventDispatcher("metrics", LoggerFactory.getLogger(getClass()), registry, receiver);
+			long received = MessagingMetrics.getEventsReceived();
+			Assert.assertTrue(dispatch(new SiteDeletedEvent("site1")));
+			byte[] garbage = new byte[] { (byte) 0xA9, 1, 0x7F, 0x7F, 1 };
+			Assert.assertTrue(dispatcher.dispatch(garbage, garbage.length, false, null));
+			Assert.assertEquals(received + 1, MessagingMetrics.getEventsReceived());
+
+			String[] labelNames = { "receiver", "type" };
+			Assert.assertEquals(1.0d, collectorRegistry.getSampleValue("appng_messaging_events_received_total",
+					labelNames, new String[] { "metrics", "SiteDeletedEvent" }), 0.0d);
+			Assert.assertEquals(1.0d, collectorRegistry.getSampleValue("appng_messaging_handling_failures_total",
+					labelNames, new String[] { "metrics", "SiteDeletedEvent" }), 0.0d);
+			Assert.assertEquals(1.0d, collectorRegistry.getSampleValue("appng_messaging_handling_failures_total",
+					labelNames, new String[] { "metrics", MessagingMetrics.UNKNOWN }), 0.0d);
+			Assert.assertEquals(2.0d, collectorRegistry.getSampleValue("appng_messaging_serialization_seconds_count",
+					new String[] { "receiver", "operation" }, new String[] { "metrics", MessagingMetrics.DESERIALIZE }),
+					0.0d);
+
+			long sent = MessagingMetrics.getEventsSent();
+			MessagingMetrics.sent("metrics", new SiteDeletedEvent("site1"), 1000, true);
+			MessagingMetrics.sent("metrics", new SiteDeletedEvent("site1"), -1, false);
+			Assert.assertEquals(sent + 1, MessagingMetrics.getEventsSent());
+			Assert.assertEquals(1.0d, collectorRegistry.getSampleValue("appng_messaging_events_sent_total",
+					labelNames, new String[] { "metrics", "SiteDeletedEvent" }), 0.0d);
+			Assert.assertEquals(1.0d, collectorRegistry.getSampleValue("appng_messaging_send_failures_total",
+					labelNames, new String[] { "metrics", "SiteDeletedEvent" }), 0.0d);
+		} finally {
+			global.removeAttribute(Scope.PLATFORM, "platformMetricsRegistry");
+		}
+	}
+
+	@Test
+	public void testMetricsBeforeFilterInit() throws Exception {
+		DefaultEnvironment global = null == DefaultEnvironment.getGlobal()
+				? DefaultEnvironment.initGlobal(new MockServletContext())
+				: DefaultEnvironment.getGlobal();
+		global.removeAttribute(Scope.PLATFORM, "platformMetricsRegistry");
+		try {
+			registry.setDefaultHandler(new Handler(e -> {
+			}));
+			dispatcher = new EventDispatcher("early", LoggerFactory.getLogger(getClass()), registry, receiver);
+			CollectorRegistry collectorRegistry = MetricsFilter.getPlatformRegistry();
+			Assert.assertNotNull(collectorRegistry);
+			Assert.assertSame(collectorRegistry, MetricsFilter.getPlatformRegistry());
+			Assert.assertTrue(dispatch(new SiteDeletedEvent("site1")));
+			Assert.assertEquals(1.0d, collectorRegistry.getSampleValue("appng_messaging_events_received_total",
+					new String[] { "receiver", "type" }, new String[] { "early", "SiteDeletedEvent" }), 0.0d);
+		} finally {
+			global.removeAttribute(Scope.PLATFORM, "platformMetricsRegistry");
+		}
+	}
+
+	@Test
+	public void testRollingReloadDoesNotBlockSiteStates() throws Exception {
+		String nodeId = System.getProperty(Messaging.APPNG_NODE_ID);
+		System.setProperty(Messaging.APPNG_NODE_ID, "node2");
+		try {
+			Mockito.when(platformConfig.getInteger(Platform.Property.MESSAGING_COALESCING_WINDOW,
+					EventDispatcher.DEFAULT_COALESCING_WINDOW)).thenReturn(0);
+			Mockito.when(platformConfig.getBoolean("waitForSitesStarted", true)).thenReturn(true);
+			Mockito.when(platformConfig.getInteger(Platform.Property.SITE_RELOAD_MAX_CONCURRENT, 1)).thenReturn(1);
+			Mockito.when(platformConfig.getInteger(Mockito.eq(Platform.Property.SITE_RELOAD_MAX_WAIT),
+					Mockito.anyInt())).thenReturn(120);
+			Map<String, Site> sites = env.getAttribute(Scope.PLATFORM, Platform.Environment.SITES);
+			Site site = Mockito.mock(Site.class);
+			Mockito.when(site.getName()).thenReturn("site1");
+			sites.put("site1", site);
+			NodeEvent.clusterState(env, "node1");
+			NodeEvent.siteState(env, "node1").put("site1", SiteState.STARTED);
+			NodeEvent.clusterState(env, "node2");
+
+			SiteImpl siteImpl = new SiteImpl();
+			CoreService coreService = Mockito.mock(CoreService.class);
+			Mockito.when(coreService.getSiteByName("site1")).thenReturn(siteImpl);
+			InitializerService initializerService = Mockito.mock(InitializerService.class);
+			ApplicationContext platformContext = Mockito.mock(ApplicationContext.class);
+			Mockito.when(platformContext.getBean(CoreService.class)).thenReturn(coreService);
+			Mockito.when(platformContext.getBean(InitializerService.class)).thenReturn(initializerService);
+			env.setAttribute(Scope.PLATFORM, Platform.Environment.CORE_PLATFORM_CONTEXT, platformContext);
+
+			Serializer node1 = new TestSerializer(env, "node1");
+			Serializer node2 = new TestSerializer(env, "node2");
+			// both event types are dispatched to the same lane
+			int reloadType = node1.getCodecs().forType(ReloadSiteEvent.class).getTypeId();
+			int stateType = node1.getCodecs().forType(SiteStateEvent.class).getTypeId();
+			Assert.assertEquals(reloadType % EventDispatcher.DEFAULT_THREADS, stateType % EventDispatcher.DEFAULT_THREADS);
+			dispatcher = new EventDispatcher("test", LoggerFactory.getLogger(getClass()), registry, node2);
+			dispatcher.start(null);
+
+			long start = System.currentTimeMillis();
+			dispatch(node1, new ReloadSiteEvent("site1"));
+			for (SiteState state : new SiteState[] { SiteState.STOPPING, SiteState.STOPPED, SiteState.STARTING,
+					SiteState.STARTED }) {
+				dispatch(node1, new SiteStateEvent("site1", state, "node1"));
+			}
+			Mockito.verify(initializerService, Mockito.timeout(10000)).loadSite(Mockito.eq(env),
+					Mockito.eq(siteImpl), Mockito.eq(false), Mockito.any(FieldProcessor.class), Mockito.eq(false));
+			Assert.assertTrue(System.currentTimeMillis() - start < TimeUnit.SECONDS.toMillis(120));
+			Assert.assertEquals(SiteState.STARTED, NodeEvent.siteState(env, "node1").get("site1"));
+		} finally {
+			if (null == nodeId) {
+				System.clearProperty(Messaging.APPNG_NODE_ID);
+			} else {
+				System.setProperty(Messaging.APPNG_NODE_ID, nodeId);
+			}
+		}
+	}
+
+	private void dispatch(Serializer sender, Event event) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		sender.serialize(out, event);
+		byte[] data = out.toByteArray();
+		Assert.assertTrue(dispatcher.dispatch(data, data.length, false, null));
+	}
+
+	private boolean dispatch(Event event) throws IOException {
+		byte[] data = serialize(event);
+		return dispatcher.dispatch(data, data.length, false, null);
+	}
+
+	private byte[] serialize(Event event) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		sender.serialize(out, event);
+		return out.toByteArray();
+	}
+
+	static class Handler implements EventHandler<Event> {
+		private final Consumer<Event> consumer;
+
+		Handler(Consumer<Event> consumer) {
+			this.consumer = consumer;
+		}
+
+		public void onEvent(Event event, Environment environment, Site site) {
+			consumer.accept(event);
+		}
+
+		public Class<Event> getEventClass() {
+			return Event.class;
+		}
+	}
+
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.core.controller.messaging;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.appng.api.BusinessException;
+import org.appng.api.InvalidConfigurationException;
+import org.appng.api.Platform;
+import org.appng.api.Scope;
+import org.appng.api.messaging.Event;
+import org.appng.api.messaging.Messaging;
+import org.appng.api.messaging.Sender;
+import org.appng.api.messaging.Serializer;
+import org.appng.api.messaging.TestReceiver.TestSerializer;
+import org.appng.api.model.Properties;
+import org.appng.api.model.Site;
+import org.appng.api.support.environment.DefaultEnvironment;
+import org.appng.core.controller.messaging.NodeEvent.NodeState;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.mock.web.MockServletContext;
+
+public class NodeDescriptorTest {
+
+	private static final String NODE_A = "nodeA";
+	private static final String NODE_B = "nodeB";
+	private static final String PROPERTY = "appng.test.descriptor";
+
+	private DefaultEnvironment envA;
+	private DefaultEnvironment envB;
+	private Serializer serializer;
+	private Sender senderB;
+
+	@Before
+	public void setup() {
+		NodeDescriptor.reset();
+		System.setProperty(Messaging.APPNG_NODE_ID, NODE_A);
+		envA = environment();
+		Properties platformConfig = Mockito.mock(Properties.class);
+		Mockito.when(platformConfig.getBoolean(Platform.Property.MESSAGING_BINARY_EVENTS,
+				Serializer.DEFAULT_BINARY_EVENTS)).thenReturn(true);
+		envA.setAttribute(Scope.PLATFORM, Platform.Environment.PLATFORM_CONFIG, platformConfig);
+		envB = environment();
+		senderB = Mockito.mock(Sender.class);
+		envB.setAttribute(Scope.PLATFORM, Platform.Environment.MESSAGE_SENDER, senderB);
+		serializer = new TestSerializer(envA, NODE_A);
+	}
+
+	@After
+	public void tearDown() {
+		System.clearProperty(Messaging.APPNG_NODE_ID);
+		System.clearProperty(PROPERTY);
+		NodeDescriptor.reset();
+	}
+
+	@Test
+	public void testDelta() throws Exception {
+		NodeEvent full = NodeDescriptor.changes(envA);
+		Assert.assertFalse(full.isDelta());
+		long revision = full.getRevision();
+		Assert.assertEquals(revision, NodeDescriptor.getRevision());
+		Assert.assertNull(NodeDescriptor.changes(envA));
+
+		receive(full);
+		NodeState nodeState = NodeEvent.clusterState(envB, NODE_B).get(NODE_A);
+		Assert.assertEquals(revision, nodeState.getRevision());
+		Assert.assertNotNull(nodeState.getLastHeartBeat());
+
+		System.setProperty(PROPERTY, "foo");
+		NodeEvent delta = NodeDescriptor.changes(envA);
+		Assert.assertTrue(delta.isDelta());
+		Assert.assertEquals(revision, delta.getBaseRevision());
+		Assert.assertEquals(revision + 1, delta.getRevision());
+		Assert.assertEquals(1, delta.getNodeState().getProps().size());
+		Assert.assertTrue(delta.getNodeState().getEnv().isEmpty());
+		Assert.assertTrue(serialize(delta).length * 10 < serialize(full).length);
+
+		receive(delta);
+		nodeState = NodeEvent.clusterState(envB, NODE_B).get(NODE_A);
+		Assert.assertEquals(revision + 1, nodeState.getRevision());
+		Assert.assertEquals("foo", nodeState.getProps().get(PROPERTY));
+
+		System.clearProperty(PROPERTY);
+		delta = NodeDescriptor.changes(envA);
+		Assert.assertEquals(PROPERTY, delta.getRemovedProps().iterator().next());
+		receive(delta);
+		Assert.assertFalse(nodeState.getProps().containsKey(PROPERTY));
+		Assert.assertEquals(revision + 2, nodeState.getRevision());
+		Mockito.verifyZeroInteractions(senderB);
+	}
+
+	@Test
+	public void testMissedDelta() throws Exception {
+		receive(NodeDescriptor.changes(envA));
+		System.setProperty(PROPERTY, "foo");
+		NodeDescriptor.changes(envA);
+		System.setProperty(PROPERTY, "bar");
+		receive(NodeDescriptor.changes(envA));
+
+		NodeState nodeState = NodeEvent.clusterState(envB, NODE_B).get(NODE_A);
+		Assert.assertNull(nodeState.getProps().get(PROPERTY));
+		RequestNodeState request = verifyRequest();
+
+		receive(NodeDescriptor.full(envA));
+		nodeState = NodeEvent.clusterState(envB, NODE_B).get(NODE_A);
+		Assert.assertEquals("bar", nodeState.getProps().get(PROPERTY));
+		Assert.assertEquals(NodeDescriptor.getRevision(), nodeState.getRevision());
+		Assert.assertEquals(NODE_A, request.getTargetNode());
+	}
+
+	@Test
+	public void testHeartBeat() throws Exception {
+		NodeEvent full = NodeDescriptor.changes(envA);
+		byte[] data = serialize(new HeartBeatEvent(1, full.getRevision()));
+		Assert.assertTrue(data.length + " bytes", data.length < 100);
+
+		receive(new HeartBeatEvent(1, full.getRevision()));
+		NodeState nodeState = NodeEvent.clusterState(envB, NODE_B).get(NODE_A);
+		Assert.assertEquals(1, nodeState.getHeartBeats());
+		Assert.assertTrue(nodeState.getHeap().getUsed() >= 0);
+		verifyRequest();
+
+		receive(full);
+		receive(new HeartBeatEvent(2, full.getRevision()));
+		nodeState = NodeEvent.clusterState(envB, NODE_B).get(NODE_A);
+		Assert.assertEquals(2, nodeState.getHeartBeats());
+		Mockito.verifyNoMoreInteractions(senderB);
+	}
+
+	@Test
+	public void testMessageRates() throws Exception {
+		receive(NodeDescriptor.changes(envA));
+		receive(new HeartBeatEvent(1, 1000, NodeDescriptor.getRevision(), 1, 1, 1, 1, 1, 1, 100, 200));
+		NodeState nodeState = NodeEvent.clusterState(envB, NODE_B).get(NODE_A);
+		Assert.assertEquals(100, nodeState.getEventsSent());
+		Assert.assertEquals(200, nodeState.getEventsReceived());
+		Assert.assertEquals(0.0d, nodeState.getSendRate(), 0.0d);
+
+		receive(new HeartBeatEvent(2, 3000, NodeDescriptor.getRevision(), 1, 1, 1, 1, 1, 1, 110, 400));
+		Assert.assertEquals(5.0d, nodeState.getSendRate(), 0.0d);
+		Assert.assertEquals(100.0d, nodeState.getReceiveRate(), 0.0d);
+
+		receive(NodeDescriptor.full(envA));
+		nodeState = NodeEvent.clusterState(envB, NODE_B).get(NODE_A);
+		Assert.assertEquals(400, nodeState.getEventsReceived());
+		Assert.assertEquals(100.0d, nodeState.getReceiveRate(), 0.0d);
+	}
+
+	private RequestNodeState verifyRequest() {
+		ArgumentCaptor<Event> captor = ArgumentCaptor.forClass(Event.class);
+		Mockito.verify(senderB).send(captor.capture());
+		Assert.assertEquals(RequestNodeState.class, captor.getValue().getClass());
+		return (RequestNodeState) captor.getValue();
+	}
+
+	private void receive(Event event) throws IOException, InvalidConfigurationException, BusinessException {
+		Event received = serializer.deserialize(serialize(event));
+		Assert.assertEquals(NODE_A, received.getNodeId());
+		received.perform(envB, null);
+	}
+
+	private byte[] serialize(Event event) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		serializer.serialize(out, event);
+		return out.toByteArray();
+	}
+
+	private DefaultEnvironment environment() {
+		DefaultEnvironment env = DefaultEnvironment.get(new MockServletContext());
+		Map<String, Site> sites = new HashMap<>();
+		env.setAttribute(Scope.PLATFORM, Platform.Environment.SITES, sites);
+		return env;
+	}
+
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.core.controller.messaging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.appng.api.model.Site.SiteState;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Simulates a cluster within the JVM, each node having its own {@link RollingReload}. State transitions are broadcast
+ * to all nodes, like {@link SiteStateEvent}s would be.
+ */
+public class RollingReloadTest {
+
+	private static final String SITE = "site";
+
+	private final Map<String, Map<String, SiteState>> members = new ConcurrentHashMap<>();
+	private final Map<String, RollingReload> nodes = new ConcurrentHashMap<>();
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void testRollingReload() throws Exception {
+		int numNodes = 5;
+		int maxConcurrent = 2;
+		for (int i = 1; i <= numNodes; i++) {
+			addNode("node" + i, SiteState.STARTED);
+		}
+		AtomicInteger reloading = new AtomicInteger();
+		AtomicInteger maxReloading = new AtomicInteger();
+		List<Future<Boolean>> results = new ArrayList<>();
+		for (String node : nodes.keySet()) {
+			results.add(executor.submit(() -> {
+				boolean turn = nodes.get(node).awaitTurn(SITE, maxConcurrent, 10000);
+				maxReloading.accumulateAndGet(reloading.incrementAndGet(), Math::max);
+				broadcast(node, SiteState.STOPPING);
+				broadcast(node, SiteState.STOPPED);
+				broadcast(node, SiteState.STARTING);
+				Thread.sleep(100);
+				reloading.decrementAndGet();
+				broadcast(node, SiteState.STARTED);
+				return turn;
+			}));
+		}
+		for (Future<Boolean> result : results) {
+			Assert.assertTrue(result.get(20, TimeUnit.SECONDS));
+		}
+		Assert.assertEquals(maxConcurrent, maxReloading.get());
+	}
+
+	@Test
+	public void testNotParticipating() throws Exception {
+		addNode("node1", SiteState.INACTIVE);
+		addNode("node2", SiteState.STARTED);
+		Assert.assertTrue(nodes.get("node2").awaitTurn(SITE, 1, 0));
+	}
+
+	@Test
+	public void testTimeout() throws Exception {
+		addNode("node1", SiteState.STARTED);
+		addNode("node2", SiteState.STARTED);
+		broadcast("node1", SiteState.STOPPING);
+		Assert.assertFalse(nodes.get("node2").awaitTurn(SITE, 1, 50));
+		broadcast("node1", SiteState.STARTED);
+		Assert.assertTrue(nodes.get("node2").awaitTurn(SITE, 1, 0));
+	}
+
+	@Test
+	public void testNodeLeaves() throws Exception {
+		addNode("node1", SiteState.STARTED);
+		addNode("node2", SiteState.STARTED);
+		Future<Boolean> result = executor.submit(() -> nodes.get("node2").awaitTurn(SITE, 1, 10000));
+		Thread.sleep(50);
+		Assert.assertFalse(result.isDone());
+		members.remove("node1");
+		nodes.get("node2").signal();
+		Assert.assertTrue(result.get(5, TimeUnit.SECONDS));
+	}
+
+	private void addNode(String node, SiteState state) {
+		Map<String, SiteState> siteStates = new ConcurrentHashMap<>();
+		siteStates.put(SITE, state);
+		members.put(node, siteStates);
+		nodes.put(node, new RollingReload(node, () -> members, RollingReload.DEFAULT_TOLERANCE));
+	}
+
+	private void broadcast(String node, SiteState state) {
+		members.get(node).put(SITE, state);
+		nodes.values().forEach(n -> n.onState(SITE, node, state));
+	}
+
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.core.controller.messaging;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.appng.api.BusinessException;
+import org.appng.api.Environment;
+import org.appng.api.InvalidConfigurationException;
+import org.appng.api.Platform;
+import org.appng.api.Scope;
+import org.appng.api.messaging.Event;
+import org.appng.api.messaging.Serializer;
+import org.appng.api.messaging.TestReceiver.TestSerializer;
+import org.appng.api.model.Properties;
+import org.appng.api.model.Site;
+import org.appng.api.model.Site.SiteState;
+import org.appng.api.support.PropertyHolder;
+import org.appng.api.support.environment.DefaultEnvironment;
+import org.appng.core.controller.messaging.NodeEvent.NodeState;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.util.LinkedMultiValueMap;
+
+public class SerializerTest {
+
+	private static final String SITE = "localhost";
+	private static final String NODE = "node1";
+
+	private DefaultEnvironment env;
+	private Properties platformConfig;
+	private Serializer serializer;
+
+	@Before
+	public void setup() {
+		env = DefaultEnvironment.get(new MockServletContext());
+		env.setAttribute(Scope.PLATFORM, Platform.Environment.SITES, new HashMap<String, Site>());
+		platformConfig = Mockito.mock(Properties.class);
+		Mockito.when(platformConfig.getBoolean(Platform.Property.MESSAGING_BINARY_EVENTS,
+				Serializer.DEFAULT_BINARY_EVENTS)).thenReturn(true);
+		env.setAttribute(Scope.PLATFORM, Platform.Environment.PLATFORM_CONFIG, platformConfig);
+		serializer = new TestSerializer(env, NODE);
+	}
+
+	@Test
+	public void testSiteEvents() throws IOException {
+		ReloadSiteEvent reload = roundTrip(new ReloadSiteEvent(SITE, "node2"));
+		Assert.assertEquals("node2", reload.targetNode);
+		Assert.assertTrue(reload.isAsync());
+		StopSiteEvent stop = roundTrip(new StopSiteEvent(SITE));
+		Assert.assertNull(stop.targetNode);
+		roundTrip(new ReloadTemplateEvent(SITE));
+		roundTrip(new SiteDeletedEvent(SITE));
+		roundTrip(new RequestNodeState(SITE, "node2"));
+		Assert.assertNull(roundTrip(new ShutdownEvent()).getSiteName());
+		SiteStateEvent siteState = roundTrip(new SiteStateEvent(SITE, SiteState.STARTED, "node2"));
+		Assert.assertEquals(SiteState.STARTED, siteState.getState());
+	}
+
+	@Test
+	public void testNodeEvent() throws IOException {
+		NodeEvent event = new NodeEvent(env, SITE, NODE);
+		event.getNodeState().getSiteStates().put(SITE, SiteState.STARTED);
+		NodeEvent copy = roundTrip(event);
+		NodeState expected = event.getNodeState();
+		NodeState actual = copy.getNodeState();
+		Assert.assertEquals(NODE, actual.getNodeId());
+		Assert.assertEquals(expected.getDate(), actual.getDate());
+		Assert.assertEquals(expected.getHeap().getUsed(), actual.getHeap().getUsed());
+		Assert.assertEquals(expected.getNonHeap().getMax(), actual.getNonHeap().getMax());
+		Assert.assertEquals(expected.getProps(), actual.getProps());
+		Assert.assertEquals(expected.getEnv(), actual.getEnv());
+		Assert.assertEquals(expected.getSiteStates(), actual.getSiteStates());
+
+		byte[] binary = serialize(event);
+		byte[] legacy = serializeLegacy(event);
+		Assert.assertTrue(binary.length + " >= " + legacy.length, binary.length < legacy.length);
+	}
+
+	@Test
+	public void testSize() throws IOException {
+		ReloadSiteEvent event = new ReloadSiteEvent(SITE);
+		byte[] binary = serialize(event);
+		byte[] legacy = serializeLegacy(event);
+		Assert.assertTrue(binary.length + " >= " + legacy.length, binary.length * 5 < legacy.length);
+	}
+
+	@Test
+	public void testLegacyFormat() throws IOException {
+		Event event = serializer.deserialize(serializeLegacy(new ReloadSiteEvent(SITE, "node2")));
+		Assert.assertEquals(ReloadSiteEvent.class, event.getClass());
+		Assert.assertEquals("node2", ((ReloadSiteEvent) event).targetNode);
+	}
+
+	@Test
+	public void testBinaryDisabled() throws IOException {
+		Mockito.when(platformConfig.getBoolean(Platform.Property.MESSAGING_BINARY_EVENTS,
+				Serializer.DEFAULT_BINARY_EVENTS)).thenReturn(false);
+		byte[] data = serialize(new ReloadSiteEvent(SITE));
+		Assert.assertEquals((byte) 0xAC, data[0]);
+		Assert.assertEquals(ReloadSiteEvent.class, serializer.deserialize(data).getClass());
+	}
+
+	@Test
+	public void testBinaryDisabledByDefault() throws IOException {
+		Assert.assertFalse(Serializer.DEFAULT_BINARY_EVENTS);
+		Mockito.when(platformConfig.getBoolean(Platform.Property.MESSAGING_BINARY_EVENTS,
+				Serializer.DEFAULT_BINARY_EVENTS)).thenReturn(Serializer.DEFAULT_BINARY_EVENTS);
+		ReloadSiteEvent event = new ReloadSiteEvent(SITE, "node2");
+		byte[] data = serialize(event);
+		Assert.assertArrayEquals(serializeLegacy(event), data);
+		Assert.assertEquals("node2", ((ReloadSiteEvent) serializer.deserialize(data)).targetNode);
+
+		env.removeAttribute(Scope.PLATFORM, Platform.Environment.PLATFORM_CONFIG);
+		Assert.assertArrayEquals(serializeLegacy(event), serialize(event));
+	}
+
+	@Test
+	public void testJavaSerializationFallback() throws IOException {
+		CustomEvent event = roundTrip(new CustomEvent(new HashMap<>()));
+		Assert.assertNotNull(event.payload);
+	}
+
+	@Test
+	public void testWhitelist() throws IOException {
+		Assert.assertNull(serializer.deserialize(serialize(new CustomEvent(new LinkedMultiValueMap<>()))));
+
+		Mockito.when(platformConfig.getClob(Platform.Property.MESSAGING_SERIALIZATION_WHITELIST))
+				.thenReturn("org.springframework.util.*");
+		serializer = new TestSerializer(env, NODE);
+		Assert.assertNotNull(serializer.deserialize(serialize(new CustomEvent(new LinkedMultiValueMap<>()))));
+		Assert.assertNotNull(serializer.deserialize(serialize(new CustomEvent(new HashMap<>()))));
+		// read once per serializer
+		Mockito.verify(platformConfig, Mockito.times(2)).getClob(Platform.Property.MESSAGING_SERIALIZATION_WHITELIST);
+	}
+
+	@Test
+	public void testDefaultWhitelist() throws IOException {
+		Assert.assertTrue(serializer.isWhitelisted(HashMap.class));
+		Assert.assertTrue(serializer.isWhitelisted(String[].class));
+		Assert.assertFalse(serializer.isWhitelisted(URL.class));
+		Assert.assertFalse(serializer.isWhitelisted(TreeMap.class));
+		Assert.assertFalse(serializer.isWhitelisted(PropertyHolder.class));
+
+		Map<String, Object> payload = new HashMap<>();
+		payload.put("url", new URL("http://localhost"));
+		Assert.assertNull(serializer.deserialize(serialize(new CustomEvent(payload))));
+
+		Mockito.when(platformConfig.getBoolean(Platform.Property.MESSAGING_BINARY_EVENTS,
+				Serializer.DEFAULT_BINARY_EVENTS)).thenReturn(false);
+		NodeEvent event = new NodeEvent(env, SITE, NODE);
+		event.getNodeState().getSiteStates().put(SITE, SiteState.STARTED);
+		Assert.assertTrue(event.getNodeState().getSiteStates() instanceof ConcurrentHashMap);
+		NodeEvent copy = roundTrip(event);
+		Assert.assertEquals(event.getNodeState().getSiteStates(), copy.getNodeState().getSiteStates());
+		Assert.assertEquals(event.getNodeState().getProps(), copy.getNodeState().getProps());
+	}
+
+	@Test
+	public void testCompression() throws IOException {
+		setCompressionThreshold(1024);
+		NodeEvent event = new NodeEvent(env, SITE, NODE);
+		for (int i = 0; i < 100; i++) {
+			event.getNodeState().getSiteStates().put("site" + i, SiteState.STARTED);
+		}
+		byte[] data = serialize(event);
+		Assert.assertEquals(0x81, data[1] & 0xFF);
+		Assert.assertEquals(1, serializer.getCompressedEvents());
+		Assert.assertTrue(serializer.getCompressedBytes() < serializer.getUncompressedBytes());
+		Assert.assertEquals(data[3], Serializer.getTypeId(data, data.length));
+		NodeEvent copy = roundTrip(event);
+		Assert.assertEquals(event.getNodeState().getSiteStates(), copy.getNodeState().getSiteStates());
+		Assert.assertEquals(event.getNodeState().getProps(), copy.getNodeState().getProps());
+	}
+
+	@Test
+	public void testCompressedJavaSerialization() throws IOException {
+		setCompressionThreshold(1024);
+		Map<String, String> payload = new HashMap<>();
+		for (int i = 0; i < 100; i++) {
+			payload.put("key" + i, "value" + i);
+		}
+		byte[] data = serialize(new CustomEvent(payload));
+		Assert.assertEquals(0xA9, data[0] & 0xFF);
+		Assert.assertTrue(data.length < serializeLegacy(new CustomEvent(payload)).length);
+		CustomEvent copy = roundTrip(new CustomEvent(payload));
+		Assert.assertEquals(payload, copy.payload);
+	}
+
+	@Test
+	public void testCompressionDisabledByDefault() throws IOException {
+		Assert.assertEquals(0, Serializer.DEFAULT_COMPRESSION_THRESHOLD);
+		setCompressionThreshold(Serializer.DEFAULT_COMPRESSION_THRESHOLD);
+		NodeEvent event = new NodeEvent(env, SITE, NODE);
+		for (int i = 0; i < 100; i++) {
+			event.getNodeState().getSiteStates().put("site" + i, SiteState.STARTED);
+		}
+		byte[] data = serialize(event);
+		Assert.assertEquals(1, data[1]);
+		Assert.assertEquals(0, serializer.getCompressedEvents());
+		roundTrip(event);
+	}
+
+	private void setCompressionThreshold(int threshold) {
+		Mockito.when(platformConfig.getInteger(Platform.Property.MESSAGING_COMPRESSION_THRESHOLD,
+				Serializer.DEFAULT_COMPRESSION_THRESHOLD)).thenReturn(threshold);
+	}
+
+	@Test
+	public void testUnknownType() throws IOException {
+		byte[] data = serialize(new ReloadSiteEvent(SITE));
+		data[2] = (byte) 0xFF;
+		Assert.assertNull(serializer.deserialize(data));
+	}
+
+	@SuppressWarnings("unchecked")
+	private <E extends Event> E roundTrip(E event) throws IOException {
+		E copy = (E) serializer.deserialize(serialize(event));
+		Assert.assertEquals(event.getClass(), copy.getClass());
+		Assert.assertEquals(event.getSiteName(), copy.getSiteName());
+		Assert.assertEquals(NODE, copy.getNodeId());
+		return copy;
+	}
+
+	private byte[] serialize(Event event) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		serializer.serialize(out, event);
+		return out.toByteArray();
+	}
+
+	private byte[] serializeLegacy(Event event) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (ObjectOutputStream oos = new ObjectOutputStream(out)) {
+			oos.writeObject(event.getSiteName());
+			oos.writeObject(event);
+		}
+		return out.toByteArray();
+	}
+
+	static class CustomEvent extends Event {
+		private final Map<String, ?> payload;
+
+		CustomEvent(Map<String, ?> payload) {
+			super(SITE);
+			this.payload = payload;
+		}
+
+		public void perform(Environment environment, Site site)
+				throws InvalidConfigurationException, BusinessException {
+		}
+	}
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.core.repository.config;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import javax.sql.DataSource;
+
+import org.appng.core.domain.DatabaseConnection;
+import org.appng.core.domain.DatabaseConnection.DatabaseType;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import io.prometheus.client.CollectorRegistry;
+
+public class DataSourceMetricsTest {
+
+	private static final String[] LABEL_NAMES = DataSourceMetrics.LABELS.toArray(new String[0]);
+
+	@Test
+	public void testPoolMetrics() throws SQLException {
+		CollectorRegistry registry = new CollectorRegistry();
+		DataSourceFactory factory = new DataSourceFactory();
+		factory.setConfigurerClass(HikariCPConfigurer.class.getName());
+		factory.setMetrics(DataSourceMetrics.get(registry), "site", "app");
+		DatabaseConnection connection = new DatabaseConnection(DatabaseType.HSQL, "jdbc:hsqldb:mem:metrics",
+				DatabaseType.HSQL.getDefaultDriver(), "sa", new byte[0], null);
+		connection.setName("metrics-pool");
+		connection.setMinConnections(1);
+		connection.setMaxConnections(5);
+		factory.configure(connection);
+		try {
+			DataSource dataSource = factory.getDataSource();
+			Assert.assertTrue(dataSource instanceof MeteredDataSource);
+			String[] labels = { "site", "app", "metrics-pool" };
+			try (Connection c1 = dataSource.getConnection(); Connection c2 = dataSource.getConnection()) {
+				Assert.assertEquals(2.0d, getValue(registry, "connections_active", labels), 0.0d);
+				Assert.assertEquals(5.0d, getValue(registry, "connections_max", labels), 0.0d);
+				Assert.assertEquals(0.0d, getValue(registry, "connections_pending", labels), 0.0d);
+			}
+			Assert.assertEquals(0.0d, getValue(registry, "connections_active", labels), 0.0d);
+			Assert.assertEquals(2.0d, getValue(registry, "acquire_seconds_count", labels), 0.0d);
+		} finally {
+			factory.destroy();
+		}
+		Assert.assertNull(getValue(registry, "connections_active", "site", "app", "metrics-pool"));
+	}
+
+	@Test
+	public void testTimeoutAndSlowStatement() throws SQLException {
+		CollectorRegistry registry = new CollectorRegistry();
+		DataSource target = Mockito.mock(DataSource.class);
+		Connection connection = Mockito.mock(Connection.class);
+		PreparedStatement statement = Mockito.mock(PreparedStatement.class);
+		Mockito.when(target.getConnection()).thenReturn(connection)
+				.thenThrow(new SQLTransientConnectionException("timeout"));
+		Mockito.when(connection.prepareStatement("select 1")).thenReturn(statement);
+		Mockito.when(statement.execute()).then(i -> {
+			Thread.sleep(25);
+			return true;
+		});
+		Mockito.when(statement.executeUpdate()).thenReturn(1);
+
+		String[] labels = { "site", "app", "pool" };
+		MeteredDataSource dataSource = new MeteredDataSource(target, DataSourceMetrics.get(registry), 20, labels);
+		PreparedStatement prepared = dataSource.getConnection().prepareStatement("select 1");
+		prepared.executeUpdate();
+		Assert.assertNull(getValue(registry, "slow_statements_total", labels));
+		prepared.execute();
+		Assert.assertEquals(1.0d, getValue(registry, "slow_statements_total", labels), 0.0d);
+		Mockito.verify(statement).execute();
+
+		try {
+			dataSource.getConnection();
+			Assert.fail("SQLTransientConnectionException expected");
+		} catch (SQLTransientConnectionException e) {
+			Assert.assertEquals(1.0d, getValue(registry, "acquire_timeouts_total", labels), 0.0d);
+		}
+	}
+
+	@Test
+	public void testProxyIdentity() throws SQLException {
+		DataSource target = Mockito.mock(DataSource.class);
+		Connection connection = Mockito.mock(Connection.class);
+		Mockito.when(target.getConnection()).thenReturn(connection);
+		MeteredDataSource dataSource = new MeteredDataSource(target, DataSourceMetrics.get(new CollectorRegistry()),
+				20, "site", "app", "pool");
+		Connection proxy = dataSource.getConnection();
+		Assert.assertEquals(proxy, proxy);
+		Assert.assertNotEquals(proxy, connection);
+		Assert.assertEquals(System.identityHashCode(proxy), proxy.hashCode());
+		Assert.assertNotEquals(proxy, dataSource.getConnection());
+	}
+
+	private Double getValue(CollectorRegistry registry, String name, String... labels) {
+		return registry.getSampleValue(DataSourceMetrics.PREFIX + name, LABEL_NAMES, labels);
+	}
+
+}
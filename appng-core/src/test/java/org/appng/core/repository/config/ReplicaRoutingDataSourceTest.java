@@ -0,0 +1,101 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.core.repository.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import javax.sql.DataSource;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+public class ReplicaRoutingDataSourceTest {
+
+	private static DataSource primary;
+	private static DataSource replica;
+
+	@BeforeClass
+	public static void setup() {
+		primary = createDatabase("primary");
+		replica = createDatabase("replica");
+	}
+
+	private static DataSource createDatabase(String name) {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:hsqldb:mem:" + name, "sa", "");
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("create table origin (name varchar(16))");
+		jdbcTemplate.update("insert into origin values (?)", name);
+		return dataSource;
+	}
+
+	@Test
+	public void testRouting() {
+		ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(primary, Arrays.asList(replica),
+				1000);
+		Assert.assertEquals(1, routingDataSource.checkReplicas(1));
+		DataSource dataSource = routingDataSource.lazy();
+		Assert.assertEquals("replica", getOrigin(dataSource, true));
+		Assert.assertEquals("primary", getOrigin(dataSource, false));
+		Assert.assertEquals("primary", new JdbcTemplate(dataSource).queryForObject("select name from origin",
+				String.class));
+	}
+
+	@Test
+	public void testFallback() throws SQLException {
+		DataSource failingReplica = Mockito.mock(DataSource.class);
+		Mockito.when(failingReplica.getConnection()).thenThrow(new SQLException("replica is down"));
+		ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(primary,
+				Arrays.asList(failingReplica, replica), 60000);
+		Assert.assertEquals(1, routingDataSource.checkReplicas(1));
+		Assert.assertEquals(1, routingDataSource.getAvailableReplicas());
+
+		DataSource dataSource = routingDataSource.lazy();
+		for (int i = 0; i < 4; i++) {
+			Assert.assertEquals("replica", getOrigin(dataSource, true));
+		}
+		Mockito.verify(failingReplica, Mockito.times(1)).getConnection();
+	}
+
+	@Test
+	public void testRecovery() throws SQLException {
+		DataSource flakyReplica = Mockito.mock(DataSource.class);
+		Connection connection = replica.getConnection();
+		Mockito.when(flakyReplica.getConnection()).thenThrow(new SQLException("replica is down"))
+				.thenReturn(connection);
+		ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(primary,
+				Arrays.asList(flakyReplica), 0);
+		DataSource dataSource = routingDataSource.lazy();
+		Assert.assertEquals("primary", getOrigin(dataSource, true));
+		Assert.assertEquals("replica", getOrigin(dataSource, true));
+		Assert.assertEquals(1, routingDataSource.getAvailableReplicas());
+	}
+
+	private String getOrigin(DataSource dataSource, boolean readOnly) {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		transactionTemplate.setReadOnly(readOnly);
+		return transactionTemplate.execute(
+				s -> new JdbcTemplate(dataSource).queryForObject("select name from origin", String.class));
+	}
+
+}
@@ -58,6 +58,7 @@ import org.appng.api.model.Application;
 import org.appng.api.model.AuthSubject;
 import org.appng.api.model.Group;
 import org.appng.api.model.Permission;
+import org.appng.api.model.PermissionSnapshot;
 import org.appng.api.model.Properties;
 import org.appng.api.model.Property;
 import org.appng.api.model.Role;
@@ -98,9 +99,12 @@ import org.appng.core.security.PasswordHandler;
 import org.appng.core.security.SaltedDigest;
 import org.appng.core.security.SaltedDigestSha1;
 import org.appng.core.security.Sha1PasswordHandler;
+import org.appng.core.service.CoreService.PropertyChange;
 import org.appng.core.service.MigrationService.MigrationStatus;
 import org.appng.testsupport.persistence.TestDataProvider;
 import org.appng.xml.platform.Messages;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.FixMethodOrder;
@@ -976,6 +980,60 @@ public class CoreServiceTest {
 		assertEquals(b, coreService.getProperty("foobaz.b"));
 	}
 
+	@Test
+	public void testRestoreSubjectStatementCount() {
+		Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class)
+				.getStatistics();
+		entityManager.flush();
+		entityManager.clear();
+		statistics.setStatisticsEnabled(true);
+		statistics.clear();
+		Subject subject = coreService.restoreSubject("subject-1");
+		long statementCount = statistics.getPrepareStatementCount();
+		statistics.setStatisticsEnabled(false);
+		// one for the subject and its groups, one for the roles, applications and permissions of the groups
+		assertEquals(2, statementCount);
+
+		PermissionSnapshot snapshot = subject.getPermissionSnapshot();
+		assertNotNull(snapshot);
+		for (Group group : subject.getGroups()) {
+			for (Role role : group.getRoles()) {
+				String application = role.getApplication().getName();
+				for (Permission permission : role.getPermissions()) {
+					assertTrue(snapshot.hasPermission(application, permission.getName()));
+				}
+				assertFalse(snapshot.hasPermission(application, "not.existing"));
+			}
+		}
+		assertFalse(snapshot.hasPermission("not-existing", "not.existing"));
+	}
+
+	@Test
+	public void testSavePropertiesBulk() {
+		SiteImpl site = coreService.getSite(1);
+		List<PropertyImpl> props = new ArrayList<>();
+		props.add(new PropertyImpl("bulk1", null, "1"));
+		props.add(new PropertyImpl("bulk2", "2"));
+		Map<String, PropertyChange> changes = coreService.saveProperties(site, null, props, new ArrayList<>());
+		assertEquals(PropertyChange.CREATED, changes.get("bulk1"));
+		assertEquals(PropertyChange.CREATED, changes.get("bulk2"));
+		assertEquals("1", coreService.getProperty("platform.site.site-1.bulk1").getString());
+
+		PropertyImpl update = new PropertyImpl("bulk1", null);
+		update.setActualString("42");
+		update.setDescription("the answer");
+		changes = coreService.saveProperties(site, null, Arrays.asList(update), Arrays.asList("bulk2", "bulk3"));
+		assertEquals(PropertyChange.UPDATED, changes.get("bulk1"));
+		assertEquals(PropertyChange.DELETED, changes.get("bulk2"));
+		assertEquals(PropertyChange.NOT_FOUND, changes.get("bulk3"));
+
+		PropertyImpl updated = coreService.getProperty("platform.site.site-1.bulk1");
+		assertEquals("42", updated.getString());
+		assertEquals("1", updated.getDefaultString());
+		assertEquals("the answer", updated.getDescription());
+		assertNull(coreService.getProperty("platform.site.site-1.bulk2"));
+	}
+
 	@Test
 	public void testSaveProperty() {
 		PropertyImpl property = coreService.saveProperty(new PropertyImpl("prop1", "value"));
@@ -75,7 +75,7 @@ public class DatabaseServiceTest extends TestInitializer {
 		String rootName = "appNG Root Database";
 		Assert.assertEquals(rootName, platformConnection.getDescription());
 		Assert.assertEquals(DatabaseType.HSQL, platformConnection.getType());
-		validateSchemaVersion(platformConnection, "4.5");
+		validateSchemaVersion(platformConnection, "4.6");
 
 		DatabaseConnection mssql = new DatabaseConnection(DatabaseType.MSSQL, rootName, "", "".getBytes());
 		mssql.setName(rootName);
@@ -109,7 +109,7 @@ public class DatabaseServiceTest extends TestInitializer {
 		try (MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8")) {
 			mysql.withUsername("root").withPassword("")
 					.withCommand("mysqld --default-authentication-plugin=mysql_native_password").start();
-			validateConnectionType(mysql, DatabaseType.MYSQL, "MySQL", "8", "", "4.5", true, true);
+			validateConnectionType(mysql, DatabaseType.MYSQL, "MySQL", "8", "", "4.6", true, true);
 		}
 	}
 
@@ -135,7 +135,7 @@ public class DatabaseServiceTest extends TestInitializer {
 		try (MariaDBContainer<?> mariadb = new MariaDBContainer<>("mariadb:" + version)) {
 			mariadb.withUsername("root").withPassword("").start();
 			System.err.println(mariadb.getJdbcUrl());
-			validateConnectionType(mariadb, DatabaseType.MYSQL, "MariaDB", version, "", "4.5", true, true);
+			validateConnectionType(mariadb, DatabaseType.MYSQL, "MariaDB", version, "", "4.6", true, true);
 		}
 	}
 
@@ -160,7 +160,7 @@ public class DatabaseServiceTest extends TestInitializer {
 	void testInitDatabasePostgreSQL(String version) throws Exception {
 		try (PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:" + version)) {
 			postgres.start();
-			validateConnectionType(postgres, DatabaseType.POSTGRESQL, "PostgreSQL", version, "", "4.5", true, true);
+			validateConnectionType(postgres, DatabaseType.POSTGRESQL, "PostgreSQL", version, "", "4.6", true, true);
 		}
 	}
 
@@ -181,7 +181,7 @@ public class DatabaseServiceTest extends TestInitializer {
 		try (MSSQLServerContainer<?> mssql = new MSSQLServerContainer<>(
 				"mcr.microsoft.com/mssql/server:" + imageVersion)) {
 			mssql.start();
-			validateConnectionType(mssql, DatabaseType.MSSQL, "Microsoft SQL Server", productVersion, "", "4.5", false,
+			validateConnectionType(mssql, DatabaseType.MSSQL, "Microsoft SQL Server", productVersion, "", "4.6", false,
 					false);
 		}
 	}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.core.service;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.appng.api.Platform;
+import org.appng.api.Scope;
+import org.appng.api.messaging.Event;
+import org.appng.api.messaging.Messaging;
+import org.appng.api.messaging.Sender;
+import org.appng.api.messaging.Serializer;
+import org.appng.api.model.Properties;
+import org.appng.api.model.Site;
+import org.appng.api.support.environment.DefaultEnvironment;
+import org.appng.core.controller.messaging.HeartBeatEvent;
+import org.appng.core.controller.messaging.NodeEvent;
+import org.appng.core.controller.messaging.NodeEvent.NodeState;
+import org.appng.core.controller.messaging.RequestNodeState;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.mock.web.MockServletContext;
+
+public class HeartBeatTest {
+
+	@After
+	public void tearDown() {
+		System.clearProperty(Messaging.APPNG_NODE_ID);
+	}
+
+	@Test
+	public void testStaleNodes() {
+		System.setProperty(Messaging.APPNG_NODE_ID, "node1");
+		DefaultEnvironment env = DefaultEnvironment.get(new MockServletContext());
+		Map<String, Site> sites = new HashMap<>();
+		env.setAttribute(Scope.PLATFORM, Platform.Environment.SITES, sites);
+		Map<String, NodeState> clusterState = NodeEvent.clusterState(env, "node1");
+		NodeState nodeState = NodeEvent.clusterState(env, "node2").get("node2");
+		long now = System.currentTimeMillis();
+		nodeState.setLastHeartBeat(new Date(now - TimeUnit.SECONDS.toMillis(80)));
+
+		HeartBeat heartBeat = new HeartBeat(TimeUnit.SECONDS.toMillis(30), 3);
+		heartBeat.detectStaleNodes(env, now);
+		Assert.assertFalse(nodeState.isStale());
+
+		heartBeat.detectStaleNodes(env, now + TimeUnit.SECONDS.toMillis(20));
+		Assert.assertTrue(nodeState.isStale());
+		Assert.assertFalse(clusterState.get("node1").isStale());
+
+		nodeState.setLastHeartBeat(new Date(now));
+		heartBeat.detectStaleNodes(env, now);
+		Assert.assertFalse(nodeState.isStale());
+	}
+
+	@Test
+	public void testFullStateUnlessBinaryEnabled() {
+		List<Event> events = beat(false, 0);
+		Assert.assertEquals(1, events.size());
+		Assert.assertEquals(NodeEvent.class, events.get(0).getClass());
+		Assert.assertFalse(((NodeEvent) events.get(0)).isDelta());
+
+		events = beat(false, 1);
+		Assert.assertEquals(1, events.size());
+		Assert.assertEquals(NodeEvent.class, events.get(0).getClass());
+		Assert.assertFalse(((NodeEvent) events.get(0)).isDelta());
+	}
+
+	@Test
+	public void testHeartBeatIfBinaryEnabled() {
+		List<Event> events = beat(true, 0);
+		Assert.assertEquals(RequestNodeState.class, events.get(events.size() - 2).getClass());
+		Assert.assertEquals(HeartBeatEvent.class, events.get(events.size() - 1).getClass());
+
+		events = beat(true, 1);
+		Assert.assertEquals(1, events.size());
+		Assert.assertEquals(HeartBeatEvent.class, events.get(0).getClass());
+	}
+
+	private List<Event> beat(boolean binaryEnabled, long sequence) {
+		System.setProperty(Messaging.APPNG_NODE_ID, "node1");
+		DefaultEnvironment env = DefaultEnvironment.get(new MockServletContext());
+		env.setAttribute(Scope.PLATFORM, Platform.Environment.SITES, new HashMap<>());
+		Properties platformConfig = Mockito.mock(Properties.class);
+		Mockito.when(platformConfig.getBoolean(Platform.Property.MESSAGING_BINARY_EVENTS,
+				Serializer.DEFAULT_BINARY_EVENTS)).thenReturn(binaryEnabled);
+		env.setAttribute(Scope.PLATFORM, Platform.Environment.PLATFORM_CONFIG, platformConfig);
+		Sender sender = Mockito.mock(Sender.class);
+		Mockito.when(sender.send(Mockito.any(Event.class))).thenReturn(true);
+
+		new HeartBeat(TimeUnit.SECONDS.toMillis(30), 3).beat(env, sender, sequence);
+
+		ArgumentCaptor<Event> events = ArgumentCaptor.forClass(Event.class);
+		Mockito.verify(sender, Mockito.atLeastOnce()).send(events.capture());
+		return events.getAllValues();
+	}
+
+}
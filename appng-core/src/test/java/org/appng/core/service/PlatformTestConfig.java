@@ -184,6 +184,12 @@ public class PlatformTestConfig {
 		return new LdapService();
 	}
 
+	@Bean
+	@Lazy
+	public RetentionService retentionService() {
+		return new RetentionService();
+	}
+
 	@Bean
 	public ThymeleafProcessor thymeleafProcessor(DocumentBuilderFactory dbf, MarshallService marshallService) {
 		ThymeleafProcessor thymeleafProcessor = new ThymeleafProcessor(dbf);
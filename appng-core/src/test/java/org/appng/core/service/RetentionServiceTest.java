@@ -0,0 +1,212 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.core.service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.lang3.time.DateUtils;
+import org.appng.api.Platform;
+import org.appng.api.SiteProperties;
+import org.appng.api.model.SimpleProperty;
+import org.appng.api.support.PropertyHolder;
+import org.appng.core.domain.JobExecutionAggregate;
+import org.appng.core.domain.PlatformEvent.Type;
+import org.appng.core.domain.PlatformEventAggregate;
+import org.appng.core.domain.SiteImpl;
+import org.appng.core.repository.JobExecutionAggregateRepository;
+import org.appng.core.repository.JobExecutionRecordRepository;
+import org.appng.core.repository.PlatformEventAggregateRepository;
+import org.appng.core.repository.PlatformEventRepository;
+import org.appng.core.service.RetentionService.RetentionPolicy;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.util.StopWatch;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Seeds HSQLDB with synthetic rows. Use {@code -DretentionTestRows=2000000} to run with millions of rows.
+ */
+@Slf4j
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = PlatformTestConfig.class, initializers = TestInitializer.class)
+@DirtiesContext
+public class RetentionServiceTest extends TestInitializer {
+
+	private static final int ROWS = Integer.getInteger("retentionTestRows", 20000);
+	private static final int BATCH_SIZE = 5000;
+
+	@Autowired
+	RetentionService retentionService;
+
+	@Autowired
+	DataSource dataSource;
+
+	@Autowired
+	JobExecutionRecordRepository recordRepository;
+
+	@Autowired
+	JobExecutionAggregateRepository jobAggregateRepository;
+
+	@Autowired
+	PlatformEventRepository eventRepository;
+
+	@Autowired
+	PlatformEventAggregateRepository eventAggregateRepository;
+
+	@Test
+	public void testPurgeJobExecutionRecords() throws SQLException {
+		Date now = new Date();
+		// one record per minute, the first half being older than 60 days
+		Date start = DateUtils.addMinutes(DateUtils.addDays(now, -61), -ROWS / 2);
+		insertJobRecords("site", "app1", "job1", start, ROWS / 2);
+		insertJobRecords("site", "app1", "job1", DateUtils.addDays(now, -59), ROWS / 2);
+		insertJobRecords("site", "app2", "job2", DateUtils.addDays(now, -1), 250);
+		insertJobRecords("otherSite", "app1", "job1", start, 100);
+
+		SiteImpl site = new SiteImpl();
+		site.setName("site");
+		SimpleProperty retention = new SimpleProperty(SiteProperties.JOB_RECORD_RETENTION, null);
+		retention.setClob("# keep the latest 100 records of app2\napp2 = 0;100");
+		site.setProperties(new PropertyHolder("",
+				Arrays.asList(new SimpleProperty(SiteProperties.JOB_RECORD_MAX_AGE, "60"),
+						new SimpleProperty(SiteProperties.JOB_RECORD_MAX_ROWS, "0"), retention)));
+		PropertyHolder platformConfig = new PropertyHolder("",
+				Arrays.asList(new SimpleProperty(Platform.Property.RETENTION_CHUNK_SIZE, "1000"),
+						new SimpleProperty(Platform.Property.RETENTION_AGGREGATE, "true")));
+
+		StopWatch sw = new StopWatch();
+		sw.start();
+		int purged = retentionService.purgeJobExecutionRecords(site, platformConfig);
+		sw.stop();
+		LOGGER.info("purged {} of {} records in {}ms", purged, ROWS, sw.getTotalTimeMillis());
+
+		Assert.assertEquals(ROWS / 2 + 150, purged);
+		Assert.assertEquals(ROWS / 2 + 100 + 100, recordRepository.count());
+		Assert.assertEquals(Integer.valueOf(100), countJobRecords("otherSite"));
+
+		List<JobExecutionAggregate> aggregates = jobAggregateRepository.findBySiteAndJobNameOrderByDay("site", "job1");
+		Assert.assertEquals(ROWS / 2, aggregates.stream().mapToInt(JobExecutionAggregate::getExecutions).sum());
+		Assert.assertEquals(ROWS / 2 * 5, aggregates.stream().mapToLong(JobExecutionAggregate::getTotalDuration).sum());
+		Assert.assertEquals(5, aggregates.get(0).getMaxDuration());
+		aggregates = jobAggregateRepository.findBySiteAndJobNameOrderByDay("site", "job2");
+		Assert.assertEquals(150, aggregates.stream().mapToInt(JobExecutionAggregate::getExecutions).sum());
+
+		Assert.assertEquals(0, retentionService.purgeJobExecutionRecords(site, platformConfig));
+	}
+
+	@Test
+	public void testPurgePlatformEvents() throws SQLException {
+		Date start = DateUtils.addDays(new Date(), -20);
+		try (Connection conn = dataSource.getConnection();
+				PreparedStatement stmt = conn.prepareStatement(
+						"insert into platform_event (created, ev_type, ev_user, event, application) values (?,?,?,?,?)")) {
+			for (int i = 0; i < ROWS; i++) {
+				stmt.setTimestamp(1, new Timestamp(DateUtils.addMinutes(start, i % 2 == 0 ? 0 : 15 * 24 * 60).getTime()));
+				stmt.setString(2, (i % 3 == 0 ? Type.INFO : Type.UPDATE).name());
+				stmt.setString(3, "admin");
+				stmt.setString(4, "event " + i);
+				stmt.setString(5, "appNG");
+				stmt.addBatch();
+				if (i % BATCH_SIZE == 0) {
+					stmt.executeBatch();
+				}
+			}
+			stmt.executeBatch();
+		}
+
+		Assert.assertEquals(0, retentionService.purgePlatformEvents(0, 1000, true));
+		Assert.assertEquals(ROWS / 2, retentionService.purgePlatformEvents(10, 1000, true));
+		Assert.assertEquals(ROWS / 2, eventRepository.count());
+
+		List<PlatformEventAggregate> aggregates = eventAggregateRepository.findByOrderByDay();
+		Assert.assertEquals(ROWS / 2, aggregates.stream().mapToInt(PlatformEventAggregate::getEvents).sum());
+		Assert.assertTrue(aggregates.stream().allMatch(a -> "appNG".equals(a.getApplication())));
+	}
+
+	@Test
+	public void testGetPolicies() {
+		java.util.Properties entries = new java.util.Properties();
+		entries.put("app1", "30;500");
+		entries.put("app2", "7");
+		entries.put("app3", "foo");
+		Map<String, RetentionPolicy> policies = RetentionService.getPolicies(entries, new RetentionPolicy(90, 1000));
+		Assert.assertEquals(2, policies.size());
+		Assert.assertEquals(30, policies.get("app1").getMaxAge());
+		Assert.assertEquals(500, policies.get("app1").getMaxRows());
+		Assert.assertEquals(7, policies.get("app2").getMaxAge());
+		Assert.assertEquals(1000, policies.get("app2").getMaxRows());
+	}
+
+	@Test
+	public void testIsRetentionEnabled() {
+		SimpleProperty retention = new SimpleProperty(SiteProperties.JOB_RECORD_RETENTION, null);
+		retention.setClob("");
+		List<SimpleProperty> properties = Arrays.asList(new SimpleProperty(SiteProperties.JOB_RECORD_MAX_AGE, "0"),
+				new SimpleProperty(SiteProperties.JOB_RECORD_MAX_ROWS, "0"), retention);
+		Assert.assertFalse(RetentionService.isRetentionEnabled(new PropertyHolder("", properties)));
+
+		retention.setClob("app1 = 0;100");
+		Assert.assertTrue(RetentionService.isRetentionEnabled(new PropertyHolder("", properties)));
+
+		retention.setClob("");
+		properties.get(0).setString("30");
+		Assert.assertTrue(RetentionService.isRetentionEnabled(new PropertyHolder("", properties)));
+	}
+
+	private void insertJobRecords(String site, String application, String jobName, Date start, int count)
+			throws SQLException {
+		try (Connection conn = dataSource.getConnection();
+				PreparedStatement stmt = conn.prepareStatement(
+						"insert into job_execution_record (site, application, job_name, start_time, end_time, duration, run_once, result) values (?,?,?,?,?,?,?,?)")) {
+			for (int i = 0; i < count; i++) {
+				Date startTime = DateUtils.addMinutes(start, i);
+				stmt.setString(1, site);
+				stmt.setString(2, application);
+				stmt.setString(3, jobName);
+				stmt.setTimestamp(4, new Timestamp(startTime.getTime()));
+				stmt.setTimestamp(5, new Timestamp(DateUtils.addSeconds(startTime, 5).getTime()));
+				stmt.setInt(6, 5);
+				stmt.setBoolean(7, false);
+				stmt.setString(8, "SUCCESS");
+				stmt.addBatch();
+				if (i % BATCH_SIZE == 0) {
+					stmt.executeBatch();
+				}
+			}
+			stmt.executeBatch();
+		}
+	}
+
+	private Integer countJobRecords(String site) {
+		return recordRepository.search("from JobExecutionRecord j where j.site=?1", site).size();
+	}
+
+}
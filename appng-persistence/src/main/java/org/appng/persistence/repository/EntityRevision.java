@@ -0,0 +1,99 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.persistence.repository;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.Set;
+
+import org.hibernate.envers.RevisionType;
+
+/**
+ * A revision of an audited entity, as returned by {@link SearchRepository#getHistory(java.io.Serializable,
+ * org.springframework.data.domain.Pageable)} and {@link SearchRepository#getHistories(java.util.Collection)}.
+ * 
+ * @param <T>
+ *            the domain class
+ */
+public class EntityRevision<T> {
+
+	private final T entity;
+	private final Number revision;
+	private final Date revisionDate;
+	private final RevisionType revisionType;
+	private final Set<String> changedProperties;
+
+	public EntityRevision(T entity, Number revision, Date revisionDate, RevisionType revisionType,
+			Set<String> changedProperties) {
+		this.entity = entity;
+		this.revision = revision;
+		this.revisionDate = revisionDate;
+		this.revisionType = revisionType;
+		this.changedProperties = Collections.unmodifiableSet(changedProperties);
+	}
+
+	/**
+	 * Returns the state of the entity at this revision
+	 * 
+	 * @return the entity
+	 */
+	public T getEntity() {
+		return entity;
+	}
+
+	/**
+	 * Returns the revision number
+	 * 
+	 * @return the revision number
+	 */
+	public Number getRevision() {
+		return revision;
+	}
+
+	/**
+	 * Returns the date of the revision
+	 * 
+	 * @return the date
+	 */
+	public Date getRevisionDate() {
+		return revisionDate;
+	}
+
+	/**
+	 * Returns the type of the revision
+	 * 
+	 * @return the {@link RevisionType}
+	 */
+	public RevisionType getRevisionType() {
+		return revisionType;
+	}
+
+	/**
+	 * Returns the names of the (basic) properties that changed compared to the previous revision. For the revision
+	 * that created the entity, these are the properties having a non-{@code null} value.
+	 * 
+	 * @return the names of the changed properties
+	 */
+	public Set<String> getChangedProperties() {
+		return changedProperties;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "#" + revision + " (" + revisionType + "): " + changedProperties;
+	}
+
+}
@@ -18,6 +18,7 @@ package org.appng.persistence.repository;
 import java.io.Serializable;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import javax.persistence.EntityManager;
 import javax.persistence.Query;
@@ -145,6 +146,33 @@ public interface SearchRepository<T, ID extends Serializable>
 	 */
 	Collection<T> getHistory(ID id);
 
+	/**
+	 * Returns a page of the revisions (starting with the newest, including the latest one) for the entity with the
+	 * given ID (if the domain-class is audited). The revisions, their metadata and the changed properties are loaded
+	 * with a constant number of queries, independent of the number of revisions.
+	 * 
+	 * @param id
+	 *                 the ID of the entity
+	 * @param pageable
+	 *                 a {@link Pageable} (optional), the sort is ignored
+	 * 
+	 * @return a {@link Page} containing the revisions. When {@code pageable} is null, a single page containing all
+	 *         revisions will be returned
+	 */
+	Page<EntityRevision<T>> getHistory(ID id, Pageable pageable);
+
+	/**
+	 * Returns all revisions (starting with the newest, including the latest one) for the entities with the given IDs
+	 * (if the domain-class is audited). The revisions are loaded in batches, thus issuing only one query for up to
+	 * several hundred IDs.
+	 * 
+	 * @param ids
+	 *            the IDs of the entities
+	 * 
+	 * @return a map containing the revisions for each ID, in the iteration order of {@code ids}
+	 */
+	Map<ID, List<EntityRevision<T>>> getHistories(Collection<ID> ids);
+
 	/**
 	 * Returns the requested revision of the entity with the requested ID (if the domain-class is audited);
 	 * 
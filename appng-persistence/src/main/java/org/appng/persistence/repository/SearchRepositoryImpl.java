@@ -16,21 +16,31 @@
 package org.appng.persistence.repository;
 
 import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 import javax.persistence.EntityManager;
+import javax.persistence.PersistenceUnitUtil;
 import javax.persistence.TypedQuery;
+import javax.persistence.metamodel.Attribute.PersistentAttributeType;
+import javax.persistence.metamodel.SingularAttribute;
 
 import org.apache.commons.lang3.Validate;
 import org.appng.api.model.RevisionAware;
 import org.hibernate.envers.AuditReader;
 import org.hibernate.envers.AuditReaderFactory;
 import org.hibernate.envers.DefaultRevisionEntity;
+import org.hibernate.envers.RevisionType;
 import org.hibernate.envers.query.AuditEntity;
 import org.hibernate.envers.query.AuditQuery;
 import org.springframework.data.domain.Page;
@@ -41,6 +51,8 @@ import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Sort.Order;
 import org.springframework.data.jpa.repository.support.JpaEntityInformation;
 import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.ReflectionUtils;
 
 /**
  * Default {@link SearchRepository} implementation.<br/>
@@ -52,7 +64,11 @@ import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
  * 
  * See <a href=
  * "http://docs.spring.io/spring-data/jpa/docs/1.11.0.RELEASE/reference/html/#repositories.custom-behaviour-for-all-repositories">
- * 4.6.2. Adding custom behavior to all repositories</a> from the reference Documentation for further details.
+ * 4.6.2. Adding custom behavior to all repositories</a> from the reference Documentation for further details.<br/>
+ * Like for {@link SimpleJpaRepository}, all read operations are executed within a read-only transaction (if no
+ * transaction is present), which allows routing them to a read replica. The only exception is
+ * {@link #isUnique(Serializable, String[], Object[])}, which usually precedes a write and therefore must not read from
+ * a replica that may lag behind.
  *
  * @author Matthias Müller
  * 
@@ -61,11 +77,15 @@ import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
  * @param <ID>
  *             the type of the Id of the domain class
  */
+@Transactional(readOnly = true)
 public class SearchRepositoryImpl<T, ID extends Serializable> extends SimpleJpaRepository<T, ID>
 		implements SearchRepository<T, ID> {
 
+	private static final int HISTORY_BATCH_SIZE = 500;
+
 	protected EntityManager entityManager;
 	protected Class<T> domainClass;
+	private List<SingularAttribute<? super T, ?>> basicAttributes;
 
 	public SearchRepositoryImpl(JpaEntityInformation<T, ?> entityInformation, EntityManager entityManager) {
 		super(entityInformation, entityManager);
@@ -143,26 +163,117 @@ public class SearchRepositoryImpl<T, ID extends Serializable> extends SimpleJpaR
 		return searchQuery.execute(pageable, entityManager);
 	}
 
-	@SuppressWarnings("unchecked")
 	public Collection<T> getHistory(ID id) {
+		List<EntityRevision<T>> revisions = getHistories(Collections.singleton(id)).get(id);
+		List<T> result = new ArrayList<>();
+		// take all revision except the latest one
+		for (int index = 1; index < revisions.size(); index++) {
+			result.add(revisions.get(index).getEntity());
+		}
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	public Page<EntityRevision<T>> getHistory(ID id, Pageable pageable) {
 		AuditReader auditReader = AuditReaderFactory.get(entityManager);
-		boolean entityClassAudited = auditReader.isEntityClassAudited(domainClass);
-		if (!entityClassAudited) {
-			return Collections.emptyList();
+		if (!auditReader.isEntityClassAudited(domainClass)) {
+			return new PageImpl<>(Collections.emptyList(), pageable, 0);
 		}
+		AuditQuery countQuery = auditReader.createQuery().forRevisionsOfEntity(domainClass, true, false);
+		countQuery.add(AuditEntity.id().eq(id)).addProjection(AuditEntity.revisionNumber().count());
+		long total = ((Number) countQuery.getSingleResult()).longValue();
+
 		AuditQuery auditQuery = auditReader.createQuery().forRevisionsOfEntity(domainClass, false, false);
-		auditQuery.add(AuditEntity.id().eq(id));
-		List<Object[]> revisions = auditQuery.getResultList();
-		List<T> result = new ArrayList<>();
-		// take all revision except the last (latest) one
-		for (int index = 0; index < revisions.size() - 1; index++) {
-			T t = (T) revisions.get(index)[0];
-			DefaultRevisionEntity entry = (DefaultRevisionEntity) revisions.get(index)[1];
-			setRevision(t, entry.getId());
-			result.add(t);
-		}
-		Collections.reverse(result);
-		return result;
+		auditQuery.add(AuditEntity.id().eq(id)).addOrder(AuditEntity.revisionNumber().desc());
+		if (null != pageable) {
+			// fetch one more (older) revision to determine the changes of the last revision on the page
+			auditQuery.setFirstResult(pageable.getOffset()).setMaxResults(pageable.getPageSize() + 1);
+		}
+		List<EntityRevision<T>> revisions = toEntityRevisions(auditQuery.getResultList());
+		if (null != pageable && revisions.size() > pageable.getPageSize()) {
+			revisions = revisions.subList(0, pageable.getPageSize());
+		}
+		return new PageImpl<>(new ArrayList<>(revisions), pageable, total);
+	}
+
+	@SuppressWarnings("unchecked")
+	public Map<ID, List<EntityRevision<T>>> getHistories(Collection<ID> ids) {
+		Map<ID, List<Object[]>> rows = new LinkedHashMap<>();
+		ids.forEach(id -> rows.put(id, new ArrayList<>()));
+		AuditReader auditReader = AuditReaderFactory.get(entityManager);
+		if (auditReader.isEntityClassAudited(domainClass)) {
+			PersistenceUnitUtil persistenceUnitUtil = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+			List<ID> idList = new ArrayList<>(rows.keySet());
+			for (int i = 0; i < idList.size(); i += HISTORY_BATCH_SIZE) {
+				List<ID> batch = idList.subList(i, Math.min(idList.size(), i + HISTORY_BATCH_SIZE));
+				AuditQuery auditQuery = auditReader.createQuery().forRevisionsOfEntity(domainClass, false, false);
+				auditQuery.add(AuditEntity.id().in(batch)).addOrder(AuditEntity.revisionNumber().desc());
+				for (Object[] row : (List<Object[]>) auditQuery.getResultList()) {
+					rows.get(persistenceUnitUtil.getIdentifier(row[0])).add(row);
+				}
+			}
+		}
+		Map<ID, List<EntityRevision<T>>> histories = new LinkedHashMap<>();
+		rows.forEach((id, revisions) -> histories.put(id, toEntityRevisions(revisions)));
+		return histories;
+	}
+
+	/**
+	 * Creates the {@link EntityRevision}s from the rows returned by an {@link AuditQuery} for revisions of a single
+	 * entity, ordered by revision descending. The changed properties are determined by comparing each revision with the
+	 * next (older) one.
+	 */
+	@SuppressWarnings("unchecked")
+	private List<EntityRevision<T>> toEntityRevisions(List<Object[]> rows) {
+		List<EntityRevision<T>> revisions = new ArrayList<>();
+		for (int index = 0; index < rows.size(); index++) {
+			T entity = (T) rows.get(index)[0];
+			DefaultRevisionEntity entry = (DefaultRevisionEntity) rows.get(index)[1];
+			RevisionType revisionType = (RevisionType) rows.get(index)[2];
+			T previous = index < rows.size() - 1 ? (T) rows.get(index + 1)[0] : null;
+			setRevision(entity, entry.getId());
+			revisions.add(new EntityRevision<>(entity, entry.getId(), entry.getRevisionDate(), revisionType,
+					getChangedProperties(entity, previous)));
+		}
+		return revisions;
+	}
+
+	private Set<String> getChangedProperties(T entity, T previous) {
+		Set<String> changedProperties = new LinkedHashSet<>();
+		for (SingularAttribute<? super T, ?> attribute : getBasicAttributes()) {
+			Object value = getValue(entity, attribute);
+			Object previousValue = null == previous ? null : getValue(previous, attribute);
+			if (!Objects.equals(value, previousValue)) {
+				changedProperties.add(attribute.getName());
+			}
+		}
+		return changedProperties;
+	}
+
+	private List<SingularAttribute<? super T, ?>> getBasicAttributes() {
+		if (null == basicAttributes) {
+			List<SingularAttribute<? super T, ?>> attributes = new ArrayList<>();
+			for (SingularAttribute<? super T, ?> attribute : entityManager.getMetamodel().entity(domainClass)
+					.getSingularAttributes()) {
+				if (!attribute.isId() && !attribute.isVersion()
+						&& (PersistentAttributeType.BASIC.equals(attribute.getPersistentAttributeType())
+								|| PersistentAttributeType.EMBEDDED.equals(attribute.getPersistentAttributeType()))) {
+					attributes.add(attribute);
+				}
+			}
+			basicAttributes = attributes;
+		}
+		return basicAttributes;
+	}
+
+	private Object getValue(T entity, SingularAttribute<? super T, ?> attribute) {
+		Member member = attribute.getJavaMember();
+		if (member instanceof Field) {
+			ReflectionUtils.makeAccessible((Field) member);
+			return ReflectionUtils.getField((Field) member, entity);
+		}
+		ReflectionUtils.makeAccessible((Method) member);
+		return ReflectionUtils.invokeMethod((Method) member, entity);
 	}
 
 	private void setRevision(T t, Number number) {
@@ -188,18 +299,17 @@ public class SearchRepositoryImpl<T, ID extends Serializable> extends SimpleJpaR
 		if (!entityClassAudited) {
 			return null;
 		}
-		AuditQuery auditQuery = auditReader.createQuery().forRevisionsOfEntity(domainClass, true, false);
-		auditQuery.add(AuditEntity.id().eq(id));
-
-		Set<Number> revisionNumbers = new HashSet<>(auditReader.getRevisions(domainClass, id));
-		final Number number = (new ArrayList<>(revisionNumbers)).get(revisionNumbers.size() - 1);
-		return number;
+		AuditQuery auditQuery = auditReader.createQuery().forRevisionsOfEntity(domainClass, true, true);
+		auditQuery.add(AuditEntity.id().eq(id)).addProjection(AuditEntity.revisionNumber().max());
+		return (Number) auditQuery.getSingleResult();
 	}
 
+	@Transactional
 	public boolean isUnique(ID id, String property, Object value) {
 		return isUnique(id, new String[] { property }, new Object[] { value });
 	}
 
+	@Transactional
 	public boolean isUnique(ID id, String[] properties, Object[] values) {
 		Validate.notEmpty(properties, "properties can not be empty!");
 		Validate.notEmpty(values, "values can not be empty!");
@@ -49,6 +49,7 @@ public class RepositoryConfiguration {
 		emfb.setPackagesToScan("org.appng.persistence.model");
 		Properties props = new Properties();
 		props.put("hibernate.show_sql", "false");
+		props.put("hibernate.generate_statistics", "true");
 		emfb.setJpaProperties(props);
 		emfb.setPersistenceProviderClass(HibernatePersistenceProvider.class);
 		return emfb;
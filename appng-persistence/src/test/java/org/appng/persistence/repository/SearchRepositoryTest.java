@@ -15,11 +15,16 @@
  */
 package org.appng.persistence.repository;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
+import javax.persistence.EntityManagerFactory;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Path;
@@ -27,6 +32,9 @@ import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 
 import org.appng.persistence.model.TestEntity;
+import org.hibernate.SessionFactory;
+import org.hibernate.envers.RevisionType;
+import org.hibernate.stat.Statistics;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -170,6 +178,65 @@ public class SearchRepositoryTest {
 		Assert.assertEquals(Boolean.TRUE, latest.getBooleanValue());
 	}
 
+	@Test
+	public void testGetHistoryPaged() {
+		createEntityRevisions();
+		Page<EntityRevision<TestEntity>> page = repo.getHistory(3, new PageRequest(0, 2));
+		Assert.assertEquals(3, page.getTotalElements());
+		Assert.assertEquals(2, page.getNumberOfElements());
+		EntityRevision<TestEntity> latest = page.getContent().get(0);
+		Assert.assertEquals(3, latest.getRevision());
+		Assert.assertEquals(RevisionType.MOD, latest.getRevisionType());
+		Assert.assertEquals(Collections.singleton("name"), latest.getChangedProperties());
+		Assert.assertEquals(Integer.valueOf(3), latest.getEntity().getRevision());
+		Assert.assertNotNull(latest.getRevisionDate());
+		Assert.assertEquals(Collections.singleton("booleanValue"), page.getContent().get(1).getChangedProperties());
+
+		page = repo.getHistory(3, new PageRequest(1, 2));
+		Assert.assertEquals(1, page.getNumberOfElements());
+		EntityRevision<TestEntity> created = page.getContent().get(0);
+		Assert.assertEquals(RevisionType.ADD, created.getRevisionType());
+		Assert.assertEquals(new HashSet<>(Arrays.asList("name", "integerValue")), created.getChangedProperties());
+
+		Assert.assertEquals(3, repo.getHistory(3, null).getNumberOfElements());
+	}
+
+	@Test
+	public void testGetHistoriesDeepRevisions() {
+		int depth = 250;
+		List<Integer> ids = Arrays.asList(1, 2, 3);
+		for (int i = 0; i < depth; i++) {
+			for (Integer id : ids) {
+				TestEntity e = repo.findOne(id);
+				e.setIntegerValue(e.getIntegerValue() + 1);
+				repo.save(e);
+			}
+		}
+		Statistics statistics = ctx.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class)
+				.getStatistics();
+		statistics.clear();
+		Map<Integer, List<EntityRevision<TestEntity>>> histories = repo.getHistories(ids);
+		Assert.assertEquals(1, statistics.getPrepareStatementCount());
+		Assert.assertEquals(ids, new ArrayList<>(histories.keySet()));
+		for (Integer id : ids) {
+			List<EntityRevision<TestEntity>> history = histories.get(id);
+			Assert.assertEquals(depth + 1, history.size());
+			Assert.assertEquals(Integer.valueOf(id + depth), history.get(0).getEntity().getIntegerValue());
+			Assert.assertEquals(Collections.singleton("integerValue"), history.get(0).getChangedProperties());
+		}
+
+		statistics.clear();
+		Page<EntityRevision<TestEntity>> page = repo.getHistory(2, new PageRequest(10, 20));
+		Assert.assertEquals(2, statistics.getPrepareStatementCount());
+		Assert.assertEquals(depth + 1, page.getTotalElements());
+		Assert.assertEquals(20, page.getNumberOfElements());
+		Assert.assertEquals(Integer.valueOf(2 + depth - 200), page.getContent().get(0).getEntity().getIntegerValue());
+
+		statistics.clear();
+		Assert.assertEquals(depth, repo.getHistory(1).size());
+		Assert.assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
 	private void createEntityRevisions() {
 		TestEntity e = repo.findOne(3);
 		e.setBooleanValue(true);
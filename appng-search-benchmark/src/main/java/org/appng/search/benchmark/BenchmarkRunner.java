@@ -0,0 +1,155 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.search.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs the benchmarks and compares the results with a baseline. The run fails if a benchmark regresses by more than
+ * the threshold, so it can be used as a quality gate. Configured by the following system properties:
+ * <ul>
+ * <li>{@code benchmark.include} - a regular expression selecting the benchmarks to run</li>
+ * <li>{@code benchmark.threshold} - the maximum allowed regression, in percent (default: 10)</li>
+ * <li>{@code benchmark.baseline} - the properties file containing the baseline scores</li>
+ * <li>{@code benchmark.updateBaseline} - if {@code true}, the results are written to the baseline instead of being
+ * compared</li>
+ * <li>{@code benchmark.forks} - the number of forks per benchmark</li>
+ * <li>{@code benchmark.result} - the file to write the JMH results to (JSON)</li>
+ * <li>{@code benchmark.profilers} - a comma separated list of JMH profilers to use, e.g. {@code gc} to report the
+ * allocation rate</li>
+ * </ul>
+ * The run also fails if there's no baseline score for a benchmark, unless {@code benchmark.updateBaseline} is set. For
+ * the latency benchmarks, the 99th percentile is compared, otherwise the primary score. A failed run terminates with a
+ * non-zero exit status.
+ */
+@Slf4j
+public class BenchmarkRunner {
+
+	private static final double PERCENTILE = 99;
+
+	public static void main(String[] args) throws RunnerException, IOException {
+		String include = System.getProperty("benchmark.include", BenchmarkRunner.class.getPackage().getName() + ".*");
+		double threshold = Double.parseDouble(System.getProperty("benchmark.threshold", "10"));
+		File baselineFile = new File(System.getProperty("benchmark.baseline", "benchmark-baseline.properties"));
+		boolean update = Boolean.getBoolean("benchmark.updateBaseline");
+		String resultFile = System.getProperty("benchmark.result", "target/jmh-result.json");
+		if (!update && !baselineFile.exists()) {
+			throw new IllegalStateException(String.format(
+					"baseline %s does not exist, run with -Dbenchmark.updateBaseline=true to create it",
+					baselineFile.getAbsolutePath()));
+		}
+
+		ChainedOptionsBuilder optionsBuilder = new OptionsBuilder().include(include)
+				.forks(Integer.getInteger("benchmark.forks", 1)).resultFormat(ResultFormatType.JSON)
+				.result(resultFile);
+		for (String profiler : System.getProperty("benchmark.profilers", "").split(",")) {
+			if (!profiler.trim().isEmpty()) {
+				optionsBuilder.addProfiler(profiler.trim());
+			}
+		}
+		Options options = optionsBuilder.build();
+		Collection<RunResult> results = new Runner(options).run();
+
+		Properties baseline = new Properties();
+		if (baselineFile.exists()) {
+			try (InputStream in = Files.newInputStream(baselineFile.toPath())) {
+				baseline.load(in);
+			}
+		}
+
+		TreeMap<String, Double> scores = new TreeMap<>();
+		TreeMap<String, Boolean> higherIsBetter = new TreeMap<>();
+		for (RunResult result : results) {
+			String key = getKey(result);
+			Result<?> primary = result.getPrimaryResult();
+			boolean sampled = Mode.SampleTime.equals(result.getParams().getMode());
+			double score = sampled ? primary.getStatistics().getPercentile(PERCENTILE) : primary.getScore();
+			scores.put(key, score);
+			higherIsBetter.put(key, Mode.Throughput.equals(result.getParams().getMode()));
+		}
+
+		if (update) {
+			for (Entry<String, Double> score : scores.entrySet()) {
+				baseline.setProperty(score.getKey(), String.valueOf(score.getValue()));
+			}
+			try (OutputStream out = Files.newOutputStream(baselineFile.toPath())) {
+				baseline.store(out, "appNG search benchmark baseline");
+			}
+			LOGGER.info("Updated baseline {}", baselineFile.getAbsolutePath());
+			return;
+		}
+
+		List<String> failures = new ArrayList<>();
+		StringBuilder report = new StringBuilder();
+		report.append(String.format("%n%-90s %14s %14s %9s", "Benchmark", "Baseline", "Score", "Change"));
+		for (Entry<String, Double> score : scores.entrySet()) {
+			String key = score.getKey();
+			String baselineValue = baseline.getProperty(key);
+			if (null == baselineValue) {
+				report.append(String.format("%n%-90s %14s %14.3f %9s", key, "-", score.getValue(), "-"));
+				failures.add(String.format("%s has no baseline score", key));
+				continue;
+			}
+			double expected = Double.parseDouble(baselineValue);
+			double change = (score.getValue() - expected) / expected * 100;
+			double regression = higherIsBetter.get(key) ? -change : change;
+			report.append(String.format("%n%-90s %14.3f %14.3f %+8.1f%%", key, expected, score.getValue(), change));
+			if (regression > threshold) {
+				failures.add(String.format("%s regressed by %.1f%% (threshold: %.1f%%)", key, regression, threshold));
+			}
+		}
+		LOGGER.info(report.toString());
+
+		if (!failures.isEmpty()) {
+			failures.forEach(LOGGER::error);
+			throw new IllegalStateException(
+					String.format("%d of %d benchmarks failed the comparison with the baseline", failures.size(),
+							scores.size()));
+		}
+	}
+
+	private static String getKey(RunResult result) {
+		StringBuilder key = new StringBuilder(result.getParams().getBenchmark());
+		for (String param : result.getParams().getParamsKeys()) {
+			key.append(':').append(param).append('=').append(result.getParams().getParam(param));
+		}
+		String unit = result.getPrimaryResult().getScoreUnit();
+		return key.append('[').append(unit.replace('/', '-')).append(']').toString();
+	}
+
+}
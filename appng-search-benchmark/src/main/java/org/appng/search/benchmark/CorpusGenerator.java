@@ -0,0 +1,227 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.search.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.appng.api.search.Document;
+import org.appng.search.indexer.SimpleDocument;
+
+/**
+ * Generates a synthetic, reproducible corpus of documents. The words are made up of syllables and follow a Zipf
+ * distribution, so there are some very frequent and many rare terms, as in natural language. The corpus can be
+ * created in memory (as {@link SimpleDocument}s) or as files (JSPs containing {@code <appNG:searchable>} tags, plain
+ * text and PDF files) to be parsed by the {@link org.appng.search.indexer.FileSystemProvider}.
+ */
+public class CorpusGenerator {
+
+	/** The file types the corpus consists of */
+	public static final String[] TYPES = { "jsp", "txt", "pdf" };
+	private static final String[] SYLLABLES = { "ka", "lo", "mi", "ne", "ru", "sa", "te", "vi", "zu", "bro", "dan",
+			"fel", "gor", "hin", "jal", "kor", "lum", "mar", "nol", "pra", "quin", "ros", "sil", "tor", "ul", "ver",
+			"wen", "xa", "yor", "zel" };
+	private static final int VOCABULARY_SIZE = 20000;
+	private static final int WORDS_PER_SENTENCE = 12;
+
+	private final Random random;
+	private final String[] vocabulary;
+	private final double[] cumulative;
+
+	/**
+	 * Creates a new {@link CorpusGenerator}.
+	 * 
+	 * @param seed
+	 *             the seed, the same seed always creates the same corpus
+	 */
+	public CorpusGenerator(long seed) {
+		this.random = new Random(seed);
+		this.vocabulary = new String[VOCABULARY_SIZE];
+		this.cumulative = new double[VOCABULARY_SIZE];
+		double sum = 0;
+		for (int i = 0; i < VOCABULARY_SIZE; i++) {
+			vocabulary[i] = word(i);
+			sum += 1d / (i + 1);
+			cumulative[i] = sum;
+		}
+		for (int i = 0; i < VOCABULARY_SIZE; i++) {
+			cumulative[i] /= sum;
+		}
+	}
+
+	private String word(int index) {
+		StringBuilder word = new StringBuilder();
+		int rest = index;
+		do {
+			word.append(SYLLABLES[rest % SYLLABLES.length]);
+			rest /= SYLLABLES.length;
+		} while (rest > 0);
+		return word.toString();
+	}
+
+	/**
+	 * Returns a word drawn from the Zipf distribution.
+	 * 
+	 * @return the word
+	 */
+	public String nextWord() {
+		int index = Arrays.binarySearch(cumulative, random.nextDouble());
+		return vocabulary[index < 0 ? Math.min(-index - 1, VOCABULARY_SIZE - 1) : index];
+	}
+
+	/**
+	 * Returns the word with the given rank, {@code 0} being the most frequent one.
+	 * 
+	 * @param rank
+	 *             the rank
+	 * @return the word
+	 */
+	public String getWord(int rank) {
+		return vocabulary[rank];
+	}
+
+	/**
+	 * Returns a text consisting of sentences.
+	 * 
+	 * @param words
+	 *              the number of words
+	 * @return the text
+	 */
+	public String nextText(int words) {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < words; i++) {
+			String word = nextWord();
+			if (i % WORDS_PER_SENTENCE == 0) {
+				word = Character.toUpperCase(word.charAt(0)) + word.substring(1);
+			}
+			text.append(word);
+			text.append(i % WORDS_PER_SENTENCE == WORDS_PER_SENTENCE - 1 ? ". " : " ");
+		}
+		return text.toString().trim();
+	}
+
+	/**
+	 * Creates documents to be fed into a {@link org.appng.search.indexer.DocumentIndexer}.
+	 * 
+	 * @param count
+	 *              the number of documents
+	 * @param words
+	 *              the number of words per document
+	 * @return the documents
+	 */
+	public List<Document> documents(int count, int words) {
+		List<Document> documents = new ArrayList<>(count);
+		long now = System.currentTimeMillis();
+		for (int i = 0; i < count; i++) {
+			String type = TYPES[i % TYPES.length];
+			String path = "/en/doc-" + i + "." + type;
+			SimpleDocument document = new SimpleDocument();
+			document.setId(path);
+			document.setPath(path);
+			document.setType(type);
+			document.setLanguage("en");
+			document.setName(nextText(3 + random.nextInt(5)));
+			document.setContent(nextText(words));
+			document.setDate(new Date(now - random.nextInt(365) * 86400000L));
+			documents.add(document);
+		}
+		return documents;
+	}
+
+	/**
+	 * Writes files of the given type into a folder.
+	 * 
+	 * @param folder
+	 *               the folder, which is emptied first
+	 * @param type
+	 *               one of {@link #TYPES}
+	 * @param count
+	 *               the number of files
+	 * @param words
+	 *               the number of words per file
+	 * @throws IOException
+	 *                     if an error occurs while writing the files
+	 */
+	public void writeFiles(File folder, String type, int count, int words) throws IOException {
+		FileUtils.deleteDirectory(folder);
+		folder.mkdirs();
+		for (int i = 0; i < count; i++) {
+			File file = new File(folder, "doc-" + i + "." + type);
+			String title = nextText(3 + random.nextInt(5));
+			String content = nextText(words);
+			if ("pdf".equals(type)) {
+				writePdf(file, title, content);
+			} else if ("jsp".equals(type)) {
+				FileUtils.writeStringToFile(file, jsp(title, content), StandardCharsets.UTF_8);
+			} else {
+				FileUtils.writeStringToFile(file, title + "\n\n" + content, StandardCharsets.UTF_8);
+			}
+		}
+	}
+
+	private String jsp(String title, String content) {
+		StringBuilder jsp = new StringBuilder();
+		jsp.append("<%@page pageEncoding=\"utf-8\" contentType=\"text/html; charset=utf-8\"%>\n");
+		jsp.append("<%@taglib uri=\"http://appng.org/tags\" prefix=\"appNG\"%>\n");
+		jsp.append("<html>\n<head><title>").append(title).append("</title></head>\n<body>\n");
+		jsp.append("<appNG:searchable index=\"true\" field=\"title\" visible=\"false\">").append(title)
+				.append("</appNG:searchable>\n");
+		jsp.append("<appNG:searchable index=\"true\" field=\"contents\">\n");
+		for (String paragraph : content.split("(?<=\\. )(?=\\S)")) {
+			jsp.append("<p>").append(paragraph.trim()).append("</p>\n");
+		}
+		jsp.append("<appNG:searchable index=\"false\">").append(nextText(WORDS_PER_SENTENCE))
+				.append("</appNG:searchable>\n");
+		jsp.append("</appNG:searchable>\n</body>\n</html>\n");
+		return jsp.toString();
+	}
+
+	private void writePdf(File file, String title, String content) throws IOException {
+		try (PDDocument document = new PDDocument()) {
+			document.getDocumentInformation().setTitle(title);
+			String[] sentences = content.split("(?<=\\. )");
+			int linesPerPage = 40;
+			for (int start = 0; start < sentences.length; start += linesPerPage) {
+				PDPage page = new PDPage();
+				document.addPage(page);
+				try (PDPageContentStream stream = new PDPageContentStream(document, page)) {
+					stream.beginText();
+					stream.setFont(PDType1Font.HELVETICA, 10);
+					stream.setLeading(14);
+					stream.newLineAtOffset(50, 750);
+					for (int i = start; i < Math.min(start + linesPerPage, sentences.length); i++) {
+						stream.showText(sentences[i].trim());
+						stream.newLine();
+					}
+					stream.endText();
+				}
+			}
+			document.save(file);
+		}
+	}
+
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.search.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.appng.api.model.Properties;
+import org.appng.api.model.Site;
+import org.appng.api.search.Document;
+import org.appng.api.search.DocumentEvent;
+import org.appng.api.search.DocumentProducer;
+import org.appng.search.indexer.DocumentIndexer;
+import org.appng.search.searcher.SearchResultCache;
+
+/**
+ * Utility methods shared by the benchmarks.
+ */
+class IndexSupport {
+
+	private static final long POLL_INTERVAL = 1;
+
+	private IndexSupport() {
+	}
+
+	/**
+	 * Runs the given {@link DocumentIndexer} in a daemon thread.
+	 * 
+	 * @param indexer
+	 *                the {@link DocumentIndexer}
+	 * @return the thread, to be passed to {@link #stop(Thread)}
+	 */
+	static Thread start(DocumentIndexer indexer) {
+		Thread thread = new Thread(indexer, "benchmark-indexer");
+		thread.setDaemon(true);
+		thread.start();
+		return thread;
+	}
+
+	/**
+	 * Stops a {@link DocumentIndexer} started by {@link #start(DocumentIndexer)}, after it has finished its current
+	 * work (that is, when it is waiting for the next producer).
+	 * 
+	 * @param thread
+	 *               the thread running the {@link DocumentIndexer}
+	 */
+	static void stop(Thread thread) throws InterruptedException {
+		while (thread.isAlive() && !Thread.State.WAITING.equals(thread.getState())) {
+			Thread.sleep(POLL_INTERVAL);
+		}
+		thread.interrupt();
+		thread.join();
+	}
+
+	/**
+	 * Hands the given documents over to the {@link DocumentIndexer} and waits until they have been committed. If
+	 * {@code clear} is set, the index is cleared first.
+	 * 
+	 * @param indexer
+	 *                  the running {@link DocumentIndexer}
+	 * @param documents
+	 *                  the documents
+	 * @param clear
+	 *                  whether to clear the index before
+	 * @return the generation of the commit
+	 */
+	static long index(DocumentIndexer indexer, List<Document> documents, boolean clear)
+			throws IOException, InterruptedException, TimeoutException {
+		DocumentProducer producer = new DocumentProducer(documents.size() + 1, EnglishAnalyzer.class, "benchmark");
+		if (clear) {
+			producer.put(new DocumentEvent(null, DocumentIndexer.CLEAR_INDEX));
+		}
+		for (Document document : documents) {
+			producer.put(new DocumentEvent(document, Document.CREATE));
+		}
+		try (Directory directory = FSDirectory.open(indexer.getIndexDir().toPath())) {
+			long generation = SearchResultCache.getGeneration(directory);
+			indexer.put(producer);
+			long current;
+			while ((current = SearchResultCache.getGeneration(directory)) == generation) {
+				Thread.sleep(POLL_INTERVAL);
+			}
+			return current;
+		}
+	}
+
+	/**
+	 * Creates a {@link Site} that only provides its name and the given properties.
+	 * 
+	 * @param name
+	 *                   the name of the site
+	 * @param properties
+	 *                   the properties
+	 * @return the {@link Site}
+	 */
+	static Site site(String name, Map<String, String> properties) {
+		Properties siteProperties = (Properties) Proxy.newProxyInstance(IndexSupport.class.getClassLoader(),
+				new Class<?>[] { Properties.class }, (proxy, method, args) -> {
+					String value = properties.get(args[0]);
+					switch (method.getName()) {
+					case "getString":
+						return null == value && args.length > 1 ? args[1] : value;
+					case "getInteger":
+						return null == value ? (args.length > 1 ? args[1] : null) : Integer.valueOf(value);
+					case "getList":
+						return null == value ? Collections.emptyList()
+								: Arrays.asList(value.split("\\Q" + args[args.length - 1] + "\\E"));
+					default:
+						return null;
+					}
+				});
+		return (Site) Proxy.newProxyInstance(IndexSupport.class.getClassLoader(), new Class<?>[] { Site.class },
+				(proxy, method, args) -> {
+					switch (method.getName()) {
+					case "getName":
+						return name;
+					case "getProperties":
+						return siteProperties;
+					case "hashCode":
+						return name.hashCode();
+					case "equals":
+						return proxy == args[0];
+					case "toString":
+						return name;
+					default:
+						return null;
+					}
+				});
+	}
+
+	static File tempDir(String name) {
+		return new File(System.getProperty("java.io.tmpdir"), "appng-benchmark/" + name);
+	}
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.search.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.commons.io.FileUtils;
+import org.appng.api.search.Document;
+import org.appng.search.indexer.DocumentIndexer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the indexing throughput of the {@link DocumentIndexer} in documents per second. Each invocation clears the
+ * index and indexes a batch of {@value #BATCH_SIZE} synthetic documents, including the commit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(IndexingBenchmark.BATCH_SIZE)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class IndexingBenchmark {
+
+	static final int BATCH_SIZE = 500;
+
+	/** The number of words per document */
+	@Param({ "100", "1000" })
+	public int words;
+
+	private File indexDir;
+	private DocumentIndexer indexer;
+	private Thread indexerThread;
+	private List<Document> documents;
+
+	@Setup
+	public void setup() throws IOException {
+		indexDir = IndexSupport.tempDir("indexing-" + words);
+		FileUtils.deleteDirectory(indexDir);
+		documents = new CorpusGenerator(42).documents(BATCH_SIZE, words);
+		indexer = new DocumentIndexer(indexDir, 1L);
+		indexerThread = IndexSupport.start(indexer);
+	}
+
+	@Benchmark
+	public long index() throws IOException, InterruptedException, TimeoutException {
+		return IndexSupport.index(indexer, documents, true);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException, InterruptedException {
+		IndexSupport.stop(indexerThread);
+		FileUtils.deleteDirectory(indexDir);
+	}
+
+}
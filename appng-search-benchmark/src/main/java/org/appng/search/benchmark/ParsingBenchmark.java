@@ -0,0 +1,93 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.search.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.appng.api.search.DocumentProducer;
+import org.appng.search.indexer.FileSystemProvider;
+import org.appng.search.indexer.IndexConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures how many files per second the {@link FileSystemProvider} extracts, that is parsing the
+ * {@code <appNG:searchable>} tags of JSPs and running Tika for text and PDF files.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(ParsingBenchmark.FILES)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ParsingBenchmark {
+
+	static final int FILES = 100;
+	private static final int WORDS = 500;
+
+	/** The type of the files, one of {@link CorpusGenerator#TYPES} */
+	@Param({ "jsp", "txt", "pdf" })
+	public String type;
+
+	/** The number of parsing threads */
+	@Param({ "1", "4" })
+	public int threads;
+
+	private File dataDir;
+	private FileSystemProvider provider;
+
+	@Setup
+	public void setup() throws IOException {
+		dataDir = IndexSupport.tempDir("parsing-" + type);
+		new CorpusGenerator(42).writeFiles(new File(dataDir, "en"), type, FILES, WORDS);
+		IndexConfig config = IndexConfig.getInstance("/en;en;" + EnglishAnalyzer.class.getName(), "appNG");
+		provider = new FileSystemProvider(config, Collections.singletonList(type), 1000, "jsp", dataDir,
+				new ArrayList<>(), null, threads);
+	}
+
+	@Benchmark
+	public void parse(Blackhole blackhole) throws InterruptedException, TimeoutException {
+		for (DocumentProducer producer : provider.indexDirectory(FILES + 1)) {
+			blackhole.consume(producer);
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		FileUtils.deleteDirectory(dataDir);
+	}
+
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.search.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.appng.api.SiteProperties;
+import org.appng.api.model.Site;
+import org.appng.api.search.Document;
+import org.appng.search.SearchResult;
+import org.appng.search.indexer.DocumentIndexer;
+import org.appng.search.searcher.ManagedIndex;
+import org.appng.search.searcher.StandardSearcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the latency of the {@link StandardSearcher}, sampling the duration of each search so JMH reports the
+ * percentiles. The queries alternate between frequent, medium and rare terms of the synthetic corpus. Running with
+ * and without highlighting shows the cost of the highlighter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SearchBenchmark {
+
+	private static final String SITE = "benchmark";
+	private static final int DOCUMENTS = 10000;
+	private static final int WORDS = 300;
+	private static final int[] QUERY_RANKS = { 5, 50, 500, 5000 };
+	private static final String[] PARSE_FIELDS = { Document.FIELD_TITLE, Document.FIELD_CONTENT };
+
+	/**
+	 * The directory to search in, either a {@link ManagedIndex.DirectoryType} or {@code PER_SEARCH} for opening a
+	 * reader for each search
+	 */
+	@Param({ "PER_SEARCH", "MMAP", "MEMORY" })
+	public String directoryType;
+
+	/** Whether to highlight the results */
+	@Param({ "false", "true" })
+	public boolean highlight;
+
+	private File indexDir;
+	private Directory directory;
+	private Site site;
+	private String[] queries;
+	private int query;
+	private final StandardSearcher searcher = new StandardSearcher();
+	private final Analyzer analyzer = new EnglishAnalyzer();
+	private final Map<String, String> parameters = new HashMap<>();
+
+	@Setup
+	public void setup() throws IOException, InterruptedException, TimeoutException {
+		indexDir = IndexSupport.tempDir("search");
+		FileUtils.deleteDirectory(indexDir);
+		CorpusGenerator generator = new CorpusGenerator(42);
+		DocumentIndexer indexer = new DocumentIndexer(indexDir, 1L);
+		Thread indexerThread = IndexSupport.start(indexer);
+		try {
+			IndexSupport.index(indexer, generator.documents(DOCUMENTS, WORDS), true);
+		} finally {
+			IndexSupport.stop(indexerThread);
+		}
+		queries = new String[QUERY_RANKS.length];
+		for (int i = 0; i < QUERY_RANKS.length; i++) {
+			queries[i] = generator.getWord(QUERY_RANKS[i]);
+		}
+		parameters.put(StandardSearcher.PARAM_MAX_HITS, "10");
+
+		if ("PER_SEARCH".equals(directoryType)) {
+			directory = FSDirectory.open(indexDir.toPath());
+		} else {
+			Map<String, String> properties = new HashMap<>();
+			properties.put(SiteProperties.SITE_ROOT_DIR, "");
+			properties.put(SiteProperties.INDEX_DIR, indexDir.getAbsolutePath());
+			properties.put(SiteProperties.SEARCH_DIRECTORY, directoryType);
+			properties.put(SiteProperties.SEARCH_CACHE_SIZE, "0");
+			site = IndexSupport.site(SITE, properties);
+			directory = ManagedIndex.getInstance(site).getDirectory();
+		}
+	}
+
+	@Benchmark
+	public SearchResult search() throws IOException {
+		String term = queries[query++ % queries.length];
+		return searcher.doSearch(null, site, null, directory, term, "en", PARSE_FIELDS, analyzer,
+				highlight ? "span" : null, parameters);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		if (null == site) {
+			directory.close();
+		} else {
+			ManagedIndex.close(SITE);
+		}
+		FileUtils.deleteDirectory(indexDir);
+	}
+
+}
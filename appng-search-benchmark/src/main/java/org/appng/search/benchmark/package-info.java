@@ -0,0 +1,24 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ * JMH benchmarks for indexing, parsing and searching, based on a synthetic corpus (see {@link CorpusGenerator}). Run
+ * them with {@code mvn -P default,benchmark verify -pl appng-search-benchmark -am}. The results are compared with
+ * {@code benchmark-baseline.properties} and the build fails if a benchmark regresses by more than
+ * {@code -Dbenchmark.threshold} percent or if there's no baseline score for a benchmark. Scores depend on the
+ * hardware, so use {@code -Dbenchmark.updateBaseline=true} to record the baseline on the machine running the benchmarks,
+ * and {@code -Dbenchmark.include=<regex>} to select benchmarks.
+ */
+package org.appng.search.benchmark;
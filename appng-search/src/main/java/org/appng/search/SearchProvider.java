@@ -44,7 +44,9 @@ public interface SearchProvider {
 	 * Performs the actual search
 	 * 
 	 * @param env
-	 *                      the current {@link Environment}
+	 *                      the current {@link Environment}. If the search is performed concurrently with other
+	 *                      searches (see {@link org.appng.api.SiteProperties#SEARCH_PART_THREADS}), only
+	 *                      {@link org.appng.api.Scope#PLATFORM} is available.
 	 * @param site
 	 *                      the current {@link Site}
 	 * @param application
@@ -69,7 +71,8 @@ public interface SearchProvider {
 	 * @param parameters
 	 *                      some custom parameters for this search
 	 * 
-	 * @return an {@link Iterable}&lt;{@link Document}&gt; containing the found {@link Document}s
+	 * @return an {@link Iterable}&lt;{@link Document}&gt; containing the found {@link Document}s, might be a
+	 *         {@link SearchResult} that additionally offers a cursor for paging and facet counts
 	 * 
 	 * @throws IOException
 	 *                     if an error occurs while searching
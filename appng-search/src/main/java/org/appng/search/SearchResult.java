@@ -0,0 +1,98 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.search;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.appng.api.search.Document;
+
+/**
+ * The result of a search performed by a {@link SearchProvider}. Besides the found {@link Document}s, it offers
+ * <ul>
+ * <li>the total number of hits, which may be greater than the number of returned {@link Document}s</li>
+ * <li>a cursor pointing behind the last returned {@link Document}, which can be passed to the next search to retrieve
+ * the following hits</li>
+ * <li>the facet counts, mapped by the name of the dimension</li>
+ * </ul>
+ * Since a {@link SearchResult} is an {@link Iterable}&lt;{@link Document}&gt;, it can be returned by
+ * {@link SearchProvider#doSearch(org.appng.api.Environment, org.appng.api.model.Site, org.appng.api.model.Application, org.apache.lucene.store.Directory, String, String, String[], org.apache.lucene.analysis.Analyzer, String, Map)}.
+ */
+public class SearchResult implements Iterable<Document> {
+
+	private final List<Document> documents;
+	private final long totalHits;
+	private final String next;
+	private final Map<String, Map<String, Integer>> facets;
+
+	/**
+	 * Creates a new {@link SearchResult}.
+	 * 
+	 * @param documents
+	 *                  the found {@link Document}s
+	 * @param totalHits
+	 *                  the total number of hits
+	 * @param next
+	 *                  the cursor for retrieving the following hits, {@code null} if there are no more hits
+	 * @param facets
+	 *                  the facet counts, mapped by dimension (the counts are mapped by value)
+	 */
+	public SearchResult(List<Document> documents, long totalHits, String next,
+			Map<String, Map<String, Integer>> facets) {
+		this.documents = documents;
+		this.totalHits = totalHits;
+		this.next = next;
+		this.facets = facets;
+	}
+
+	/**
+	 * Creates a shallow copy of the given {@link SearchResult}.
+	 * 
+	 * @param other
+	 *              the {@link SearchResult} to copy
+	 */
+	public SearchResult(SearchResult other) {
+		this(new ArrayList<>(other.documents), other.totalHits, other.next, new LinkedHashMap<>(other.facets));
+	}
+
+	public Iterator<Document> iterator() {
+		return documents.iterator();
+	}
+
+	public List<Document> getDocuments() {
+		return documents;
+	}
+
+	public long getTotalHits() {
+		return totalHits;
+	}
+
+	public String getNext() {
+		return next;
+	}
+
+	public boolean hasNext() {
+		return null != next;
+	}
+
+	public Map<String, Map<String, Integer>> getFacets() {
+		return facets;
+	}
+
+}
@@ -19,19 +19,26 @@ import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Constructor;
+import java.util.Collections;
 import java.util.Date;
 
 import org.apache.commons.lang3.time.FastDateFormat;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedDocValuesField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.SegmentInfos;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.BooleanClause.Occur;
 import org.apache.lucene.search.BooleanQuery;
@@ -40,11 +47,14 @@ import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.BytesRef;
 import org.appng.api.observe.Observable.Event;
 import org.appng.api.search.Consumer;
 import org.appng.api.search.Document;
 import org.appng.api.search.DocumentEvent;
 import org.appng.api.search.DocumentProducer;
+import org.appng.search.searcher.ManagedIndex;
+import org.appng.search.searcher.Suggester;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -61,10 +71,30 @@ public class DocumentIndexer extends Consumer<DocumentEvent, DocumentProducer> i
 
 	private static final String YYYY_MM_DD_HH_MM_SS = "yyyy-MM-dd HH:mm:ss";
 	public static final Event CLEAR_INDEX = new Event("clear-index");
+	/**
+	 * The (non-stored) field containing the top-level folder of a {@link Document}'s path, e.g. {@code /en} for
+	 * {@code /en/about/index.jsp}
+	 */
+	public static final String FIELD_FOLDER = "folder";
+	/** The (non-stored) field containing a {@link Document}'s date in milliseconds */
+	public static final String FIELD_TIMESTAMP = "timestamp";
+	/**
+	 * The version of the index format, stored in the commit data of the index. Version 2 stores offsets in the
+	 * postings of {@link Document#FIELD_CONTENT}, see {@link #CONTENT_FIELD_TYPE}.
+	 */
+	public static final int INDEX_VERSION = 2;
+	private static final String INDEX_VERSION_KEY = "appng.indexVersion";
+	/** The {@link FieldType} for {@link Document#FIELD_CONTENT}, storing offsets in the postings for highlighting */
+	public static final FieldType CONTENT_FIELD_TYPE = new FieldType(TextField.TYPE_STORED);
+	static {
+		CONTENT_FIELD_TYPE.setIndexOptions(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS);
+		CONTENT_FIELD_TYPE.freeze();
+	}
 
 	private static final FastDateFormat DATEFORMAT = FastDateFormat.getInstance(YYYY_MM_DD_HH_MM_SS);
 	private File indexDir;
 	private Long timeout;
+	private IndexManifest manifest;
 
 	/**
 	 * Creates a new {@code DocumentIndexer}.
@@ -109,6 +139,9 @@ public class DocumentIndexer extends Consumer<DocumentEvent, DocumentProducer> i
 				reader = DirectoryReader.open(indexWriter);
 				searcher = new IndexSearcher(reader);
 				int before = indexWriter.getDocStats().numDocs;
+				if (0 == indexWriter.getDocStats().maxDoc) {
+					setIndexVersion(indexWriter);
+				}
 				DocumentEvent documentEvent = null;
 				int created = 0;
 				int updated = 0;
@@ -117,6 +150,7 @@ public class DocumentIndexer extends Consumer<DocumentEvent, DocumentProducer> i
 					Event event = documentEvent.getEvent();
 					if (CLEAR_INDEX.equals(event)) {
 						indexWriter.deleteAll();
+						setIndexVersion(indexWriter);
 						LOGGER.info("clearing index at {}", indexDir.getAbsolutePath());
 					} else {
 
@@ -166,6 +200,9 @@ public class DocumentIndexer extends Consumer<DocumentEvent, DocumentProducer> i
 				LOGGER.debug("comitted IndexWriter#{}, containing {} documents (before: {}) directory: {}",
 						indexWriter.hashCode(), after, before, indexDir.getAbsolutePath());
 				close(indexWriter, reader, directory);
+				ManagedIndex.indexChanged(indexDir);
+				Suggester.indexChanged(indexDir);
+				afterCommit(producer);
 			}
 		} catch (IOException ioe) {
 			LOGGER.error("an I/O error occured", ioe);
@@ -188,6 +225,81 @@ public class DocumentIndexer extends Consumer<DocumentEvent, DocumentProducer> i
 		}
 	}
 
+	private void afterCommit(DocumentProducer producer) {
+		Runnable afterCommit = producer.getAfterCommit();
+		if (null != afterCommit) {
+			try {
+				afterCommit.run();
+			} catch (RuntimeException e) {
+				LOGGER.error(String.format("error after committing DocumentProducer '%s'", producer.getName()), e);
+			}
+		}
+	}
+
+	/**
+	 * Returns the directory of the Lucene index
+	 * 
+	 * @return the index directory
+	 */
+	public File getIndexDir() {
+		return indexDir;
+	}
+
+	/**
+	 * Returns the {@link IndexManifest} stored in the index directory, which is loaded on first access. All
+	 * {@link FileSystemProvider}s indexing into this {@code DocumentIndexer} must share this instance, so that they do
+	 * not overwrite each other's changes.
+	 * 
+	 * @return the {@link IndexManifest}
+	 */
+	public synchronized IndexManifest getManifest() {
+		if (null == manifest) {
+			manifest = IndexManifest.load(new File(indexDir, IndexManifest.FILE_NAME));
+		}
+		return manifest;
+	}
+
+	/**
+	 * Checks whether the index directory contains a Lucene index.
+	 * 
+	 * @return {@code true} if an index exists
+	 */
+	public boolean indexExists() {
+		try (Directory directory = FSDirectory.open(indexDir.toPath())) {
+			return DirectoryReader.indexExists(directory);
+		} catch (IOException e) {
+			LOGGER.debug(String.format("error checking index at %s", indexDir.getAbsolutePath()), e);
+			return false;
+		}
+	}
+
+	/**
+	 * Checks whether the index directory contains a Lucene index with the current {@link #INDEX_VERSION}. Indexes with
+	 * an older version need to be recreated to benefit from the current format.
+	 * 
+	 * @return {@code true} if an index with the current version exists
+	 */
+	public boolean isCurrentVersion() {
+		try (Directory directory = FSDirectory.open(indexDir.toPath())) {
+			if (DirectoryReader.indexExists(directory)) {
+				String version = SegmentInfos.readLatestCommit(directory).getUserData().get(INDEX_VERSION_KEY);
+				return String.valueOf(INDEX_VERSION).equals(version);
+			}
+		} catch (IOException e) {
+			LOGGER.debug(String.format("error checking index at %s", indexDir.getAbsolutePath()), e);
+		}
+		return false;
+	}
+
+	/**
+	 * The version must only be set for a new or cleared index, otherwise the commit data of the previous commit is
+	 * retained.
+	 */
+	private void setIndexVersion(IndexWriter indexWriter) {
+		indexWriter.setLiveCommitData(
+				Collections.singletonMap(INDEX_VERSION_KEY, String.valueOf(INDEX_VERSION)).entrySet());
+	}
+
 	private void close(Closeable... closeables) {
 		for (Closeable closeable : closeables) {
 			if (null != closeable) {
@@ -209,13 +321,20 @@ public class DocumentIndexer extends Consumer<DocumentEvent, DocumentProducer> i
 		addTextField(indexDoc, Document.FIELD_TITLE, document.getName(), Field.Store.YES);
 		addStringField(indexDoc, Document.FIELD_PATH, document.getPath(), Field.Store.YES);
 		addTextField(indexDoc, Document.FIELD_TEASER, document.getDescription(), Field.Store.YES);
+		addFacetField(indexDoc, FIELD_FOLDER, getFolder(document.getPath()), true);
 		Date dueDate = document.getDate();
 		if (null != dueDate) {
 			addStringField(indexDoc, Document.FIELD_DATE, DATEFORMAT.format(dueDate), Field.Store.YES);
+			indexDoc.add(new LongPoint(FIELD_TIMESTAMP, dueDate.getTime()));
+			indexDoc.add(new NumericDocValuesField(FIELD_TIMESTAMP, dueDate.getTime()));
+		}
+		if (null != document.getContent()) {
+			indexDoc.add(new Field(Document.FIELD_CONTENT, document.getContent(), CONTENT_FIELD_TYPE));
 		}
-		addTextField(indexDoc, Document.FIELD_CONTENT, document.getContent(), Field.Store.YES);
 		addStringField(indexDoc, Document.FIELD_TYPE, document.getType(), Field.Store.YES);
+		addFacetField(indexDoc, Document.FIELD_TYPE, document.getType(), false);
 		addStringField(indexDoc, Document.FIELD_LANGUAGE, document.getLanguage(), Field.Store.YES);
+		addFacetField(indexDoc, Document.FIELD_LANGUAGE, document.getLanguage(), false);
 
 		if (document.getAdditionalFields() != null) {
 			for (IndexableField field : document.getAdditionalFields()) {
@@ -237,4 +356,31 @@ public class DocumentIndexer extends Consumer<DocumentEvent, DocumentProducer> i
 		}
 	}
 
+	private void addFacetField(org.apache.lucene.document.Document indexDoc, String name, String value,
+			boolean indexed) {
+		if (null != value) {
+			if (indexed) {
+				indexDoc.add(new StringField(name, value, Field.Store.NO));
+			}
+			indexDoc.add(new SortedDocValuesField(name, new BytesRef(value)));
+		}
+	}
+
+	/**
+	 * Returns the top-level folder of the given path.
+	 * 
+	 * @param path
+	 *             the path of a {@link Document}
+	 * @return the top-level folder, {@code /} for documents in the root folder, {@code null} if the path is
+	 *         {@code null}
+	 */
+	public static String getFolder(String path) {
+		if (null == path) {
+			return null;
+		}
+		String relative = path.startsWith("/") ? path.substring(1) : path;
+		int idx = relative.indexOf('/');
+		return idx < 0 ? "/" : "/" + relative.substring(0, idx);
+	}
+
 }
@@ -23,10 +23,21 @@ import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.IOUtils;
@@ -44,8 +55,22 @@ import org.appng.search.DocumentProvider;
 import org.appng.search.Search;
 import org.appng.search.indexer.IndexConfig.ConfigEntry;
 
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * A {@link DocumentProvider} indexing the files of a {@link Site}'s document directories (see
+ * {@link SiteProperties#INDEX_CONFIG}).
+ * <p>
+ * If an {@link IndexManifest} is given, indexing is incremental: only files that have been added or changed since the
+ * last run are parsed, and {@link Document#DELETE} events are produced for removed files. A file is considered as
+ * changed if its size or modification time differ from the manifest and its checksum also changed. Without a manifest
+ * or if the manifest is empty, the index is cleared and all files are indexed.
+ * </p>
+ * Files are parsed in parallel using a bounded pool of worker threads, which put the resulting {@link DocumentEvent}s
+ * into the {@link DocumentProducer} of the respective folder. The manifest is saved after the last of the returned
+ * {@link DocumentProducer}s has been committed to the index (see {@link DocumentProducer#getAfterCommit()}).
+ */
 @Slf4j
 public class FileSystemProvider implements DocumentProvider {
 
@@ -55,18 +80,49 @@ public class FileSystemProvider implements DocumentProvider {
 	private String jspExtension;
 	private File dataDir;
 	private Collection<? extends File> protectedFolders;
+	private IndexManifest manifest;
+	private int threads;
+	private @Getter Statistics statistics = new Statistics();
+	private Set<Producer<DocumentEvent>> offeringProducers = ConcurrentHashMap.newKeySet();
 	/* if this field is present and has value 'false', the whole page is skipped while indexing */
 	private static final String INDEX_PAGE = "indexPage";
 
 	public FileSystemProvider(IndexConfig config, List<String> extensions, long timeout, String jspExtension,
 			File dataDir, Collection<? extends File> protectedFolders) {
+		this(config, extensions, timeout, jspExtension, dataDir, protectedFolders, null, 1);
+	}
+
+	/**
+	 * Creates a new {@link FileSystemProvider}.
+	 * 
+	 * @param config
+	 *                         the {@link IndexConfig}
+	 * @param extensions
+	 *                         the extensions of the files to index
+	 * @param timeout
+	 *                         the timeout in milliseconds when adding a {@link DocumentEvent} to a
+	 *                         {@link DocumentProducer}
+	 * @param jspExtension
+	 *                         the extension of JSP files
+	 * @param dataDir
+	 *                         the directory containing the folders to index
+	 * @param protectedFolders
+	 *                         folders to exclude
+	 * @param manifest
+	 *                         the {@link IndexManifest} used for incremental indexing, may be {@code null}
+	 * @param threads
+	 *                         the number of worker threads used for parsing files
+	 */
+	public FileSystemProvider(IndexConfig config, List<String> extensions, long timeout, String jspExtension,
+			File dataDir, Collection<? extends File> protectedFolders, IndexManifest manifest, int threads) {
 		this.config = config;
 		this.extensions = extensions;
 		this.timeout = timeout;
 		this.jspExtension = jspExtension;
 		this.dataDir = dataDir;
 		this.protectedFolders = protectedFolders;
-
+		this.manifest = manifest;
+		this.threads = Math.max(1, threads);
 	}
 
 	public Iterable<DocumentProducer> getDocumentProducers(Site site, Application application)
@@ -89,54 +145,265 @@ public class FileSystemProvider implements DocumentProvider {
 	 */
 	public Iterable<DocumentProducer> indexDirectory(int documentQueueSize)
 			throws InterruptedException, TimeoutException {
+		synchronized (getLock()) {
+			try {
+				return scanDirectory(documentQueueSize);
+			} catch (InterruptedException | TimeoutException | RuntimeException e) {
+				discardChanges();
+				throw e;
+			}
+		}
+	}
+
+	private List<DocumentProducer> scanDirectory(int documentQueueSize) throws InterruptedException, TimeoutException {
 		List<DocumentProducer> producers = new ArrayList<>();
 		LOGGER.info("dataDir: {}", dataDir.getPath());
+		statistics = new Statistics();
+		offeringProducers.clear();
 
-		DocumentProducer clearer = new DocumentProducer(1, Search.getDefaultAnalyzerClass(), "clear index");
-		clearer.put(new DocumentEvent(null, DocumentIndexer.CLEAR_INDEX), timeout);
-
-		producers.add(clearer);
+		boolean incremental = null != manifest && !manifest.isEmpty();
+		if (!incremental) {
+			DocumentProducer clearer = new DocumentProducer(1, Search.getDefaultAnalyzerClass(), "clear index");
+			clearer.put(new DocumentEvent(null, DocumentIndexer.CLEAR_INDEX), timeout);
+			producers.add(clearer);
+			if (null != manifest) {
+				manifest.clear();
+			}
+		}
 
-		int numIndexed = 0;
 		long start = System.currentTimeMillis();
+		Set<String> scannedPaths = new HashSet<>();
 		if (!dataDir.exists() || !dataDir.isDirectory()) {
 			LOGGER.error("{} does not exist or is not a directory", dataDir);
 		} else {
+			List<DocumentProducer> folderProducers = new ArrayList<>();
+			ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+					new ArrayBlockingQueue<>(threads * 4), new CallerRunsPolicy());
+			List<Future<?>> tasks = new ArrayList<>();
+			try {
+				Set<String> folders = config.getFolders();
+				for (String folder : folders) {
+					List<File> skippedFolders = new ArrayList<>(protectedFolders);
+					List<String> skipList = new ArrayList<>(folders);
+					skipList.remove(folder);
+					for (String skipfolder : skipList) {
+						skippedFolders.add(new File(dataDir, skipfolder));
+					}
+					ConfigEntry entry = config.getEntry(folder);
+					File contentFolder = new File(dataDir, folder);
 
-			Set<String> folders = config.getFolders();
-			for (String folder : folders) {
-				List<File> skippedFolders = new ArrayList<>(protectedFolders);
-				List<String> skipList = new ArrayList<>(folders);
-				skipList.remove(folder);
-				for (String skipfolder : skipList) {
-					skippedFolders.add(new File(dataDir, skipfolder));
-				}
-				ConfigEntry entry = config.getEntry(folder);
-				File contentFolder = new File(dataDir, folder);
-
-				if (contentFolder.exists()) {
-					DocumentProducer documentProducer = new DocumentProducer(documentQueueSize,
-							entry.getAnalyzer().getClass(), "index " + contentFolder.getAbsolutePath());
+					if (contentFolder.exists()) {
+						DocumentProducer documentProducer = new DocumentProducer(documentQueueSize,
+								entry.getAnalyzer().getClass(), "index " + contentFolder.getAbsolutePath());
 
-					String language = entry.getLanguage();
-					numIndexed += indexDirectory(documentProducer, language, contentFolder, dataDir, extensions,
-							skippedFolders);
-					producers.add(documentProducer);
-				} else {
-					LOGGER.warn("The folder {} does not exist, probably the site property {} is misconfigured!",
-							contentFolder.getAbsolutePath(), SiteProperties.INDEX_CONFIG);
+						String language = entry.getLanguage();
+						List<File> files = new ArrayList<>();
+						collectFiles(contentFolder, extensions, skippedFolders, files);
+						int pathOffset = dataDir.getAbsolutePath().length();
+						for (int i = 0; i < files.size(); i++) {
+							File file = files.get(i);
+							String filePath = file.getAbsolutePath().substring(pathOffset).replace("\\", "/");
+							if (scannedPaths.add(filePath)) {
+								int fileNo = i + 1;
+								tasks.add(executor.submit(() -> processFile(documentProducer, fileNo, files.size(),
+										language, file, filePath, incremental)));
+							}
+						}
+						folderProducers.add(documentProducer);
+					} else {
+						LOGGER.warn("The folder {} does not exist, probably the site property {} is misconfigured!",
+								contentFolder.getAbsolutePath(), SiteProperties.INDEX_CONFIG);
+					}
+				}
+				for (Future<?> task : tasks) {
+					waitFor(task);
 				}
+			} finally {
+				executor.shutdownNow();
+			}
+			folderProducers.stream().filter(p -> !incremental || offeringProducers.contains(p))
+					.forEach(producers::add);
+		}
 
+		if (incremental) {
+			List<String> removedPaths = new ArrayList<>(manifest.getPaths());
+			removedPaths.removeAll(scannedPaths);
+			if (!removedPaths.isEmpty()) {
+				DocumentProducer deleter = new DocumentProducer(removedPaths.size(), Search.getDefaultAnalyzerClass(),
+						"delete removed files");
+				for (String removedPath : removedPaths) {
+					delete(deleter, removedPath);
+				}
+				producers.add(deleter);
 			}
 		}
+
+		saveAfterCommit(producers);
 		long end = System.currentTimeMillis();
-		LOGGER.info("Indexing {} files took {} milliseconds", numIndexed, end - start);
+		LOGGER.info("Indexing {} files took {} milliseconds ({})", statistics.getParsed(), end - start, statistics);
 		return producers;
 	}
 
-	private int indexDirectory(Producer<DocumentEvent> producer, String language, File currentDirectory, File dataDir,
-			final List<String> fileTypes, List<File> protectedFolders) throws InterruptedException, TimeoutException {
-		int count = 0;
+	/**
+	 * Indexes the given files only, which is used for live indexing of changed files (see {@link LiveIndexer}). Files
+	 * that do not exist (anymore) are removed from the index, as well as all files residing in a removed directory.
+	 * Files that are not located in one of the configured folders (see {@link IndexConfig#getFolders()}) or that do not
+	 * have one of the configured extensions are ignored. If an {@link IndexManifest} is present, unchanged files are
+	 * skipped and the manifest gets updated.
+	 * 
+	 * @param files
+	 *              the files to index
+	 * 
+	 * @return an {@link Iterable} of {@link DocumentProducer}s, one for each affected folder
+	 * 
+	 * @throws InterruptedException
+	 *                              if such an exception occurs while adding a {@link DocumentEvent} to a producer
+	 * @throws TimeoutException
+	 *                              if such an exception occurs while adding a {@link DocumentEvent} to a producer
+	 */
+	public Iterable<DocumentProducer> indexFiles(Collection<File> files) throws InterruptedException, TimeoutException {
+		synchronized (getLock()) {
+			try {
+				return scanFiles(files);
+			} catch (InterruptedException | TimeoutException | RuntimeException e) {
+				discardChanges();
+				throw e;
+			}
+		}
+	}
+
+	/**
+	 * Since the producers are filled before being consumed, their queue size must be large enough to hold all events.
+	 * Therefore, the events are counted per folder before the producers are created.
+	 */
+	private List<DocumentProducer> scanFiles(Collection<File> files) throws InterruptedException, TimeoutException {
+		statistics = new Statistics();
+		offeringProducers.clear();
+		Map<File, String> filePaths = new LinkedHashMap<>();
+		Map<File, List<String>> removedPaths = new HashMap<>();
+		Map<String, Integer> eventCounts = new LinkedHashMap<>();
+		int pathOffset = dataDir.getAbsolutePath().length();
+		for (File file : files) {
+			String absolutePath = file.getAbsolutePath();
+			if (!absolutePath.startsWith(dataDir.getAbsolutePath())) {
+				continue;
+			}
+			String filePath = absolutePath.substring(pathOffset).replace("\\", "/");
+			String folder = getFolder(filePath);
+			boolean isProtected = protectedFolders.stream().anyMatch(p -> absolutePath.startsWith(p.getAbsolutePath()));
+			if (null == folder || isProtected) {
+				LOGGER.debug("{} is not subject to indexing", filePath);
+				continue;
+			}
+			int events = 0;
+			if (file.isFile()) {
+				events = FilenameUtils.isExtension(absolutePath, extensions) ? 1 : 0;
+			} else if (!file.exists()) {
+				List<String> removed = new ArrayList<>();
+				if (null != manifest) {
+					manifest.getPaths().stream().filter(p -> p.startsWith(filePath + "/")).forEach(removed::add);
+				}
+				if (FilenameUtils.isExtension(absolutePath, extensions)) {
+					removed.add(filePath);
+				}
+				removedPaths.put(file, removed);
+				events = removed.size();
+			}
+			if (events > 0) {
+				filePaths.put(file, filePath);
+				eventCounts.merge(folder, events, Integer::sum);
+			}
+		}
+
+		Map<String, DocumentProducer> producers = new LinkedHashMap<>();
+		for (Map.Entry<File, String> fileEntry : filePaths.entrySet()) {
+			File file = fileEntry.getKey();
+			String filePath = fileEntry.getValue();
+			String folder = getFolder(filePath);
+			ConfigEntry entry = config.getEntry(folder);
+			DocumentProducer producer = producers.computeIfAbsent(folder, f -> new DocumentProducer(
+					eventCounts.get(f), entry.getAnalyzer().getClass(), "live index " + f));
+			if (removedPaths.containsKey(file)) {
+				for (String removedPath : removedPaths.get(file)) {
+					delete(producer, removedPath);
+				}
+			} else {
+				processFile(producer, 1, 1, entry.getLanguage(), file, filePath, null != manifest);
+			}
+		}
+		LOGGER.info("Indexed {} changed files ({})", files.size(), statistics);
+		List<DocumentProducer> result = new ArrayList<>(producers.values());
+		result.retainAll(offeringProducers);
+		saveAfterCommit(result);
+		return result;
+	}
+
+	/**
+	 * Discards the changes made to the {@link IndexManifest} since it has been saved the last time. Must be called if
+	 * the {@link DocumentProducer}s returned by {@link #indexDirectory(int)} or {@link #indexFiles(Collection)} could
+	 * not be passed to the indexer, so that the affected files get reindexed on the next run.
+	 */
+	public void discardChanges() {
+		if (null != manifest) {
+			manifest.reload();
+		}
+	}
+
+	/**
+	 * Runs using the same {@link IndexManifest} must not interleave, since they modify the same entries.
+	 */
+	private Object getLock() {
+		return null == manifest ? this : manifest;
+	}
+
+	/**
+	 * The manifest must not be saved before the index has been committed, otherwise a failed commit would cause the
+	 * affected files to be skipped on the next run. Since the producers are committed in order, the manifest is saved
+	 * after the last one has been committed, or immediately if there is nothing to commit.
+	 */
+	private void saveAfterCommit(List<DocumentProducer> producers) {
+		if (null != manifest) {
+			if (producers.isEmpty()) {
+				saveManifest();
+			} else {
+				producers.get(producers.size() - 1).setAfterCommit(this::saveManifest);
+			}
+		}
+	}
+
+	private void saveManifest() {
+		try {
+			manifest.save();
+		} catch (IOException e) {
+			LOGGER.error("error saving manifest", e);
+		}
+	}
+
+	private String getFolder(String filePath) {
+		String folder = null;
+		for (String candidate : config.getFolders()) {
+			if (filePath.startsWith(candidate + "/") && (null == folder || candidate.length() > folder.length())) {
+				folder = candidate;
+			}
+		}
+		return folder;
+	}
+
+	private void delete(Producer<DocumentEvent> producer, String path) throws InterruptedException, TimeoutException {
+		SimpleDocument document = new SimpleDocument();
+		document.setId(path);
+		document.setPath(path);
+		document.setType(FilenameUtils.getExtension(path));
+		producer.putWithTimeout(new DocumentEvent(document, Document.DELETE), timeout);
+		offeringProducers.add(producer);
+		if (null != manifest) {
+			manifest.remove(path);
+		}
+		statistics.deleted.incrementAndGet();
+	}
+
+	private void collectFiles(File currentDirectory, final List<String> fileTypes, List<File> protectedFolders,
+			List<File> files) {
 		File[] fileArr = currentDirectory.listFiles(new FileFilter() {
 			public boolean accept(File pathname) {
 				boolean accept = pathname.isDirectory()
@@ -145,25 +412,71 @@ public class FileSystemProvider implements DocumentProvider {
 			}
 		});
 		if (null != fileArr) {
-			int pathOffset = dataDir.getAbsolutePath().length();
-			for (int i = 0; i < fileArr.length; i++) {
-				File file = fileArr[i];
+			for (File file : fileArr) {
 				if (file.isDirectory()) {
 					if (!protectedFolders.contains(file)) {
-						count += indexDirectory(producer, language, file, dataDir, fileTypes, protectedFolders);
+						collectFiles(file, fileTypes, protectedFolders, files);
 					}
 				} else {
-					String filePath = file.getAbsolutePath().substring(pathOffset);
-					filePath = filePath.replace("\\", "/");
-					DocumentEvent documentEvent = indexFile(i + 1, fileArr.length, language, file, filePath);
-					if (null != documentEvent) {
-						producer.putWithTimeout(documentEvent, timeout);
-						count++;
-					}
+					files.add(file);
 				}
 			}
 		}
-		return count;
+	}
+
+	private Void processFile(Producer<DocumentEvent> producer, int fileNo, int total, String language, File file,
+			String filePath, boolean incremental) throws InterruptedException, TimeoutException {
+		statistics.scanned.incrementAndGet();
+		IndexManifest.Entry previous = incremental ? manifest.get(filePath) : null;
+		if (null != previous && previous.matches(file)) {
+			statistics.skipped.incrementAndGet();
+			return null;
+		}
+		IndexManifest.Entry current = null;
+		if (null != manifest) {
+			try {
+				current = IndexManifest.Entry.of(file);
+			} catch (IOException e) {
+				LOGGER.error(String.format("error reading %s", file.getAbsolutePath()), e);
+				statistics.failed.incrementAndGet();
+				return null;
+			}
+			if (null != previous && previous.getChecksum() == current.getChecksum()) {
+				manifest.put(filePath, current);
+				statistics.skipped.incrementAndGet();
+				return null;
+			}
+		}
+		DocumentEvent documentEvent = indexFile(fileNo, total, language, file, filePath);
+		if (null == documentEvent) {
+			statistics.failed.incrementAndGet();
+		} else {
+			if (null != previous) {
+				documentEvent = new DocumentEvent(documentEvent.getDocument(), Document.UPDATE);
+			}
+			producer.putWithTimeout(documentEvent, timeout);
+			offeringProducers.add(producer);
+			statistics.parsed.incrementAndGet();
+			if (null != current) {
+				manifest.put(filePath, current);
+			}
+		}
+		return null;
+	}
+
+	private void waitFor(Future<?> task) throws InterruptedException, TimeoutException {
+		try {
+			task.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof TimeoutException) {
+				throw (TimeoutException) cause;
+			} else if (cause instanceof InterruptedException) {
+				throw (InterruptedException) cause;
+			}
+			statistics.failed.incrementAndGet();
+			LOGGER.error("error while indexing", cause);
+		}
 	}
 
 	DocumentEvent indexFile(int fileNo, int total, String language, File file, String serverPath)
@@ -219,4 +532,46 @@ public class FileSystemProvider implements DocumentProvider {
 		return new DocumentEvent(document, Document.CREATE);
 	}
 
+	/**
+	 * Statistics about the last run of a {@link FileSystemProvider}.
+	 */
+	public static class Statistics {
+		private final AtomicInteger scanned = new AtomicInteger();
+		private final AtomicInteger parsed = new AtomicInteger();
+		private final AtomicInteger skipped = new AtomicInteger();
+		private final AtomicInteger failed = new AtomicInteger();
+		private final AtomicInteger deleted = new AtomicInteger();
+
+		/** the number of files that have been scanned */
+		public int getScanned() {
+			return scanned.get();
+		}
+
+		/** the number of files that have been parsed and offered to the indexer */
+		public int getParsed() {
+			return parsed.get();
+		}
+
+		/** the number of unchanged files that have been skipped */
+		public int getSkipped() {
+			return skipped.get();
+		}
+
+		/** the number of files that could not be read or parsed */
+		public int getFailed() {
+			return failed.get();
+		}
+
+		/** the number of removed files that have been deleted from the index */
+		public int getDeleted() {
+			return deleted.get();
+		}
+
+		@Override
+		public String toString() {
+			return String.format("scanned: %s, parsed: %s, skipped: %s, failed: %s, deleted: %s", scanned, parsed,
+					skipped, failed, deleted);
+		}
+	}
+
 }
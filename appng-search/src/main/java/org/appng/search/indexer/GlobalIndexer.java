@@ -33,7 +33,9 @@ import lombok.extern.slf4j.Slf4j;
 
 /**
  * Builds the global lucene search index for a {@link Site}. Therefore, every {@link Application} of a {@link Site} is
- * being checked for instances of {@link DocumentProvider}, which can offer some {@link DocumentProducer}s.
+ * being checked for instances of {@link DocumentProvider}, which can offer some {@link DocumentProducer}s.<br/>
+ * The site's document directories are indexed incrementally by a {@link FileSystemProvider}, using an
+ * {@link IndexManifest} that is stored in the index directory of the {@link DocumentIndexer}.
  * 
  * @author Matthias Müller
  * 
@@ -52,6 +54,42 @@ public class GlobalIndexer {
 	public void doIndex(Site site, String jspType) {
 		LOGGER.debug("start indexing for site {}", site.getName());
 
+		Integer timeout = site.getProperties().getInteger(SiteProperties.INDEX_TIMEOUT, 5000);
+		FileSystemProvider fileSystemProvider = getFileSystemProvider(site, jspType);
+		processProducer(site, null, fileSystemProvider, timeout);
+
+		for (Application application : site.getApplications()) {
+			String[] documentProviders = application.getBeanNames(DocumentProvider.class);
+			for (String documentProviderName : documentProviders) {
+				DocumentProvider documentProvider = application.getBean(documentProviderName, DocumentProvider.class);
+				int processed = processProducer(site, application, documentProvider, timeout);
+				LOGGER.debug("processed {}  from application {} wich returned {} DocumentProducers",
+						documentProvider.getClass().getName(), application.getName(), processed);
+			}
+		}
+	}
+
+	/**
+	 * Creates a {@link LiveIndexer} for the given {@link Site}, using the same {@link FileSystemProvider} configuration
+	 * as {@link #doIndex(Site, String)}.
+	 * 
+	 * @param site
+	 *                the {@link Site}
+	 * @param jspType
+	 *                the file extension of JSP files
+	 * @return the {@link LiveIndexer}
+	 * 
+	 * @see SiteProperties#INDEX_WATCH_DELAY
+	 */
+	public LiveIndexer createLiveIndexer(Site site, String jspType) {
+		Properties properties = site.getProperties();
+		Integer timeout = properties.getInteger(SiteProperties.INDEX_TIMEOUT, 5000);
+		Integer delay = properties.getInteger(SiteProperties.INDEX_WATCH_DELAY, 2000);
+		Integer queueSize = properties.getInteger(SiteProperties.INDEX_FILE_SYSTEM_QUEUE_SIZE);
+		return new LiveIndexer(indexer, () -> getFileSystemProvider(site, jspType), delay, timeout, queueSize);
+	}
+
+	private FileSystemProvider getFileSystemProvider(Site site, String jspType) {
 		Properties properties = site.getProperties();
 		String sitePath = properties.getString(SiteProperties.SITE_ROOT_DIR);
 		String seData = sitePath + properties.getString(SiteProperties.WWW_DIR);
@@ -61,28 +99,39 @@ public class GlobalIndexer {
 		String tagPrefix = properties.getString(SiteProperties.TAG_PREFIX);
 		IndexConfig config = IndexConfig.getInstance(indexConfig, tagPrefix);
 		Integer timeout = properties.getInteger(SiteProperties.INDEX_TIMEOUT, 5000);
-		List<String> extensions = site.getProperties().getList(SiteProperties.INDEX_FILETYPES, ",");
+		List<String> extensions = properties.getList(SiteProperties.INDEX_FILETYPES, ",");
+		Integer threads = properties.getInteger(SiteProperties.INDEX_FILE_SYSTEM_THREADS, 1);
 
-		FileSystemProvider fileSystemProvider = new FileSystemProvider(config, extensions, timeout, jspType, dataDir,
-				new ArrayList<>());
-		processProducer(site, null, fileSystemProvider, timeout);
+		return new FileSystemProvider(config, extensions, timeout, jspType, dataDir, new ArrayList<>(), getManifest(),
+				null == threads ? 1 : threads);
+	}
 
-		for (Application application : site.getApplications()) {
-			String[] documentProviders = application.getBeanNames(DocumentProvider.class);
-			for (String documentProviderName : documentProviders) {
-				DocumentProvider documentProvider = application.getBean(documentProviderName, DocumentProvider.class);
-				int processed = processProducer(site, application, documentProvider, timeout);
-				LOGGER.debug("processed {}  from application {} wich returned {} DocumentProducers",
-						documentProvider.getClass().getName(), application.getName(), processed);
+	/**
+	 * Returns the shared {@link IndexManifest} of the {@link DocumentIndexer}. If the directory does not contain an
+	 * index (yet) or the index has an outdated {@link DocumentIndexer#INDEX_VERSION}, an empty manifest is returned,
+	 * forcing a complete reindex.
+	 */
+	private IndexManifest getManifest() {
+		if (indexer instanceof DocumentIndexer) {
+			DocumentIndexer documentIndexer = (DocumentIndexer) indexer;
+			IndexManifest manifest = documentIndexer.getManifest();
+			if (!documentIndexer.isCurrentVersion()) {
+				if (documentIndexer.indexExists()) {
+					LOGGER.info("index at {} has an outdated format and will be recreated",
+							documentIndexer.getIndexDir().getAbsolutePath());
+				}
+				manifest.clear();
 			}
+			return manifest;
 		}
+		return null;
 	}
 
 	private int processProducer(Site site, Application application, DocumentProvider documentProvider,
 			Integer timeout) {
 		try {
 			Iterable<DocumentProducer> documentProducers = documentProvider.getDocumentProducers(site, application);
-			return putWithTimeout(documentProducers, timeout);
+			return putWithTimeout(documentProvider, documentProducers, timeout);
 		} catch (TimeoutException e) {
 			LOGGER.error(String.format("Timeout while processing %s", documentProvider.getClass().getName()), e);
 		} catch (InterruptedException e) {
@@ -93,22 +142,29 @@ public class GlobalIndexer {
 		return 0;
 	}
 
-	private int putWithTimeout(Iterable<DocumentProducer> producers, Integer timeout) {
+	private int putWithTimeout(DocumentProvider documentProvider, Iterable<DocumentProducer> producers,
+			Integer timeout) {
 		int count = 0;
+		boolean failed = false;
 		if (null != producers) {
 			for (DocumentProducer producer : producers) {
 				try {
 					indexer.putWithTimeout(producer, timeout);
 					count++;
 				} catch (TimeoutException e) {
+					failed = true;
 					LOGGER.error(String.format("Timeout while processing %s", producer.getClass().getName()), e);
 				} catch (InterruptedException e) {
+					failed = true;
 					Thread.currentThread().interrupt();
 					LOGGER.error(String.format("Thread interrupted while processing %s", producer.getClass().getName()),
 							e);
 				}
 			}
 		}
+		if (failed && documentProvider instanceof FileSystemProvider) {
+			((FileSystemProvider) documentProvider).discardChanges();
+		}
 		return count;
 	}
 }
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.search.indexer;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A persistent manifest of the files indexed by a {@link FileSystemProvider}. There is one manifest per
+ * {@link DocumentIndexer} (see {@link DocumentIndexer#getManifest()}), shared by all providers indexing into it. For each file (identified by its server
+ * path), the size, the last modification time and a CRC32 checksum of its content are kept. This enables the
+ * {@link FileSystemProvider} to reindex only those files that have been added, changed or removed since the last run.
+ * <p>
+ * The manifest is stored as a plain text file, one line per file, each line containing the path, size, last
+ * modification time and checksum separated by a tab.
+ * </p>
+ */
+@Slf4j
+public class IndexManifest {
+
+	/** The default name of the manifest file, which resides in the index directory */
+	public static final String FILE_NAME = "filesystem.manifest";
+	private static final String SEPARATOR = "\t";
+
+	private final File file;
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+	private final Object fileLock = new Object();
+
+	private IndexManifest(File file) {
+		this.file = file;
+	}
+
+	/**
+	 * Loads the manifest from the given file.
+	 * 
+	 * @param file
+	 *             the manifest file, which does not need to exist
+	 * @return the {@link IndexManifest}, which is empty if the given file does not exist or can not be read
+	 */
+	public static IndexManifest load(File file) {
+		IndexManifest manifest = new IndexManifest(file);
+		manifest.read();
+		return manifest;
+	}
+
+	/**
+	 * Discards all changes made since the manifest has been saved the last time, by reading it from its file again.
+	 */
+	public void reload() {
+		synchronized (fileLock) {
+			entries.clear();
+			read();
+		}
+	}
+
+	private void read() {
+		if (file.exists()) {
+			try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+				String line;
+				while (null != (line = reader.readLine())) {
+					String[] parts = line.split(SEPARATOR);
+					if (parts.length == 4) {
+						entries.put(parts[0], new Entry(Long.parseLong(parts[1]), Long.parseLong(parts[2]),
+								Long.parseLong(parts[3])));
+					}
+				}
+				LOGGER.debug("read {} entries from {}", entries.size(), file);
+			} catch (IOException | NumberFormatException e) {
+				LOGGER.warn(String.format("error reading %s, starting with an empty manifest", file), e);
+				entries.clear();
+			}
+		}
+	}
+
+	/**
+	 * Atomically writes the manifest to its file.
+	 * 
+	 * @throws IOException
+	 *                     if an error occurs while writing
+	 */
+	public void save() throws IOException {
+		synchronized (fileLock) {
+			write();
+		}
+	}
+
+	private void write() throws IOException {
+		file.getParentFile().mkdirs();
+		File tmpFile = new File(file.getParentFile(), file.getName() + ".tmp");
+		try (BufferedWriter writer = Files.newBufferedWriter(tmpFile.toPath(), StandardCharsets.UTF_8)) {
+			for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+				Entry value = entry.getValue();
+				writer.write(String.join(SEPARATOR, entry.getKey(), String.valueOf(value.getSize()),
+						String.valueOf(value.getLastModified()), String.valueOf(value.getChecksum())));
+				writer.newLine();
+			}
+		}
+		Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+		LOGGER.debug("wrote {} entries to {}", entries.size(), file);
+	}
+
+	public Entry get(String path) {
+		return entries.get(path);
+	}
+
+	public void put(String path, Entry entry) {
+		entries.put(path, entry);
+	}
+
+	public void remove(String path) {
+		entries.remove(path);
+	}
+
+	public Set<String> getPaths() {
+		return entries.keySet();
+	}
+
+	public boolean isEmpty() {
+		return entries.isEmpty();
+	}
+
+	public void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * The manifest entry for a single file.
+	 */
+	@Getter
+	@ToString
+	@EqualsAndHashCode
+	@AllArgsConstructor
+	public static class Entry {
+		private final long size;
+		private final long lastModified;
+		private final long checksum;
+
+		/**
+		 * Checks whether size and last modification time of the given file match those of this entry, which allows
+		 * skipping the checksum calculation.
+		 * 
+		 * @param file
+		 *             the file to check
+		 * @return {@code true} if size and last modification time match
+		 */
+		public boolean matches(File file) {
+			return file.length() == size && file.lastModified() == lastModified;
+		}
+
+		/**
+		 * Creates a new {@link Entry} for the given file, calculating the CRC32 checksum of its content.
+		 * 
+		 * @param file
+		 *             the file
+		 * @return the {@link Entry}
+		 * @throws IOException
+		 *                     if an error occurs while reading the file
+		 */
+		public static Entry of(File file) throws IOException {
+			long lastModified = file.lastModified();
+			long size = file.length();
+			try (InputStream in = new CheckedInputStream(new FileInputStream(file), new CRC32())) {
+				IOUtils.copy(in, NullOutputStream.NULL_OUTPUT_STREAM);
+				return new Entry(size, lastModified, ((CheckedInputStream) in).getChecksum().getValue());
+			}
+		}
+	}
+
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.search.indexer;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import org.appng.api.search.Consumer;
+import org.appng.api.search.DocumentEvent;
+import org.appng.api.search.DocumentProducer;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the index of a site's document directories up to date by reindexing single files as soon as they have been
+ * changed (see {@link #fileChanged(File)}), instead of waiting for the next complete run of the {@link GlobalIndexer}.
+ * <p>
+ * Events are debounced per file: a file is reindexed once no further event has been received for it within the
+ * configured delay. All files that are due are coalesced into one batch, resulting in one {@link DocumentProducer} per
+ * folder and thus in one commit of the {@link DocumentIndexer}.<br/>
+ * If events might have been lost (see {@link #requestScan()}), an incremental scan of all folders is performed
+ * instead.
+ * </p>
+ * This class is meant to be run in its own thread, running until interrupted.
+ * 
+ * @see FileSystemProvider#indexFiles(java.util.Collection)
+ * @see FileSystemProvider#indexDirectory(int)
+ */
+@Slf4j
+public class LiveIndexer implements Runnable {
+
+	private final Consumer<DocumentEvent, DocumentProducer> indexer;
+	private final Supplier<FileSystemProvider> providerSupplier;
+	private final long delay;
+	private final long timeout;
+	private final int queueSize;
+	private final Map<File, Long> pending = new ConcurrentHashMap<>();
+	private final AtomicBoolean scanRequested = new AtomicBoolean(false);
+
+	/**
+	 * Creates a new {@link LiveIndexer}
+	 * 
+	 * @param indexer
+	 *                         the {@link Consumer} to pass the {@link DocumentProducer}s to
+	 * @param providerSupplier
+	 *                         a {@link Supplier} for the {@link FileSystemProvider}, called for each batch
+	 * @param delay
+	 *                         the debounce delay in milliseconds
+	 * @param timeout
+	 *                         the timeout in milliseconds when adding a {@link DocumentProducer} to the indexer
+	 * @param queueSize
+	 *                         the queue size for each {@link DocumentProducer} when performing a scan
+	 */
+	public LiveIndexer(Consumer<DocumentEvent, DocumentProducer> indexer, Supplier<FileSystemProvider> providerSupplier,
+			long delay, long timeout, int queueSize) {
+		this.indexer = indexer;
+		this.providerSupplier = providerSupplier;
+		this.delay = delay;
+		this.timeout = timeout;
+		this.queueSize = queueSize;
+	}
+
+	/**
+	 * Notifies this {@link LiveIndexer} that the given file (or directory) has been created, modified or deleted.
+	 * 
+	 * @param file
+	 *             the file
+	 */
+	public void fileChanged(File file) {
+		pending.put(file.getAbsoluteFile(), System.currentTimeMillis());
+	}
+
+	/**
+	 * Requests an incremental scan of all folders, e.g. because file system events have been lost. Pending files are
+	 * discarded, since they're covered by the scan.
+	 */
+	public void requestScan() {
+		scanRequested.set(true);
+		pending.clear();
+	}
+
+	public void run() {
+		long interval = Math.max(50, delay / 2);
+		LOGGER.info("started live indexing with a delay of {}ms", delay);
+		while (!Thread.currentThread().isInterrupted()) {
+			try {
+				TimeUnit.MILLISECONDS.sleep(interval);
+				flush(System.currentTimeMillis());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (Exception e) {
+				LOGGER.error("error while live indexing", e);
+			}
+		}
+		LOGGER.info("stopped live indexing");
+	}
+
+	/**
+	 * Processes a requested scan or the files that are due at the given time.
+	 * 
+	 * @param now
+	 *            the current time in milliseconds
+	 * @return the number of {@link DocumentProducer}s passed to the indexer
+	 */
+	int flush(long now) throws InterruptedException, TimeoutException {
+		boolean scan = scanRequested.getAndSet(false);
+		List<File> due = new ArrayList<>();
+		if (!scan) {
+			for (Map.Entry<File, Long> entry : pending.entrySet()) {
+				if (now - entry.getValue() >= delay && pending.remove(entry.getKey(), entry.getValue())) {
+					due.add(entry.getKey());
+				}
+			}
+			if (due.isEmpty()) {
+				return 0;
+			}
+		}
+		FileSystemProvider provider = providerSupplier.get();
+		try {
+			Iterable<DocumentProducer> producers;
+			if (scan) {
+				LOGGER.info("performing incremental scan");
+				producers = provider.indexDirectory(queueSize);
+			} else {
+				LOGGER.debug("reindexing {}", due);
+				producers = provider.indexFiles(due);
+			}
+			int count = 0;
+			for (DocumentProducer producer : producers) {
+				indexer.putWithTimeout(producer, timeout);
+				count++;
+			}
+			return count;
+		} catch (InterruptedException | TimeoutException | RuntimeException e) {
+			provider.discardChanges();
+			retry(scan, due, now);
+			throw e;
+		}
+	}
+
+	/**
+	 * Failed files (or a failed scan) are retried with the next batch, so that no change gets lost.
+	 */
+	private void retry(boolean scan, List<File> due, long now) {
+		if (scan) {
+			scanRequested.set(true);
+		} else {
+			due.forEach(file -> pending.putIfAbsent(file, now - delay));
+		}
+	}
+
+}
@@ -19,6 +19,8 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 
 import org.appng.api.model.Named;
 
@@ -76,4 +78,31 @@ public class FilterItem {
 		return item;
 	}
 
+	/**
+	 * Creates a {@link FilterItem} representing the facet counts of a dimension.
+	 * 
+	 * @param name
+	 *                 the name of the filter (i.e. the request parameter used for narrowing the search)
+	 * @param label
+	 *                 the label of the filter (i.e. the name of the dimension)
+	 * @param counts
+	 *                 the number of results, mapped by value
+	 * @param selected
+	 *                 the currently selected value, if any
+	 * @return the {@link FilterItem}
+	 */
+	public static FilterItem getFacetItem(String name, String label, Map<String, Integer> counts, String selected) {
+		FilterItem item = new FilterItem();
+		FilterConfig filterConfig = new FilterConfig();
+		filterConfig.setLabel(label);
+		filterConfig.setName(name);
+		filterConfig.setItemsCount(counts.size());
+		item.setConfig(filterConfig);
+		for (Entry<String, Integer> count : counts.entrySet()) {
+			String value = count.getKey();
+			item.getData().add(new FilterData(value, value.equals(selected), value, count.getValue()));
+		}
+		return item;
+	}
+
 }
@@ -23,6 +23,8 @@ public class Page {
 	private long numberOfElements;
 	private String pageParam;
 	private String pageSizeParam;
+	private String next;
+	private String cursorParam;
 
 	public int getPage() {
 		return page;
@@ -72,4 +74,20 @@ public class Page {
 		this.pageSizeParam = pageSizeParam;
 	}
 
+	public String getNext() {
+		return next;
+	}
+
+	public void setNext(String next) {
+		this.next = next;
+	}
+
+	public String getCursorParam() {
+		return cursorParam;
+	}
+
+	public void setCursorParam(String cursorParam) {
+		this.cursorParam = cursorParam;
+	}
+
 }
@@ -22,6 +22,9 @@ public class Part {
 
 	private String part;
 	private List<Result> data;
+	private Long total;
+	private String next;
+	private List<FilterItem> facets;
 
 	public Part(String part) {
 		this.part = part;
@@ -46,4 +49,28 @@ public class Part {
 		this.data = data;
 	}
 
+	public Long getTotal() {
+		return total;
+	}
+
+	public void setTotal(Long total) {
+		this.total = total;
+	}
+
+	public String getNext() {
+		return next;
+	}
+
+	public void setNext(String next) {
+		this.next = next;
+	}
+
+	public List<FilterItem> getFacets() {
+		return facets;
+	}
+
+	public void setFacets(List<FilterItem> facets) {
+		this.facets = facets;
+	}
+
 }
@@ -15,9 +15,12 @@
  */
 package org.appng.search.json;
 
+import java.util.List;
+
 public class SearchFilter extends Filter {
 
 	private FilterItem search;
+	private List<FilterItem> facets;
 
 	public SearchFilter() {
 
@@ -35,4 +38,12 @@ public class SearchFilter extends Filter {
 		this.search = search;
 	}
 
+	public List<FilterItem> getFacets() {
+		return facets;
+	}
+
+	public void setFacets(List<FilterItem> facets) {
+		this.facets = facets;
+	}
+
 }
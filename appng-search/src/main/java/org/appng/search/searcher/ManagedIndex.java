@@ -0,0 +1,406 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.search.searcher;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexNotFoundException;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.SearcherFactory;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.store.NIOFSDirectory;
+import org.appng.api.SiteProperties;
+import org.appng.api.model.Properties;
+import org.appng.api.model.Site;
+import org.appng.api.search.Document;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Provides shared {@link IndexSearcher}s for the global index of a {@link Site}, so a search does not need to open its
+ * own {@link IndexReader}. The {@link Directory} implementation is configured by
+ * {@link SiteProperties#SEARCH_DIRECTORY} (see {@link DirectoryType}).
+ * <p>
+ * The reader is refreshed after each commit of the {@link org.appng.search.indexer.DocumentIndexer}, and checked for
+ * changes at most once per {@link #REFRESH_INTERVAL} on {@link #acquire()}. Before a new reader is used, the queries
+ * configured by {@link SiteProperties#SEARCH_WARMUP_QUERIES} are executed against it, so the first searches don't hit
+ * a cold cache. The duration of these warm-ups is recorded.
+ */
+@Slf4j
+public class ManagedIndex implements Closeable {
+
+	/** The minimum number of milliseconds between two checks for a changed index */
+	public static final long REFRESH_INTERVAL = 1000;
+	/** The default value for {@link SiteProperties#SEARCH_DIRECTORY} */
+	public static final String DEFAULT_DIRECTORY_TYPE = DirectoryType.MMAP.name();
+	private static final Map<String, ManagedIndex> INSTANCES = new ConcurrentHashMap<>();
+	private static final String[] WARMUP_FIELDS = { Document.FIELD_TITLE, Document.FIELD_CONTENT };
+	private static final int WARMUP_HITS = 10;
+
+	/** The {@link Directory} implementations that can be used for reading the index */
+	public enum DirectoryType {
+		/** the implementation chosen by {@link FSDirectory#open(java.nio.file.Path)} */
+		FS,
+		/** a {@link MMapDirectory} */
+		MMAP,
+		/** a {@link NIOFSDirectory} */
+		NIOFS,
+		/**
+		 * a {@link ByteBuffersDirectory} holding a copy of the latest commit, only suitable for small indexes
+		 */
+		MEMORY;
+	}
+
+	private final String site;
+	private final File indexDir;
+	private final DirectoryType type;
+	private final List<String> warmupQueries;
+	private final Directory fsDirectory;
+	private final ReentrantLock lock = new ReentrantLock();
+	private volatile State state;
+	private volatile long lastCheck;
+	private final LongAdder warmups = new LongAdder();
+	private final LongAdder warmupNanos = new LongAdder();
+	private final LongAdder warmupErrors = new LongAdder();
+	private volatile long lastWarmupNanos;
+
+	ManagedIndex(String site, File indexDir, DirectoryType type, List<String> warmupQueries) throws IOException {
+		this.site = site;
+		this.indexDir = indexDir;
+		this.type = type;
+		this.warmupQueries = warmupQueries;
+		switch (type) {
+		case MMAP:
+			this.fsDirectory = new MMapDirectory(indexDir.toPath());
+			break;
+		case NIOFS:
+			this.fsDirectory = new NIOFSDirectory(indexDir.toPath());
+			break;
+		default:
+			this.fsDirectory = FSDirectory.open(indexDir.toPath());
+		}
+	}
+
+	/**
+	 * Returns the {@link ManagedIndex} for the given {@link Site}. If the configuration of the site has changed since
+	 * the last call, the previous instance is closed and a new one is created.
+	 * 
+	 * @param site
+	 *             the {@link Site}
+	 * @return the {@link ManagedIndex}
+	 * @throws IOException
+	 *                     if the index directory can not be opened
+	 */
+	public static synchronized ManagedIndex getInstance(Site site) throws IOException {
+		Properties properties = site.getProperties();
+		File indexDir = new File(
+				properties.getString(SiteProperties.SITE_ROOT_DIR) + properties.getString(SiteProperties.INDEX_DIR));
+		DirectoryType type = getDirectoryType(site.getName(), properties);
+		List<String> warmupQueries = properties.getList(SiteProperties.SEARCH_WARMUP_QUERIES, "|").stream()
+				.filter(StringUtils::isNotBlank).map(String::trim).collect(Collectors.toList());
+		ManagedIndex index = INSTANCES.get(site.getName());
+		if (null == index || !index.indexDir.equals(indexDir) || !index.type.equals(type)
+				|| !index.warmupQueries.equals(warmupQueries)) {
+			if (null != index) {
+				index.close();
+			}
+			index = new ManagedIndex(site.getName(), indexDir, type, warmupQueries);
+			INSTANCES.put(site.getName(), index);
+			LOGGER.debug("created {}", index);
+		}
+		return index;
+	}
+
+	private static DirectoryType getDirectoryType(String site, Properties properties) {
+		String type = StringUtils.defaultIfBlank(properties.getString(SiteProperties.SEARCH_DIRECTORY, null),
+				DEFAULT_DIRECTORY_TYPE);
+		try {
+			return DirectoryType.valueOf(type.trim().toUpperCase(Locale.ENGLISH));
+		} catch (IllegalArgumentException e) {
+			LOGGER.warn("invalid value '{}' for {} of site {}, using {}", type, SiteProperties.SEARCH_DIRECTORY, site,
+					DEFAULT_DIRECTORY_TYPE);
+			return DirectoryType.valueOf(DEFAULT_DIRECTORY_TYPE);
+		}
+	}
+
+	/**
+	 * Returns the {@link ManagedIndex} for the given site, if there is one.
+	 * 
+	 * @param site
+	 *             the name of the site
+	 * @return the {@link ManagedIndex}, or {@code null}
+	 */
+	public static ManagedIndex get(String site) {
+		return INSTANCES.get(site);
+	}
+
+	/**
+	 * Returns the {@link ManagedIndex} the given {@link Directory} has been obtained from (see {@link #getDirectory()}).
+	 * 
+	 * @param directory
+	 *                  the {@link Directory}
+	 * @return the {@link ManagedIndex}, or {@code null}
+	 */
+	public static ManagedIndex forDirectory(Directory directory) {
+		for (ManagedIndex index : INSTANCES.values()) {
+			State current = index.state;
+			if (index.fsDirectory == directory || (null != current && current.directory == directory)) {
+				return index;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Refreshes the {@link ManagedIndex}es using the given index directory.
+	 * 
+	 * @param indexDir
+	 *                 the directory of the Lucene index
+	 */
+	public static void indexChanged(File indexDir) {
+		for (ManagedIndex index : INSTANCES.values()) {
+			if (index.indexDir.getAbsoluteFile().equals(indexDir.getAbsoluteFile())) {
+				try {
+					index.refresh();
+				} catch (IOException e) {
+					LOGGER.warn(String.format("error refreshing %s", index), e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Closes and removes the {@link ManagedIndex} of the given site, if there is one.
+	 * 
+	 * @param site
+	 *             the name of the site
+	 */
+	public static synchronized void close(String site) {
+		ManagedIndex index = INSTANCES.remove(site);
+		if (null != index) {
+			index.close();
+		}
+	}
+
+	/**
+	 * Returns the {@link Directory} to search in.
+	 * 
+	 * @return the {@link Directory}
+	 */
+	public Directory getDirectory() {
+		State current = state;
+		return null == current ? fsDirectory : current.directory;
+	}
+
+	/**
+	 * Acquires an {@link IndexSearcher}, which must be released using {@link #release(IndexSearcher)}.
+	 * 
+	 * @return the {@link IndexSearcher}
+	 * @throws IOException
+	 *                     if no index exists or an error occurs while refreshing the reader
+	 */
+	public IndexSearcher acquire() throws IOException {
+		if (null == state) {
+			refresh();
+		} else if (System.currentTimeMillis() - lastCheck > REFRESH_INTERVAL && lock.tryLock()) {
+			try {
+				refresh();
+			} finally {
+				lock.unlock();
+			}
+		}
+		while (true) {
+			State current = state;
+			if (null == current) {
+				throw new IndexNotFoundException("no index found in " + indexDir.getAbsolutePath());
+			}
+			try {
+				return current.manager.acquire();
+			} catch (AlreadyClosedException e) {
+				if (current == state) {
+					throw e;
+				}
+				// the state has been replaced in the meantime
+			}
+		}
+	}
+
+	/**
+	 * Releases an {@link IndexSearcher} previously obtained by {@link #acquire()}.
+	 * 
+	 * @param searcher
+	 *                 the {@link IndexSearcher}
+	 * @throws IOException
+	 *                     if an error occurs while closing the reader
+	 */
+	public void release(IndexSearcher searcher) throws IOException {
+		if (null != searcher) {
+			searcher.getIndexReader().decRef();
+		}
+	}
+
+	/**
+	 * Opens or refreshes the reader, if the index has changed.
+	 * 
+	 * @throws IOException
+	 *                     if an error occurs while opening the reader
+	 */
+	public void refresh() throws IOException {
+		lock.lock();
+		try {
+			lastCheck = System.currentTimeMillis();
+			State current = state;
+			if (DirectoryType.MEMORY.equals(type)) {
+				long generation = SearchResultCache.getGeneration(fsDirectory);
+				if (generation >= 0 && (null == current || current.generation != generation)) {
+					SegmentInfos segmentInfos = SegmentInfos.readLatestCommit(fsDirectory);
+					Directory copy = new ByteBuffersDirectory();
+					for (String file : segmentInfos.files(true)) {
+						copy.copyFrom(fsDirectory, file, file, IOContext.READONCE);
+					}
+					state = new State(copy, new SearcherManager(copy, new WarmingSearcherFactory()),
+							segmentInfos.getGeneration());
+					if (null != current) {
+						// the copy is not closed, since it may still be in use by a search
+						current.manager.close();
+					}
+				}
+			} else if (null == current) {
+				if (DirectoryReader.indexExists(fsDirectory)) {
+					state = new State(fsDirectory, new SearcherManager(fsDirectory, new WarmingSearcherFactory()), -1);
+				}
+			} else {
+				current.manager.maybeRefreshBlocking();
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public void close() {
+		lock.lock();
+		try {
+			if (null != state) {
+				state.manager.close();
+				state = null;
+			}
+			fsDirectory.close();
+			LOGGER.debug("closed {}", this);
+		} catch (IOException e) {
+			LOGGER.warn(String.format("error closing %s", this), e);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	void warmUp(IndexSearcher searcher) {
+		long start = System.nanoTime();
+		MultiFieldQueryParser parser = new MultiFieldQueryParser(WARMUP_FIELDS, new StandardAnalyzer());
+		for (String warmupQuery : warmupQueries) {
+			try {
+				searcher.search(parser.parse(warmupQuery), WARMUP_HITS);
+			} catch (ParseException | IOException e) {
+				warmupErrors.increment();
+				LOGGER.warn("error executing warm-up query '{}' for site {}: {}", warmupQuery, site, e.getMessage());
+			}
+		}
+		long duration = System.nanoTime() - start;
+		lastWarmupNanos = duration;
+		warmupNanos.add(duration);
+		warmups.increment();
+		LOGGER.debug("warmed up {} with {} queries in {}ms", this, warmupQueries.size(),
+				TimeUnit.NANOSECONDS.toMillis(duration));
+	}
+
+	public DirectoryType getType() {
+		return type;
+	}
+
+	public List<String> getWarmupQueries() {
+		return warmupQueries;
+	}
+
+	/** Returns the number of warm-ups executed so far, i.e. the number of readers opened */
+	public long getWarmups() {
+		return warmups.sum();
+	}
+
+	/** Returns the total time spent in warm-ups, in seconds */
+	public double getWarmupSeconds() {
+		return warmupNanos.sum() / 1e9;
+	}
+
+	/** Returns the duration of the last warm-up, in seconds */
+	public double getLastWarmupSeconds() {
+		return lastWarmupNanos / 1e9;
+	}
+
+	/** Returns the number of warm-up queries that failed */
+	public long getWarmupErrors() {
+		return warmupErrors.sum();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s[site: %s, type: %s, directory: %s]", getClass().getSimpleName(), site, type,
+				indexDir.getAbsolutePath());
+	}
+
+	private class WarmingSearcherFactory extends SearcherFactory {
+		@Override
+		public IndexSearcher newSearcher(IndexReader reader, IndexReader previousReader) throws IOException {
+			IndexSearcher searcher = super.newSearcher(reader, previousReader);
+			warmUp(searcher);
+			return searcher;
+		}
+	}
+
+	private static class State {
+		private final Directory directory;
+		private final SearcherManager manager;
+		private final long generation;
+
+		State(Directory directory, SearcherManager manager, long generation) {
+			this.directory = directory;
+			this.manager = manager;
+			this.generation = generation;
+		}
+	}
+
+}
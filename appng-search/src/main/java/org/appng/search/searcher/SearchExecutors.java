@@ -0,0 +1,93 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.search.searcher;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.appng.api.SiteProperties;
+import org.appng.api.model.Site;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Holds a bounded executor per {@link Site}, used for processing the parts of a search concurrently (see
+ * {@link SiteProperties#SEARCH_PART_THREADS}). The executor of a site must be shut down when the site is stopped, see
+ * {@link #shutdown(String)}.
+ */
+@Slf4j
+public class SearchExecutors {
+
+	private static final Map<String, ThreadPoolExecutor> EXECUTORS = new ConcurrentHashMap<>();
+
+	private SearchExecutors() {
+
+	}
+
+	/**
+	 * Returns the executor for the given site, creating it if necessary. If the number of threads differs from the
+	 * current pool size, the pool is resized.
+	 * 
+	 * @param site
+	 *                the name of the site
+	 * @param threads
+	 *                the number of threads
+	 * @return the executor
+	 */
+	public static ExecutorService get(String site, int threads) {
+		ThreadPoolExecutor executor = EXECUTORS.computeIfAbsent(site, s -> {
+			ThreadFactory threadFactory = new BasicThreadFactory.Builder().namingPattern(s + "-searchPart-%d")
+					.daemon(true).build();
+			ThreadPoolExecutor threadPool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+					new ArrayBlockingQueue<>(threads * 4), threadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
+			threadPool.allowCoreThreadTimeOut(true);
+			return threadPool;
+		});
+		if (executor.getMaximumPoolSize() != threads) {
+			synchronized (executor) {
+				if (threads > executor.getMaximumPoolSize()) {
+					executor.setMaximumPoolSize(threads);
+					executor.setCorePoolSize(threads);
+				} else {
+					executor.setCorePoolSize(threads);
+					executor.setMaximumPoolSize(threads);
+				}
+			}
+		}
+		return executor;
+	}
+
+	/**
+	 * Shuts down the executor of the given site, if present.
+	 * 
+	 * @param site
+	 *             the name of the site
+	 */
+	public static void shutdown(String site) {
+		ThreadPoolExecutor executor = EXECUTORS.remove(site);
+		if (null != executor) {
+			LOGGER.info("shutting down search executor for site {}", site);
+			executor.shutdownNow();
+		}
+	}
+
+}
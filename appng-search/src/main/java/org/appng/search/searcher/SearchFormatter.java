@@ -24,7 +24,10 @@ import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
@@ -67,6 +70,7 @@ public class SearchFormatter {
 	public static final int DEFAULT_PAGESIZE = 25;
 	public static final String DEFAULT_PAGE_SIZE_PARAM = "pageSize";
 	public static final String DEFAULT_QUERY_PARAM = "q";
+	public static final String DEFAULT_CURSOR_PARAM = "after";
 	public static final String DEFAULT_DATE_PATTERN = "yyyy-MM-dd";
 	public static final String FORMAT_JSON = "json";
 	public static final String FORMAT_XML = "xml";
@@ -77,6 +81,7 @@ public class SearchFormatter {
 	private String pageSizeParamName = DEFAULT_PAGE_SIZE_PARAM;
 	private String query;
 	private String queryParamName = DEFAULT_QUERY_PARAM;
+	private String cursorParamName = DEFAULT_CURSOR_PARAM;
 	private boolean pretty = false;
 	private String format = FORMAT_JSON;
 	private boolean useParts = true;
@@ -198,6 +203,11 @@ public class SearchFormatter {
 		pagination.setPageSize(pageSize);
 		pagination.setPageParam(pageParamName);
 		pagination.setPageSizeParam(pageSizeParamName);
+		String next = getNext();
+		if (null != next) {
+			pagination.setNext(next);
+			pagination.setCursorParam(cursorParamName);
+		}
 		searchResult.getResults().setPagination(pagination);
 
 		final FilterItem searchFilter = new FilterItem();
@@ -211,11 +221,60 @@ public class SearchFormatter {
 		searchFilter.getData().add(filterData);
 
 		SearchFilter filter = new SearchFilter(searchFilter);
+		filter.setFacets(mergeFacets());
 		searchResult.setFilter(filter);
 
 		return searchResult;
 	}
 
+	/**
+	 * Returns the cursor for retrieving the following hits. Since a cursor is only valid for the {@link Part} it was
+	 * created for, a cursor is only returned if exactly one {@link Part} offers one.
+	 * 
+	 * @return the cursor, or {@code null}
+	 */
+	protected String getNext() {
+		List<String> cursors = new ArrayList<>();
+		for (Part part : parts) {
+			if (null != part.getNext()) {
+				cursors.add(part.getNext());
+			}
+		}
+		return cursors.size() == 1 ? cursors.get(0) : null;
+	}
+
+	/**
+	 * Merges the facets of all {@link Part}s by summing up the counts of equally named facets and values.
+	 * 
+	 * @return the merged facets, or {@code null} if no {@link Part} offers facets
+	 */
+	protected List<FilterItem> mergeFacets() {
+		Map<String, FilterItem> merged = new LinkedHashMap<>();
+		for (Part part : parts) {
+			if (null != part.getFacets()) {
+				for (FilterItem facet : part.getFacets()) {
+					FilterItem mergedFacet = merged.get(facet.getConfig().getName());
+					if (null == mergedFacet) {
+						merged.put(facet.getConfig().getName(), facet);
+					} else {
+						for (FilterData data : facet.getData()) {
+							Optional<FilterData> existing = mergedFacet.getData().stream()
+									.filter(d -> d.getValue().equals(data.getValue())).findFirst();
+							if (existing.isPresent()) {
+								FilterData target = existing.get();
+								target.setResultsCount(target.getResultsCount() + data.getResultsCount());
+							} else {
+								mergedFacet.getData().add(data);
+							}
+						}
+						mergedFacet.getConfig().setItemsCount(mergedFacet.getData().size());
+					}
+				}
+			}
+		}
+		return merged.isEmpty() ? null : new ArrayList<>(merged.values());
+	}
+
 	public int getPage() {
 		return page;
 	}
@@ -256,6 +315,14 @@ public class SearchFormatter {
 		this.queryParamName = queryParamName;
 	}
 
+	public String getCursorParamName() {
+		return cursorParamName;
+	}
+
+	public void setCursorParamName(String cursorParamName) {
+		this.cursorParamName = cursorParamName;
+	}
+
 	public boolean isPretty() {
 		return pretty;
 	}
@@ -0,0 +1,261 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.search.searcher;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.lucene.index.IndexNotFoundException;
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.store.Directory;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A bounded (least recently used) cache for search results of a {@link org.appng.api.model.Site}. Each entry is tagged
+ * with the generation of the last commit of the index it was computed from (see {@link #getGeneration(Directory)}).
+ * As soon as a newer generation is passed to {@link #get(Object, long)} or {@link #put(Object, long, Object)}, the
+ * cache is cleared, so entries automatically become invalid when the index commits.
+ * <p>
+ * Instances are obtained through {@link #getInstance(String, String, int)}, there is one instance per site and cache
+ * name. They are discarded with {@link #remove(String)} when the site is shut down.
+ * 
+ * @param <T>
+ *            the type of the cached values
+ */
+@Slf4j
+public class SearchResultCache<T> {
+
+	private static final ConcurrentMap<String, ConcurrentMap<String, SearchResultCache<?>>> INSTANCES = new ConcurrentHashMap<>();
+
+	private final String name;
+	private final Map<Object, T> entries;
+	private volatile int maxSize;
+	private long generation = -1;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final LongAdder invalidations = new LongAdder();
+
+	SearchResultCache(String name, int maxSize) {
+		this.name = name;
+		this.maxSize = maxSize;
+		this.entries = new LinkedHashMap<Object, T>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Object, T> eldest) {
+				boolean evict = size() > SearchResultCache.this.maxSize;
+				if (evict) {
+					evictions.increment();
+				}
+				return evict;
+			}
+		};
+	}
+
+	/**
+	 * Returns the cache with the given name for the given site, creating it if necessary.
+	 * 
+	 * @param site
+	 *                the name of the site
+	 * @param name
+	 *                the name of the cache
+	 * @param maxSize
+	 *                the maximum number of entries, {@code 0} disables the cache
+	 * @return the cache
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> SearchResultCache<T> getInstance(String site, String name, int maxSize) {
+		ConcurrentMap<String, SearchResultCache<?>> caches = INSTANCES.computeIfAbsent(site,
+				s -> new ConcurrentHashMap<>());
+		SearchResultCache<T> cache = (SearchResultCache<T>) caches.computeIfAbsent(name,
+				n -> new SearchResultCache<>(n, maxSize));
+		cache.setMaxSize(maxSize);
+		return cache;
+	}
+
+	/**
+	 * Returns all caches of the given site.
+	 * 
+	 * @param site
+	 *             the name of the site
+	 * @return the caches, mapped by their name
+	 */
+	public static Map<String, SearchResultCache<?>> getInstances(String site) {
+		Map<String, SearchResultCache<?>> caches = INSTANCES.get(site);
+		return null == caches ? Collections.emptyMap() : Collections.unmodifiableMap(caches);
+	}
+
+	/**
+	 * Removes all caches of the given site, to be called when the site is shut down.
+	 * 
+	 * @param site
+	 *             the name of the site
+	 */
+	public static void remove(String site) {
+		Map<String, SearchResultCache<?>> caches = INSTANCES.remove(site);
+		if (null != caches) {
+			caches.values().forEach(SearchResultCache::clear);
+		}
+	}
+
+	/**
+	 * Returns the generation of the last commit of the index stored in the given {@link Directory}.
+	 * 
+	 * @param directory
+	 *                  the {@link Directory}
+	 * @return the generation, or {@code -1} if there is no index or it can not be read
+	 */
+	public static long getGeneration(Directory directory) {
+		try {
+			return SegmentInfos.getLastCommitGeneration(directory);
+		} catch (IndexNotFoundException e) {
+			return -1;
+		} catch (IOException e) {
+			LOGGER.warn("error reading index generation: {}", e.getMessage());
+			return -1;
+		}
+	}
+
+	/**
+	 * Normalizes a search term for the use within a cache key, i.e. leading and trailing whitespace is removed and
+	 * sequences of whitespace are replaced by a single space.
+	 * 
+	 * @param term
+	 *             the search term
+	 * @return the normalized term
+	 */
+	public static String normalize(String term) {
+		return StringUtils.normalizeSpace(term);
+	}
+
+	/**
+	 * Returns the cached value for the given key.
+	 * 
+	 * @param key
+	 *                   the key
+	 * @param generation
+	 *                   the current generation of the index
+	 * @return the value, or {@code null} if there is no value for the key or the cache is disabled
+	 */
+	public synchronized T get(Object key, long generation) {
+		if (!isEnabled(generation)) {
+			return null;
+		}
+		T value = entries.get(key);
+		if (null == value) {
+			misses.increment();
+		} else {
+			hits.increment();
+		}
+		return value;
+	}
+
+	/**
+	 * Puts a value into the cache. The value is discarded if it was computed from an outdated index generation.
+	 * 
+	 * @param key
+	 *                   the key
+	 * @param generation
+	 *                   the generation of the index the value was computed from
+	 * @param value
+	 *                   the value
+	 */
+	public synchronized void put(Object key, long generation, T value) {
+		if (isEnabled(generation) && generation == this.generation) {
+			entries.put(key, value);
+		}
+	}
+
+	private boolean isEnabled(long generation) {
+		if (maxSize < 1 || generation < 0) {
+			return false;
+		}
+		if (generation > this.generation) {
+			if (!entries.isEmpty()) {
+				invalidations.increment();
+				LOGGER.debug("index generation changed from {} to {}, clearing cache {}", this.generation, generation,
+						name);
+				entries.clear();
+			}
+			this.generation = generation;
+		}
+		return true;
+	}
+
+	/** Removes all entries from this cache */
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public synchronized void setMaxSize(int maxSize) {
+		if (maxSize != this.maxSize) {
+			this.maxSize = maxSize;
+			entries.clear();
+		}
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	public long getEvictions() {
+		return evictions.sum();
+	}
+
+	public long getInvalidations() {
+		return invalidations.sum();
+	}
+
+	/**
+	 * Returns the hit rate of this cache.
+	 * 
+	 * @return the ratio of hits to requests, {@code 0} if there were no requests yet
+	 */
+	public double getHitRate() {
+		long hitCount = getHits();
+		long requests = hitCount + getMisses();
+		return requests == 0 ? 0 : (double) hitCount / requests;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s [size: %d/%d, generation: %d, hits: %d, misses: %d]", name, size(), maxSize,
+				generation, getHits(), getMisses());
+	}
+
+}
@@ -16,51 +16,162 @@
 package org.appng.search.searcher;
 
 import java.io.IOException;
+import java.text.BreakIterator;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.facet.FacetResult;
+import org.apache.lucene.facet.FacetsCollector;
+import org.apache.lucene.facet.FacetsCollector.MatchingDocs;
+import org.apache.lucene.facet.LabelAndValue;
+import org.apache.lucene.facet.range.LongRange;
+import org.apache.lucene.facet.range.LongRangeFacetCounts;
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.SortedDocValues;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
 import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.queryparser.classic.QueryParser;
 import org.apache.lucene.search.BooleanClause.Occur;
 import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchNoDocsQuery;
+import org.apache.lucene.search.MultiCollector;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.search.TopScoreDocCollector;
+import org.apache.lucene.search.uhighlight.DefaultPassageFormatter;
+import org.apache.lucene.search.uhighlight.LengthGoalBreakIterator;
+import org.apache.lucene.search.uhighlight.UnifiedHighlighter;
 import org.apache.lucene.store.Directory;
 import org.appng.api.Environment;
+import org.appng.api.SiteProperties;
 import org.appng.api.model.Application;
 import org.appng.api.model.Site;
 import org.appng.api.search.Document;
 import org.appng.search.SearchProvider;
+import org.appng.search.SearchResult;
+import org.appng.search.indexer.DocumentIndexer;
 import org.appng.search.indexer.SimpleDocument;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document.OutputSettings;
+import org.jsoup.safety.Safelist;
 
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * The {@link SearchProvider} searching the global index of a {@link Site}. Besides {@code excludeTypes} and
+ * {@code termTransform}, the following parameters are supported:
+ * <ul>
+ * <li>{@code maxHits} - the maximum number of hits to return (defaults to {@link SiteProperties#SEARCH_MAX_HITS})</li>
+ * <li>{@code after} - a cursor as returned by {@link SearchResult#getNext()}, the search then continues after the
+ * last hit of the previous search ({@link IndexSearcher#searchAfter(ScoreDoc, Query, int)})</li>
+ * <li>{@code facets} - a comma-separated list of the dimensions to compute the facet counts for, supported are
+ * {@value #FACET_TYPE}, {@value #FACET_LANGUAGE}, {@value #FACET_FOLDER} (the top-level folder of the path) and
+ * {@value #FACET_DATE} (with the buckets {@code day}, {@code week}, {@code month}, {@code year} and
+ * {@code older})</li>
+ * <li>{@code filter.<dimension>} - narrows the search to the given value of the dimension, e.g.
+ * {@code filter.language=en}</li>
+ * <li>{@code snippets} - the maximum number of highlighted snippets per hit (defaults to
+ * {@value #DEFAULT_SNIPPETS})</li>
+ * <li>{@code snippetLength} - the length in characters a snippet should have (defaults to
+ * {@value #DEFAULT_SNIPPET_LENGTH})</li>
+ * </ul>
+ * The facets are computed by the same {@link IndexSearcher} and within the same pass as the hits, therefore the
+ * returned {@link Iterable} is a {@link SearchResult}.
+ * <p>
+ * If the given {@link Directory} has been obtained from a {@link ManagedIndex}, its shared {@link IndexSearcher} is
+ * used, otherwise a new {@link IndexReader} is opened for each search.
+ */
 @Slf4j
 public class StandardSearcher implements SearchProvider {
 
 	private static final String PARAM_EXCLUDE_TYPES = "excludeTypes";
 	private static final String PARAM_TERM_TRANSFORM = "termTransform";
 	private static final String DEFAULT_TERM_TRANSFORM = "term term*";
+	/** Parameter for the maximum number of hits */
+	public static final String PARAM_MAX_HITS = "maxHits";
+	/** Parameter for the cursor to continue a search from */
+	public static final String PARAM_AFTER = "after";
+	/** Parameter for the dimensions to compute facets for */
+	public static final String PARAM_FACETS = "facets";
+	/** Prefix of the parameters used for narrowing the search by a dimension */
+	public static final String PARAM_FILTER_PREFIX = "filter.";
+	public static final String FACET_TYPE = Document.FIELD_TYPE;
+	public static final String FACET_LANGUAGE = Document.FIELD_LANGUAGE;
+	public static final String FACET_FOLDER = DocumentIndexer.FIELD_FOLDER;
+	public static final String FACET_DATE = Document.FIELD_DATE;
+	/** The default maximum number of hits */
+	public static final int DEFAULT_MAX_HITS = 100;
+	/** Parameter for the maximum number of snippets per hit */
+	public static final String PARAM_SNIPPETS = "snippets";
+	/** Parameter for the length (in characters) a snippet should have */
+	public static final String PARAM_SNIPPET_LENGTH = "snippetLength";
+	public static final int DEFAULT_SNIPPETS = 3;
+	public static final int DEFAULT_SNIPPET_LENGTH = 100;
+	private static final String ELLIPSIS = "...";
+	private static final int MAX_FACET_VALUES = 10;
+	private static final String DATE_OLDER = "older";
+	private static final Map<String, Integer> DATE_BUCKETS = new LinkedHashMap<>();
+	static {
+		DATE_BUCKETS.put("day", 1);
+		DATE_BUCKETS.put("week", 7);
+		DATE_BUCKETS.put("month", 30);
+		DATE_BUCKETS.put("year", 365);
+	}
+	/** The name of the {@link SearchResultCache} used for caching the resulting {@link Document}s */
+	public static final String CACHE_NAME = "documents";
+	/** The default size of the {@link SearchResultCache}, see {@link SiteProperties#SEARCH_CACHE_SIZE} */
+	public static final int DEFAULT_CACHE_SIZE = 100;
 
-	public Iterable<Document> doSearch(Environment env, Site site, Application application, Directory directory,
+	public SearchResult doSearch(Environment env, Site site, Application application, Directory directory,
 			String term, String language, String[] parseFields, Analyzer analyzer, String highlightWith,
 			Map<String, String> parameters) throws IOException {
+		SearchResultCache<SearchResult> cache = getCache(site);
+		long generation = -1;
+		List<Object> cacheKey = null;
+		if (null != cache) {
+			generation = SearchResultCache.getGeneration(directory);
+			cacheKey = Arrays.asList(SearchResultCache.normalize(term), language,
+					null == parseFields ? null : Arrays.asList(parseFields), analyzer.getClass().getName(),
+					highlightWith, new HashMap<>(parameters));
+			SearchResult cached = cache.get(cacheKey, generation);
+			if (null != cached) {
+				LOGGER.debug("{} results returned from cache for term '{}'", cached.getDocuments().size(), term);
+				return new SearchResult(cached);
+			}
+		}
+
 		List<Document> docs = new ArrayList<>();
+		long totalHits = 0;
+		String next = null;
+		Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
 
+		ManagedIndex index = ManagedIndex.forDirectory(directory);
 		IndexReader reader = null;
+		IndexSearcher searcher = null;
 		try {
-			reader = DirectoryReader.open(directory);
-			IndexSearcher searcher = new IndexSearcher(reader);
+			if (null == index) {
+				reader = DirectoryReader.open(directory);
+				searcher = new IndexSearcher(reader);
+			} else {
+				searcher = index.acquire();
+			}
 			String[] excludeTypes = StringUtils.split(parameters.get(PARAM_EXCLUDE_TYPES), ',');
 			String searchTermTransform = parameters.get(PARAM_TERM_TRANSFORM);
 			if (StringUtils.isBlank(searchTermTransform)) {
@@ -69,26 +180,231 @@ public class StandardSearcher implements SearchProvider {
 
 			String transformedTerm = getSearchTerm(term, searchTermTransform);
 			Query query = getQuery(parseFields, transformedTerm, analyzer, language, excludeTypes);
+			long now = System.currentTimeMillis();
+			Query filteredQuery = addFilters(query, parameters, now);
 
-			TopScoreDocCollector collector = TopScoreDocCollector.create(100, Integer.MAX_VALUE);
-			searcher.search(query, collector);
-			ScoreDoc[] hits = collector.topDocs().scoreDocs;
-			for (ScoreDoc scoreDoc : hits) {
+			int maxHits = getMaxHits(site, parameters);
+			ScoreDoc after = parseCursor(parameters.get(PARAM_AFTER));
+			TopScoreDocCollector collector = TopScoreDocCollector.create(maxHits + 1, after, Integer.MAX_VALUE);
+			String[] facetNames = StringUtils.split(parameters.get(PARAM_FACETS), ',');
+			FacetsCollector facetsCollector = null;
+			if (null == facetNames) {
+				searcher.search(filteredQuery, collector);
+			} else {
+				facetsCollector = new FacetsCollector();
+				searcher.search(filteredQuery, MultiCollector.wrap(collector, facetsCollector));
+			}
+			TopDocs topDocs = collector.topDocs();
+			totalHits = topDocs.totalHits.value;
+			ScoreDoc[] hits = topDocs.scoreDocs;
+			int numHits = Math.min(hits.length, maxHits);
+			TopDocs returnedDocs = new TopDocs(topDocs.totalHits, Arrays.copyOf(hits, numHits));
+			String[] fragments = highlight(searcher, analyzer, query, returnedDocs, highlightWith, parameters);
+			for (int i = 0; i < numHits; i++) {
+				ScoreDoc scoreDoc = hits[i];
 				org.apache.lucene.document.Document doc = searcher.doc(scoreDoc.doc);
 				SimpleDocument simpleDoc = SimpleDocument.extract(doc, scoreDoc.doc, scoreDoc.score);
-				simpleDoc.setFragment(Document.FIELD_CONTENT, analyzer, query, highlightWith);
+				if (null != fragments && StringUtils.isNotBlank(simpleDoc.getContent())) {
+					simpleDoc.setFragment(cleanFragment(fragments[i], highlightWith));
+				}
 				docs.add(simpleDoc);
 			}
-			LOGGER.info("{} results returned from query: {}", docs.size(), query);
+			if (hits.length > maxHits) {
+				next = getCursor(hits[maxHits - 1]);
+			}
+			if (null != facetsCollector) {
+				for (String facetName : facetNames) {
+					facets.put(facetName.trim(), getFacet(facetsCollector, facetName.trim(), now));
+				}
+			}
+			LOGGER.info("{} of {} results returned from query: {}", docs.size(), totalHits, filteredQuery);
+			if (null != cache) {
+				cache.put(cacheKey, generation, new SearchResult(docs, totalHits, next, facets));
+			}
 		} catch (ParseException e) {
 			LOGGER.error("error performing search", e);
 		} finally {
 			if (null != reader) {
 				reader.close();
+			} else if (null != index) {
+				index.release(searcher);
+			}
+		}
+
+		return new SearchResult(new ArrayList<>(docs), totalHits, next, new LinkedHashMap<>(facets));
+	}
+
+	/**
+	 * Highlights the content of the given documents with an {@link UnifiedHighlighter}, which uses the offsets stored
+	 * in the postings (see {@link DocumentIndexer#CONTENT_FIELD_TYPE}) and only falls back to re-analyzing the content
+	 * for documents indexed without offsets.
+	 * 
+	 * @return the fragments, in the order of the given {@link TopDocs}, or {@code null} if nothing should be
+	 *         highlighted
+	 */
+	private String[] highlight(IndexSearcher searcher, Analyzer analyzer, Query query, TopDocs topDocs,
+			String highlightWith, Map<String, String> parameters) throws IOException {
+		if (StringUtils.isBlank(highlightWith) || 0 == topDocs.scoreDocs.length) {
+			return null;
+		}
+		int snippets = getIntParameter(parameters, PARAM_SNIPPETS, DEFAULT_SNIPPETS);
+		int snippetLength = getIntParameter(parameters, PARAM_SNIPPET_LENGTH, DEFAULT_SNIPPET_LENGTH);
+		UnifiedHighlighter highlighter = new UnifiedHighlighter(searcher, analyzer);
+		highlighter.setFormatter(
+				new DefaultPassageFormatter("<" + highlightWith + ">", "</" + highlightWith + ">", ELLIPSIS, false));
+		highlighter.setBreakIterator(() -> LengthGoalBreakIterator
+				.createClosestToLength(BreakIterator.getSentenceInstance(Locale.ROOT), snippetLength));
+		highlighter.setMaxNoHighlightPassages(0);
+		highlighter.setMaxLength(Integer.MAX_VALUE - 1);
+		return highlighter.highlight(Document.FIELD_CONTENT, query, topDocs, snippets);
+	}
+
+	private String cleanFragment(String fragment, String highlightWith) {
+		if (null == fragment) {
+			return StringUtils.EMPTY;
+		}
+		return Jsoup.clean(fragment, StringUtils.EMPTY, new Safelist().addTags(highlightWith),
+				new OutputSettings().prettyPrint(false));
+	}
+
+	private int getIntParameter(Map<String, String> parameters, String name, int defaultValue) {
+		String value = parameters.get(name);
+		return StringUtils.isBlank(value) ? defaultValue : Integer.parseInt(value.trim());
+	}
+
+	private int getMaxHits(Site site, Map<String, String> parameters) {
+		Integer maxHits = null;
+		String maxHitsParam = parameters.get(PARAM_MAX_HITS);
+		if (StringUtils.isNotBlank(maxHitsParam)) {
+			maxHits = Integer.valueOf(maxHitsParam.trim());
+		} else if (null != site && null != site.getProperties()) {
+			maxHits = site.getProperties().getInteger(SiteProperties.SEARCH_MAX_HITS, DEFAULT_MAX_HITS);
+		}
+		return null == maxHits || maxHits < 1 ? DEFAULT_MAX_HITS : Math.min(maxHits, MAX_HITS);
+	}
+
+	private Query addFilters(Query query, Map<String, String> parameters, long now) {
+		BooleanQuery.Builder filtered = null;
+		for (String facet : Arrays.asList(FACET_TYPE, FACET_LANGUAGE, FACET_FOLDER, FACET_DATE)) {
+			String value = parameters.get(PARAM_FILTER_PREFIX + facet);
+			if (StringUtils.isNotBlank(value)) {
+				if (null == filtered) {
+					filtered = new BooleanQuery.Builder().add(query, Occur.MUST);
+				}
+				filtered.add(getFilter(facet, value.trim(), now), Occur.FILTER);
+			}
+		}
+		return null == filtered ? query : filtered.build();
+	}
+
+	private Query getFilter(String facet, String value, long now) {
+		if (FACET_DATE.equals(facet)) {
+			long yearAgo = now - TimeUnit.DAYS.toMillis(DATE_BUCKETS.get("year"));
+			if (DATE_OLDER.equals(value)) {
+				return LongPoint.newRangeQuery(DocumentIndexer.FIELD_TIMESTAMP, Long.MIN_VALUE, yearAgo - 1);
+			}
+			Integer days = DATE_BUCKETS.get(value);
+			if (null == days) {
+				LOGGER.debug("invalid date bucket: {}", value);
+				return new MatchNoDocsQuery();
 			}
+			long from = now - TimeUnit.DAYS.toMillis(days);
+			return LongPoint.newRangeQuery(DocumentIndexer.FIELD_TIMESTAMP, from, Long.MAX_VALUE);
 		}
+		return new TermQuery(new Term(facet, value));
+	}
 
-		return docs;
+	private Map<String, Integer> getFacet(FacetsCollector facetsCollector, String facet, long now)
+			throws IOException {
+		Map<String, Integer> counts = new LinkedHashMap<>();
+		if (FACET_DATE.equals(facet)) {
+			List<LongRange> ranges = new ArrayList<>();
+			for (Entry<String, Integer> bucket : DATE_BUCKETS.entrySet()) {
+				long from = now - TimeUnit.DAYS.toMillis(bucket.getValue());
+				ranges.add(new LongRange(bucket.getKey(), from, true, Long.MAX_VALUE, true));
+			}
+			long yearAgo = now - TimeUnit.DAYS.toMillis(DATE_BUCKETS.get("year"));
+			ranges.add(new LongRange(DATE_OLDER, Long.MIN_VALUE, true, yearAgo, false));
+			LongRangeFacetCounts rangeCounts = new LongRangeFacetCounts(DocumentIndexer.FIELD_TIMESTAMP,
+					facetsCollector, ranges.toArray(new LongRange[0]));
+			FacetResult result = rangeCounts.getTopChildren(ranges.size(), DocumentIndexer.FIELD_TIMESTAMP);
+			for (LabelAndValue labelAndValue : result.labelValues) {
+				if (labelAndValue.value.intValue() > 0) {
+					counts.put(labelAndValue.label, labelAndValue.value.intValue());
+				}
+			}
+		} else if (Arrays.asList(FACET_TYPE, FACET_LANGUAGE, FACET_FOLDER).contains(facet)) {
+			Map<String, Integer> allCounts = new HashMap<>();
+			for (MatchingDocs matchingDocs : facetsCollector.getMatchingDocs()) {
+				SortedDocValues values = DocValues.getSorted(matchingDocs.context.reader(), facet);
+				int[] ordCounts = new int[values.getValueCount()];
+				DocIdSetIterator docs = matchingDocs.bits.iterator();
+				if (null != docs && ordCounts.length > 0) {
+					for (int doc = docs.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = docs.nextDoc()) {
+						if (values.advanceExact(doc)) {
+							ordCounts[values.ordValue()]++;
+						}
+					}
+					for (int ord = 0; ord < ordCounts.length; ord++) {
+						if (ordCounts[ord] > 0) {
+							allCounts.merge(values.lookupOrd(ord).utf8ToString(), ordCounts[ord], Integer::sum);
+						}
+					}
+				}
+			}
+			allCounts.entrySet().stream()
+					.sorted(Entry.<String, Integer> comparingByValue().reversed().thenComparing(Entry.comparingByKey()))
+					.limit(MAX_FACET_VALUES).forEach(e -> counts.put(e.getKey(), e.getValue()));
+		} else {
+			LOGGER.debug("unsupported facet: {}", facet);
+		}
+		return counts;
+	}
+
+	/**
+	 * Returns the cursor for the given {@link ScoreDoc}, to be used for parameter {@value #PARAM_AFTER}.
+	 * 
+	 * @param scoreDoc
+	 *                 the last {@link ScoreDoc} of a search
+	 * @return the cursor
+	 */
+	protected String getCursor(ScoreDoc scoreDoc) {
+		return Integer.toHexString(scoreDoc.doc) + "." + Integer.toHexString(Float.floatToIntBits(scoreDoc.score));
+	}
+
+	/**
+	 * Parses a cursor created by {@link #getCursor(ScoreDoc)}.
+	 * 
+	 * @param cursor
+	 *               the cursor
+	 * @return the {@link ScoreDoc}, or {@code null} if the cursor is blank or invalid
+	 */
+	protected ScoreDoc parseCursor(String cursor) {
+		if (StringUtils.isNotBlank(cursor)) {
+			String[] parts = cursor.trim().split("\\.");
+			if (parts.length == 2) {
+				try {
+					int doc = Integer.parseUnsignedInt(parts[0], 16);
+					float score = Float.intBitsToFloat(Integer.parseUnsignedInt(parts[1], 16));
+					return new ScoreDoc(doc, score);
+				} catch (NumberFormatException e) {
+					// handled below
+				}
+			}
+			LOGGER.debug("invalid cursor: {}", cursor);
+		}
+		return null;
+	}
+
+	private SearchResultCache<SearchResult> getCache(Site site) {
+		if (null == site || null == site.getProperties()) {
+			return null;
+		}
+		Integer cacheSize = site.getProperties().getInteger(SiteProperties.SEARCH_CACHE_SIZE, DEFAULT_CACHE_SIZE);
+		if (null == cacheSize || cacheSize < 1) {
+			return null;
+		}
+		return SearchResultCache.getInstance(site.getName(), CACHE_NAME, cacheSize);
 	}
 
 	protected Query getQuery(String[] parseFields, String searchTerm, Analyzer analyzer, String language,
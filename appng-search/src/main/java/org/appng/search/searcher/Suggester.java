@@ -0,0 +1,398 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.search.searcher;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.IntsRef;
+import org.apache.lucene.util.IntsRefBuilder;
+import org.apache.lucene.util.UnicodeUtil;
+import org.apache.lucene.util.fst.Builder;
+import org.apache.lucene.util.fst.FST;
+import org.apache.lucene.util.fst.PositiveIntOutputs;
+import org.apache.lucene.util.fst.Util;
+import org.appng.api.search.Document;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A typo-tolerant autocomplete suggester for the global index of a {@link org.appng.api.model.Site}. For each language,
+ * the titles of the indexed {@link Document}s and the words they consist of are compiled into an {@link FST}, weighted
+ * by the number of documents containing them. A lookup first collects the best completions of the given prefix and,
+ * if there are not enough of them, the best completions of all prefixes within an edit distance of one (the first
+ * character must match).
+ * <p>
+ * The suggester is rebuilt when the generation of the index changes, which is checked at most once per
+ * {@link #REFRESH_INTERVAL} on lookup and after each commit of the {@link org.appng.search.indexer.DocumentIndexer}.
+ * Since the titles of a segment never change, they are only read once per segment, making a rebuild incremental.
+ * Instances are obtained through {@link #getInstance(File)} and discarded with {@link #remove(File)}.
+ */
+@Slf4j
+public class Suggester {
+
+	/** The minimum number of milliseconds between two checks for a changed index */
+	public static final long REFRESH_INTERVAL = 1000;
+	private static final ConcurrentMap<String, Suggester> INSTANCES = new ConcurrentHashMap<>();
+	private static final Set<String> FIELDS = new HashSet<>(
+			Arrays.asList(Document.FIELD_TITLE, Document.FIELD_LANGUAGE));
+	private static final int MIN_WORD_LENGTH = 3;
+	private static final int MIN_FUZZY_LENGTH = 3;
+	private static final int MAX_EDITS = 1;
+	private static final int TITLE_WEIGHT = 2;
+	private static final long MAX_COST = Integer.MAX_VALUE;
+	private static final String NO_LANGUAGE = "";
+
+	private final File indexDir;
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Map<IndexReader.CacheKey, List<Title>> segments = new HashMap<>();
+	private volatile Map<String, Lookup> lookups = Collections.emptyMap();
+	private volatile long generation = -1;
+	private volatile long lastCheck;
+
+	Suggester(File indexDir) {
+		this.indexDir = indexDir;
+	}
+
+	/**
+	 * Returns the {@link Suggester} for the given index directory, creating it if necessary.
+	 * 
+	 * @param indexDir
+	 *                 the directory of the Lucene index
+	 * @return the {@link Suggester}
+	 */
+	public static Suggester getInstance(File indexDir) {
+		return INSTANCES.computeIfAbsent(indexDir.getAbsolutePath(), p -> new Suggester(new File(p)));
+	}
+
+	/**
+	 * Refreshes the {@link Suggester} for the given index directory, if there is one.
+	 * 
+	 * @param indexDir
+	 *                 the directory of the Lucene index
+	 */
+	public static void indexChanged(File indexDir) {
+		Suggester suggester = INSTANCES.get(indexDir.getAbsolutePath());
+		if (null != suggester) {
+			suggester.refresh(true);
+		}
+	}
+
+	/**
+	 * Removes the {@link Suggester} for the given index directory, if there is one, to be called when the site is shut
+	 * down.
+	 * 
+	 * @param indexDir
+	 *                 the directory of the Lucene index
+	 */
+	public static void remove(File indexDir) {
+		INSTANCES.remove(indexDir.getAbsolutePath());
+	}
+
+	/**
+	 * Returns suggestions for the given term.
+	 * 
+	 * @param term
+	 *                 the term, usually the prefix of a word or title
+	 * @param language
+	 *                 the language of the documents to take into account, {@code null} for documents without a
+	 *                 language
+	 * @param count
+	 *                 the maximum number of suggestions
+	 * @return the suggestions, ordered by relevance
+	 */
+	public List<String> suggest(String term, String language, int count) {
+		String key = normalize(term);
+		if (count < 1 || key.isEmpty()) {
+			return Collections.emptyList();
+		}
+		if (System.currentTimeMillis() - lastCheck > REFRESH_INTERVAL) {
+			refresh(lookups.isEmpty());
+		}
+		Lookup lookup = lookups.get(null == language ? NO_LANGUAGE : language);
+		if (null == lookup) {
+			return Collections.emptyList();
+		}
+		try {
+			return lookup.suggest(key, count);
+		} catch (IOException e) {
+			LOGGER.warn("error looking up suggestions for '{}': {}", term, e.getMessage());
+			return Collections.emptyList();
+		}
+	}
+
+	/**
+	 * Rebuilds the {@link Suggester} if the generation of the index has changed.
+	 * 
+	 * @param wait
+	 *             whether to wait for a rebuild that is currently running, otherwise the current state is kept
+	 */
+	void refresh(boolean wait) {
+		if (wait) {
+			lock.lock();
+		} else if (!lock.tryLock()) {
+			return;
+		}
+		try (Directory directory = FSDirectory.open(indexDir.toPath())) {
+			lastCheck = System.currentTimeMillis();
+			long currentGeneration = SearchResultCache.getGeneration(directory);
+			if (currentGeneration != generation) {
+				long start = System.currentTimeMillis();
+				lookups = currentGeneration < 0 ? Collections.emptyMap() : build(directory);
+				generation = currentGeneration;
+				LOGGER.debug("built suggester for {} (generation {}) in {}ms", indexDir, generation,
+						System.currentTimeMillis() - start);
+			}
+		} catch (IOException e) {
+			LOGGER.warn(String.format("error building suggester for %s", indexDir), e);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private Map<String, Lookup> build(Directory directory) throws IOException {
+		Map<String, Map<String, Weight>> weights = new HashMap<>();
+		Set<IndexReader.CacheKey> keys = new HashSet<>();
+		try (DirectoryReader reader = DirectoryReader.open(directory)) {
+			for (LeafReaderContext leaf : reader.leaves()) {
+				LeafReader leafReader = leaf.reader();
+				IndexReader.CacheKey cacheKey = leafReader.getCoreCacheHelper().getKey();
+				keys.add(cacheKey);
+				List<Title> titles = segments.get(cacheKey);
+				if (null == titles) {
+					titles = readTitles(leafReader);
+					segments.put(cacheKey, titles);
+				}
+				Bits liveDocs = leafReader.getLiveDocs();
+				for (Title title : titles) {
+					if (null == liveDocs || liveDocs.get(title.doc)) {
+						Map<String, Weight> languageWeights = weights.computeIfAbsent(title.language,
+								l -> new HashMap<>());
+						add(languageWeights, title.title, TITLE_WEIGHT);
+						for (String word : StringUtils.split(title.title, " \t\n\r\f.,;:!?\"'()[]{}/|-")) {
+							if (word.length() >= MIN_WORD_LENGTH) {
+								add(languageWeights, word, 1);
+							}
+						}
+					}
+				}
+			}
+		}
+		segments.keySet().retainAll(keys);
+		Map<String, Lookup> newLookups = new HashMap<>();
+		for (Entry<String, Map<String, Weight>> entry : weights.entrySet()) {
+			newLookups.put(entry.getKey(), new Lookup(entry.getValue()));
+		}
+		return newLookups;
+	}
+
+	private List<Title> readTitles(LeafReader leafReader) throws IOException {
+		List<Title> titles = new ArrayList<>();
+		for (int doc = 0; doc < leafReader.maxDoc(); doc++) {
+			org.apache.lucene.document.Document document = leafReader.document(doc, FIELDS);
+			String title = StringUtils.normalizeSpace(document.get(Document.FIELD_TITLE));
+			if (StringUtils.isNotEmpty(title)) {
+				String language = document.get(Document.FIELD_LANGUAGE);
+				titles.add(new Title(doc, null == language ? NO_LANGUAGE : language, title));
+			}
+		}
+		return titles;
+	}
+
+	private void add(Map<String, Weight> weights, String text, int weight) {
+		Weight existing = weights.computeIfAbsent(normalize(text), k -> new Weight(text));
+		existing.value += weight;
+	}
+
+	private static String normalize(String term) {
+		return StringUtils.normalizeSpace(StringUtils.defaultString(term)).toLowerCase(Locale.ROOT);
+	}
+
+	private static class Title {
+		private final int doc;
+		private final String language;
+		private final String title;
+
+		Title(int doc, String language, String title) {
+			this.doc = doc;
+			this.language = language;
+			this.title = title;
+		}
+	}
+
+	private static class Weight {
+		private final String display;
+		private long value;
+
+		Weight(String display) {
+			this.display = display;
+		}
+	}
+
+	/**
+	 * The {@link FST} of a single language, mapping the normalized suggestions to their cost, which is
+	 * {@link Suggester#MAX_COST} minus their weight.
+	 */
+	private static class Lookup {
+
+		private final FST<Long> fst;
+		private final Map<String, String> display = new HashMap<>();
+
+		Lookup(Map<String, Weight> weights) throws IOException {
+			List<Entry<IntsRef, Long>> entries = new ArrayList<>();
+			for (Entry<String, Weight> entry : weights.entrySet()) {
+				IntsRef input = Util.toUTF32(entry.getKey(), new IntsRefBuilder());
+				long cost = Math.max(1, MAX_COST - entry.getValue().value);
+				entries.add(new SimpleEntry<>(input, cost));
+				display.put(entry.getKey(), entry.getValue().display);
+			}
+			entries.sort(Entry.comparingByKey());
+			Builder<Long> builder = new Builder<>(FST.INPUT_TYPE.BYTE4, PositiveIntOutputs.getSingleton());
+			for (Entry<IntsRef, Long> entry : entries) {
+				builder.add(entry.getKey(), entry.getValue());
+			}
+			this.fst = builder.finish();
+		}
+
+		List<String> suggest(String key, int count) throws IOException {
+			Map<String, Long> results = new LinkedHashMap<>();
+			FST.BytesReader reader = fst.getBytesReader();
+			int[] codePoints = key.codePoints().toArray();
+
+			FST.Arc<Long> arc = fst.getFirstArc(new FST.Arc<>());
+			long output = 0;
+			boolean found = true;
+			for (int i = 0; found && i < codePoints.length; i++) {
+				found = null != fst.findTargetArc(codePoints[i], arc, arc, reader);
+				if (found) {
+					output += arc.output();
+				}
+			}
+			if (found) {
+				Util.TopNSearcher<Long> searcher = newSearcher(count);
+				IntsRefBuilder prefix = new IntsRefBuilder();
+				prefix.copyInts(codePoints, 0, codePoints.length);
+				searcher.addStartPaths(arc, output, true, prefix);
+				collect(searcher, results);
+			}
+
+			if (results.size() < count && codePoints.length >= MIN_FUZZY_LENGTH) {
+				Util.TopNSearcher<Long> searcher = newSearcher(count);
+				FST.Arc<Long> first = fst.findTargetArc(codePoints[0], fst.getFirstArc(new FST.Arc<>()),
+						new FST.Arc<>(), reader);
+				if (null != first) {
+					int[] row = new int[codePoints.length + 1];
+					for (int i = 0; i < row.length; i++) {
+						row[i] = 0 == i ? 1 : i - 1;
+					}
+					IntsRefBuilder input = new IntsRefBuilder();
+					input.append(codePoints[0]);
+					if (addFuzzyStartPaths(searcher, codePoints, first, first.output(), input, row, reader)) {
+						Map<String, Long> fuzzy = new LinkedHashMap<>();
+						collect(searcher, fuzzy);
+						fuzzy.forEach(results::putIfAbsent);
+					}
+				}
+			}
+
+			List<String> suggestions = new ArrayList<>();
+			for (String result : results.keySet()) {
+				if (suggestions.size() < count) {
+					suggestions.add(display.get(result));
+				}
+			}
+			return suggestions;
+		}
+
+		/**
+		 * Walks the {@link FST} depth-first, computing the Levenshtein distance between the path and the key. Each
+		 * path matching the key within {@link Suggester#MAX_EDITS} is added as a start path of the searcher.
+		 * 
+		 * @param row
+		 *            the row of the Levenshtein matrix for the path leading to {@code arc} (the first code point is
+		 *            matched exactly, so {@code row[i]} is the distance between the path and the first {@code i}
+		 *            code points of the key)
+		 */
+		private boolean addFuzzyStartPaths(Util.TopNSearcher<Long> searcher, int[] key, FST.Arc<Long> arc,
+				long output, IntsRefBuilder input, int[] row, FST.BytesReader reader) throws IOException {
+			if (row[key.length] <= MAX_EDITS) {
+				searcher.addStartPaths(arc, output, true, input);
+				return true;
+			}
+			if (Arrays.stream(row).min().getAsInt() > MAX_EDITS || !FST.targetHasArcs(arc)) {
+				return false;
+			}
+			boolean added = false;
+			FST.Arc<Long> child = fst.readFirstTargetArc(arc, new FST.Arc<>(), reader);
+			while (true) {
+				if (child.label() != FST.END_LABEL) {
+					int[] next = new int[row.length];
+					next[0] = row[0] + 1;
+					for (int i = 1; i < row.length; i++) {
+						int substitution = row[i - 1] + (key[i - 1] == child.label() ? 0 : 1);
+						next[i] = Math.min(substitution, Math.min(row[i] + 1, next[i - 1] + 1));
+					}
+					input.append(child.label());
+					FST.Arc<Long> copy = new FST.Arc<Long>().copyFrom(child);
+					added |= addFuzzyStartPaths(searcher, key, copy, output + child.output(), input, next, reader);
+					input.setLength(input.length() - 1);
+				}
+				if (child.isLast()) {
+					break;
+				}
+				fst.readNextArc(child, reader);
+			}
+			return added;
+		}
+
+		private Util.TopNSearcher<Long> newSearcher(int count) {
+			return new Util.TopNSearcher<>(fst, count, count * 10 + 10, Comparator.naturalOrder());
+		}
+
+		private void collect(Util.TopNSearcher<Long> searcher, Map<String, Long> results) throws IOException {
+			for (Util.Result<Long> result : searcher.search()) {
+				IntsRef input = result.input;
+				results.putIfAbsent(UnicodeUtil.newString(input.ints, input.offset, input.length), result.output);
+			}
+		}
+
+	}
+
+}
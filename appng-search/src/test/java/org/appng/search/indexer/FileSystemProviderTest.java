@@ -0,0 +1,126 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.search.indexer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.appng.api.observe.Observable.Event;
+import org.appng.api.search.Document;
+import org.appng.api.search.DocumentEvent;
+import org.appng.api.search.DocumentProducer;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FileSystemProviderTest {
+
+	private File dataDir = new File("target/fs-provider/data");
+	private File manifestFile = new File("target/fs-provider/index/" + IndexManifest.FILE_NAME);
+	private IndexConfig config = IndexConfig.getInstance("/en;en;" + EnglishAnalyzer.class.getName(), "appNG");
+
+	@Before
+	public void setup() throws IOException {
+		FileUtils.deleteQuietly(new File("target/fs-provider"));
+		File en = new File(dataDir, "en");
+		for (int i = 0; i < 20; i++) {
+			write(new File(en, (i % 2 == 0 ? "sub/" : "") + "file" + i + ".txt"), "content of file " + i);
+		}
+	}
+
+	@Test
+	public void testIncremental() throws Exception {
+		Iterable<DocumentProducer> producers = getProvider().indexDirectory(100);
+		Assert.assertFalse(manifestFile.exists());
+		Map<String, Event> events = drain(producers);
+		Assert.assertEquals(DocumentIndexer.CLEAR_INDEX, events.remove(null));
+		Assert.assertEquals(20, events.size());
+		Assert.assertTrue(events.values().stream().allMatch(Document.CREATE::equals));
+		Assert.assertEquals(Document.CREATE, events.get("/en/sub/file0.txt"));
+		Assert.assertTrue(manifestFile.exists());
+
+		Assert.assertTrue(index().isEmpty());
+
+		File changed = new File(dataDir, "en/file1.txt");
+		write(changed, "changed content");
+		changed.setLastModified(changed.lastModified() + 2000);
+		File touched = new File(dataDir, "en/file3.txt");
+		touched.setLastModified(touched.lastModified() + 2000);
+		write(new File(dataDir, "en/new.txt"), "a new file");
+		FileUtils.forceDelete(new File(dataDir, "en/sub/file2.txt"));
+
+		FileSystemProvider provider = getProvider();
+		events = drain(provider.indexDirectory(100));
+		Assert.assertEquals(3, events.size());
+		Assert.assertEquals(Document.UPDATE, events.get("/en/file1.txt"));
+		Assert.assertEquals(Document.CREATE, events.get("/en/new.txt"));
+		Assert.assertEquals(Document.DELETE, events.get("/en/sub/file2.txt"));
+		Assert.assertEquals(20, provider.getStatistics().getScanned());
+		Assert.assertEquals(2, provider.getStatistics().getParsed());
+		Assert.assertEquals(18, provider.getStatistics().getSkipped());
+		Assert.assertEquals(1, provider.getStatistics().getDeleted());
+		Assert.assertEquals(0, provider.getStatistics().getFailed());
+
+		Assert.assertTrue(index().isEmpty());
+	}
+
+	@Test
+	public void testWithoutManifest() throws Exception {
+		FileSystemProvider provider = new FileSystemProvider(config, Arrays.asList("txt"), 1000, "jsp", dataDir,
+				new ArrayList<>());
+		for (int i = 0; i < 2; i++) {
+			Map<String, Event> events = drain(provider.indexDirectory(100));
+			Assert.assertEquals(21, events.size());
+			Assert.assertEquals(20, provider.getStatistics().getParsed());
+		}
+		Assert.assertFalse(manifestFile.exists());
+	}
+
+	private Map<String, Event> index() throws Exception {
+		return drain(getProvider().indexDirectory(100));
+	}
+
+	private FileSystemProvider getProvider() {
+		return new FileSystemProvider(config, Arrays.asList("txt"), 1000, "jsp", dataDir, new ArrayList<>(),
+				IndexManifest.load(manifestFile), 4);
+	}
+
+	private Map<String, Event> drain(Iterable<DocumentProducer> producers) throws InterruptedException {
+		Map<String, Event> events = new HashMap<>();
+		for (DocumentProducer producer : producers) {
+			DocumentEvent event;
+			while (null != (event = producer.get(10))) {
+				events.put(null == event.getDocument() ? null : event.getDocument().getId(), event.getEvent());
+			}
+			if (null != producer.getAfterCommit()) {
+				producer.getAfterCommit().run();
+			}
+		}
+		return events;
+	}
+
+	private void write(File file, String content) throws IOException {
+		FileUtils.writeStringToFile(file, content, StandardCharsets.UTF_8);
+	}
+
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.search.indexer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.appng.api.observe.Observable.Event;
+import org.appng.api.search.Document;
+import org.appng.api.search.DocumentEvent;
+import org.appng.api.search.DocumentProducer;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LiveIndexerTest {
+
+	private File dataDir = new File("target/live-indexer/data");
+	private File manifestFile = new File("target/live-indexer/index/" + IndexManifest.FILE_NAME);
+	private IndexConfig config = IndexConfig.getInstance("/en;en;" + EnglishAnalyzer.class.getName(), "appNG");
+	private List<DocumentProducer> producers = new ArrayList<>();
+	private LiveIndexer liveIndexer;
+	private boolean failing;
+
+	@Before
+	public void setup() throws IOException {
+		FileUtils.deleteQuietly(new File("target/live-indexer"));
+		write("en/a.txt", "a");
+		write("en/b.txt", "b");
+		write("en/sub/c.txt", "c");
+		DocumentIndexer indexer = new DocumentIndexer(new File("target/live-indexer/index"), 1000L) {
+			@Override
+			public void putWithTimeout(DocumentProducer element, long timeoutMillis) throws TimeoutException {
+				if (failing) {
+					throw new TimeoutException();
+				}
+				producers.add(element);
+			}
+		};
+		liveIndexer = new LiveIndexer(indexer, () -> new FileSystemProvider(config, Arrays.asList("txt"), 1000, "jsp",
+				dataDir, new ArrayList<>(), indexer.getManifest(), 2), 1000, 1000, 100);
+	}
+
+	@Test
+	public void test() throws Exception {
+		liveIndexer.requestScan();
+		Assert.assertEquals(2, liveIndexer.flush(System.currentTimeMillis()));
+		Map<String, Event> events = drain();
+		Assert.assertEquals(DocumentIndexer.CLEAR_INDEX, events.remove(null));
+		Assert.assertEquals(3, events.size());
+
+		File a = write("en/a.txt", "changed");
+		long now = System.currentTimeMillis();
+		liveIndexer.fileChanged(a);
+		liveIndexer.fileChanged(a);
+		Assert.assertEquals(0, liveIndexer.flush(now + 500));
+		liveIndexer.fileChanged(a);
+		Assert.assertEquals(1, liveIndexer.flush(System.currentTimeMillis() + 1000));
+		events = drain();
+		Assert.assertEquals(1, events.size());
+		Assert.assertEquals(Document.UPDATE, events.get("/en/a.txt"));
+		Assert.assertEquals(0, liveIndexer.flush(System.currentTimeMillis() + 1000));
+
+		File b = new File(dataDir, "en/b.txt");
+		b.setLastModified(b.lastModified() + 2000);
+		liveIndexer.fileChanged(b);
+		liveIndexer.fileChanged(new File(dataDir, "outside.txt"));
+		Assert.assertEquals(0, liveIndexer.flush(System.currentTimeMillis() + 1000));
+
+		File d = write("en/sub/d.txt", "d");
+		FileUtils.forceDelete(b);
+		liveIndexer.fileChanged(d);
+		liveIndexer.fileChanged(b);
+		Assert.assertEquals(1, liveIndexer.flush(System.currentTimeMillis() + 1000));
+		events = drain();
+		Assert.assertEquals(2, events.size());
+		Assert.assertEquals(Document.CREATE, events.get("/en/sub/d.txt"));
+		Assert.assertEquals(Document.DELETE, events.get("/en/b.txt"));
+
+		File sub = new File(dataDir, "en/sub");
+		FileUtils.deleteDirectory(sub);
+		liveIndexer.fileChanged(sub);
+		Assert.assertEquals(1, liveIndexer.flush(System.currentTimeMillis() + 1000));
+		events = drain();
+		Assert.assertEquals(2, events.size());
+		Assert.assertEquals(Document.DELETE, events.get("/en/sub/c.txt"));
+		Assert.assertEquals(Document.DELETE, events.get("/en/sub/d.txt"));
+
+		liveIndexer.fileChanged(a);
+		liveIndexer.requestScan();
+		Assert.assertEquals(0, liveIndexer.flush(System.currentTimeMillis() + 1000));
+		Assert.assertEquals(Arrays.asList("/en/a.txt"), new ArrayList<>(IndexManifest.load(manifestFile).getPaths()));
+	}
+
+	@Test
+	public void testDeleteDirectory() throws Exception {
+		for (int i = 0; i < 10; i++) {
+			write("en/dir/file" + i + ".txt", "file" + i);
+		}
+		liveIndexer.requestScan();
+		liveIndexer.flush(System.currentTimeMillis());
+		Assert.assertEquals(14, drain().size());
+
+		File dir = new File(dataDir, "en/dir");
+		FileUtils.deleteDirectory(dir);
+		liveIndexer.fileChanged(dir);
+		Assert.assertEquals(1, liveIndexer.flush(System.currentTimeMillis() + 1000));
+		Map<String, Event> events = drain();
+		Assert.assertEquals(10, events.size());
+		Assert.assertTrue(events.values().stream().allMatch(Document.DELETE::equals));
+	}
+
+	@Test
+	public void testRetry() throws Exception {
+		liveIndexer.requestScan();
+		liveIndexer.flush(System.currentTimeMillis());
+		drain();
+
+		File a = write("en/a.txt", "changed");
+		liveIndexer.fileChanged(a);
+		failing = true;
+		try {
+			liveIndexer.flush(System.currentTimeMillis() + 1000);
+			Assert.fail("TimeoutException expected");
+		} catch (TimeoutException e) {
+			// expected
+		}
+		failing = false;
+		Assert.assertEquals(1, liveIndexer.flush(System.currentTimeMillis() + 1000));
+		Assert.assertEquals(Document.UPDATE, drain().get("/en/a.txt"));
+	}
+
+	private Map<String, Event> drain() throws InterruptedException {
+		Map<String, Event> events = new HashMap<>();
+		for (DocumentProducer producer : producers) {
+			DocumentEvent event;
+			while (null != (event = producer.get(10))) {
+				events.put(null == event.getDocument() ? null : event.getDocument().getId(), event.getEvent());
+			}
+			if (null != producer.getAfterCommit()) {
+				producer.getAfterCommit().run();
+			}
+		}
+		producers.clear();
+		return events;
+	}
+
+	private File write(String path, String content) throws IOException {
+		File file = new File(dataDir, path);
+		FileUtils.writeStringToFile(file, content, StandardCharsets.UTF_8);
+		return file;
+	}
+
+}
@@ -24,6 +24,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -36,6 +37,9 @@ import org.apache.commons.io.output.ByteArrayOutputStream;
 import org.apache.lucene.analysis.de.GermanAnalyzer;
 import org.apache.lucene.analysis.en.EnglishAnalyzer;
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.FieldInfos;
+import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
 import org.appng.api.Environment;
@@ -47,6 +51,7 @@ import org.appng.api.search.Consumer;
 import org.appng.api.search.Document;
 import org.appng.api.search.DocumentEvent;
 import org.appng.api.search.DocumentProducer;
+import org.appng.search.SearchResult;
 import org.appng.search.json.Part;
 import org.appng.search.json.Result;
 import org.appng.search.searcher.SearchFormatter;
@@ -100,6 +105,7 @@ public class StandardSearcherTest {
 
 	@Test
 	public void testIndex() throws InterruptedException, TimeoutException, IOException {
+		FileUtils.deleteDirectory(indexDir);
 		final AtomicInteger count = new AtomicInteger(0);
 		final AtomicBoolean done = new AtomicBoolean(false);
 		Consumer<DocumentEvent, DocumentProducer> documentIndexer = new DocumentIndexer(indexDir, 2000L) {
@@ -152,6 +158,49 @@ public class StandardSearcherTest {
 		validate("Hitchhiker", doSearch, "search_result_en.json", "search-en");
 	}
 
+	@Test
+	public void testIndexVersion() throws IOException {
+		Assert.assertTrue(new DocumentIndexer(indexDir, 0L).isCurrentVersion());
+		try (DirectoryReader reader = DirectoryReader.open(directory)) {
+			FieldInfo content = FieldInfos.getMergedFieldInfos(reader).fieldInfo(Document.FIELD_CONTENT);
+			Assert.assertEquals(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS, content.getIndexOptions());
+		}
+	}
+
+	@Test
+	public void testSearchEnPagingAndFacets() throws IOException {
+		Map<String, String> parameters = new HashMap<>();
+		parameters.put(StandardSearcher.PARAM_MAX_HITS, "1");
+		parameters.put(StandardSearcher.PARAM_FACETS, "type,folder,date");
+		SearchResult first = standardSearcher.doSearch(env, site, application, directory, "Hitchhiker", "en",
+				PARSE_FIELDS, new EnglishAnalyzer(), "span", parameters);
+		Assert.assertEquals(1, first.getDocuments().size());
+		Assert.assertEquals(2, first.getTotalHits());
+		Assert.assertNotNull(first.getNext());
+		Map<String, Integer> types = first.getFacets().get(StandardSearcher.FACET_TYPE);
+		Assert.assertEquals(Integer.valueOf(1), types.get("jsp"));
+		Assert.assertEquals(Integer.valueOf(1), types.get("txt"));
+		Assert.assertEquals(Integer.valueOf(2), first.getFacets().get(StandardSearcher.FACET_FOLDER).get("/en"));
+		Map<String, Integer> dates = first.getFacets().get(StandardSearcher.FACET_DATE);
+		Assert.assertEquals(2, dates.getOrDefault("year", 0) + dates.getOrDefault("older", 0));
+
+		parameters.put(StandardSearcher.PARAM_AFTER, first.getNext());
+		SearchResult second = standardSearcher.doSearch(env, site, application, directory, "Hitchhiker", "en",
+				PARSE_FIELDS, new EnglishAnalyzer(), "span", parameters);
+		Assert.assertEquals(1, second.getDocuments().size());
+		Assert.assertNull(second.getNext());
+		Assert.assertNotEquals(first.getDocuments().get(0).getPath(), second.getDocuments().get(0).getPath());
+
+		parameters.remove(StandardSearcher.PARAM_AFTER);
+		parameters.put(StandardSearcher.PARAM_MAX_HITS, "10");
+		parameters.put(StandardSearcher.PARAM_FILTER_PREFIX + StandardSearcher.FACET_TYPE, "txt");
+		SearchResult filtered = standardSearcher.doSearch(env, site, application, directory, "Hitchhiker", "en",
+				PARSE_FIELDS, new EnglishAnalyzer(), "span", parameters);
+		Assert.assertEquals(1, filtered.getTotalHits());
+		Assert.assertEquals("/en/42.txt", filtered.getDocuments().get(0).getPath());
+		Assert.assertNull(filtered.getFacets().get(StandardSearcher.FACET_TYPE).get("jsp"));
+	}
+
 	@Test
 	public void testSearchEnFoo() throws IOException, URISyntaxException {
 		Iterable<Document> doSearch = standardSearcher.doSearch(env, site, application, directory, "foo", "en",
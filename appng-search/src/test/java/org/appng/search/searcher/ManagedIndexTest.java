@@ -0,0 +1,110 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.search.searcher;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexNotFoundException;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.store.NIOFSDirectory;
+import org.appng.search.searcher.ManagedIndex.DirectoryType;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ManagedIndexTest {
+
+	@Test
+	public void testMMap() throws IOException {
+		runTest(DirectoryType.MMAP, MMapDirectory.class);
+	}
+
+	@Test
+	public void testNIOFS() throws IOException {
+		runTest(DirectoryType.NIOFS, NIOFSDirectory.class);
+	}
+
+	@Test
+	public void testMemory() throws IOException {
+		runTest(DirectoryType.MEMORY, ByteBuffersDirectory.class);
+	}
+
+	private void runTest(DirectoryType type, Class<? extends Directory> directoryType) throws IOException {
+		File indexDir = new File("target/managed-index-" + type.name().toLowerCase());
+		FileUtils.deleteDirectory(indexDir);
+		try (ManagedIndex index = new ManagedIndex("site", indexDir, type, Arrays.asList("appng", "title:("))) {
+			try {
+				index.acquire();
+				Assert.fail("IndexNotFoundException expected");
+			} catch (IndexNotFoundException e) {
+				Assert.assertEquals(0, index.getWarmups());
+			}
+
+			index(indexDir, "appNG");
+			index.refresh();
+			IndexSearcher searcher = index.acquire();
+			try {
+				Assert.assertEquals(1, searcher.getIndexReader().numDocs());
+			} finally {
+				index.release(searcher);
+			}
+			Assert.assertTrue(directoryType.isInstance(index.getDirectory()));
+			Assert.assertEquals(1, index.getWarmups());
+			Assert.assertEquals(1, index.getWarmupErrors());
+			Assert.assertTrue(index.getLastWarmupSeconds() > 0);
+
+			IndexSearcher previous = index.acquire();
+			index(indexDir, "Lucene");
+			index.refresh();
+			searcher = index.acquire();
+			try {
+				Assert.assertEquals(2, searcher.getIndexReader().numDocs());
+				Assert.assertEquals(1, previous.getIndexReader().numDocs());
+			} finally {
+				index.release(searcher);
+				index.release(previous);
+			}
+			Assert.assertEquals(2, index.getWarmups());
+			Assert.assertEquals(2, index.getWarmupErrors());
+			Assert.assertTrue(index.getWarmupSeconds() >= index.getLastWarmupSeconds());
+
+			index.refresh();
+			Assert.assertEquals(2, index.getWarmups());
+		}
+	}
+
+	private void index(File indexDir, String title) throws IOException {
+		try (Directory directory = FSDirectory.open(indexDir.toPath());
+				IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(new StandardAnalyzer()))) {
+			Document document = new Document();
+			document.add(new TextField(org.appng.api.search.Document.FIELD_TITLE, title, Store.YES));
+			writer.addDocument(document);
+		}
+	}
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.search.searcher;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SearchResultCacheTest {
+
+	@Test
+	public void testGenerationInvalidation() throws IOException {
+		File indexDir = new File("target/cache-index");
+		FileUtils.deleteDirectory(indexDir);
+		try (Directory directory = FSDirectory.open(indexDir.toPath())) {
+			Assert.assertEquals(-1, SearchResultCache.getGeneration(directory));
+			SearchResultCache<String> cache = SearchResultCache.getInstance("site", "test", 10);
+			Assert.assertNull(cache.get("key", SearchResultCache.getGeneration(directory)));
+			cache.put("key", -1, "value");
+			Assert.assertEquals(0, cache.size());
+
+			commit(directory);
+			long generation = SearchResultCache.getGeneration(directory);
+			Assert.assertTrue(generation > 0);
+			Assert.assertNull(cache.get("key", generation));
+			cache.put("key", generation, "value");
+			Assert.assertEquals("value", cache.get("key", generation));
+
+			commit(directory);
+			long newGeneration = SearchResultCache.getGeneration(directory);
+			Assert.assertTrue(newGeneration > generation);
+			cache.put("other", generation, "outdated");
+			Assert.assertNull(cache.get("key", newGeneration));
+			Assert.assertEquals(0, cache.size());
+			Assert.assertEquals(1, cache.getInvalidations());
+			cache.put("other", generation, "outdated");
+			Assert.assertEquals(0, cache.size());
+
+			Assert.assertEquals(1, cache.getHits());
+			Assert.assertEquals(2, cache.getMisses());
+			Assert.assertEquals(1 / 3d, cache.getHitRate(), 0.001);
+			Assert.assertSame(cache, SearchResultCache.getInstances("site").get("test"));
+		}
+	}
+
+	@Test
+	public void testEviction() {
+		SearchResultCache<String> cache = SearchResultCache.getInstance("site", "eviction", 2);
+		cache.put(Arrays.asList("a", "en"), 1, "a");
+		cache.put(Arrays.asList("b", "en"), 1, "b");
+		Assert.assertEquals("a", cache.get(Arrays.asList("a", "en"), 1));
+		cache.put(Arrays.asList("c", "en"), 1, "c");
+		Assert.assertEquals(2, cache.size());
+		Assert.assertEquals(1, cache.getEvictions());
+		Assert.assertNull(cache.get(Arrays.asList("b", "en"), 1));
+		Assert.assertEquals("c", cache.get(Arrays.asList("c", "en"), 1));
+
+		SearchResultCache.getInstance("site", "eviction", 0);
+		Assert.assertNull(cache.get(Arrays.asList("c", "en"), 1));
+		Assert.assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void testRemove() {
+		SearchResultCache<String> cache = SearchResultCache.getInstance("removed", "remove", 2);
+		cache.put("a", 1, "a");
+		Assert.assertSame(cache, SearchResultCache.getInstances("removed").get("remove"));
+
+		SearchResultCache.remove("removed");
+		Assert.assertTrue(SearchResultCache.getInstances("removed").isEmpty());
+		Assert.assertEquals(0, cache.size());
+		Assert.assertNotSame(cache, SearchResultCache.getInstance("removed", "remove", 2));
+		SearchResultCache.remove("removed");
+	}
+
+	@Test
+	public void testNormalize() {
+		Assert.assertEquals("foo bar", SearchResultCache.normalize("  foo \t bar\n"));
+	}
+
+	private void commit(Directory directory) throws IOException {
+		try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(new StandardAnalyzer()))) {
+			Document document = new Document();
+			document.add(new TextField("content", "foo", Store.YES));
+			writer.addDocument(document);
+			writer.commit();
+		}
+	}
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.search.searcher;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SuggesterTest {
+
+	@Test
+	public void testSuggest() throws IOException {
+		File indexDir = new File("target/suggest-index");
+		FileUtils.deleteDirectory(indexDir);
+		Suggester suggester = Suggester.getInstance(indexDir);
+		Assert.assertSame(suggester, Suggester.getInstance(indexDir));
+		Assert.assertEquals(Collections.emptyList(), suggester.suggest("app", "en", 5));
+
+		try (Directory directory = FSDirectory.open(indexDir.toPath())) {
+			index(directory, "1", "en", "The appNG Application Platform");
+			index(directory, "2", "en", "Applications and Sites");
+			index(directory, "3", "en", "Platform Security");
+			index(directory, "4", "de", "Die Applikation");
+			Suggester.indexChanged(indexDir);
+
+			List<String> suggestions = suggester.suggest("app", "en", 5);
+			Assert.assertEquals(Arrays.asList("Applications and Sites", "Application", "Applications", "appNG"),
+					suggestions);
+			Assert.assertEquals(Arrays.asList("Platform", "Platform Security"), suggester.suggest("plat", "en", 2));
+			Assert.assertEquals(Arrays.asList("Platform", "Platform Security"), suggester.suggest("PLAT", "en", 2));
+			Assert.assertEquals(Arrays.asList("Applikation"), suggester.suggest("appl", "de", 5));
+			Assert.assertEquals(Arrays.asList("Die Applikation", "Die"), suggester.suggest("di", "de", 5));
+
+			// typo tolerance
+			Assert.assertEquals(Arrays.asList("Platform", "Platform Security"), suggester.suggest("plaf", "en", 2));
+			Assert.assertEquals(Arrays.asList("Security"), suggester.suggest("secr", "en", 2));
+			Assert.assertEquals(Collections.emptyList(), suggester.suggest("xlat", "en", 2));
+			Assert.assertEquals(Collections.emptyList(), suggester.suggest("pl", "fr", 2));
+
+			delete(directory, "3");
+			Suggester.indexChanged(indexDir);
+			Assert.assertEquals(Arrays.asList("Platform"), suggester.suggest("plat", "en", 2));
+		}
+	}
+
+	@Test
+	public void testRemove() {
+		File indexDir = new File("target/suggest-remove");
+		Suggester suggester = Suggester.getInstance(indexDir);
+		Suggester.remove(new File("target", "suggest-remove"));
+		Assert.assertNotSame(suggester, Suggester.getInstance(indexDir));
+		Suggester.remove(indexDir);
+	}
+
+	private void index(Directory directory, String id, String language, String title) throws IOException {
+		try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(new StandardAnalyzer()))) {
+			Document document = new Document();
+			document.add(new StringField(org.appng.api.search.Document.FIELD_ID, id, Store.YES));
+			document.add(new StringField(org.appng.api.search.Document.FIELD_LANGUAGE, language, Store.YES));
+			document.add(new TextField(org.appng.api.search.Document.FIELD_TITLE, title, Store.YES));
+			writer.addDocument(document);
+		}
+	}
+
+	private void delete(Directory directory, String id) throws IOException {
+		try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(new StandardAnalyzer()))) {
+			writer.deleteDocuments(new Term(org.appng.api.search.Document.FIELD_ID, id));
+		}
+	}
+
+}
@@ -15,12 +15,20 @@
  */
 package org.appng.taglib.search;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import javax.servlet.ServletRequest;
 import javax.servlet.http.HttpServletRequest;
@@ -31,8 +39,8 @@ import javax.xml.transform.TransformerFactory;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.text.StringEscapeUtils;
+import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.store.Directory;
-import org.apache.lucene.store.FSDirectory;
 import org.appng.api.Environment;
 import org.appng.api.Platform;
 import org.appng.api.RequestUtil;
@@ -44,9 +52,14 @@ import org.appng.api.model.Site;
 import org.appng.api.search.Document;
 import org.appng.api.support.environment.DefaultEnvironment;
 import org.appng.search.SearchProvider;
+import org.appng.search.SearchResult;
+import org.appng.search.json.FilterItem;
 import org.appng.search.json.Part;
 import org.appng.search.json.Result;
+import org.appng.search.searcher.ManagedIndex;
+import org.appng.search.searcher.SearchExecutors;
 import org.appng.search.searcher.SearchFormatter;
+import org.appng.search.searcher.SearchResultCache;
 import org.appng.search.searcher.StandardSearcher;
 import org.appng.taglib.MultiSiteSupport;
 import org.appng.taglib.ParameterOwner;
@@ -88,8 +101,23 @@ import lombok.extern.slf4j.Slf4j;
  * the path to the XSLT stylesheet to use when format is XML</li>
  * <li>pretty (false)<br/>
  * if the XML/JSON output should be formatted prettily</li>
+ * <li>cursorParam ({@value org.appng.search.searcher.SearchFormatter#DEFAULT_CURSOR_PARAM})<br/>
+ * the name of the request parameter that contains the cursor for retrieving the following hits</li>
  * </ul>
  * <p/>
+ * The cursor and all request parameters starting with {@code filter.} (e.g. {@code filter.language=en}) are passed
+ * to the {@link SearchPart}s, see {@link StandardSearcher} for the supported parameters. If a part returns a cursor or
+ * facets, they are contained in the part's output (or in the pagination and filter when not using parts).
+ * <p/>
+ * Multiple {@link SearchPart}s can be processed concurrently, see {@link SiteProperties#SEARCH_PART_THREADS} and
+ * {@link SiteProperties#SEARCH_PART_TIMEOUT}.
+ * <p/>
+ * If all {@link SearchPart}s use the global index, the rendered output is cached in a {@link SearchResultCache} (see
+ * {@link SiteProperties#SEARCH_CACHE_SIZE}).
+ * <p/>
+ * The global index is searched through the site's {@link ManagedIndex} (see {@link SiteProperties#SEARCH_DIRECTORY}
+ * and {@link SiteProperties#SEARCH_WARMUP_QUERIES}).
+ * <p/>
  * <b>Usage:</b>
  * 
  * <pre>
@@ -115,6 +143,11 @@ public class Search extends BodyTagSupport implements ParameterOwner {
 	private static final String PARAM_MAX_TEXT_LENGTH = "maxTextLength";
 	private static final String PARAM_QUERY_PARAM = "queryParam";
 	private static final String PARAM_PRETTY = "pretty";
+	private static final String PARAM_CURSOR_PARAM = "cursorParam";
+	private static final int DEFAULT_PART_THREADS = 0;
+	private static final int DEFAULT_PART_TIMEOUT = 5000;
+	/** The name of the {@link SearchResultCache} used for caching the rendered output */
+	public static final String CACHE_NAME = "output";
 
 	private String format;
 	private boolean useParts;
@@ -132,27 +165,17 @@ public class Search extends BodyTagSupport implements ParameterOwner {
 			LOGGER.debug("term is {}", queryParam);
 			Environment env = DefaultEnvironment.get(pageContext);
 			Site site = RequestUtil.getSite(env, servletRequest);
-			Properties siteProperties = site.getProperties();
-			String siteRootDir = siteProperties.getString(SiteProperties.SITE_ROOT_DIR);
-			String seIndex = siteRootDir + siteProperties.getString(SiteProperties.INDEX_DIR);
-			File indexDir = new File(seIndex);
-			try (Directory directory = FSDirectory.open(indexDir.toPath())) {
+			try {
+				ManagedIndex index = ManagedIndex.getInstance(site);
+				SearchIndexMetrics.register(site.getName());
+				Directory directory = index.getDirectory();
 				StopWatch sw = new StopWatch();
 				sw.start();
 
 				ApplicationContext ctx = env.getAttribute(Scope.PLATFORM, Platform.Environment.CORE_PLATFORM_CONTEXT);
 
-				List<Part> results = new ArrayList<>();
-
 				Integer maxTextLength = Integer.parseInt(getParam(PARAM_MAX_TEXT_LENGTH, "150"));
 				String fillWith = getParam(PARAM_FILL_WITH, "...");
-				for (SearchPart part : parts) {
-					Part result = processPart(env, (HttpServletRequest) servletRequest, site, part, queryParam,
-							directory, maxTextLength, fillWith);
-					if (null != result) {
-						results.add(result);
-					}
-				}
 				DocumentBuilderFactory dbf = ctx.getBean(DocumentBuilderFactory.class);
 				TransformerFactory tf = ctx.getBean(TransformerFactory.class);
 				SearchFormatter searchFormatter = new SearchFormatter(dbf, tf);
@@ -181,16 +204,44 @@ public class Search extends BodyTagSupport implements ParameterOwner {
 				searchFormatter.setPageSizeParamName(pageSizeParamName);
 				searchFormatter.setQueryParam(queryParam);
 				searchFormatter.setQueryParamName(queryParamName);
+				String cursorParamName = getParam(PARAM_CURSOR_PARAM, SearchFormatter.DEFAULT_CURSOR_PARAM);
+				searchFormatter.setCursorParamName(cursorParamName);
+				addRequestParameters(servletRequest, cursorParamName);
 				searchFormatter.setUseParts(useParts);
-				searchFormatter.setParts(results);
 				searchFormatter.setDoXsl(!"false".equalsIgnoreCase(servletRequest.getParameter(PARAM_XSL)));
+
+				SearchResultCache<String> cache = getCache(site);
+				long generation = -1;
+				List<Object> cacheKey = null;
+				if (null != cache) {
+					generation = SearchResultCache.getGeneration(directory);
+					cacheKey = getCacheKey(searchFormatter);
+					String cached = cache.get(cacheKey, generation);
+					if (null != cached) {
+						LOGGER.debug("returning cached result for term '{}'", queryParam);
+						pageContext.getOut().write(cached);
+						clear();
+						return super.doEndTag();
+					}
+				}
+
+				List<Part> results = processParts(env, (HttpServletRequest) servletRequest, site, queryParam,
+						directory, maxTextLength, fillWith);
+				searchFormatter.setParts(results);
 				String xsl = getParam(PARAM_XSL, null);
 				if (StringUtils.isNotEmpty(xsl)) {
 					searchFormatter.setXslStylesheet(site.readFile(xsl));
 				}
 				sw.stop();
 				searchFormatter.setTime(sw.getTotalTimeMillis());
-				searchFormatter.write(pageContext.getOut());
+				if (null == cache) {
+					searchFormatter.write(pageContext.getOut());
+				} else {
+					StringWriter output = new StringWriter();
+					searchFormatter.write(output);
+					cache.put(cacheKey, generation, output.toString());
+					pageContext.getOut().write(output.toString());
+				}
 
 			} catch (IOException e) {
 				LOGGER.error("error in doStartTag()", e);
@@ -202,8 +253,144 @@ public class Search extends BodyTagSupport implements ParameterOwner {
 		return super.doEndTag();
 	}
 
+	/**
+	 * Returns the {@link SearchResultCache} for the rendered output of this tag. Since the results of an
+	 * {@link Application}'s {@link SearchProvider} do not necessarily depend on the site's index, the output is only
+	 * cached if all {@link SearchPart}s use the global index.
+	 */
+	private SearchResultCache<String> getCache(Site site) {
+		Integer cacheSize = site.getProperties().getInteger(SiteProperties.SEARCH_CACHE_SIZE,
+				StandardSearcher.DEFAULT_CACHE_SIZE);
+		if (null == cacheSize || cacheSize < 1 || !parts.stream().allMatch(p -> "global".equals(p.getApplication()))) {
+			return null;
+		}
+		SearchCacheMetrics.register(site.getName());
+		return SearchResultCache.getInstance(site.getName(), CACHE_NAME, cacheSize);
+	}
+
+	private List<Object> getCacheKey(SearchFormatter searchFormatter) {
+		List<Object> partKeys = new ArrayList<>();
+		for (SearchPart part : parts) {
+			partKeys.add(Arrays.asList(part.getLanguage(), part.getFields(), part.getAnalyzerClass(), part.getTitle(),
+					new HashMap<>(part.getParameters())));
+		}
+		return Arrays.asList(SearchResultCache.normalize(searchFormatter.getQueryParam()), partKeys,
+				searchFormatter.getPage(), searchFormatter.getPageSize(), format, useParts, highlight,
+				searchFormatter.isPretty(), searchFormatter.isDoXsl(), new HashMap<>(parameters));
+	}
+
+	/**
+	 * Processes the {@link SearchPart}s. If there is more than one part and {@link SiteProperties#SEARCH_PART_THREADS}
+	 * is greater than zero, the parts are processed concurrently using a bounded executor of the {@link Site} (see
+	 * {@link SearchExecutors}), waiting at most {@link SiteProperties#SEARCH_PART_TIMEOUT} milliseconds for each part. A
+	 * part that fails or times out is omitted, the others are returned in the order they have been configured.
+	 * <p>
+	 * Since a part may still be running when the request has been completed, everything that depends on the request is
+	 * resolved before submitting the part (see {@link #preparePart(Environment, HttpServletRequest, Site, SearchPart,
+	 * String, Directory, Integer, String)}). The {@link SearchProvider} is then called with an {@link Environment} that
+	 * only provides {@link Scope#PLATFORM}, along with the locale and time zone of the current request.
+	 * </p>
+	 */
+	protected List<Part> processParts(Environment env, HttpServletRequest servletRequest, Site site, String term,
+			Directory directory, Integer maxTextLength, String fillWith) throws JspException {
+		List<Part> results = new ArrayList<>();
+		Properties siteProperties = site.getProperties();
+		Integer threads = siteProperties.getInteger(SiteProperties.SEARCH_PART_THREADS, DEFAULT_PART_THREADS);
+		if (parts.size() < 2 || null == threads || threads < 1) {
+			for (SearchPart part : parts) {
+				Part result = processPart(env, servletRequest, site, part, term, directory, maxTextLength, fillWith);
+				if (null != result) {
+					results.add(result);
+				}
+			}
+			return results;
+		}
+
+		Integer timeout = siteProperties.getInteger(SiteProperties.SEARCH_PART_TIMEOUT, DEFAULT_PART_TIMEOUT);
+		ExecutorService executor = SearchExecutors.get(site.getName(), threads);
+		ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+		Environment detachedEnv = detach(env, servletRequest);
+		Map<SearchPart, Future<Part>> futures = new LinkedHashMap<>();
+		for (SearchPart part : parts) {
+			PartSearch partSearch = preparePart(env, servletRequest, site, part, term, directory, maxTextLength,
+					fillWith);
+			if (null != partSearch) {
+				futures.put(part, executor.submit(() -> {
+					Thread currentThread = Thread.currentThread();
+					ClassLoader threadClassLoader = currentThread.getContextClassLoader();
+					currentThread.setContextClassLoader(contextClassLoader);
+					try {
+						return partSearch.search(detachedEnv);
+					} finally {
+						currentThread.setContextClassLoader(threadClassLoader);
+					}
+				}));
+			}
+		}
+		long deadline = System.currentTimeMillis() + timeout;
+		for (Entry<SearchPart, Future<Part>> entry : futures.entrySet()) {
+			Future<Part> future = entry.getValue();
+			try {
+				Part result = future.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+				if (null != result) {
+					results.add(result);
+				}
+			} catch (TimeoutException e) {
+				future.cancel(true);
+				LOGGER.warn("search part {} did not finish within {}ms and is omitted", entry.getKey(), timeout);
+			} catch (ExecutionException e) {
+				LOGGER.error(String.format("error processing search part %s", entry.getKey()), e.getCause());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				futures.values().forEach(f -> f.cancel(true));
+				throw new JspException("interrupted while processing search parts", e);
+			}
+		}
+		return results;
+	}
+
+	private Environment detach(Environment env, ServletRequest servletRequest) {
+		DefaultEnvironment detachedEnv = DefaultEnvironment.get(servletRequest.getServletContext());
+		if (null != env) {
+			detachedEnv.setLocale(env.getLocale());
+			detachedEnv.setTimeZone(env.getTimeZone());
+		}
+		return detachedEnv;
+	}
+
 	protected Part processPart(Environment env, HttpServletRequest servletRequest, Site site, SearchPart part,
 			String term, Directory directory, Integer maxTextLength, String fillWith) throws JspException {
+		PartSearch partSearch = preparePart(env, servletRequest, site, part, term, directory, maxTextLength, fillWith);
+		return null == partSearch ? null : partSearch.search(env);
+	}
+
+	/**
+	 * Performs the search for a {@link SearchPart} that has been prepared by
+	 * {@link Search#preparePart(Environment, HttpServletRequest, Site, SearchPart, String, Directory, Integer, String)}
+	 */
+	@FunctionalInterface
+	protected interface PartSearch {
+
+		/**
+		 * Performs the search.
+		 * 
+		 * @param env
+		 *            the {@link Environment} to pass to the {@link SearchProvider}
+		 * @return the {@link Part}, may be {@code null}
+		 * @throws JspException
+		 *                      if an error occurs
+		 */
+		Part search(Environment env) throws JspException;
+	}
+
+	/**
+	 * Resolves the {@link SearchProvider} for the given {@link SearchPart}, using the current request. The returned
+	 * {@link PartSearch} does not access the request, so it can be executed by another thread.
+	 * 
+	 * @return the {@link PartSearch}, or {@code null} if there is no {@link SearchProvider} for the part
+	 */
+	protected PartSearch preparePart(Environment env, HttpServletRequest servletRequest, Site site, SearchPart part,
+			String term, Directory directory, Integer maxTextLength, String fillWith) throws JspException {
 
 		String applicationName = part.getApplication();
 		SearchProvider searchProvider = null;
@@ -224,36 +411,81 @@ public class Search extends BodyTagSupport implements ParameterOwner {
 			}
 		}
 
-		if (null != searchProvider) {
+		if (null == searchProvider) {
+			LOGGER.warn("no SearchProvider named {} found for application {}", part.getMethod(), applicationName);
+			return null;
+		}
+		Analyzer analyzer;
+		try {
+			analyzer = part.getAnalyzer();
+		} catch (ReflectiveOperationException e) {
+			LOGGER.error(String.format("error creating analyzer %s for %s", part.getAnalyzerClass(),
+					searchProvider.getClass().getName()), e);
+			return null;
+		}
+		SearchProvider provider = searchProvider;
+		Application providingApplication = application;
+		Site providingSite = executingSite;
+		String title = part.getTitle();
+		String[] parseFields = StringUtils.split(part.getFields(), ',');
+		String language = part.getLanguage();
+		Map<String, String> parameters = new HashMap<>(part.getParameters());
+		String highlight = getHighlight();
+		return searchEnv -> {
 			try {
-				String[] parseFields = StringUtils.split(part.getFields(), ',');
-				String language = part.getLanguage();
-
-				Map<String, String> parameters = part.getParameters();
-
-				LOGGER.info("processing {} with term '{}' and parameters {}", searchProvider.getClass().getName(), term,
+				LOGGER.info("processing {} with term '{}' and parameters {}", provider.getClass().getName(), term,
 						parameters);
-				Iterable<Document> doSearch = searchProvider.doSearch(env, executingSite, application, directory, term,
-						language, parseFields, part.getAnalyzer(), getHighlight(), parameters);
-				Part resultPart = new Part(part.getTitle());
+				Iterable<Document> doSearch = provider.doSearch(searchEnv, providingSite, providingApplication,
+						directory, term, language, parseFields, analyzer, highlight, parameters);
+				Part resultPart = new Part(title);
 
 				for (Document d : doSearch) {
 					Result r = Result.fromDocument(d);
 					r.setText(cleanText(r.getText(), maxTextLength, fillWith));
 					resultPart.getData().add(r);
 				}
+				if (doSearch instanceof SearchResult) {
+					setPaging(resultPart, (SearchResult) doSearch, parameters);
+				}
 				return resultPart;
 			} catch (IOException e) {
-				LOGGER.error(String.format("error performing doSearch() for %s", searchProvider.getClass().getName()),
-						e);
-			} catch (ReflectiveOperationException e) {
-				LOGGER.error(String.format("error creating analyzer %s for %s", part.getAnalyzerClass(),
-						searchProvider.getClass().getName()), e);
+				LOGGER.error(String.format("error performing doSearch() for %s", provider.getClass().getName()), e);
+			}
+			return null;
+		};
+	}
+
+	private void setPaging(Part resultPart, SearchResult searchResult, Map<String, String> parameters) {
+		if (searchResult.hasNext() || !searchResult.getFacets().isEmpty()) {
+			resultPart.setTotal(searchResult.getTotalHits());
+			resultPart.setNext(searchResult.getNext());
+		}
+		if (!searchResult.getFacets().isEmpty()) {
+			List<FilterItem> facets = new ArrayList<>();
+			for (Entry<String, Map<String, Integer>> facet : searchResult.getFacets().entrySet()) {
+				String filterParam = StandardSearcher.PARAM_FILTER_PREFIX + facet.getKey();
+				facets.add(FilterItem.getFacetItem(filterParam, facet.getKey(), facet.getValue(),
+						parameters.get(filterParam)));
+			}
+			resultPart.setFacets(facets);
+		}
+	}
+
+	/**
+	 * Passes the cursor and the {@code filter.*} request parameters to the {@link SearchPart}s
+	 */
+	private void addRequestParameters(ServletRequest servletRequest, String cursorParamName) {
+		String cursor = servletRequest.getParameter(cursorParamName);
+		for (SearchPart part : parts) {
+			if (StringUtils.isNotBlank(cursor)) {
+				part.addParameter(StandardSearcher.PARAM_AFTER, cursor);
+			}
+			for (String name : servletRequest.getParameterMap().keySet()) {
+				if (name.startsWith(StandardSearcher.PARAM_FILTER_PREFIX)) {
+					part.addParameter(name, servletRequest.getParameter(name));
+				}
 			}
-		} else {
-			LOGGER.warn("no SearchProvider named {} found for application {}", part.getMethod(), applicationName);
 		}
-		return null;
 	}
 
 	private String getParam(String name, String defaultValue) {
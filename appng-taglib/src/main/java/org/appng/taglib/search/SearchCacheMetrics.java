@@ -0,0 +1,102 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.taglib.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.appng.core.controller.filter.MetricsFilter;
+import org.appng.search.searcher.SearchResultCache;
+
+import io.prometheus.client.Collector;
+import io.prometheus.client.CollectorRegistry;
+import io.prometheus.client.CounterMetricFamily;
+import io.prometheus.client.GaugeMetricFamily;
+
+/**
+ * A {@link Collector} exporting the statistics of a site's {@link SearchResultCache}s. All metrics are labelled with
+ * {@code site} and {@code cache}:
+ * <ul>
+ * <li>{@code appng_search_cache_hits_total}, {@code _misses_total}, {@code _evictions_total},
+ * {@code _invalidations_total}: counters of the respective cache events</li>
+ * <li>{@code appng_search_cache_hit_ratio}: the ratio of hits to requests</li>
+ * <li>{@code appng_search_cache_size}: the current number of entries</li>
+ * </ul>
+ */
+class SearchCacheMetrics extends Collector {
+
+	private static final String PREFIX = "appng_search_cache_";
+	private static final List<String> LABELS = Arrays.asList("site", "cache");
+	private static final Set<CollectorRegistry> REGISTERED = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+	private final String site;
+
+	private SearchCacheMetrics(String site) {
+		this.site = site;
+	}
+
+	/**
+	 * Registers the {@link SearchCacheMetrics} for the given site, if metrics are enabled and they are not registered
+	 * yet.
+	 * 
+	 * @param site
+	 *             the name of the site
+	 */
+	static void register(String site) {
+		CollectorRegistry registry = MetricsFilter.getRegistry(site);
+		if (null != registry && REGISTERED.add(registry)) {
+			new SearchCacheMetrics(site).register(registry);
+		}
+	}
+
+	@Override
+	public List<MetricFamilySamples> collect() {
+		CounterMetricFamily hits = counter("hits", "number of cache hits");
+		CounterMetricFamily misses = counter("misses", "number of cache misses");
+		CounterMetricFamily evictions = counter("evictions", "number of entries evicted due to the size limit");
+		CounterMetricFamily invalidations = counter("invalidations", "number of invalidations due to index commits");
+		GaugeMetricFamily hitRatio = new GaugeMetricFamily(PREFIX + "hit_ratio", "ratio of hits to requests", LABELS);
+		GaugeMetricFamily size = new GaugeMetricFamily(PREFIX + "size", "current number of entries", LABELS);
+		for (Entry<String, SearchResultCache<?>> entry : SearchResultCache.getInstances(site).entrySet()) {
+			List<String> labels = Arrays.asList(site, entry.getKey());
+			SearchResultCache<?> cache = entry.getValue();
+			hits.addMetric(labels, cache.getHits());
+			misses.addMetric(labels, cache.getMisses());
+			evictions.addMetric(labels, cache.getEvictions());
+			invalidations.addMetric(labels, cache.getInvalidations());
+			hitRatio.addMetric(labels, cache.getHitRate());
+			size.addMetric(labels, cache.size());
+		}
+		List<MetricFamilySamples> samples = new ArrayList<>();
+		samples.add(hits);
+		samples.add(misses);
+		samples.add(evictions);
+		samples.add(invalidations);
+		samples.add(hitRatio);
+		samples.add(size);
+		return samples;
+	}
+
+	private CounterMetricFamily counter(String name, String help) {
+		return new CounterMetricFamily(PREFIX + name, help, LABELS);
+	}
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.taglib.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.appng.core.controller.filter.MetricsFilter;
+import org.appng.search.searcher.ManagedIndex;
+
+import io.prometheus.client.Collector;
+import io.prometheus.client.CollectorRegistry;
+import io.prometheus.client.CounterMetricFamily;
+import io.prometheus.client.GaugeMetricFamily;
+
+/**
+ * A {@link Collector} exporting the warm-up statistics of a site's {@link ManagedIndex}. All metrics are labelled with
+ * {@code site} and {@code directory}:
+ * <ul>
+ * <li>{@code appng_search_warmups_total}: the number of warm-ups, i.e. the number of readers opened</li>
+ * <li>{@code appng_search_warmup_seconds_total}: the total time spent in warm-ups</li>
+ * <li>{@code appng_search_warmup_last_seconds}: the duration of the last warm-up</li>
+ * <li>{@code appng_search_warmup_errors_total}: the number of failed warm-up queries</li>
+ * </ul>
+ */
+class SearchIndexMetrics extends Collector {
+
+	private static final String PREFIX = "appng_search_";
+	private static final List<String> LABELS = Arrays.asList("site", "directory");
+	private static final Set<CollectorRegistry> REGISTERED = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+	private final String site;
+
+	private SearchIndexMetrics(String site) {
+		this.site = site;
+	}
+
+	/**
+	 * Registers the {@link SearchIndexMetrics} for the given site, if metrics are enabled and they are not registered
+	 * yet.
+	 * 
+	 * @param site
+	 *             the name of the site
+	 */
+	static void register(String site) {
+		CollectorRegistry registry = MetricsFilter.getRegistry(site);
+		if (null != registry && REGISTERED.add(registry)) {
+			new SearchIndexMetrics(site).register(registry);
+		}
+	}
+
+	@Override
+	public List<MetricFamilySamples> collect() {
+		CounterMetricFamily warmups = new CounterMetricFamily(PREFIX + "warmups",
+				"number of warm-ups, i.e. readers opened", LABELS);
+		CounterMetricFamily warmupSeconds = new CounterMetricFamily(PREFIX + "warmup_seconds",
+				"total time spent in warm-ups", LABELS);
+		GaugeMetricFamily lastWarmup = new GaugeMetricFamily(PREFIX + "warmup_last_seconds",
+				"duration of the last warm-up", LABELS);
+		CounterMetricFamily warmupErrors = new CounterMetricFamily(PREFIX + "warmup_errors",
+				"number of failed warm-up queries", LABELS);
+		ManagedIndex index = ManagedIndex.get(site);
+		if (null != index) {
+			List<String> labels = Arrays.asList(site, index.getType().name().toLowerCase());
+			warmups.addMetric(labels, index.getWarmups());
+			warmupSeconds.addMetric(labels, index.getWarmupSeconds());
+			lastWarmup.addMetric(labels, index.getLastWarmupSeconds());
+			warmupErrors.addMetric(labels, index.getWarmupErrors());
+		}
+		List<MetricFamilySamples> samples = new ArrayList<>();
+		samples.add(warmups);
+		samples.add(warmupSeconds);
+		samples.add(lastWarmup);
+		samples.add(warmupErrors);
+		return samples;
+	}
+
+}
@@ -51,6 +51,16 @@ import lombok.extern.slf4j.Slf4j;
  *    &lt;/appNG:searchPart>
  * </pre>
  * 
+ * The global part additionally supports paging and facets (see {@link org.appng.search.searcher.StandardSearcher}):
+ * 
+ * <pre>
+ * &lt;appNG:searchPart application="global" language="en" title="Search Results" fields="title,contents"
+ *  analyzerClass="org.apache.lucene.analysis.en.EnglishAnalyzer">
+ *    &lt;appNG:param name="maxHits">50&lt;/appNG:param>
+ *    &lt;appNG:param name="facets">type,folder,date&lt;/appNG:param>
+ *    &lt;/appNG:searchPart>
+ * </pre>
+ * 
  * @see SearchProvider
  * 
  * @author Matthias Müller
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.taglib.search;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import javax.servlet.ServletRequest;
+import javax.servlet.jsp.JspException;
+import javax.servlet.jsp.tagext.TagSupport;
+
+import org.apache.commons.lang3.StringUtils;
+import org.appng.api.Environment;
+import org.appng.api.RequestUtil;
+import org.appng.api.SiteProperties;
+import org.appng.api.model.Properties;
+import org.appng.api.model.Site;
+import org.appng.api.support.environment.DefaultEnvironment;
+import org.appng.search.json.Json;
+import org.appng.search.searcher.SearchFormatter;
+import org.appng.search.searcher.Suggester;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * This class represents a Suggest Tag used in JSP. It writes a JSON array containing the autocomplete suggestions for
+ * the term given as a request parameter, taken from the titles of the documents in the site's global index (see
+ * {@link Suggester}).
+ * <p/>
+ * <b>Attributes (defaults in brackets):</b>
+ * <ul>
+ * <li>language (<none>) - the language of the documents to take into account</li>
+ * <li>count (10) - the maximum number of suggestions</li>
+ * <li>queryParam ({@value org.appng.search.searcher.SearchFormatter#DEFAULT_QUERY_PARAM}) - the name of the request
+ * parameter that contains the term</li>
+ * </ul>
+ * <p/>
+ * <b>Usage:</b>
+ * 
+ * <pre>
+ * &lt;%@ page contentType="application/json; charset=UTF-8"%>
+ * &lt;appNG:suggest language="en" count="5" />
+ * </pre>
+ * 
+ * @see Search
+ */
+@Slf4j
+public class Suggest extends TagSupport {
+
+	private static final long serialVersionUID = 1L;
+	private static final int DEFAULT_COUNT = 10;
+	private String language;
+	private Integer count;
+	private String queryParam;
+
+	@Override
+	public int doEndTag() throws JspException {
+		ServletRequest servletRequest = pageContext.getRequest();
+		String queryParamName = StringUtils.defaultIfBlank(queryParam, SearchFormatter.DEFAULT_QUERY_PARAM);
+		String term = servletRequest.getParameter(queryParamName);
+		try {
+			List<String> suggestions = getSuggestions(servletRequest, term);
+			pageContext.getOut().write(new Json().toJson(suggestions));
+		} catch (IOException e) {
+			LOGGER.error("error in doEndTag()", e);
+		} finally {
+			clear();
+		}
+		return super.doEndTag();
+	}
+
+	private List<String> getSuggestions(ServletRequest servletRequest, String term) {
+		Environment env = DefaultEnvironment.get(pageContext);
+		Site site = RequestUtil.getSite(env, servletRequest);
+		Properties siteProperties = site.getProperties();
+		String siteRootDir = siteProperties.getString(SiteProperties.SITE_ROOT_DIR);
+		File indexDir = new File(siteRootDir + siteProperties.getString(SiteProperties.INDEX_DIR));
+		long start = System.nanoTime();
+		List<String> suggestions = Suggester.getInstance(indexDir).suggest(term, language,
+				null == count ? DEFAULT_COUNT : count);
+		LOGGER.debug("found {} suggestion(s) for '{}' in {}µs", suggestions.size(), term,
+				(System.nanoTime() - start) / 1000);
+		return suggestions;
+	}
+
+	private void clear() {
+		language = null;
+		count = null;
+		queryParam = null;
+	}
+
+	public String getLanguage() {
+		return language;
+	}
+
+	public void setLanguage(String language) {
+		this.language = language;
+	}
+
+	public Integer getCount() {
+		return count;
+	}
+
+	public void setCount(Integer count) {
+		this.count = count;
+	}
+
+	public String getQueryParam() {
+		return queryParam;
+	}
+
+	public void setQueryParam(String queryParam) {
+		this.queryParam = queryParam;
+	}
+
+}
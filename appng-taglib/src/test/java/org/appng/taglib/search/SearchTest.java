@@ -23,11 +23,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
 
 import javax.servlet.ServletContext;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
+import javax.servlet.jsp.JspException;
 import javax.servlet.jsp.JspWriter;
 import javax.servlet.jsp.PageContext;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -44,6 +46,7 @@ import org.apache.lucene.index.IndexableField;
 import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
+import org.appng.api.Environment;
 import org.appng.api.Platform;
 import org.appng.api.Scope;
 import org.appng.api.SiteProperties;
@@ -51,6 +54,9 @@ import org.appng.api.VHostMode;
 import org.appng.api.model.Properties;
 import org.appng.api.model.Site;
 import org.appng.api.search.Document;
+import org.appng.search.json.Part;
+import org.appng.search.searcher.SearchExecutors;
+import org.appng.search.searcher.SearchResultCache;
 import org.junit.Assert;
 import org.junit.Test;
 import org.mockito.Mock;
@@ -191,5 +197,66 @@ public class SearchTest extends Search {
 		Assert.assertNull(getFormat());
 		Assert.assertNull(getHighlight());
 		Assert.assertTrue(getParts().isEmpty());
+
+		Mockito.when(siteProperties.getInteger(Mockito.eq(SiteProperties.SEARCH_CACHE_SIZE), Mockito.any()))
+				.thenReturn(10);
+		for (int i = 0; i < 2; i++) {
+			setFormat("json");
+			setParts(true);
+			globalPart.setApplication("global");
+			globalPart.setLanguage("en");
+			globalPart.setFields(Document.FIELD_TITLE);
+			globalPart.setAnalyzerClass(EnglishAnalyzer.class.getName());
+			globalPart.addParameter("excludeTypes", "com.foo.Bar");
+			globalPart.doEndTag();
+			doEndTag();
+			Assert.assertEquals(result.get(0), result.get(i + 1));
+		}
+		SearchResultCache<?> cache = SearchResultCache.getInstances(LOCALHOST).get(CACHE_NAME);
+		Assert.assertEquals(1, cache.getHits());
+		Assert.assertEquals(1, cache.getMisses());
+	}
+
+	@Test(timeout = 10000)
+	public void testParallelParts() throws Exception {
+		MockitoAnnotations.initMocks(this);
+		Mockito.when(site.getName()).thenReturn("parallel");
+		Mockito.when(site.getProperties()).thenReturn(siteProperties);
+		Mockito.when(siteProperties.getInteger(Mockito.eq(SiteProperties.SEARCH_PART_THREADS), Mockito.any()))
+				.thenReturn(2);
+		Mockito.when(siteProperties.getInteger(Mockito.eq(SiteProperties.SEARCH_PART_TIMEOUT), Mockito.any()))
+				.thenReturn(500);
+		Search search = new Search() {
+			@Override
+			protected PartSearch preparePart(Environment env, HttpServletRequest servletRequest, Site site,
+					SearchPart part, String term, Directory directory, Integer maxTextLength, String fillWith) {
+				long sleep = Long.valueOf(part.getMethod());
+				String title = part.getTitle();
+				return searchEnv -> {
+					try {
+						Thread.sleep(sleep);
+					} catch (InterruptedException e) {
+						return null;
+					}
+					if ("failing".equals(title)) {
+						throw new JspException("failed");
+					}
+					return new Part(title);
+				};
+			}
+		};
+		for (String[] config : new String[][] { { "slow", "5000" }, { "first", "200" }, { "failing", "0" },
+				{ "second", "0" } }) {
+			SearchPart part = new SearchPart();
+			part.setTitle(config[0]);
+			part.setMethod(config[1]);
+			search.addPart(part);
+		}
+		long start = System.currentTimeMillis();
+		List<Part> results = search.processParts(null, servletRequest, site, "term", null, 150, "...");
+		Assert.assertTrue(System.currentTimeMillis() - start < 2000);
+		Assert.assertEquals(Arrays.asList("first", "second"),
+				results.stream().map(Part::getPart).collect(Collectors.toList()));
+		SearchExecutors.shutdown("parallel");
 	}
 }
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.taglib.search;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpSession;
+import javax.servlet.jsp.JspWriter;
+import javax.servlet.jsp.PageContext;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.appng.api.Platform;
+import org.appng.api.Scope;
+import org.appng.api.SiteProperties;
+import org.appng.api.VHostMode;
+import org.appng.api.model.Properties;
+import org.appng.api.model.Site;
+import org.appng.api.search.Document;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class SuggestTest {
+
+	@Test
+	public void testSuggest() throws Exception {
+		File indexDir = new File("target/suggest-index");
+		FileUtils.deleteDirectory(indexDir);
+		try (Directory directory = FSDirectory.open(indexDir.toPath());
+				IndexWriter indexWriter = new IndexWriter(directory, new IndexWriterConfig(new EnglishAnalyzer()))) {
+			for (String title : Arrays.asList("A Hitchhiker", "The Hitchhiker's Guide to the Galaxy", "Galaxy")) {
+				indexWriter.addDocument(Arrays.asList(new TextField(Document.FIELD_TITLE, title, Store.YES),
+						new StringField(Document.FIELD_LANGUAGE, "en", Store.YES)));
+			}
+		}
+
+		PageContext pageContext = Mockito.mock(PageContext.class);
+		HttpServletRequest servletRequest = Mockito.mock(HttpServletRequest.class);
+		ServletContext servletContext = Mockito.mock(ServletContext.class);
+		HttpSession session = Mockito.mock(HttpSession.class);
+		JspWriter jspWriter = Mockito.mock(JspWriter.class);
+		Site site = Mockito.mock(Site.class);
+		Properties siteProperties = Mockito.mock(Properties.class);
+		Properties platformProperties = Mockito.mock(Properties.class);
+
+		Mockito.when(pageContext.getRequest()).thenReturn(servletRequest);
+		Mockito.when(pageContext.getServletContext()).thenReturn(servletContext);
+		Mockito.when(pageContext.getSession()).thenReturn(session);
+		Mockito.when(pageContext.getOut()).thenReturn(jspWriter);
+		List<String> result = new ArrayList<>();
+		Mockito.doAnswer(i -> result.add((String) i.getArguments()[0])).when(jspWriter).write(Mockito.anyString());
+
+		ConcurrentMap<String, Object> platformEnv = new ConcurrentHashMap<>();
+		Mockito.when(servletContext.getAttribute(Scope.PLATFORM.name())).thenReturn(platformEnv);
+		Mockito.when(platformProperties.getString(Platform.Property.VHOST_MODE))
+				.thenReturn(VHostMode.NAME_BASED.name());
+		platformEnv.put(Platform.Environment.PLATFORM_CONFIG, platformProperties);
+		Map<String, Site> siteMap = new HashMap<>();
+		siteMap.put("localhost", site);
+		platformEnv.put("sites", siteMap);
+		Mockito.when(site.getHost()).thenReturn("localhost");
+		Mockito.when(site.getProperties()).thenReturn(siteProperties);
+		Mockito.when(siteProperties.getString(SiteProperties.SITE_ROOT_DIR)).thenReturn("");
+		Mockito.when(siteProperties.getString(SiteProperties.INDEX_DIR)).thenReturn(indexDir.getPath());
+		Mockito.when(servletRequest.getServerName()).thenReturn("localhost");
+		Mockito.when(servletRequest.getServletContext()).thenReturn(servletContext);
+		Mockito.when(servletRequest.getSession()).thenReturn(session);
+		Mockito.when(servletRequest.getParameter("term")).thenReturn("hitchi");
+		Mockito.when(servletRequest.getParameter("q")).thenReturn("galx");
+
+		Suggest suggest = new Suggest();
+		suggest.setPageContext(pageContext);
+		suggest.setLanguage("en");
+		suggest.setQueryParam("term");
+		suggest.doEndTag();
+		Assert.assertEquals("[\"Hitchhiker\"]", result.get(0));
+		Assert.assertNull(suggest.getLanguage());
+		Assert.assertNull(suggest.getQueryParam());
+
+		suggest.setLanguage("en");
+		suggest.setCount(1);
+		suggest.doEndTag();
+		Assert.assertEquals("[\"Galaxy\"]", result.get(1));
+	}
+
+}
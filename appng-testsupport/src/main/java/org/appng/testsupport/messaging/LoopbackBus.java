@@ -0,0 +1,243 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.testsupport.messaging;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A simulated network connecting the {@link LoopbackReceiver}s of several nodes within the same JVM. Every message
+ * published to the bus is delivered to all receivers that joined it. The network conditions can be configured:
+ * <ul>
+ * <li>{@link #latency(long)} and {@link #jitter(long)}: the (randomly varying) delay before a message is delivered
+ * </li>
+ * <li>{@link #lossRate(double)}: the probability of a message not being delivered to a receiver</li>
+ * <li>{@link #reorderRate(double, long)}: the probability of a message being delayed additionally, so that messages
+ * published later on overtake it</li>
+ * </ul>
+ * Use {@link #seed(long)} to get repeatable results.
+ */
+@Slf4j
+public class LoopbackBus implements Closeable {
+
+	public static final String DEFAULT = "default";
+	private static final Map<String, LoopbackBus> BUSES = new ConcurrentHashMap<>();
+	private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+	private final String name;
+	private final List<LoopbackReceiver> receivers = new CopyOnWriteArrayList<>();
+	private final ScheduledExecutorService scheduler;
+	private final AtomicLong published = new AtomicLong();
+	private final AtomicLong delivered = new AtomicLong();
+	private final AtomicLong lost = new AtomicLong();
+	private final AtomicLong reordered = new AtomicLong();
+	private Random random = new Random();
+	private volatile long latency;
+	private volatile long jitter;
+	private volatile double lossRate;
+	private volatile double reorderRate;
+	private volatile long reorderDelay;
+
+	LoopbackBus(String name) {
+		this.name = name;
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "loopback-bus-" + name + "-" + THREAD_COUNT.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Returns the bus with the given name, creating it if necessary
+	 * 
+	 * @param  name
+	 *              the name of the bus
+	 * 
+	 * @return      the bus
+	 */
+	public static LoopbackBus get(String name) {
+		return BUSES.computeIfAbsent(name, LoopbackBus::new);
+	}
+
+	/**
+	 * Sets the delay before a message is delivered
+	 * 
+	 * @param  millis
+	 *                the delay in milliseconds
+	 * 
+	 * @return        this bus
+	 */
+	public LoopbackBus latency(long millis) {
+		this.latency = millis;
+		return this;
+	}
+
+	/**
+	 * Sets the maximum random delay added to the latency
+	 * 
+	 * @param  millis
+	 *                the maximum delay in milliseconds
+	 * 
+	 * @return        this bus
+	 */
+	public LoopbackBus jitter(long millis) {
+		this.jitter = millis;
+		return this;
+	}
+
+	/**
+	 * Sets the probability of a message getting lost
+	 * 
+	 * @param  rate
+	 *              the probability, between 0 and 1
+	 * 
+	 * @return      this bus
+	 */
+	public LoopbackBus lossRate(double rate) {
+		this.lossRate = rate;
+		return this;
+	}
+
+	/**
+	 * Sets the probability of a message being delayed additionally
+	 * 
+	 * @param  rate
+	 *                     the probability, between 0 and 1
+	 * @param  delayMillis
+	 *                     the additional delay in milliseconds
+	 * 
+	 * @return             this bus
+	 */
+	public LoopbackBus reorderRate(double rate, long delayMillis) {
+		this.reorderRate = rate;
+		this.reorderDelay = delayMillis;
+		return this;
+	}
+
+	/**
+	 * Sets the seed for the random decisions of this bus
+	 * 
+	 * @param  seed
+	 *              the seed
+	 * 
+	 * @return      this bus
+	 */
+	public synchronized LoopbackBus seed(long seed) {
+		this.random = new Random(seed);
+		return this;
+	}
+
+	void join(LoopbackReceiver receiver) {
+		receivers.add(receiver);
+		LOGGER.debug("{} joined bus {}", receiver, name);
+	}
+
+	void leave(LoopbackReceiver receiver) {
+		receivers.remove(receiver);
+		LOGGER.debug("{} left bus {}", receiver, name);
+	}
+
+	void publish(byte[] data) {
+		published.incrementAndGet();
+		for (LoopbackReceiver receiver : receivers) {
+			long delay;
+			synchronized (this) {
+				if (random.nextDouble() < lossRate) {
+					lost.incrementAndGet();
+					continue;
+				}
+				delay = latency + (jitter > 0 ? (long) (random.nextDouble() * jitter) : 0);
+				if (random.nextDouble() < reorderRate) {
+					reordered.incrementAndGet();
+					delay += reorderDelay;
+				}
+			}
+			if (delay > 0) {
+				scheduler.schedule(() -> deliver(receiver, data), delay, TimeUnit.MILLISECONDS);
+			} else {
+				deliver(receiver, data);
+			}
+		}
+	}
+
+	private void deliver(LoopbackReceiver receiver, byte[] data) {
+		delivered.incrementAndGet();
+		receiver.deliver(data);
+	}
+
+	/**
+	 * Resets the counters of this bus
+	 */
+	public void reset() {
+		published.set(0);
+		delivered.set(0);
+		lost.set(0);
+		reordered.set(0);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getReceiverCount() {
+		return receivers.size();
+	}
+
+	/** Returns the number of messages published to this bus */
+	public long getPublished() {
+		return published.get();
+	}
+
+	/** Returns the number of messages delivered to a receiver, each receiver counting separately */
+	public long getDelivered() {
+		return delivered.get();
+	}
+
+	/** Returns the number of messages lost, each receiver counting separately */
+	public long getLost() {
+		return lost.get();
+	}
+
+	/** Returns the number of messages that have been delayed additionally */
+	public long getReordered() {
+		return reordered.get();
+	}
+
+	/**
+	 * Removes this bus, discarding pending messages
+	 */
+	public void close() {
+		BUSES.remove(name, this);
+		scheduler.shutdownNow();
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "#" + name;
+	}
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.testsupport.messaging;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.StringUtils;
+import org.appng.api.messaging.Event;
+import org.appng.api.messaging.EventHandler;
+import org.appng.api.messaging.EventRegistry;
+import org.appng.api.messaging.Receiver;
+import org.appng.api.messaging.Sender;
+import org.appng.api.messaging.Serializer;
+import org.appng.api.model.Properties;
+import org.appng.api.model.Site;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A {@link Receiver} connected to a {@link LoopbackBus}, allowing to simulate several cluster nodes within one JVM.
+ * Following platform properties are supported (default value in brackets):
+ * <ul>
+ * <li>{@code loopbackBus} ({@value LoopbackBus#DEFAULT}): the name of the {@link LoopbackBus} to join</li>
+ * </ul>
+ * Each receiver handles the received {@link Event}s sequentially, using its own thread. Events originating from the
+ * receiver's own node are ignored.
+ * 
+ * @see MessagingLoadHarness
+ */
+@Slf4j
+public class LoopbackReceiver implements Receiver {
+
+	public static final String LOOPBACK_BUS = "loopbackBus";
+
+	private final EventRegistry eventRegistry = new EventRegistry();
+	private final AtomicLong received = new AtomicLong();
+	private Serializer serializer;
+	private LoopbackBus bus;
+	private ExecutorService executor;
+
+	public LoopbackReceiver configure(Serializer serializer) {
+		this.serializer = serializer;
+		Properties platformConfig = serializer.getPlatformConfig();
+		String busName = null == platformConfig ? null : platformConfig.getString(LOOPBACK_BUS);
+		this.bus = LoopbackBus.get(StringUtils.defaultIfBlank(busName, LoopbackBus.DEFAULT));
+		return this;
+	}
+
+	public Sender createSender() {
+		return new LoopbackSender(bus).configure(serializer);
+	}
+
+	public void runWith(ExecutorService executorService) {
+		this.executor = Executors.newSingleThreadExecutor(r -> {
+			Thread thread = new Thread(r, "loopback-receiver-" + serializer.getNodeId());
+			thread.setDaemon(true);
+			return thread;
+		});
+		bus.join(this);
+	}
+
+	void deliver(byte[] data) {
+		if (null != executor && !executor.isShutdown()) {
+			executor.execute(() -> onMessage(data));
+		}
+	}
+
+	private void onMessage(byte[] data) {
+		Event event = serializer.deserialize(data);
+		if (null == event) {
+			LOGGER.debug("could not read event");
+			return;
+		}
+		if (StringUtils.equals(serializer.getNodeId(), event.getNodeId())) {
+			return;
+		}
+		received.incrementAndGet();
+		String siteName = event.getSiteName();
+		Site site = StringUtils.isNotBlank(siteName) ? serializer.getSite(siteName) : null;
+		for (EventHandler<Event> eventHandler : eventRegistry.getHandlers(event)) {
+			try {
+				eventHandler.onEvent(event, serializer.getEnvironment(), site);
+			} catch (Exception e) {
+				LOGGER.error(String.format("Error while executing event %s with %s", event,
+						eventHandler.getClass().getName()), e);
+			}
+		}
+	}
+
+	public void registerHandler(EventHandler<?> handler) {
+		eventRegistry.register(handler);
+	}
+
+	public void setDefaultHandler(EventHandler<?> defaultHandler) {
+		eventRegistry.setDefaultHandler(defaultHandler);
+	}
+
+	/** Returns the number of events received from other nodes */
+	public long getReceived() {
+		return received.get();
+	}
+
+	public LoopbackBus getBus() {
+		return bus;
+	}
+
+	public void close() {
+		if (null != bus) {
+			bus.leave(this);
+		}
+		if (null != executor) {
+			executor.shutdownNow();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "#" + (null == serializer ? null : serializer.getNodeId());
+	}
+
+}
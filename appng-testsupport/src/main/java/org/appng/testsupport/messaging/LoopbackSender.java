@@ -0,0 +1,60 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.testsupport.messaging;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.appng.api.messaging.Event;
+import org.appng.api.messaging.Sender;
+import org.appng.api.messaging.Serializer;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A {@link Sender} publishing {@link Event}s to a {@link LoopbackBus}.
+ * 
+ * @see LoopbackReceiver
+ */
+@Slf4j
+public class LoopbackSender implements Sender {
+
+	private final LoopbackBus bus;
+	private Serializer serializer;
+
+	LoopbackSender(LoopbackBus bus) {
+		this.bus = bus;
+	}
+
+	public LoopbackSender configure(Serializer serializer) {
+		this.serializer = serializer;
+		return this;
+	}
+
+	public boolean send(Event event) {
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			serializer.serialize(out, event);
+			bus.publish(out.toByteArray());
+			LOGGER.debug("sent {} to {}", event, bus);
+			return true;
+		} catch (IOException e) {
+			LOGGER.error(String.format("error while sending %s", event), e);
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,319 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.testsupport.messaging;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.appng.api.Environment;
+import org.appng.api.Platform;
+import org.appng.api.Scope;
+import org.appng.api.messaging.Event;
+import org.appng.api.messaging.EventHandler;
+import org.appng.api.messaging.Messaging;
+import org.appng.api.messaging.Sender;
+import org.appng.api.model.Property;
+import org.appng.api.model.Site;
+import org.appng.api.support.PropertyHolder;
+import org.appng.api.support.environment.DefaultEnvironment;
+import org.springframework.mock.web.MockServletContext;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Connects several simulated cluster nodes through a {@link LoopbackBus} and measures the event throughput and the
+ * end-to-end latency. Each node has its own {@link Environment} and its own {@link LoopbackReceiver}, created by
+ * {@link Messaging#createMessageSender(Environment, ExecutorService, String, EventHandler, Iterable)}. Received events
+ * are performed by the receiving node, so the harness can also be used to test clustered behaviour.
+ * 
+ * <pre>
+ * try (MessagingLoadHarness harness = new MessagingLoadHarness("test", 3)) {
+ * 	harness.getBus().latency(1).lossRate(0.01);
+ * 	Result result = harness.run(1000, 10, TimeUnit.SECONDS);
+ * }
+ * </pre>
+ */
+@Slf4j
+public class MessagingLoadHarness implements Closeable {
+
+	static final String RECORDER = MessagingLoadHarness.class.getName() + ".recorder";
+
+	private final LoopbackBus bus;
+	private final List<Node> nodes = new ArrayList<>();
+	private final Recorder recorder = new Recorder();
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+
+	/**
+	 * Creates a new harness
+	 * 
+	 * @param busName
+	 *                 the name of the {@link LoopbackBus} to use, should be unique
+	 * @param numNodes
+	 *                 the number of nodes
+	 */
+	public MessagingLoadHarness(String busName, int numNodes) {
+		this(busName, numNodes, Collections.emptyMap());
+	}
+
+	/**
+	 * Creates a new harness
+	 * 
+	 * @param busName
+	 *                       the name of the {@link LoopbackBus} to use, should be unique
+	 * @param numNodes
+	 *                       the number of nodes
+	 * @param platformConfig
+	 *                       additional platform properties for each node
+	 */
+	public MessagingLoadHarness(String busName, int numNodes, Map<String, Object> platformConfig) {
+		this.bus = LoopbackBus.get(busName);
+		for (int i = 1; i <= numNodes; i++) {
+			nodes.add(new Node("node" + i, busName, platformConfig, recorder, executor));
+		}
+	}
+
+	/**
+	 * Sends the given number of events from each node concurrently and waits until all events that have not been lost
+	 * have been received.
+	 * 
+	 * @param  eventsPerNode
+	 *                              the number of events to send from each node
+	 * @param  timeout
+	 *                              the maximum time to wait
+	 * @param  unit
+	 *                              the {@link TimeUnit} of the timeout
+	 * 
+	 * @return                      the {@link Result}
+	 * 
+	 * @throws InterruptedException
+	 *                              if the current thread is interrupted while waiting
+	 */
+	public Result run(int eventsPerNode, long timeout, TimeUnit unit) throws InterruptedException {
+		bus.reset();
+		recorder.reset();
+		long start = System.nanoTime();
+		List<Runnable> senders = new ArrayList<>();
+		for (Node node : nodes) {
+			senders.add(() -> {
+				for (int i = 0; i < eventsPerNode; i++) {
+					node.send(new LoadEvent(System.nanoTime()));
+				}
+			});
+		}
+		senders.forEach(executor::execute);
+
+		long published = (long) eventsPerNode * nodes.size();
+		long deadline = start + unit.toNanos(timeout);
+		// every event is also delivered to the sending node, which ignores it
+		while (!(bus.getPublished() == published
+				&& recorder.received.get() + bus.getLost() >= published * (nodes.size() - 1))
+				&& System.nanoTime() < deadline) {
+			synchronized (recorder) {
+				recorder.wait(10);
+			}
+		}
+		long duration = System.nanoTime() - start;
+		Result result = new Result(published, recorder.received.get(), bus.getLost(), bus.getReordered(), duration,
+				recorder.latencies());
+		LOGGER.info("{}", result);
+		return result;
+	}
+
+	public LoopbackBus getBus() {
+		return bus;
+	}
+
+	public List<Node> getNodes() {
+		return Collections.unmodifiableList(nodes);
+	}
+
+	public void close() {
+		nodes.forEach(n -> Messaging.shutdown(n.getEnvironment()));
+		executor.shutdownNow();
+		bus.close();
+	}
+
+	/**
+	 * A simulated cluster node
+	 */
+	@Getter
+	public static class Node {
+		private final String nodeId;
+		private final DefaultEnvironment environment;
+		private final Sender sender;
+
+		Node(String nodeId, String busName, Map<String, Object> properties, Recorder recorder,
+				ExecutorService executor) {
+			this.nodeId = nodeId;
+			this.environment = DefaultEnvironment.get(new MockServletContext());
+			PropertyHolder platformConfig = new PropertyHolder();
+			platformConfig.addProperty(Platform.Property.MESSAGING_ENABLED, true, null, Property.Type.BOOLEAN);
+			platformConfig.addProperty(Platform.Property.MESSAGING_RECEIVER, LoopbackReceiver.class.getName(), null,
+					Property.Type.TEXT);
+			platformConfig.addProperty(LoopbackReceiver.LOOPBACK_BUS, busName, null, Property.Type.TEXT);
+			properties.forEach((k, v) -> platformConfig.addProperty(k, v, null, Property.Type.forObject(v)));
+			environment.setAttribute(Scope.PLATFORM, Platform.Environment.PLATFORM_CONFIG, platformConfig);
+			environment.setAttribute(Scope.PLATFORM, Platform.Environment.SITES, new HashMap<String, Site>());
+			environment.setAttribute(Scope.PLATFORM, RECORDER, recorder);
+			this.sender = Messaging.createMessageSender(environment, executor, nodeId, new PerformingHandler(),
+					null);
+		}
+
+		/**
+		 * Sends an {@link Event} from this node
+		 * 
+		 * @param  event
+		 *               the {@link Event} to send
+		 * 
+		 * @return       {@code true} if the event has been sent
+		 */
+		public boolean send(Event event) {
+			return sender.send(event);
+		}
+
+		public LoopbackReceiver getReceiver() {
+			return environment.getAttribute(Scope.PLATFORM, Platform.Environment.MESSAGE_RECEIVER);
+		}
+	}
+
+	/**
+	 * The result of a {@link MessagingLoadHarness#run(int, long, TimeUnit)}
+	 */
+	@Getter
+	public static class Result {
+		/** the number of events sent */
+		private final long sent;
+		/** the number of events received, each receiving node counting separately */
+		private final long received;
+		/** the number of events lost, each receiving node counting separately */
+		private final long lost;
+		/** the number of events delayed for reordering */
+		private final long reordered;
+		/** the duration of the run in nanoseconds */
+		private final long duration;
+		private final long[] latencies;
+
+		Result(long sent, long received, long lost, long reordered, long duration, long[] latencies) {
+			this.sent = sent;
+			this.received = received;
+			this.lost = lost;
+			this.reordered = reordered;
+			this.duration = duration;
+			this.latencies = latencies;
+		}
+
+		/**
+		 * Returns the number of received events per second
+		 * 
+		 * @return the throughput
+		 */
+		public double getThroughput() {
+			return received / (duration / (double) TimeUnit.SECONDS.toNanos(1));
+		}
+
+		/**
+		 * Returns the given percentile of the end-to-end latencies
+		 * 
+		 * @param  percentile
+		 *                    the percentile, between 0 and 100
+		 * 
+		 * @return            the latency in milliseconds
+		 */
+		public double getLatency(double percentile) {
+			if (latencies.length == 0) {
+				return 0;
+			}
+			int index = (int) Math.ceil(percentile / 100 * latencies.length) - 1;
+			return latencies[Math.max(0, Math.min(index, latencies.length - 1))]
+					/ (double) TimeUnit.MILLISECONDS.toNanos(1);
+		}
+
+		@Override
+		public String toString() {
+			return String.format(
+					"sent: %d, received: %d, lost: %d, reordered: %d, throughput: %.1f/s, latency p50: %.3fms, p99: %.3fms, max: %.3fms",
+					sent, received, lost, reordered, getThroughput(), getLatency(50), getLatency(99), getLatency(100));
+		}
+	}
+
+	static class Recorder {
+		private final AtomicLong received = new AtomicLong();
+		private final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+
+		void record(long latency) {
+			latencies.add(latency);
+			received.incrementAndGet();
+			synchronized (this) {
+				notifyAll();
+			}
+		}
+
+		void reset() {
+			received.set(0);
+			latencies.clear();
+		}
+
+		long[] latencies() {
+			long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+			Arrays.sort(sorted);
+			return sorted;
+		}
+	}
+
+	/**
+	 * An {@link Event} carrying the time it was sent at
+	 */
+	public static class LoadEvent extends Event {
+		private final long sentAt;
+
+		public LoadEvent(long sentAt) {
+			super(null);
+			this.sentAt = sentAt;
+		}
+
+		public void perform(Environment environment, Site site) {
+			Recorder recorder = environment.getAttribute(Scope.PLATFORM, RECORDER);
+			recorder.record(System.nanoTime() - sentAt);
+		}
+	}
+
+	static class PerformingHandler implements EventHandler<Event> {
+
+		public void onEvent(Event event, Environment environment, Site site) {
+			try {
+				event.perform(environment, site);
+			} catch (Exception e) {
+				LOGGER.error(String.format("error while performing %s", event), e);
+			}
+		}
+
+		public Class<Event> getEventClass() {
+			return Event.class;
+		}
+	}
+
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2011-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.appng.testsupport.messaging;
+
+import java.util.concurrent.TimeUnit;
+
+import org.appng.testsupport.messaging.MessagingLoadHarness.Result;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MessagingLoadHarnessTest {
+
+	@Test
+	public void testDelivery() throws InterruptedException {
+		try (MessagingLoadHarness harness = new MessagingLoadHarness("testDelivery", 3)) {
+			Assert.assertEquals(3, harness.getBus().getReceiverCount());
+			Result result = harness.run(100, 10, TimeUnit.SECONDS);
+			Assert.assertEquals(300, result.getSent());
+			Assert.assertEquals(600, result.getReceived());
+			Assert.assertEquals(0, result.getLost());
+			Assert.assertEquals(600, result.getLatencies().length);
+			Assert.assertTrue(result.getThroughput() > 0);
+			Assert.assertTrue(result.getLatency(50) <= result.getLatency(99));
+			for (MessagingLoadHarness.Node node : harness.getNodes()) {
+				Assert.assertEquals(200, node.getReceiver().getReceived());
+			}
+		}
+	}
+
+	@Test
+	public void testNetworkConditions() throws InterruptedException {
+		try (MessagingLoadHarness harness = new MessagingLoadHarness("testNetworkConditions", 3)) {
+			harness.getBus().seed(42).latency(2).jitter(2).lossRate(0.1).reorderRate(0.2, 5);
+			Result result = harness.run(100, 10, TimeUnit.SECONDS);
+			Assert.assertEquals(300, result.getSent());
+			Assert.assertTrue(result.getLost() > 0);
+			Assert.assertTrue(result.getReordered() > 0);
+			// each event is delivered to 3 nodes, the sending node ignores it
+			Assert.assertEquals(900, harness.getBus().getDelivered() + result.getLost());
+			Assert.assertTrue(result.getLatency(50) >= 2);
+		}
+	}
+
+}